@@ -10,7 +10,7 @@ import com.actiontech.dble.backend.datasource.PhysicalDbGroup;
 import com.actiontech.dble.backend.datasource.ShardingNode;
 import com.actiontech.dble.backend.mysql.xa.*;
 import com.actiontech.dble.backend.mysql.xa.recovery.Repository;
-import com.actiontech.dble.backend.mysql.xa.recovery.impl.FileSystemRepository;
+import com.actiontech.dble.backend.mysql.xa.recovery.impl.FileWALRepository;
 import com.actiontech.dble.backend.mysql.xa.recovery.impl.KVStoreRepository;
 import com.actiontech.dble.buffer.DirectByteBufferPool;
 import com.actiontech.dble.config.ServerConfig;
@@ -32,6 +32,7 @@ import com.actiontech.dble.server.variables.VarsExtractorHandler;
 import com.actiontech.dble.singleton.*;
 import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
 import com.actiontech.dble.util.ExecutorUtil;
+import com.actiontech.dble.util.ParkingConcurrentQueue;
 import com.actiontech.dble.util.TimeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -269,12 +270,13 @@ public final class DbleServer {
 
     private void initTaskQueue() {
         if (SystemConfig.getInstance().getUsePerformanceMode() == 1) {
-            concurrentFrontHandlerQueue = new ConcurrentLinkedQueue<>();
+            boolean park = SystemConfig.getInstance().getPerformanceModeWaitType() == 1;
+            concurrentFrontHandlerQueue = park ? new ParkingConcurrentQueue<>() : new ConcurrentLinkedQueue<>();
             for (int i = 0; i < SystemConfig.getInstance().getProcessorExecutor(); i++) {
                 businessExecutor.execute(new ConcurrentFrontEndHandlerRunnable(concurrentFrontHandlerQueue));
             }
 
-            concurrentBackHandlerQueue = new ConcurrentLinkedQueue<>();
+            concurrentBackHandlerQueue = park ? new ParkingConcurrentQueue<>() : new ConcurrentLinkedQueue<>();
             for (int i = 0; i < SystemConfig.getInstance().getBackendProcessorExecutor(); i++) {
                 backendBusinessExecutor.execute(new ConcurrentBackEndHandlerRunnable(concurrentBackHandlerQueue));
             }
@@ -512,7 +514,7 @@ public final class DbleServer {
      * covert the collection to array
      **/
     private CoordinatorLogEntry[] getCoordinatorLogEntries() {
-        Repository fileRepository = ClusterConfig.getInstance().isClusterEnable() && ClusterConfig.getInstance().useZkMode() ? new KVStoreRepository() : new FileSystemRepository();
+        Repository fileRepository = ClusterConfig.getInstance().isClusterEnable() && ClusterConfig.getInstance().useZkMode() ? new KVStoreRepository() : new FileWALRepository();
         Collection<CoordinatorLogEntry> allCoordinatorLogEntries = fileRepository.getAllCoordinatorLogEntries(true);
         fileRepository.close();
         if (allCoordinatorLogEntries == null) {
@@ -181,6 +181,10 @@ public abstract class PhysicalDbInstance {
         throw new IOException(name + " - Connection is not available, request timed out after " + (System.currentTimeMillis() - startTime) + "ms.");
     }
 
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
     public void release(BackendConnection connection) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("release {}", connection);
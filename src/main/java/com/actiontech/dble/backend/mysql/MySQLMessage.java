@@ -29,6 +29,16 @@ public class MySQLMessage {
         this.position = 0;
     }
 
+    /**
+     * the message of the packet at [offset, offset + length) in data, which may hold other packets,
+     * the position and the length are both indexes of data
+     */
+    public MySQLMessage(byte[] data, int offset, int length) {
+        this.data = data;
+        this.length = offset + length;
+        this.position = offset;
+    }
+
     public int length() {
         return length;
     }
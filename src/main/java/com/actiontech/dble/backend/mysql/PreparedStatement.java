@@ -5,6 +5,8 @@
 */
 package com.actiontech.dble.backend.mysql;
 
+import com.actiontech.dble.route.PreparedRouteTemplate;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
@@ -28,6 +30,8 @@ public class PreparedStatement {
      * </pre>
      */
     private Map<Long, ByteArrayOutputStream> longDataMap;
+    /* the route template built when it is first executed */
+    private PreparedRouteTemplate routeTemplate;
 
     public PreparedStatement(long id, String statement, int columnsNumber, int parametersNumber) {
         this.id = id;
@@ -93,4 +97,12 @@ public class PreparedStatement {
         return longDataMap;
     }
 
+    public PreparedRouteTemplate getRouteTemplate() {
+        return routeTemplate;
+    }
+
+    public void setRouteTemplate(PreparedRouteTemplate routeTemplate) {
+        this.routeTemplate = routeTemplate;
+    }
+
 }
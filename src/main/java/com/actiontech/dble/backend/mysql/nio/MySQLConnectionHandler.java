@@ -9,7 +9,10 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.nio.handler.LoadDataResponseHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.RowRelayHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.BaseSelectHandler;
 import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.PacketChunkHandler;
 import com.actiontech.dble.net.handler.BackendAsyncHandler;
 import com.actiontech.dble.net.mysql.*;
 import com.actiontech.dble.server.NonBlockingSession;
@@ -26,7 +29,7 @@ import java.util.concurrent.locks.LockSupport;
  *
  * @author mycat
  */
-public class MySQLConnectionHandler extends BackendAsyncHandler {
+public class MySQLConnectionHandler extends BackendAsyncHandler implements PacketChunkHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(MySQLConnectionHandler.class);
     private static final int RESULT_STATUS_INIT = 0;
     private static final int RESULT_STATUS_HEADER = 1;
@@ -51,16 +54,21 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
 
     @Override
     public void handle(byte[] data) {
+        handle(PacketChunk.wrap(data));
+    }
+
+    @Override
+    public void handle(PacketChunk chunk) {
         if (session != null) {
             if (session.isKilled()) return;
             session.setBackendResponseTime(source);
         }
         if (source.isComplexQuery()) {
-            offerData(data, DbleServer.getInstance().getComplexQueryExecutor());
+            offerData(chunk, DbleServer.getInstance().getComplexQueryExecutor());
         } else if (SystemConfig.getInstance().getUsePerformanceMode() == 1) {
-            offerData(data);
+            offerData(chunk);
         } else {
-            offerData(data, DbleServer.getInstance().getBackendBusinessExecutor());
+            offerData(chunk, DbleServer.getInstance().getBackendBusinessExecutor());
         }
     }
 
@@ -71,10 +79,69 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
     }
 
     @Override
-    protected void handleData(byte[] data) {
+    protected void handleChunk(PacketChunk chunk) {
+        int i = 0;
+        while (i < chunk.size()) {
+            int next = relayRows(chunk, i);
+            if (next == i) {
+                handleData(chunk, i);
+                next = i + 1;
+            }
+            i = next;
+        }
+    }
+
+    /**
+     * relay the contiguous row packets from index to the client at once if the handler sends the rows as they are
+     *
+     * @return the index after the rows relayed, index if nothing is relayed
+     */
+    private int relayRows(PacketChunk chunk, int index) {
+        ResponseHandler respHand = responseHandler;
+        if (resultStatus != RESULT_STATUS_FIELD_EOF || !(respHand instanceof RowRelayHandler) || source.isClosed()) {
+            return index;
+        }
+        int end = index;
+        // the merged big packet has its own path in rowResponse
+        while (end < chunk.size() && isRowPacket(chunk, end) &&
+                chunk.getLength(end) < MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE) {
+            end++;
+        }
+        if (end == index) {
+            return index;
+        }
+        int offset = chunk.getOffset(index);
+        int length = chunk.getOffset(end) - offset;
+        if (!((RowRelayHandler) respHand).relayRows(chunk.getData(), offset, length, end - index, source)) {
+            return index;
+        }
+        return end;
+    }
+
+    @Override
+    protected void handleData(PacketChunk chunk, int index) {
         if (source.isClosed()) {
             return;
         }
+        if (resultStatus == RESULT_STATUS_FIELD_EOF && isRowPacket(chunk, index)) {
+            handleRowPacket(chunk, index);
+        } else {
+            handlePacket(chunk.getPacket(index));
+        }
+    }
+
+    private boolean isRowPacket(PacketChunk chunk, int index) {
+        switch (chunk.getType(index)) {
+            case ErrorPacket.FIELD_COUNT:
+                return false;
+            case EOFPacket.FIELD_COUNT:
+                return chunk.getLength(index) > MySQLPacket.MAX_EOF_SIZE;
+            default:
+                return true;
+        }
+    }
+
+    private void handlePacket(byte[] data) {
         switch (resultStatus) {
             case RESULT_STATUS_INIT:
                 if (session != null) {
@@ -133,6 +200,14 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
         }
     }
 
+    @Override
+    protected void handleDataEnd() {
+        ResponseHandler respHand = responseHandler;
+        if (respHand instanceof BaseSelectHandler) {
+            ((BaseSelectHandler) respHand).flushRows(source);
+        }
+    }
+
     public void setResponseHandler(ResponseHandler responseHandler) {
         // logger.info("set response handler "+responseHandler);
         // if (this.responseHandler != null && responseHandler != null) {
@@ -208,6 +283,19 @@ public class MySQLConnectionHandler extends BackendAsyncHandler {
         }
     }
 
+    /**
+     * execute the Row Packet in the chunk, the select handler parses it in place,
+     * other handlers may keep the packet so it's copied out
+     */
+    private void handleRowPacket(PacketChunk chunk, int index) {
+        ResponseHandler respHand = responseHandler;
+        if (respHand instanceof BaseSelectHandler) {
+            ((BaseSelectHandler) respHand).rawRowResponse(chunk.getData(), chunk.getOffset(index), chunk.getLength(index), source);
+        } else {
+            handleRowPacket(chunk.getPacket(index));
+        }
+    }
+
     private void closeNoHandler() {
         if (!source.isClosed()) {
             source.close("no handler");
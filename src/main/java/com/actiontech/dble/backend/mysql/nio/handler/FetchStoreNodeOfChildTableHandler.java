@@ -19,6 +19,7 @@ import com.actiontech.dble.route.RouteResultsetNode;
 import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.parser.ServerParse;
 import com.actiontech.dble.singleton.CacheService;
+import com.actiontech.dble.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,9 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
     protected final ReentrantLock lock = new ReentrantLock();
     private Condition result = lock.newCondition();
     private final NonBlockingSession session;
+    // the join key value -> shardingNode, only for executeKeys
+    private volatile Map<String, String> keyNodes;
+    private volatile int expectKeyCount;
 
     public FetchStoreNodeOfChildTableHandler(String sql, NonBlockingSession session) {
         this.sql = sql;
@@ -62,15 +66,46 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
             }
         }
 
+        if (!fetch(shardingNodes)) {
+            return shardingNode;
+        }
+
+        if (!LOGGER.isDebugEnabled()) {
+            //no cached when debug
+            if (shardingNode != null && cache != null) {
+                cache.putIfAbsent(key, shardingNode);
+            }
+        }
+        return shardingNode;
+
+    }
+
+    /**
+     * the sql must select the join key values by IN, such as the ChildTableConfig.getLocateRTableKeysSql,
+     * all the values are found by one query in each shardingNode
+     *
+     * @return the join key value -> the shardingNode, the value not found is absent
+     */
+    public Map<String, String> executeKeys(List<String> shardingNodes, int keyCount) throws ConnectionException {
+        keyNodes = new ConcurrentHashMap<>();
+        expectKeyCount = keyCount;
+        fetch(shardingNodes);
+        return keyNodes;
+    }
+
+    /**
+     * @return false if the result is found before sending to all the shardingNodes
+     */
+    private boolean fetch(List<String> shardingNodes) throws ConnectionException {
         int totalCount = shardingNodes.size();
 
         LOGGER.debug("find child node with sql:" + sql);
         for (String dn : shardingNodes) {
             if (!LOGGER.isDebugEnabled()) {
                 //no early return when debug
-                if (shardingNode != null) {
+                if (isFound()) {
                     LOGGER.debug(" found return ");
-                    return shardingNode;
+                    return false;
                 }
             }
             ShardingNode mysqlDN = DbleServer.getInstance().getConfig().getShardingNodes().get(dn);
@@ -84,7 +119,7 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
                 if (session.tryExistsCon(conn, node)) {
                     if (session.closed()) {
                         session.clearResources(true);
-                        return null;
+                        return false;
                     }
                     conn.setResponseHandler(this);
                     conn.setSession(session);
@@ -120,15 +155,14 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
             fatalErrorMsg.append("}");
             throw new ConnectionException(ErrorCode.ER_UNKNOWN_ERROR, fatalErrorMsg.toString());
         }
+        return true;
+    }
 
-        if (!LOGGER.isDebugEnabled()) {
-            //no cached when debug
-            if (shardingNode != null && cache != null) {
-                cache.putIfAbsent(key, shardingNode);
-            }
+    private boolean isFound() {
+        if (keyNodes != null) {
+            return keyNodes.size() >= expectKeyCount;
         }
-        return shardingNode;
-
+        return shardingNode != null;
     }
 
     /**
@@ -202,6 +236,10 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("received rowResponse response from  " + conn);
         }
+        if (keyNodes != null) {
+            keyRowResponse(row, ((RouteResultsetNode) conn.getAttachment()).getName());
+            return false;
+        }
         if (hadResult.compareAndSet(false, true)) {
             lock.lock();
             try {
@@ -216,6 +254,19 @@ public class FetchStoreNodeOfChildTableHandler implements ResponseHandler {
         return false;
     }
 
+    private void keyRowResponse(byte[] row, String node) {
+        RowDataPacket rowDataPacket = new RowDataPacket(1);
+        rowDataPacket.read(row);
+        byte[] value = rowDataPacket.fieldValues.get(0);
+        if (value == null) {
+            return;
+        }
+        String key = StringUtil.decode(value, session.getSource().getCharset().getResults());
+        String oldNode = keyNodes.putIfAbsent(key, node);
+        if (oldNode != null && !oldNode.equals(node)) {
+            LOGGER.info("find multi shardingNodes for child table store, key is " + key + ", sql is:  " + sql);
+        }
+    }
 
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
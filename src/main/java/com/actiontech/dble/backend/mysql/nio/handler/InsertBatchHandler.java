@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.datasource.ShardingNode;
+import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.OkPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.statistic.stat.QueryResult;
+import com.actiontech.dble.statistic.stat.QueryResultDispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * execute the single row inserts of several sessions as one multi rows insert in autocommit,
+ * the OK of the insert is split into one OK for each session.
+ * if the insert fails, the rows are executed one by one so that each session gets its own result.
+ * only the inserts into the InnoDB tables without auto_increment column are coalesced, so the insert id is always 0
+ * and the failed insert leaves no row.
+ */
+public class InsertBatchHandler implements ResponseHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InsertBatchHandler.class);
+    private final String shardingNode;
+    // INSERT INTO t (..) VALUES
+    private final String insertHeader;
+    private final List<NonBlockingSession> sessions = new ArrayList<>();
+    private final List<RouteResultset> routes = new ArrayList<>();
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private RouteResultsetNode node;
+
+    public InsertBatchHandler(String shardingNode, String insertHeader) {
+        this.shardingNode = shardingNode;
+        this.insertHeader = insertHeader;
+    }
+
+    public void add(NonBlockingSession session, RouteResultset rrs) {
+        sessions.add(session);
+        routes.add(rrs);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    String getStatement() {
+        StringBuilder sb = new StringBuilder(insertHeader);
+        for (int i = 0; i < routes.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(routes.get(i).getInsertBatchRow());
+        }
+        return sb.toString();
+    }
+
+    public void execute() {
+        if (sessions.size() == 1) {
+            executeOneByOne();
+            return;
+        }
+        ShardingNode dn = DbleServer.getInstance().getConfig().getShardingNodes().get(shardingNode);
+        node = new RouteResultsetNode(shardingNode, ServerParse.INSERT, getStatement());
+        try {
+            dn.getConnection(dn.getDatabase(), true, true, node, this, node);
+        } catch (Exception e) {
+            LOGGER.info("get connection for insert batch failed, execute the rows one by one", e);
+            executeOneByOne();
+        }
+    }
+
+    @Override
+    public void connectionAcquired(BackendConnection conn) {
+        NonBlockingSession session = sessions.get(0);
+        conn.setResponseHandler(this);
+        // the session of the first row only takes the trace time of the backend
+        conn.setSession(session);
+        conn.execute(node, session.getSource(), true);
+    }
+
+    @Override
+    public void connectionError(Throwable e, Object attachment) {
+        LOGGER.info("can't connect to shardingNode[" + shardingNode + "] for insert batch, execute the rows one by one", e);
+        executeOneByOne();
+    }
+
+    @Override
+    public void errorResponse(byte[] err, BackendConnection conn) {
+        // the multi rows insert is rolled back as a whole, execute the rows one by one to get the error of each row
+        executeOneByOne();
+        if (conn.syncAndExecute()) {
+            conn.release();
+        } else {
+            conn.closeWithoutRsp("unfinished sync");
+        }
+    }
+
+    @Override
+    public void okResponse(byte[] data, BackendConnection conn) {
+        if (!conn.syncAndExecute()) {
+            return;
+        }
+        conn.release();
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        for (int i = 0; i < sessions.size(); i++) {
+            NonBlockingSession session = sessions.get(i);
+            OkPacket ok = new OkPacket();
+            ok.setPacketId(session.getPacketId().get() + 1);
+            ok.setAffectedRows(1);
+            // no row gets a generated id, see TableMeta.isInsertCoalescable
+            ok.setInsertId(0);
+            ok.setServerStatus(2);
+            session.setRowCount(1);
+            ServerConnection source = session.getSource();
+            source.setLastInsertId(ok.getInsertId());
+            session.setResponseTime(true);
+            doSqlStat(session, routes.get(i), data.length);
+            if (!session.closed()) {
+                writeOk(source, ok);
+            }
+        }
+    }
+
+    void writeOk(ServerConnection source, OkPacket ok) {
+        ok.write(source);
+    }
+
+    @Override
+    public void connectionClose(BackendConnection conn, String reason) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        LOGGER.warn("Backend connect Closed during insert batch, reason is [" + reason + "], Connection info:" + conn);
+        // the result of the insert is unknown, so it can't be executed again
+        String msg = "Connection {dbInstance[" + conn.getHost() + ":" + conn.getPort() + "],Schema[" + conn.getSchema() +
+                "]} was closed ,reason is [" + reason + "]";
+        for (NonBlockingSession session : sessions) {
+            session.getSource().setTxInterrupt(msg);
+            session.setResponseTime(false);
+            session.getSource().writeErrMessage(ErrorCode.ER_ERROR_ON_CLOSE, msg);
+        }
+    }
+
+    private void executeOneByOne() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        for (int i = 0; i < sessions.size(); i++) {
+            NonBlockingSession session = sessions.get(i);
+            RouteResultset rrs = routes.get(i);
+            rrs.setInsertBatch(null, null);
+            executeAlone(session, rrs);
+        }
+    }
+
+    void executeAlone(final NonBlockingSession session, final RouteResultset rrs) {
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                session.execute(rrs);
+            }
+        });
+    }
+
+    private void doSqlStat(NonBlockingSession session, RouteResultset rrs, long netOutBytes) {
+        if (SystemConfig.getInstance().getUseSqlStat() == 1) {
+            long netInBytes = rrs.getStatement() == null ? 0 : rrs.getStatement().getBytes().length;
+            QueryResult queryResult = new QueryResult(session.getSource().getUser(), rrs.getSqlType(), rrs.getStatement(), 0,
+                    netInBytes, netOutBytes, session.getQueryStartTime(), System.currentTimeMillis(), netOutBytes);
+            QueryResultDispatcher.dispatchQuery(queryResult);
+        }
+    }
+
+    @Override
+    public void fieldEofResponse(byte[] header, List<byte[]> fields, List<FieldPacket> fieldPackets, byte[] eof,
+                                 boolean isLeft, BackendConnection conn) {
+        // insert has no result set
+    }
+
+    @Override
+    public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+        return false;
+    }
+
+    @Override
+    public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
+        // insert has no result set
+    }
+
+    @Override
+    public String toString() {
+        return "InsertBatchHandler [shardingNode=" + shardingNode + ", rows=" + sessions.size() + "]";
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.BackendConnection;
+
+/**
+ * the handler which sends the rows of the backend to the client as they are,
+ * so the contiguous row packets read at once are written to the client at once
+ */
+public interface RowRelayHandler {
+
+    /**
+     * relay the count row packets at [offset, offset + length) in data, only the packet ids are rewritten in place
+     *
+     * @return false if the rows can't be relayed, nothing is done and the rows are sent to rowResponse one by one
+     */
+    boolean relayRows(byte[] data, int offset, int length, int count, BackendConnection conn);
+}
@@ -92,6 +92,12 @@ public class ShowTablesHandler extends SingleNodeHandler {
         }
     }
 
+    @Override
+    public boolean relayRows(byte[] data, int offset, int length, int count, BackendConnection conn) {
+        // the rows are rewritten in rowResponse
+        return false;
+    }
+
     @Override
     public boolean rowResponse(byte[] row, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
         RowDataPacket rowDataPacket = new RowDataPacket(1);
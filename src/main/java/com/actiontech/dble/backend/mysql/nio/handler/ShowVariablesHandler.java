@@ -21,6 +21,12 @@ public class ShowVariablesHandler extends SingleNodeHandler {
         shadowVars = session.getSource().getSysVariables();
     }
 
+    @Override
+    public boolean relayRows(byte[] data, int offset, int length, int count, BackendConnection conn) {
+        // the rows are rewritten in rowResponse
+        return false;
+    }
+
     @Override
     public boolean rowResponse(byte[] row, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
         String charset = session.getSource().getCharset().getResults();
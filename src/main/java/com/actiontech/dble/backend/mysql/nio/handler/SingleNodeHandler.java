@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.datasource.ShardingNode;
+import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.LoadDataUtil;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.config.ErrorCode;
@@ -37,7 +38,7 @@ import java.util.concurrent.locks.ReentrantLock;
 /**
  * @author mycat
  */
-public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandler, ExecutableHandler {
+public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandler, ExecutableHandler, RowRelayHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SingleNodeHandler.class);
     protected final ReentrantLock lock = new ReentrantLock();
@@ -361,11 +362,7 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         lock.lock();
         try {
             if (!writeToClient.get()) {
-                FlowControllerConfig fconfig = WriteQueueFlowController.getFlowCotrollerConfig();
-                if (fconfig.isEnableFlowControl() &&
-                        session.getSource().getWriteQueue().size() > fconfig.getStart()) {
-                    session.getSource().startFlowControl(conn);
-                }
+                checkFlowControl(conn);
                 if (session.isPrepared()) {
                     RowDataPacket rowDataPk = new RowDataPacket(fieldCount);
                     row[3] = ++packetId;
@@ -391,6 +388,38 @@ public class SingleNodeHandler implements ResponseHandler, LoadDataResponseHandl
         return false;
     }
 
+    @Override
+    public boolean relayRows(byte[] data, int offset, int length, int count, BackendConnection conn) {
+        if (session.isPrepared()) {
+            return false;
+        }
+        this.netOutBytes += length;
+        this.resultSize += length;
+        this.selectRows += count;
+        lock.lock();
+        try {
+            if (!writeToClient.get()) {
+                checkFlowControl(conn);
+                for (int i = 0, position = offset; i < count; i++) {
+                    data[position + 3] = ++packetId;
+                    position += ByteUtil.readUB3(data, position) + MySQLPacket.PACKET_HEADER_SIZE;
+                }
+                buffer = session.getSource().writeToBuffer(data, offset, length, buffer);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private void checkFlowControl(BackendConnection conn) {
+        FlowControllerConfig fconfig = WriteQueueFlowController.getFlowCotrollerConfig();
+        if (fconfig.isEnableFlowControl() &&
+                session.getSource().getWriteQueue().size() > fconfig.getStart()) {
+            session.getSource().startFlowControl(conn);
+        }
+    }
+
     @Override
     public void connectionClose(BackendConnection conn, String reason) {
         if (connClosed) {
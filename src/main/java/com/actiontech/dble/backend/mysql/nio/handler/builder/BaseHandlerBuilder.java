@@ -17,6 +17,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.impl.subquery.SingleR
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.subquery.SubQueryHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.CallBackHandler;
 import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
 import com.actiontech.dble.net.mysql.ErrorPacket;
@@ -246,7 +247,7 @@ public abstract class BaseHandlerBuilder {
                 // can not merge,need distinct then order by
                 DistinctHandler dh = new DistinctHandler(getSequenceId(), session, node.getColumnsSelected());
                 addHandler(dh);
-                OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys(), getTopN(node));
                 addHandler(oh);
             } else {
                 DistinctHandler dh = new DistinctHandler(getSequenceId(), session, node.getColumnsSelected(),
@@ -262,11 +263,11 @@ public abstract class BaseHandlerBuilder {
             if (node.getOrderBys().size() > 0) {
                 if (node.getGroupBys().size() > 0) {
                     if (!PlanUtil.orderContains(node.getGroupBys(), node.getOrderBys())) {
-                        OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                        OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys(), getTopN(node));
                         addHandler(oh);
                     }
                 } else if (isOrderNeeded(node, node.getOrderBys())) {
-                    OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys());
+                    OrderByHandler oh = new OrderByHandler(getSequenceId(), session, node.getOrderBys(), getTopN(node));
                     addHandler(oh);
                 }
             }
@@ -293,6 +294,26 @@ public abstract class BaseHandlerBuilder {
     }
 
     /*----------------------------- helper method -------------------*/
+    /**
+     * the order by handler is always followed by the limit handler if the node has limit,
+     * so only offset+limit rows are needed when it is small enough to be kept in memory
+     *
+     * @return the rows needed, -1 means all the rows
+     */
+    private long getTopN(PlanNode planNode) {
+        return getTopN(planNode.getLimitFrom(), planNode.getLimitTo());
+    }
+
+    static long getTopN(long limitFrom, long limitTo) {
+        if (limitTo < 0) {
+            return -1;
+        }
+        int maxRows = SystemConfig.getInstance().getOrderByTopNMaxRows();
+        long offset = Math.max(limitFrom, 0);
+        // compared without the sum, which may overflow
+        return maxRows > 0 && limitTo <= maxRows && offset <= maxRows - limitTo ? offset + limitTo : -1;
+    }
+
     private boolean isNestLoopStrategy(PlanNode planNode) {
         return planNode.type() == PlanNodeType.TABLE && planNode.getNestLoopFilters() != null;
     }
@@ -320,6 +341,10 @@ public abstract class BaseHandlerBuilder {
         // onCondition column in orderBys will be saved to onOrders,
         // eg: if jn.onCond = (t1.id=t2.id),
         // orderBys is t1.id,t2.id,t1.name, and onOrders = {t1.id,t2.id};
+        if (jn.getStrategy() == JoinNode.Strategy.HASH) {
+            // rows of hash join are sent in the order of the probe side, not in the join column order
+            return false;
+        }
         List<Order> leftOnOrders = jn.getLeftJoinOnOrders();
         if (leftOnOrders.size() >= orderBys.size()) {
             return PlanUtil.orderContains(leftOnOrders, orderBys);
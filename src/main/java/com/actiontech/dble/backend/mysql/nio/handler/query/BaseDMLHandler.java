@@ -6,6 +6,7 @@
 package com.actiontech.dble.backend.mysql.nio.handler.query;
 
 import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.server.NonBlockingSession;
 import org.slf4j.Logger;
@@ -91,6 +92,19 @@ public abstract class BaseDMLHandler implements DMLResponseHandler {
 
     protected abstract void onTerminate() throws Exception;
 
+    /**
+     * the rows are handled one by one by default, the streaming handlers handle the whole batch at once
+     */
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean left, BackendConnection conn) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (rowResponse(null, batch.get(i), left, conn)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void connectionError(Throwable e, Object attachment) {
         // TODO Auto-generated method stub
@@ -5,7 +5,9 @@
 
 package com.actiontech.dble.backend.mysql.nio.handler.query;
 
+import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.ResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 
 import java.util.List;
 
@@ -32,4 +34,11 @@ public interface DMLResponseHandler extends ResponseHandler {
 
     void terminate();
 
+    /**
+     * execute after get some rows, the same as calling rowResponse for each row
+     *
+     * @return true if no more rows are needed
+     */
+    boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn);
+
 }
@@ -11,6 +11,7 @@ import com.actiontech.dble.backend.datasource.ShardingNode;
 import com.actiontech.dble.backend.mysql.CharsetUtil;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.ErrorPacket;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
@@ -29,11 +30,13 @@ import java.util.List;
  */
 public class BaseSelectHandler extends BaseDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(BaseSelectHandler.class);
+    private static final int ROW_BATCH_SIZE = 256;
 
     private final boolean autocommit;
     private volatile int fieldCounts = -1;
     private final RouteResultsetNode rrss;
-
+    // the rows received in one read of the connection, only used by the thread handling the connection's data
+    private final RowDataBatch rowBatch = new RowDataBatch(ROW_BATCH_SIZE);
 
     public BaseSelectHandler(long id, RouteResultsetNode rrss, boolean autocommit, NonBlockingSession session) {
         super(id, session);
@@ -118,15 +121,52 @@ public class BaseSelectHandler extends BaseDMLHandler {
             return true;
         RowDataPacket rp = new RowDataPacket(fieldCounts);
         rp.read(row);
-        nextHandler.rowResponse(null, rp, this.isLeft, conn);
+        return addRow(rp, conn);
+    }
+
+    /**
+     * the row packet at [offset, offset + length) in the data read from the backend,
+     * it's parsed in place without copying the packet into its own array
+     */
+    public boolean rawRowResponse(byte[] data, int offset, int length, BackendConnection conn) {
+        if (terminate.get())
+            return true;
+        RowDataPacket rp = new RowDataPacket(fieldCounts);
+        rp.read(data, offset, length);
+        return addRow(rp, conn);
+    }
+
+    private boolean addRow(RowDataPacket rp, BackendConnection conn) {
+        rowBatch.add(rp);
+        if (rowBatch.size() >= ROW_BATCH_SIZE) {
+            flushRows(conn);
+        }
         return false;
     }
 
+    /**
+     * send the rows received to the next handler, called when the data of the connection is drained
+     * or the rows are finished, so the rows never wait for the batch to be full
+     */
+    public void flushRows(BackendConnection conn) {
+        if (rowBatch.isEmpty()) {
+            return;
+        }
+        try {
+            if (!terminate.get()) {
+                nextHandler.rowBatchResponse(rowBatch, this.isLeft, conn);
+            }
+        } finally {
+            rowBatch.clear();
+        }
+    }
+
     @Override
     public void rowEofResponse(byte[] data, boolean isLeft, BackendConnection conn) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug(conn.toString() + " 's rowEof is reached.");
         }
+        flushRows(conn);
         if (this.terminate.get()) {
             return;
         }
@@ -166,6 +206,7 @@ public class BaseSelectHandler extends BaseDMLHandler {
 
     @Override
     public void errorResponse(byte[] err, BackendConnection conn) {
+        rowBatch.clear();
         ErrorPacket errPacket = new ErrorPacket();
         errPacket.read(err);
         String errMsg;
@@ -7,6 +7,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.server.NonBlockingSession;
@@ -71,6 +72,27 @@ public class LimitHandler extends BaseDMLHandler {
         return false;
     }
 
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        if (terminate.get()) {
+            return true;
+        }
+        long firstIndex = curIndex.getAndAdd(batch.size()) + 1;
+        final long lastIndex = firstIndex + batch.size() - 1;
+        int kept = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            long index = firstIndex + i;
+            if (index >= limitIndex && index < limitIndex + limitCount) {
+                batch.set(kept++, batch.get(i));
+            }
+        }
+        batch.truncate(kept);
+        if (!batch.isEmpty()) {
+            nextHandler.rowBatchResponse(batch, this.isLeft, conn);
+        }
+        return lastIndex >= limitIndex + limitCount;
+    }
+
     @Override
     protected void onTerminate() {
     }
@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.route.RouteResultsetNode;
@@ -97,6 +98,13 @@ public class MultiNodeEasyMergeHandler extends MultiNodeMergeHandler {
         return nextHandler.rowResponse(null, rowPacket, this.isLeft, conn);
     }
 
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        if (terminate.get())
+            return true;
+        return nextHandler.rowBatchResponse(batch, this.isLeft, conn);
+    }
+
     @Override
     public void rowEofResponse(byte[] data, boolean isLeft, BackendConnection conn) {
         if (LOGGER.isDebugEnabled()) {
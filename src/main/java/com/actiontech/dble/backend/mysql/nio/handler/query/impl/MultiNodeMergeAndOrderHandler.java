@@ -8,8 +8,9 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
-import com.actiontech.dble.backend.mysql.nio.handler.util.ArrayMinHeap;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HeapItem;
+import com.actiontech.dble.backend.mysql.nio.handler.util.LoserTree;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowBatchQueue;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.FieldPacket;
@@ -22,9 +23,8 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.Map.Entry;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * mergeHandler will merge data,if contains aggregate function,use group by handler
@@ -36,10 +36,14 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
 
     private final int queueSize;
     // map;conn->blocking queue.if receive row packet, add to the queue,if receive rowEof packet, add NullHeapItem into queue;
-    private Map<MySQLConnection, BlockingQueue<HeapItem>> queues;
+    private Map<MySQLConnection, RowBatchQueue> queues;
+    // the results of the group merges when the shards are too many for one merge thread
+    private final List<RowBatchQueue> groupQueues = new CopyOnWriteArrayList<>();
     private List<Order> orderBys;
     private RowDataComparator rowComparator;
     private volatile boolean noNeedRows = false;
+    // a group merge failed and the error is sent, the final merge sends neither rows nor eof
+    private volatile boolean groupMergeFailed = false;
 
     public MultiNodeMergeAndOrderHandler(long id, RouteResultsetNode[] route, boolean autocommit, NonBlockingSession session,
                                          List<Order> orderBys) {
@@ -76,7 +80,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
             try {
                 MySQLConnection exeConn = exeHandler.initConnection();
                 exeConn.setComplexQuery(true);
-                queues.put(exeConn, new LinkedBlockingQueue<>(queueSize));
+                queues.put(exeConn, new RowBatchQueue(queueSize));
                 exeHandler.execute(exeConn);
             } catch (Exception e) {
                 exeHandler.connectionError(e, exeHandler.getRrss());
@@ -118,7 +122,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
             return true;
 
         MySQLConnection mySQLConn = (MySQLConnection) conn;
-        BlockingQueue<HeapItem> queue = queues.get(mySQLConn);
+        RowBatchQueue queue = queues.get(mySQLConn);
         if (queue == null)
             return true;
         HeapItem item = new HeapItem(row, rowPacket, mySQLConn);
@@ -139,7 +143,7 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
 
         if (this.terminate.get())
             return;
-        BlockingQueue<HeapItem> queue = queues.get(mySQLConn);
+        RowBatchQueue queue = queues.get(mySQLConn);
         if (queue == null)
             return;
         try {
@@ -152,52 +156,22 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
     @Override
     protected void ownThreadJob(Object... objects) {
         try {
-            ArrayMinHeap<HeapItem> heap = new ArrayMinHeap<>(new Comparator<HeapItem>() {
+            List<MergeSource> sources = new ArrayList<>(queues.size());
+            for (RowBatchQueue queue : queues.values()) {
+                sources.add(new MergeSource(queue));
+            }
+            int threshold = SystemConfig.getInstance().getParallelMergeThreshold();
+            if (threshold > 0 && sources.size() > threshold) {
+                sources = startGroupMerges(sources);
+            }
+            merge(sources, rowComparator, new MergeSink() {
                 @Override
-                public int compare(HeapItem o1, HeapItem o2) {
-                    RowDataPacket row1 = o1.getRowPacket();
-                    RowDataPacket row2 = o2.getRowPacket();
-                    if (row1 == null || row2 == null) {
-                        if (row1 == row2)
-                            return 0;
-                        if (row1 == null)
-                            return -1;
-                        return 1;
-                    }
-                    return rowComparator.compare(row1, row2);
+                public boolean send(HeapItem item) {
+                    return nextHandler.rowResponse(item.getRowData(), item.getRowPacket(), isLeft, item.getIndex());
                 }
             });
-            // init heap
-            for (Entry<MySQLConnection, BlockingQueue<HeapItem>> entry : queues.entrySet()) {
-                HeapItem firstItem = entry.getValue().take();
-                heap.add(firstItem);
-            }
-            while (!heap.isEmpty()) {
-                if (terminate.get())
-                    return;
-                HeapItem top = heap.peak();
-                if (top.isNullItem()) {
-                    heap.poll();
-                } else {
-                    BlockingQueue<HeapItem> topItemQueue = queues.get(top.getIndex());
-                    HeapItem item = topItemQueue.take();
-                    heap.replaceTop(item);
-                    if (nextHandler.rowResponse(top.getRowData(), top.getRowPacket(), this.isLeft, top.getIndex())) {
-                        noNeedRows = true;
-                        while (!heap.isEmpty()) {
-                            HeapItem itemToDiscard = heap.poll();
-                            if (!itemToDiscard.isNullItem()) {
-                                BlockingQueue<HeapItem> discardQueue = queues.get(itemToDiscard.getIndex());
-                                while (true) {
-                                    if (discardQueue.take().isNullItem() || terminate.get()) {
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+            if (terminate.get() || groupMergeFailed)
+                return;
             if (LOGGER.isDebugEnabled()) {
                 String executeQueries = getRoutesSql(route);
                 LOGGER.debug(executeQueries + " heap send eof: ");
@@ -211,29 +185,112 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
         }
     }
 
+    /**
+     * k-way merge by loser tree, if the sink needs no more rows, the sources are drained to release the producers
+     */
+    private void merge(List<MergeSource> sources, RowDataComparator comparator, MergeSink sink) throws InterruptedException {
+        LoserTree<HeapItem> tree = new LoserTree<>(sources.size(), new Comparator<HeapItem>() {
+            @Override
+            public int compare(HeapItem o1, HeapItem o2) {
+                return comparator.compare(o1.getRowPacket(), o2.getRowPacket());
+            }
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            tree.setLeaf(i, sources.get(i).next());
+        }
+        tree.build();
+        HeapItem top;
+        while ((top = tree.peek()) != null) {
+            if (terminate.get())
+                return;
+            if (noNeedRows || sink.send(top)) {
+                noNeedRows = true;
+                for (MergeSource source : sources) {
+                    source.drain();
+                }
+                return;
+            }
+            tree.replaceWinner(sources.get(tree.getWinnerIndex()).next());
+        }
+    }
+
+    /**
+     * split the sources into groups and merge every group in its own thread,
+     * the ordered results of the groups are the sources of the final merge
+     */
+    private List<MergeSource> startGroupMerges(List<MergeSource> sources) {
+        int groupCount = (int) Math.ceil(Math.sqrt(sources.size()));
+        int groupSize = (sources.size() + groupCount - 1) / groupCount;
+        List<MergeSource> groupResults = new ArrayList<>(groupCount);
+        for (int start = 0; start < sources.size(); start += groupSize) {
+            final List<MergeSource> group = sources.subList(start, Math.min(start + groupSize, sources.size()));
+            final RowBatchQueue groupQueue = new RowBatchQueue(queueSize);
+            groupQueues.add(groupQueue);
+            groupResults.add(new MergeSource(groupQueue));
+            DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    groupMerge(group, groupQueue);
+                }
+            });
+        }
+        return groupResults;
+    }
+
+    private void groupMerge(List<MergeSource> group, final RowBatchQueue groupQueue) {
+        try {
+            // the comparator is not thread safe
+            RowDataComparator comparator = new RowDataComparator(this.fieldPackets, orderBys, this.isAllPushDown(), this.type());
+            merge(group, comparator, new MergeSink() {
+                @Override
+                public boolean send(HeapItem item) throws InterruptedException {
+                    groupQueue.put(item);
+                    return false;
+                }
+            });
+        } catch (Exception e) {
+            // stop sending rows and drain the other sources, so that the eof of every group can be put
+            groupMergeFailed = true;
+            noNeedRows = true;
+            String msg = "Merge thread error, " + e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+        } finally {
+            try {
+                if (terminate.get()) {
+                    // nobody may read the rest rows, make room for the eof
+                    groupQueue.clear();
+                }
+                groupQueue.put(HeapItem.nullItem());
+            } catch (InterruptedException e) {
+                //ignore error
+            }
+        }
+    }
+
     @Override
     protected void terminateThread() throws Exception {
-        for (Entry<MySQLConnection, BlockingQueue<HeapItem>> entry : this.queues.entrySet()) {
+        for (RowBatchQueue queue : this.queues.values()) {
             // add EOF to signal atoMerge thread
-            entry.getValue().clear();
-            entry.getValue().put(new HeapItem(null, null, entry.getKey()));
+            queue.clear();
+            queue.put(HeapItem.nullItem());
+        }
+        for (RowBatchQueue queue : this.groupQueues) {
+            queue.clear();
         }
         recycleConn();
     }
 
     @Override
     protected void recycleResources() {
-        Iterator<Entry<MySQLConnection, BlockingQueue<HeapItem>>> iterator = this.queues.entrySet().iterator();
+        Iterator<Entry<MySQLConnection, RowBatchQueue>> iterator = this.queues.entrySet().iterator();
         while (iterator.hasNext()) {
-            Entry<MySQLConnection, BlockingQueue<HeapItem>> entry = iterator.next();
-            // fair lock queue,poll for clear
-            while (true) {
-                if (entry.getValue().poll() == null) {
-                    break;
-                }
-            }
+            iterator.next().getValue().clear();
             iterator.remove();
         }
+        for (RowBatchQueue queue : this.groupQueues) {
+            queue.clear();
+        }
     }
 
     private String getRoutesSql(RouteResultsetNode[] nodes) {
@@ -262,4 +319,47 @@ public class MultiNodeMergeAndOrderHandler extends MultiNodeMergeHandler {
     public HandlerType type() {
         return HandlerType.MERGE_AND_ORDER;
     }
+
+    private interface MergeSink {
+        /**
+         * @return true if no more rows are needed
+         */
+        boolean send(HeapItem item) throws InterruptedException;
+    }
+
+    /**
+     * read the rows of one RowBatchQueue batch by batch, returns null after the end
+     */
+    private static final class MergeSource {
+        private final RowBatchQueue queue;
+        private List<HeapItem> batch = Collections.emptyList();
+        private int position = 0;
+        private boolean finished = false;
+
+        private MergeSource(RowBatchQueue queue) {
+            this.queue = queue;
+        }
+
+        private HeapItem next() throws InterruptedException {
+            if (finished) {
+                return null;
+            }
+            if (position == batch.size()) {
+                batch = queue.takeAll();
+                position = 0;
+            }
+            HeapItem item = batch.get(position++);
+            if (item.isNullItem()) {
+                finished = true;
+                return null;
+            }
+            return item;
+        }
+
+        private void drain() throws InterruptedException {
+            while (next() != null) {
+                // discard the rest rows until eof
+            }
+        }
+    }
 }
@@ -12,6 +12,7 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
 import com.actiontech.dble.backend.mysql.store.SortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.TopNSortedLocalResult;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.FieldPacket;
@@ -35,10 +36,17 @@ public class OrderByHandler extends OwnThreadDMLHandler {
     /* tmp object for ordering,support Memory-mapped file or file */
     private LocalResult localResult;
     private BufferPool pool;
+    /* only the first topN rows are needed by the next handler, -1 means all */
+    private final long topN;
 
     public OrderByHandler(long id, NonBlockingSession session, List<Order> orders) {
+        this(id, session, orders, -1);
+    }
+
+    public OrderByHandler(long id, NonBlockingSession session, List<Order> orders, long topN) {
         super(id, session);
         this.orders = orders;
+        this.topN = topN;
         int queueSize = SystemConfig.getInstance().getOrderByQueueSize();
         this.queue = new LinkedBlockingDeque<>(queueSize);
     }
@@ -48,6 +56,10 @@ public class OrderByHandler extends OwnThreadDMLHandler {
         return HandlerType.ORDERBY;
     }
 
+    public long getTopN() {
+        return topN;
+    }
+
     @Override
     public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, final List<FieldPacket> fieldPackets,
                                  byte[] eofNull, boolean isLeft, final BackendConnection conn) {
@@ -59,8 +71,14 @@ public class OrderByHandler extends OwnThreadDMLHandler {
 
         this.fieldPackets = fieldPackets;
         RowDataComparator cmp = new RowDataComparator(this.fieldPackets, orders, isAllPushDown(), type());
-        localResult = new SortedLocalResult(pool, fieldPackets.size(), cmp, CharsetUtil.getJavaCharset(conn.getCharset().getResults())).
-                setMemSizeController(session.getOrderBufferMC());
+        String charset = CharsetUtil.getJavaCharset(conn.getCharset().getResults());
+        if (topN >= 0) {
+            localResult = new TopNSortedLocalResult(pool, fieldPackets.size(), cmp, charset, topN).
+                    setMemSizeController(session.getOrderBufferMC());
+        } else {
+            localResult = new SortedLocalResult(pool, fieldPackets.size(), cmp, charset).
+                    setMemSizeController(session.getOrderBufferMC());
+        }
         nextHandler.fieldEofResponse(null, null, fieldPackets, null, this.isLeft, conn);
         startOwnThread(conn);
     }
@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.*;
@@ -132,38 +133,61 @@ public class OutputHandler extends BaseDMLHandler {
             if (terminate.get()) {
                 return true;
             }
-            selectRows++;
-            byte[] row;
-            if (this.isBinary) {
-                BinaryRowDataPacket binRowPacket = new BinaryRowDataPacket();
-                binRowPacket.read(this.fieldPackets, rowPacket);
-                binRowPacket.setPacketId(++packetId);
-                this.netOutBytes += binRowPacket.calcPacketSize();
-                buffer = binRowPacket.write(buffer, session.getSource(), true);
+            writeRow(rowNull, rowPacket);
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        if (terminate.get()) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (terminate.get()) {
+                return true;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                writeRow(null, batch.get(i));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return false;
+    }
+
+    private void writeRow(byte[] rowNull, RowDataPacket rowPacket) {
+        selectRows++;
+        byte[] row;
+        if (this.isBinary) {
+            BinaryRowDataPacket binRowPacket = new BinaryRowDataPacket();
+            binRowPacket.read(this.fieldPackets, rowPacket);
+            binRowPacket.setPacketId(++packetId);
+            this.netOutBytes += binRowPacket.calcPacketSize();
+            buffer = binRowPacket.write(buffer, session.getSource(), true);
+            this.packetId = (byte) session.getPacketId().get();
+        } else {
+            if (rowPacket != null) {
+                rowPacket.setPacketId(++packetId);
+                this.netOutBytes += rowPacket.calcPacketSize();
+                buffer = rowPacket.write(buffer, session.getSource(), true);
                 this.packetId = (byte) session.getPacketId().get();
             } else {
-                if (rowPacket != null) {
-                    rowPacket.setPacketId(++packetId);
-                    this.netOutBytes += rowPacket.calcPacketSize();
-                    buffer = rowPacket.write(buffer, session.getSource(), true);
+                row = rowNull;
+                this.netOutBytes += row.length;
+                boolean isBigPackage = row.length >= MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE;
+                if (isBigPackage) {
+                    buffer = session.getSource().writeBigPackageToBuffer(row, buffer, packetId);
                     this.packetId = (byte) session.getPacketId().get();
                 } else {
-                    row = rowNull;
-                    this.netOutBytes += row.length;
-                    boolean isBigPackage = row.length >= MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE;
-                    if (isBigPackage) {
-                        buffer = session.getSource().writeBigPackageToBuffer(row, buffer, packetId);
-                        this.packetId = (byte) session.getPacketId().get();
-                    } else {
-                        row[3] = ++packetId;
-                        buffer = session.getSource().writeToBuffer(row, buffer);
-                    }
+                    row[3] = ++packetId;
+                    buffer = session.getSource().writeToBuffer(row, buffer);
                 }
             }
-        } finally {
-            lock.unlock();
         }
-        return false;
     }
 
     @Override
@@ -7,6 +7,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.node.PlanNode;
@@ -47,6 +48,12 @@ public class RenameFieldHandler extends BaseDMLHandler {
         return false;
     }
 
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        nextHandler.rowBatchResponse(batch, this.isLeft, conn);
+        return false;
+    }
+
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
         session.setHandlerEnd(this);
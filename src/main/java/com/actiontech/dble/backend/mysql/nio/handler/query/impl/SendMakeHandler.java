@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
@@ -94,19 +95,39 @@ public class SendMakeHandler extends BaseDMLHandler {
         try {
             if (terminate.get())
                 return true;
-            HandlerTool.initFields(sourceFields, rowPacket.fieldValues);
-            RowDataPacket newRp = new RowDataPacket(selItems.size());
-            for (Item selItem : selItems) {
-                byte[] b = selItem.getRowPacketByte();
-                newRp.add(b);
+            nextHandler.rowResponse(null, makeRow(rowPacket), this.isLeft, conn);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        lock.lock();
+        try {
+            if (terminate.get())
+                return true;
+            for (int i = 0; i < batch.size(); i++) {
+                batch.set(i, makeRow(batch.get(i)));
             }
-            nextHandler.rowResponse(null, newRp, this.isLeft, conn);
+            nextHandler.rowBatchResponse(batch, this.isLeft, conn);
             return false;
         } finally {
             lock.unlock();
         }
     }
 
+    private RowDataPacket makeRow(RowDataPacket rowPacket) {
+        HandlerTool.initFields(sourceFields, rowPacket.fieldValues);
+        RowDataPacket newRp = new RowDataPacket(selItems.size());
+        for (Item selItem : selItems) {
+            byte[] b = selItem.getRowPacketByte();
+            newRp.add(b);
+        }
+        return newRp;
+    }
+
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
         lock.lock();
@@ -8,6 +8,7 @@ package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
 import com.actiontech.dble.backend.BackendConnection;
 import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.field.Field;
@@ -64,6 +65,31 @@ public class WhereHandler extends BaseDMLHandler {
         }
     }
 
+    @Override
+    public boolean rowBatchResponse(RowDataBatch batch, boolean isLeft, BackendConnection conn) {
+        if (terminate.get())
+            return true;
+        lock.lock();
+        try {
+            Item whereItem = HandlerTool.createItem(this.where, this.sourceFields, 0, this.isAllPushDown(), this.type());
+            int kept = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                RowDataPacket rowPacket = batch.get(i);
+                HandlerTool.initFields(this.sourceFields, rowPacket.fieldValues);
+                if (whereItem.valBool()) {
+                    batch.set(kept++, rowPacket);
+                }
+            }
+            batch.truncate(kept);
+            if (!batch.isEmpty()) {
+                nextHandler.rowBatchResponse(batch, this.isLeft, conn);
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public void rowEofResponse(byte[] data, boolean isLeft, BackendConnection conn) {
         if (terminate.get())
             return;
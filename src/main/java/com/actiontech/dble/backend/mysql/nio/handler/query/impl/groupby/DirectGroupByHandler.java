@@ -12,8 +12,8 @@ import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby.DGRowPacket;
 import com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby.GroupByBucket;
 import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.LoserTree;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
-import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
 import com.actiontech.dble.backend.mysql.store.LocalResult;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
@@ -22,6 +22,7 @@ import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.Order;
 import com.actiontech.dble.plan.common.field.Field;
 import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
 import com.actiontech.dble.plan.common.item.function.sumfunc.Aggregator;
 import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
 import com.actiontech.dble.server.NonBlockingSession;
@@ -31,28 +32,30 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * groupBy is Behind OrderBy
  * use groupbylocalresult to calc groupby . try to merge before store to groupby LocalResult
  * these cases can't merge : 1.sum function contains distinct  2. groupconcat
+ * the rows are hashed to the buckets by the group by columns, every bucket groups its rows in its own thread,
+ * and the sorted outputs of the buckets are merged by a loser tree. the equal groups in different buckets
+ * (eg: 'a' and 'A' in case insensitive collation) are adjacent in the merged output and grouped there.
  *
  * @author ActionTech
  */
 public class DirectGroupByHandler extends OwnThreadDMLHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(DirectGroupByHandler.class);
 
-    private BlockingQueue<RowDataPacket> queue;
-
     private List<Order> groupBys;
     private List<ItemSum> referredSumFunctions;
 
     private BufferPool pool;
-    private LocalResult groupLocalResult;
     private AtomicBoolean groupStart = new AtomicBoolean(false);
 
     private List<ItemSum> sums = new ArrayList<>();
@@ -61,9 +64,16 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
 
     private List<FieldPacket> localResultFps;
 
-    private BlockingQueue<RowDataPacket> outQueue;
     int bucketSize = 10;
+    private final int queueSize;
     private List<GroupByBucket> buckets;
+    private List<BlockingQueue<RowDataPacket>> inQueues;
+    private List<BlockingQueue<RowDataPacket>> outQueues;
+    private boolean[] bucketEnded;
+    /* the indexes of the group by columns in the row, the row is hashed by them */
+    private int[] groupByIndexes;
+    /* used instead of the hash if no group by column is found */
+    private final AtomicInteger nextBucket = new AtomicInteger();
 
     /**
      * @param groupBys
@@ -74,10 +84,10 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         super(id, session);
         this.groupBys = groupBys;
         this.referredSumFunctions = referredSumFunctions;
-        int queueSize = SystemConfig.getInstance().getMergeQueueSize();
-        this.queue = new LinkedBlockingQueue<>(queueSize);
-        this.outQueue = new LinkedBlockingQueue<>(queueSize);
+        this.queueSize = SystemConfig.getInstance().getMergeQueueSize();
         this.buckets = new ArrayList<>();
+        this.inQueues = new ArrayList<>();
+        this.outQueues = new ArrayList<>();
     }
 
     @Override
@@ -108,17 +118,18 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         // row in localresult is DGRowPacket which is added aggregate functions result from origin rowdatapacket
         localResultFps = this.fieldPackets;
         List<ItemSum> localResultReferredSums = referredSumFunctions;
-        RowDataComparator comparator = new RowDataComparator(this.localResultFps, this.groupBys, this.isAllPushDown(), this.type()
-        );
-        groupLocalResult = new GroupByLocalResult(pool, localResultFps.size(), comparator, localResultFps,
-                localResultReferredSums, this.isAllPushDown(), CharsetUtil.getJavaCharset(conn.getCharset().getResults())).
-                setMemSizeController(session.getOtherBufferMC());
+        groupByIndexes = getGroupByIndexes(sourceFields);
+        bucketEnded = new boolean[bucketSize];
         for (int i = 0; i < bucketSize; i++) {
             RowDataComparator tmpComparator = new RowDataComparator(this.localResultFps, this.groupBys,
                     this.isAllPushDown(), this.type());
-            GroupByBucket bucket = new GroupByBucket(queue, outQueue, pool, localResultFps.size(), tmpComparator,
+            BlockingQueue<RowDataPacket> inQueue = new LinkedBlockingQueue<>(queueSize);
+            BlockingQueue<RowDataPacket> outQueue = new LinkedBlockingQueue<>(queueSize);
+            GroupByBucket bucket = new GroupByBucket(inQueue, outQueue, pool, localResultFps.size(), tmpComparator,
                     localResultFps, localResultReferredSums, this.isAllPushDown(), CharsetUtil.getJavaCharset(conn.getCharset().getResults()));
             bucket.setMemSizeController(session.getOtherBufferMC());
+            inQueues.add(inQueue);
+            outQueues.add(outQueue);
             buckets.add(bucket);
             bucket.start();
         }
@@ -127,6 +138,39 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         }
     }
 
+    private int[] getGroupByIndexes(List<Field> sourceFields) {
+        List<Integer> indexes = new ArrayList<>();
+        for (Order groupBy : groupBys) {
+            Item item = HandlerTool.createItem(groupBy.getItem(), sourceFields, 0, this.isAllPushDown(), this.type());
+            if (item instanceof ItemField) {
+                int index = sourceFields.indexOf(((ItemField) item).getField());
+                if (index >= 0) {
+                    indexes.add(index);
+                }
+            }
+        }
+        int[] result = new int[indexes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexes.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * the equal raw values are always in the same bucket
+     */
+    private int getBucketIndex(RowDataPacket row) {
+        if (groupByIndexes.length == 0) {
+            return (nextBucket.getAndIncrement() & Integer.MAX_VALUE) % bucketSize;
+        }
+        int hash = 1;
+        for (int index : groupByIndexes) {
+            hash = 31 * hash + Arrays.hashCode(row.getValue(index));
+        }
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % bucketSize;
+    }
+
     /**
      * aggregate functions result and origin rowdatapacket
      */
@@ -148,27 +192,21 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         MySQLConnection conn = (MySQLConnection) objects[0];
         recordElapsedTime("local group by thread is start:");
         try {
-            int eofCount = 0;
-            for (; ; ) {
-                RowDataPacket row = outQueue.take();
-                if (row.getFieldCount() == 0) {
-                    eofCount++;
-                    if (eofCount == bucketSize)
-                        break;
-                    else
-                        continue;
-                }
-                groupLocalResult.add(row);
+            RowDataComparator comparator = new RowDataComparator(this.localResultFps, this.groupBys,
+                    this.isAllPushDown(), this.type());
+            LoserTree<RowDataPacket> tree = new LoserTree<>(bucketSize, comparator);
+            for (int i = 0; i < bucketSize; i++) {
+                tree.setLeaf(i, takeBucketRow(i));
             }
-            recordElapsedTime("local group by thread is end:");
-            groupLocalResult.done();
+            tree.build();
             recordElapsedTime("local group by thread is done for read:");
             if (!hasFirstRow.get()) {
                 if (HandlerTool.needSendNoRow(this.groupBys))
                     sendNoRowGroupRowPacket(conn);
             } else {
-                sendGroupRowPacket(conn);
+                sendGroupRowPacket(conn, tree, comparator);
             }
+            checkBucketError();
             session.setHandlerEnd(this);
             nextHandler.rowEofResponse(null, this.isLeft, conn);
         } catch (Exception e) {
@@ -178,6 +216,26 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         }
     }
 
+    /**
+     * @return the next row of the bucket, null if the bucket is end
+     */
+    private RowDataPacket takeBucketRow(int index) throws InterruptedException {
+        RowDataPacket row = outQueues.get(index).take();
+        if (row.getFieldCount() == 0) {
+            bucketEnded[index] = true;
+            return null;
+        }
+        return row;
+    }
+
+    private void checkBucketError() throws Exception {
+        for (GroupByBucket bucket : buckets) {
+            if (bucket.getError() != null) {
+                throw bucket.getError();
+            }
+        }
+    }
+
     private void recordElapsedTime(String prefix) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug(prefix + TimeUtil.currentTimeMillis());
@@ -192,7 +250,7 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         hasFirstRow.compareAndSet(false, true);
         try {
             DGRowPacket row = new DGRowPacket(rowPacket, this.referredSumFunctions.size());
-            queue.put(row);
+            inQueues.get(getBucketIndex(row)).put(row);
         } catch (InterruptedException e) {
             //ignore error
         }
@@ -206,16 +264,15 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
             return;
         try {
             // @bug1042
-            for (int i = 0; i < bucketSize; i++)
-                queue.put(new RowDataPacket(0));
+            for (BlockingQueue<RowDataPacket> inQueue : inQueues)
+                inQueue.put(new RowDataPacket(0));
         } catch (InterruptedException e) {
             //ignore error
         }
     }
 
-    private void sendGroupRowPacket(MySQLConnection conn) {
-        groupLocalResult.done();
-        RowDataPacket row = null;
+    private void sendGroupRowPacket(MySQLConnection conn, LoserTree<RowDataPacket> tree, RowDataComparator comparator)
+            throws InterruptedException {
         List<Field> localFields = HandlerTool.createFields(localResultFps);
         List<ItemSum> sendSums = new ArrayList<>();
         for (ItemSum selSum : referredSumFunctions) {
@@ -223,14 +280,37 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
             sendSums.add(sum);
         }
         prepareSumAggregators(sendSums, true);
-        while ((row = groupLocalResult.next()) != null) {
-            if (sendGroupRowPacket(conn, row, sendSums))
+        RowDataPacket groupRow = null;
+        RowDataPacket row;
+        while ((row = tree.peek()) != null) {
+            tree.replaceWinner(takeBucketRow(tree.getWinnerIndex()));
+            if (groupRow != null && comparator.compare(groupRow, row) == 0) {
+                updateSumFunctions(sendSums, row);
+                continue;
+            }
+            if (groupRow != null && sendGroupRowPacket(conn, groupRow, sendSums)) {
+                groupRow = null;
                 break;
+            }
+            initSumFunctions(sendSums, row);
+            groupRow = row;
+        }
+        if (groupRow != null) {
+            sendGroupRowPacket(conn, groupRow, sendSums);
+        } else {
+            // the next handler needs no more rows, let the buckets end
+            for (GroupByBucket bucket : buckets) {
+                bucket.stop();
+            }
+            for (int i = 0; i < bucketSize; i++) {
+                while (!bucketEnded[i]) {
+                    takeBucketRow(i);
+                }
+            }
         }
     }
 
     private boolean sendGroupRowPacket(MySQLConnection conn, RowDataPacket row, List<ItemSum> sendSums) {
-        initSumFunctions(sendSums, row);
         RowDataPacket newRp = new RowDataPacket(this.fieldPackets.size() + sendSums.size());
         /**
          * add sums generated by middle-ware.
@@ -303,18 +383,37 @@ public class DirectGroupByHandler extends OwnThreadDMLHandler {
         }
     }
 
+    protected void updateSumFunctions(List<ItemSum> functions, RowDataPacket row) {
+        for (int index = 0; index < functions.size(); index++) {
+            ItemSum sum = functions.get(index);
+            Object transObj = ((DGRowPacket) row).getSumTran(index);
+            sum.aggregatorAdd(row, transObj);
+        }
+    }
+
     @Override
     protected void terminateThread() throws Exception {
-        this.queue.clear();
-        for (int i = 0; i < bucketSize; i++)
-            queue.put(new RowDataPacket(0));
+        for (GroupByBucket bucket : buckets) {
+            bucket.stop();
+        }
+        for (BlockingQueue<RowDataPacket> inQueue : inQueues) {
+            inQueue.clear();
+            inQueue.put(new RowDataPacket(0));
+        }
     }
 
     @Override
     protected void recycleResources() {
-        this.queue.clear();
-        if (this.groupLocalResult != null)
-            this.groupLocalResult.close();
+        for (GroupByBucket bucket : buckets) {
+            bucket.stop();
+        }
+        for (BlockingQueue<RowDataPacket> inQueue : inQueues) {
+            inQueue.clear();
+        }
+        // the bucket may be waiting for the space of the out queue
+        for (BlockingQueue<RowDataPacket> outQueue : outQueues) {
+            outQueue.clear();
+        }
         for (LocalResult bucket : buckets) {
             bucket.close();
         }
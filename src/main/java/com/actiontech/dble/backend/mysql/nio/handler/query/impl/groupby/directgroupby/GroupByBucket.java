@@ -5,22 +5,31 @@
 
 package com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby.directgroupby;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
 import com.actiontech.dble.backend.mysql.store.GroupByLocalResult;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.net.mysql.FieldPacket;
 import com.actiontech.dble.net.mysql.RowDataPacket;
 import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 
 /**
  * GroupByBucket,generate Group By tmp result in every bucket in parallel ,and merge the buckets finally
+ * the rows are hashed to the buckets by the group by columns, so a group is usually only in one bucket
+ * and the sorted outputs of the buckets can be merged without grouping them again
  */
 public class GroupByBucket extends GroupByLocalResult {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupByBucket.class);
     private BlockingQueue<RowDataPacket> inData;
     private BlockingQueue<RowDataPacket> outData;
+    /* the output is not needed any more, only the end mark is sent */
+    private volatile boolean stopped = false;
+    private volatile Exception error;
 
     public GroupByBucket(BlockingQueue<RowDataPacket> sourceData, BlockingQueue<RowDataPacket> outData,
                          BufferPool pool, int fieldsCount, RowDataComparator groupCmp,
@@ -33,10 +42,10 @@ public class GroupByBucket extends GroupByLocalResult {
     }
 
     /**
-     * new Group by thread
+     * Group by in the complex query executor
      */
     public void start() {
-        Thread thread = new Thread(new Runnable() {
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
             @Override
             public void run() {
                 try {
@@ -48,15 +57,32 @@ public class GroupByBucket extends GroupByLocalResult {
                     }
                     done();
                     RowDataPacket groupedRow = null;
-                    while ((groupedRow = next()) != null)
+                    while (!stopped && (groupedRow = next()) != null)
                         outData.put(groupedRow);
-                    outData.put(new RowDataPacket((0)));
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    LOGGER.info("group by bucket is error", e);
+                    error = e;
+                } finally {
+                    putEndMark();
                 }
             }
         });
-        thread.start();
+    }
+
+    private void putEndMark() {
+        try {
+            outData.put(new RowDataPacket((0)));
+        } catch (InterruptedException e) {
+            LOGGER.info("group by bucket is interrupted", e);
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public Exception getError() {
+        return error;
     }
 
 }
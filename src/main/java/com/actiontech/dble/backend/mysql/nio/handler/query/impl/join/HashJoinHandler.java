@@ -0,0 +1,492 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.CharsetUtil;
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.query.OwnThreadDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.HandlerTool;
+import com.actiontech.dble.backend.mysql.nio.handler.util.JoinKeyHasher;
+import com.actiontech.dble.backend.mysql.nio.handler.util.TwoTableComparator;
+import com.actiontech.dble.backend.mysql.store.LocalResult;
+import com.actiontech.dble.backend.mysql.store.UnSortedLocalResult;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * join strategy is hash join, the rows of build side are put into a hash table,
+ * and the rows of probe side look up the hash table as soon as the build side is finished.
+ * the rows need not be ordered by join columns.
+ * <p>
+ * if the hash table is larger than joinMemSize, both sides are partitioned by the hash of
+ * join columns into local results which can be flushed into disk, and every pair of partitions
+ * is joined in own thread after all rows are received.
+ *
+ * @author ActionTech
+ */
+public class HashJoinHandler extends OwnThreadDMLHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashJoinHandler.class);
+    private static final int SPILL_PARTITION_BITS = 4;
+    private static final int SPILL_PARTITION_COUNT = 1 << SPILL_PARTITION_BITS;
+
+    private final boolean isLeftJoin;
+    private final boolean isBuildLeft;
+    private List<Order> leftOrders;
+    private List<Order> rightOrders;
+    private List<FieldPacket> leftFieldPackets;
+    private List<FieldPacket> rightFieldPackets;
+    private AtomicBoolean fieldSent = new AtomicBoolean(false);
+    private BufferPool pool;
+    private TwoTableComparator joinComparator;
+    private JoinKeyHasher keyHasher;
+    private List<Field> joinRowFields;
+    private Item otherJoinOn;
+    private Item otherJoinOnItem;
+    private String charset = "UTF-8";
+    // all rows and states are guarded by the lock
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<Object, List<RowDataPacket>> hashTable = new HashMap<>();
+    private long hashTableMemory = 0;
+    // build rows received before both fields are received
+    private LocalResult pendingBuildRows;
+    // probe rows received before the hash table is finished
+    private LocalResult pendingProbeRows;
+    private LocalResult[] buildPartitions;
+    private LocalResult[] probePartitions;
+    private boolean isSpilled = false;
+
+    private boolean isReady = false;
+    private boolean isBuildEof = false;
+    private boolean isBuildFinished = false;
+    private boolean isProbeEof = false;
+    private boolean isFinished = false;
+
+    public HashJoinHandler(long id, NonBlockingSession session, boolean isLeftJoin, boolean isBuildLeft,
+                           List<Order> leftOrder, List<Order> rightOrder, Item otherJoinOn) {
+        super(id, session);
+        this.isLeftJoin = isLeftJoin;
+        this.isBuildLeft = isBuildLeft;
+        this.leftOrders = leftOrder;
+        this.rightOrders = rightOrder;
+        this.leftFieldPackets = new ArrayList<>();
+        this.rightFieldPackets = new ArrayList<>();
+        this.otherJoinOn = otherJoinOn;
+    }
+
+    @Override
+    public HandlerType type() {
+        return HandlerType.JOIN;
+    }
+
+    @Override
+    public void fieldEofResponse(byte[] headerNull, List<byte[]> fieldsNull, final List<FieldPacket> fieldPackets,
+                                 byte[] eofNull, boolean isLeft, final BackendConnection conn) {
+        session.setHandlerStart(this);
+        lock.lock();
+        try {
+            if (this.pool == null)
+                this.pool = BufferPoolManager.getBufferPool();
+            if (isLeft) {
+                leftFieldPackets = fieldPackets;
+            } else {
+                rightFieldPackets = fieldPackets;
+            }
+            if (conn != null) {
+                this.charset = CharsetUtil.getJavaCharset(conn.getCharset().getResults());
+            }
+            if (!fieldSent.compareAndSet(false, true)) {
+                List<FieldPacket> newFieldPacket = new ArrayList<>();
+                newFieldPacket.addAll(leftFieldPackets);
+                newFieldPacket.addAll(rightFieldPackets);
+                nextHandler.fieldEofResponse(null, null, newFieldPacket, null, this.isLeft, conn);
+                makeJoinTools(newFieldPacket);
+                isReady = true;
+                if (pendingBuildRows != null) {
+                    pendingBuildRows.done();
+                    RowDataPacket row;
+                    while ((row = pendingBuildRows.next()) != null) {
+                        addBuildRow(row);
+                    }
+                    pendingBuildRows.close();
+                    pendingBuildRows = null;
+                }
+                if (isBuildEof) {
+                    finishBuild(conn);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void makeJoinTools(List<FieldPacket> rowPackets) {
+        boolean caseInsensitive = CharsetUtil.isCaseInsensitive(session.getSource().getCharset().getCollation());
+        joinComparator = new TwoTableComparator(leftFieldPackets, rightFieldPackets, leftOrders, rightOrders,
+                this.isAllPushDown(), this.type(), caseInsensitive);
+        keyHasher = new JoinKeyHasher(leftFieldPackets, rightFieldPackets, leftOrders, rightOrders,
+                this.isAllPushDown(), this.type(), caseInsensitive);
+        this.joinRowFields = HandlerTool.createFields(rowPackets);
+        if (otherJoinOn != null) {
+            otherJoinOnItem = HandlerTool.createItem(this.otherJoinOn, this.joinRowFields, 0, this.isAllPushDown(),
+                    this.type());
+        }
+    }
+
+    @Override
+    public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+        LOGGER.debug("rowresponse");
+        if (terminate.get()) {
+            return true;
+        }
+        lock.lock();
+        try {
+            if (isFinished || terminate.get()) {
+                return true;
+            }
+            if (isLeft == isBuildLeft) {
+                if (!isReady) {
+                    if (pendingBuildRows == null) {
+                        pendingBuildRows = newLocalResult(rowPacket.getFieldCount());
+                    }
+                    pendingBuildRows.add(rowPacket);
+                } else {
+                    addBuildRow(rowPacket);
+                }
+                return false;
+            }
+            if (!isBuildFinished) {
+                if (pendingProbeRows == null) {
+                    pendingProbeRows = newLocalResult(rowPacket.getFieldCount());
+                }
+                pendingProbeRows.add(rowPacket);
+                return false;
+            } else if (isSpilled) {
+                addProbeRowToPartition(rowPacket);
+                return false;
+            }
+            if (probe(rowPacket, hashTable, conn)) {
+                sendEof(conn);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void rowEofResponse(byte[] data, boolean isLeft, BackendConnection conn) {
+        LOGGER.debug("roweof");
+        if (terminate.get()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (isFinished || terminate.get()) {
+                return;
+            }
+            if (isLeft == isBuildLeft) {
+                isBuildEof = true;
+                if (isReady) {
+                    finishBuild(conn);
+                }
+            } else {
+                isProbeEof = true;
+                if (isBuildFinished) {
+                    finishProbe(conn);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * all rows of build side are received, probe the rows received before
+     */
+    private void finishBuild(BackendConnection conn) {
+        isBuildFinished = true;
+        LOGGER.debug("hash table is finished, spilled:" + isSpilled);
+        if (pendingProbeRows != null) {
+            pendingProbeRows.done();
+            RowDataPacket row;
+            try {
+                while ((row = pendingProbeRows.next()) != null) {
+                    if (isSpilled) {
+                        addProbeRowToPartition(row);
+                    } else if (probe(row, hashTable, conn)) {
+                        sendEof(conn);
+                        return;
+                    }
+                }
+            } finally {
+                if (pendingProbeRows != null) {
+                    pendingProbeRows.close();
+                    pendingProbeRows = null;
+                }
+            }
+        }
+        if (isProbeEof) {
+            finishProbe(conn);
+        }
+    }
+
+    private void finishProbe(BackendConnection conn) {
+        if (isSpilled) {
+            startOwnThread(conn);
+        } else {
+            sendEof(conn);
+        }
+    }
+
+    /**
+     * join the spilled partitions one by one
+     */
+    @Override
+    protected void ownThreadJob(Object... objects) {
+        BackendConnection conn = (BackendConnection) objects[0];
+        try {
+            for (int i = 0; i < SPILL_PARTITION_COUNT; i++) {
+                if (terminate.get())
+                    return;
+                Map<Object, List<RowDataPacket>> partitionTable = new HashMap<>();
+                LocalResult buildPartition = buildPartitions[i];
+                buildPartition.done();
+                RowDataPacket row;
+                while ((row = buildPartition.next()) != null) {
+                    putToHashTable(partitionTable, makeBuildKey(row), row);
+                }
+                buildPartition.close();
+                LocalResult probePartition = probePartitions[i];
+                probePartition.done();
+                boolean interrupted = false;
+                while ((row = probePartition.next()) != null) {
+                    if (terminate.get())
+                        return;
+                    if (probe(row, partitionTable, conn)) {
+                        interrupted = true;
+                        break;
+                    }
+                }
+                probePartition.close();
+                if (interrupted) {
+                    break;
+                }
+            }
+            sendEof(conn);
+        } catch (Exception e) {
+            String msg = "hash join thread error, " + e.getLocalizedMessage();
+            LOGGER.info(msg, e);
+            session.onQueryError(msg.getBytes());
+        }
+    }
+
+    private void addBuildRow(RowDataPacket row) {
+        Object key = makeBuildKey(row);
+        if (key == null) {
+            // null never equals to anything, and the build side is never the outer side
+            return;
+        }
+        if (isSpilled) {
+            buildPartitions[partitionOf(key)].add(row);
+            return;
+        }
+        putToHashTable(hashTable, key, row);
+        int rowSize = row.calcPacketSize();
+        hashTableMemory += rowSize;
+        if (!session.getJoinBufferMC().addSize(rowSize)) {
+            spill();
+        }
+    }
+
+    private void addProbeRowToPartition(RowDataPacket row) {
+        Object key = makeProbeKey(row);
+        if (key == null) {
+            if (isLeftJoin) {
+                // can not be joined, but left join should send it with null
+                probePartitions[0].add(row);
+            }
+            return;
+        }
+        probePartitions[partitionOf(key)].add(row);
+    }
+
+    /**
+     * the hash table is too large, move it into partitions which can be flushed into disk
+     */
+    private void spill() {
+        LOGGER.debug("hash table of join is too large, spill it into partitions");
+        isSpilled = true;
+        int buildCount = isBuildLeft ? leftFieldPackets.size() : rightFieldPackets.size();
+        int probeCount = isBuildLeft ? rightFieldPackets.size() : leftFieldPackets.size();
+        buildPartitions = new LocalResult[SPILL_PARTITION_COUNT];
+        probePartitions = new LocalResult[SPILL_PARTITION_COUNT];
+        for (int i = 0; i < SPILL_PARTITION_COUNT; i++) {
+            buildPartitions[i] = newLocalResult(buildCount);
+            probePartitions[i] = newLocalResult(probeCount);
+        }
+        Map<Object, List<RowDataPacket>> table = hashTable;
+        hashTable = new HashMap<>();
+        releaseHashTableMemory();
+        for (Map.Entry<Object, List<RowDataPacket>> entry : table.entrySet()) {
+            LocalResult partition = buildPartitions[partitionOf(entry.getKey())];
+            for (RowDataPacket row : entry.getValue()) {
+                partition.add(row);
+            }
+        }
+    }
+
+    /**
+     * @return if is interrupted by next handler ,return true,else false
+     */
+    private boolean probe(RowDataPacket probeRow, Map<Object, List<RowDataPacket>> table, BackendConnection conn) {
+        Object key = makeProbeKey(probeRow);
+        List<RowDataPacket> candidates = key == null ? null : table.get(key);
+        int matchCount = 0;
+        if (candidates != null) {
+            for (RowDataPacket buildRow : candidates) {
+                RowDataPacket leftRow = isBuildLeft ? buildRow : probeRow;
+                RowDataPacket rightRow = isBuildLeft ? probeRow : buildRow;
+                if (joinComparator.compare(leftRow, rightRow) != 0) {
+                    continue;
+                }
+                RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+                for (byte[] value : leftRow.fieldValues) {
+                    rowPacket.add(value);
+                }
+                for (byte[] value : rightRow.fieldValues) {
+                    rowPacket.add(value);
+                }
+                if (otherJoinOnItem != null) {
+                    HandlerTool.initFields(joinRowFields, rowPacket.fieldValues);
+                    if (!otherJoinOnItem.valBool())
+                        continue;
+                }
+                matchCount++;
+                if (nextHandler.rowResponse(null, rowPacket, isLeft, conn))
+                    return true;
+            }
+        }
+        // left join builds on right side, send left row and null
+        if (matchCount == 0 && isLeftJoin) {
+            RowDataPacket rowPacket = new RowDataPacket(leftFieldPackets.size() + rightFieldPackets.size());
+            for (byte[] value : probeRow.fieldValues) {
+                rowPacket.add(value);
+            }
+            for (int i = 0; i < rightFieldPackets.size(); i++) {
+                rowPacket.add(null);
+            }
+            return nextHandler.rowResponse(null, rowPacket, isLeft, conn);
+        }
+        return false;
+    }
+
+    private void sendEof(BackendConnection conn) {
+        if (isFinished) {
+            return;
+        }
+        isFinished = true;
+        HandlerTool.terminateHandlerTree(this);
+        // for trace, when join end before all rows return ,the handler should mark as finished
+        for (DMLResponseHandler mergeHandler : this.getMerges()) {
+            DMLResponseHandler handler = mergeHandler;
+            while (handler != null && handler != this) {
+                session.setHandlerEnd(handler);
+                handler = handler.getNextHandler();
+            }
+        }
+        session.setHandlerEnd(this);
+        nextHandler.rowEofResponse(null, isLeft, conn);
+    }
+
+    private Object makeBuildKey(RowDataPacket row) {
+        return isBuildLeft ? keyHasher.makeLeftKey(row) : keyHasher.makeRightKey(row);
+    }
+
+    private Object makeProbeKey(RowDataPacket row) {
+        return isBuildLeft ? keyHasher.makeRightKey(row) : keyHasher.makeLeftKey(row);
+    }
+
+    private static void putToHashTable(Map<Object, List<RowDataPacket>> table, Object key, RowDataPacket row) {
+        List<RowDataPacket> rows = table.get(key);
+        if (rows == null) {
+            rows = new ArrayList<>(2);
+            table.put(key, rows);
+        }
+        rows.add(row);
+    }
+
+    private static int partitionOf(Object key) {
+        // use the high bits, HashMap of one partition uses the low bits
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - SPILL_PARTITION_BITS);
+    }
+
+    private LocalResult newLocalResult(int fieldCount) {
+        return new UnSortedLocalResult(fieldCount, pool, this.charset).setMemSizeController(session.getJoinBufferMC());
+    }
+
+    private void releaseHashTableMemory() {
+        if (hashTableMemory > 0) {
+            MemSizeController bufferMC = session.getJoinBufferMC();
+            bufferMC.subSize(hashTableMemory);
+            hashTableMemory = 0;
+        }
+    }
+
+    @Override
+    protected void terminateThread() throws Exception {
+        // the own thread checks terminate flag for every row
+    }
+
+    @Override
+    protected void recycleResources() {
+        lock.lock();
+        try {
+            hashTable.clear();
+            releaseHashTableMemory();
+            closeLocalResult(pendingBuildRows);
+            pendingBuildRows = null;
+            closeLocalResult(pendingProbeRows);
+            pendingProbeRows = null;
+            closeLocalResults(buildPartitions);
+            closeLocalResults(probePartitions);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void closeLocalResults(LocalResult[] results) {
+        if (results == null)
+            return;
+        for (LocalResult result : results) {
+            closeLocalResult(result);
+        }
+    }
+
+    private static void closeLocalResult(LocalResult result) {
+        if (result != null)
+            result.close();
+    }
+
+}
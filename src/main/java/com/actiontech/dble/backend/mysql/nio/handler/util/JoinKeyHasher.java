@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.MySQLcom;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.plan.common.item.Item;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * make the hash key of the join columns for hash join.
+ * the rows which are equal by TwoTableComparator always get the equal key,
+ * but the rows with the equal key may be not equal, so the TwoTableComparator is
+ * still needed to check the candidates.
+ *
+ * @author ActionTech
+ */
+public class JoinKeyHasher {
+    private static final Object ANY_VALUE = new Object();
+
+    private enum KeyType {
+        INT, DECIMAL, REAL, STRING, DATETIME, ANY
+    }
+
+    private List<Field> leftFields;
+    private List<Field> rightFields;
+    private List<Item> leftItems;
+    private List<Item> rightItems;
+    private List<KeyType> keyTypes;
+    private boolean caseInsensitive;
+
+    public JoinKeyHasher(List<FieldPacket> fps1, List<FieldPacket> fps2, List<Order> leftOrders,
+                         List<Order> rightOrders, boolean isAllPushDown, DMLResponseHandler.HandlerType type,
+                         boolean caseInsensitive) {
+        this.leftFields = HandlerTool.createFields(fps1);
+        this.rightFields = HandlerTool.createFields(fps2);
+        this.caseInsensitive = caseInsensitive;
+        this.leftItems = new ArrayList<>();
+        this.rightItems = new ArrayList<>();
+        this.keyTypes = new ArrayList<>();
+        for (int index = 0; index < leftOrders.size(); index++) {
+            Item leftItem = HandlerTool.createItem(leftOrders.get(index).getItem(), leftFields, 0, isAllPushDown, type);
+            Item rightItem = HandlerTool.createItem(rightOrders.get(index).getItem(), rightFields, 0, isAllPushDown, type);
+            leftItems.add(leftItem);
+            rightItems.add(rightItem);
+            keyTypes.add(getKeyType(leftItem, rightItem));
+        }
+    }
+
+    /**
+     * the same way as ArgComparator.setCmpFunc chooses the compare function
+     */
+    private static KeyType getKeyType(Item a, Item b) {
+        if (a.isTemporal() || b.isTemporal()) {
+            return a.isTemporalWithDate() && b.isTemporalWithDate() ? KeyType.DATETIME : KeyType.ANY;
+        }
+        if (a.fieldType() == FieldTypes.MYSQL_TYPE_YEAR || b.fieldType() == FieldTypes.MYSQL_TYPE_YEAR) {
+            return KeyType.ANY;
+        }
+        switch (MySQLcom.itemCmpType(a.resultType(), b.resultType())) {
+            case STRING_RESULT:
+                return KeyType.STRING;
+            case INT_RESULT:
+                return KeyType.INT;
+            case DECIMAL_RESULT:
+                return KeyType.DECIMAL;
+            case REAL_RESULT:
+                // compared with precision, equal values may have different digits
+                if (a.getDecimals() < Item.NOT_FIXED_DEC && b.getDecimals() < Item.NOT_FIXED_DEC) {
+                    return KeyType.ANY;
+                }
+                return KeyType.REAL;
+            default:
+                return KeyType.ANY;
+        }
+    }
+
+    /**
+     * @return the key of left row, null if any join column is null which will never be joined
+     */
+    public Object makeLeftKey(RowDataPacket row) {
+        HandlerTool.initFields(leftFields, row.fieldValues);
+        return makeKey(leftItems);
+    }
+
+    /**
+     * @return the key of right row, null if any join column is null which will never be joined
+     */
+    public Object makeRightKey(RowDataPacket row) {
+        HandlerTool.initFields(rightFields, row.fieldValues);
+        return makeKey(rightItems);
+    }
+
+    private Object makeKey(List<Item> items) {
+        if (items.size() == 1) {
+            return makeColumnKey(items.get(0), keyTypes.get(0));
+        }
+        Object[] values = new Object[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Object value = makeColumnKey(items.get(i), keyTypes.get(i));
+            if (value == null) {
+                return null;
+            }
+            values[i] = value;
+        }
+        return Arrays.asList(values);
+    }
+
+    private Object makeColumnKey(Item item, KeyType keyType) {
+        Object value;
+        switch (keyType) {
+            case INT:
+                value = item.valInt();
+                break;
+            case DECIMAL:
+                value = normalize(item.valDecimal());
+                break;
+            case REAL:
+                value = normalize(item.valReal());
+                break;
+            case STRING:
+                String str = item.valStr();
+                value = str == null ? null : normalize(str);
+                break;
+            case DATETIME:
+                value = item.valDateTemporal();
+                break;
+            default:
+                value = item.valStr() == null ? null : ANY_VALUE;
+                break;
+        }
+        if (value == null || item.isNull()) {
+            return null;
+        }
+        return value;
+    }
+
+    private static BigDecimal normalize(BigDecimal decimal) {
+        if (decimal == null) {
+            return null;
+        } else if (decimal.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return decimal.stripTrailingZeros();
+    }
+
+    private String normalize(String str) {
+        if (!caseInsensitive) {
+            return str;
+        }
+        // the same as String.CASE_INSENSITIVE_ORDER
+        char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+}
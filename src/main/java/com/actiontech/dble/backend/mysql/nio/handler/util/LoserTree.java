@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import java.util.Comparator;
+
+/**
+ * tournament tree of losers for k-way merge.
+ * every inner node keeps the loser of its sub tree and the root keeps the winner, so replacing the
+ * winner only needs log2(k) comparisons along one path, about half of the ArrayMinHeap.
+ * the exhausted leaf is null which is bigger than everything.
+ */
+@SuppressWarnings("unchecked")
+public class LoserTree<E> {
+    private final int k;
+    /* tree[0] is the index of the winner leaf, tree[1..k-1] are the losers */
+    private final int[] tree;
+    private final Object[] leaves;
+    private final Comparator<E> comparator;
+
+    public LoserTree(int k, Comparator<E> comparator) {
+        if (k < 1)
+            throw new IllegalArgumentException();
+        this.k = k;
+        this.tree = new int[k];
+        this.leaves = new Object[k];
+        this.comparator = comparator;
+    }
+
+    /**
+     * set the first value of the leaf, build() must be called after all leaves are set
+     */
+    public void setLeaf(int index, E value) {
+        leaves[index] = value;
+    }
+
+    public void build() {
+        if (k == 1) {
+            tree[0] = 0;
+            return;
+        }
+        // the leaves are at [k, 2k), the winners of inner nodes are at [1, k)
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int n = k - 1; n > 0; n--) {
+            int left = winners[2 * n];
+            int right = winners[2 * n + 1];
+            if (beats(left, right)) {
+                winners[n] = left;
+                tree[n] = right;
+            } else {
+                winners[n] = right;
+                tree[n] = left;
+            }
+        }
+        tree[0] = winners[1];
+    }
+
+    /**
+     * @return the smallest value, null if all the leaves are exhausted
+     */
+    public E peek() {
+        return (E) leaves[tree[0]];
+    }
+
+    public int getWinnerIndex() {
+        return tree[0];
+    }
+
+    /**
+     * replace the winner with the next value of the same leaf, null if the leaf is exhausted
+     */
+    public void replaceWinner(E value) {
+        int winner = tree[0];
+        leaves[winner] = value;
+        for (int n = (winner + k) >> 1; n > 0; n >>= 1) {
+            if (beats(tree[n], winner)) {
+                int loser = winner;
+                winner = tree[n];
+                tree[n] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    private boolean beats(int a, int b) {
+        E valueA = (E) leaves[a];
+        E valueB = (E) leaves[b];
+        if (valueA == null) {
+            return valueB == null && a < b;
+        } else if (valueB == null) {
+            return true;
+        }
+        int result = comparator.compare(valueA, valueB);
+        return result < 0 || (result == 0 && a < b);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * a bounded queue with single producer and single consumer, the consumer takes all the pending
+ * items at once, so the hand-off cost is paid once per batch instead of once per row.
+ * the producer is never kept waiting for the batch to be filled, the consumer gets whatever is there.
+ */
+public class RowBatchQueue {
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private List<HeapItem> pending;
+    /* the batch returned to the consumer last time, reused as the pending list */
+    private List<HeapItem> spare;
+
+    public RowBatchQueue(int capacity) {
+        this.capacity = capacity;
+        this.pending = new ArrayList<>();
+        this.spare = new ArrayList<>();
+    }
+
+    public void put(HeapItem item) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (pending.size() >= capacity) {
+                notFull.await();
+            }
+            pending.add(item);
+            if (pending.size() == 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return all the pending items, the list is only valid until next call
+     */
+    public List<HeapItem> takeAll() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (pending.isEmpty()) {
+                notEmpty.await();
+            }
+            List<HeapItem> batch = pending;
+            spare.clear();
+            pending = spare;
+            spare = batch;
+            notFull.signal();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            pending.clear();
+            notFull.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
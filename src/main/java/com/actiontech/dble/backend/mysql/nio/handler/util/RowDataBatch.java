@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+import java.util.Arrays;
+
+/**
+ * the rows passed through the handler chain at once, backed by an array which is reused by the producer.
+ * the handlers may filter or replace the rows in place, the rows kept are moved to the front in order,
+ * so the batch is only valid during the call and must not be kept by the handlers.
+ */
+public final class RowDataBatch {
+    private RowDataPacket[] rows;
+    private int size;
+
+    public RowDataBatch(int capacity) {
+        this.rows = new RowDataPacket[capacity];
+    }
+
+    public void add(RowDataPacket row) {
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(size << 1, 1));
+        }
+        rows[size++] = row;
+    }
+
+    public RowDataPacket get(int index) {
+        return rows[index];
+    }
+
+    public void set(int index, RowDataPacket row) {
+        rows[index] = row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * keep the first newSize rows, used with set to filter the rows in place
+     */
+    public void truncate(int newSize) {
+        Arrays.fill(rows, newSize, size, null);
+        size = newSize;
+    }
+
+    public void clear() {
+        truncate(0);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+
+/**
+ * keep only the first topN rows of the order in a bounded heap, the heap top is the biggest one kept,
+ * so the rows after it are dropped at once and nothing is ever written to disk.
+ * topN should be small, the rows are kept in memory even if the memory controller is exceeded.
+ */
+public class TopNSortedLocalResult extends SortedLocalResult {
+    private final long topN;
+    private final PriorityQueue<RowDataPacket> heap;
+
+    public TopNSortedLocalResult(BufferPool pool, int fieldsCount, RowDataComparator rowCmp, String charset, long topN) {
+        super((int) Math.min(topN, DEFAULT_INITIAL_CAPACITY), fieldsCount, pool, rowCmp, charset);
+        this.topN = topN;
+        this.heap = new PriorityQueue<>((int) Math.max(1, Math.min(topN, DEFAULT_INITIAL_CAPACITY)),
+                Collections.reverseOrder(rowCmp));
+    }
+
+    @Override
+    public void add(RowDataPacket row) {
+        lock.lock();
+        try {
+            if (this.isClosed || topN == 0)
+                return;
+            lastRow = row;
+            if (heap.size() < topN) {
+                heap.add(row);
+                rowCount++;
+                addMemory(getRowMemory(row));
+            } else if (rowCmp.compare(row, heap.peek()) < 0) {
+                RowDataPacket dropped = heap.poll();
+                heap.add(row);
+                addMemory(getRowMemory(row) - getRowMemory(dropped));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addMemory(int incrementSize) {
+        currentMemory += incrementSize;
+        if (bufferMC == null) {
+            return;
+        }
+        // only for accounting, the heap never spills
+        if (incrementSize >= 0) {
+            bufferMC.addSize(incrementSize);
+        } else {
+            bufferMC.subSize(-incrementSize);
+        }
+    }
+
+    @Override
+    protected void doneOnlyMemory() {
+        rows.clear();
+        rows.addAll(heap);
+        heap.clear();
+        Collections.sort(rows, this.rowCmp);
+        rowCount = rows.size();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            heap.clear();
+            super.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            heap.clear();
+            super.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTopN() {
+        return topN;
+    }
+}
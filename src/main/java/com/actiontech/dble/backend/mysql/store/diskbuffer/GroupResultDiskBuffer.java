@@ -20,6 +20,7 @@ import org.apache.commons.lang.SerializationUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -62,7 +63,17 @@ public class GroupResultDiskBuffer extends DistinctResultDiskBuffer {
 
     @Override
     protected ResultDiskTape makeResultDiskTape() {
-        return new GroupResultDiskTape(pool, file, columnCount, sums.size());
+        return new GroupResultDiskTape(file, columnCount, sums.size());
+    }
+
+    @Override
+    protected void writeRow(RowDataPacket row) {
+        DGRowPacket dgRow = (DGRowPacket) row;
+        for (int i = 0; i < sums.size(); i++) {
+            Object transObj = dgRow.getSumTran(i);
+            writeValue(transObj == null ? null : SerializationUtils.serialize((Serializable) transObj));
+        }
+        super.writeRow(row);
     }
 
     @Override
@@ -117,8 +128,8 @@ public class GroupResultDiskBuffer extends DistinctResultDiskBuffer {
         private final int orgFieldCount;
         private final int sumSize;
 
-        GroupResultDiskTape(BufferPool pool, FileStore file, int fieldCount, int sumSize) {
-            super(pool, file, sumSize + fieldCount);
+        GroupResultDiskTape(FileStore file, int fieldCount, int sumSize) {
+            super(file, sumSize + fieldCount);
             this.orgFieldCount = fieldCount;
             this.sumSize = sumSize;
         }
@@ -5,25 +5,41 @@
 
 package com.actiontech.dble.backend.mysql.store.diskbuffer;
 
-import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.store.FileStore;
 import com.actiontech.dble.backend.mysql.store.result.ResultExternal;
 import com.actiontech.dble.buffer.BufferPool;
-import com.actiontech.dble.net.mysql.MySQLPacket;
+import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.util.CompressLZF;
 import com.actiontech.dble.util.exception.NotSupportException;
+import com.actiontech.dble.util.exception.TmpFileException;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * a buffer used to store large amount of data on disk or virtual memory mapped
  * on disk
+ * <p>
+ * the rows are written as the blocks of the tapes, a block is
+ * <pre>
+ * 1 byte    block type, plain or LZF compressed
+ * 4 bytes   length of the rows before compression
+ * n bytes   the rows, every value is a varint of its length + 1 (0 for null) and the bytes
+ * </pre>
+ * the position of every block is kept in the block index of its tape, so a block is read by one read call
  *
  * @author ActionTech
  */
 public abstract class ResultDiskBuffer implements ResultExternal {
+    /* the rows are flushed as a block when its uncompressed length reaches it */
+    static final int BLOCK_SIZE = 32 * 1024;
+    private static final int BLOCK_HEADER_SIZE = 5;
+    private static final byte BLOCK_PLAIN = 0;
+    private static final byte BLOCK_LZF = 1;
+
     protected final int columnCount;
     protected final BufferPool pool;
 
@@ -31,11 +47,23 @@ public abstract class ResultDiskBuffer implements ResultExternal {
     protected FileStore file;
     protected int rowCount = 0;
 
+    private final CompressLZF compressor;
+    private final byte[] blockHeader = new byte[BLOCK_HEADER_SIZE];
+    private byte[] block = new byte[BLOCK_SIZE];
+    private int blockLength = 0;
+    private byte[] compressed;
+
     public ResultDiskBuffer(BufferPool pool, int columnCount) {
         this.pool = pool;
         this.columnCount = columnCount;
         this.writeBuffer = pool.allocate();
         this.file = new FileStore("nioMapped:Memory", "rw");
+        if (SystemConfig.getInstance().getUseSpillCompression() == 1) {
+            this.compressor = new CompressLZF();
+            this.compressed = new byte[BLOCK_SIZE];
+        } else {
+            this.compressor = null;
+        }
     }
 
     @Override
@@ -69,11 +97,90 @@ public abstract class ResultDiskBuffer implements ResultExternal {
             file.closeAndDeleteSilently();
         file = null;
         pool.recycle(writeBuffer);
+        block = null;
+        compressed = null;
+    }
+
+    /**
+     * append the rows to the end of the file as the blocks of the tape
+     */
+    protected final void writeRows(List<RowDataPacket> rows, ResultDiskTape tape) {
+        // the tapes may have moved the file pointer
+        file.seek(file.length());
+        for (RowDataPacket row : rows) {
+            writeRow(row);
+            if (blockLength >= BLOCK_SIZE) {
+                flushBlock(tape);
+            }
+        }
+        flushBlock(tape);
+        writeBuffer.flip();
+        file.write(writeBuffer);
+        writeBuffer.clear();
+        tape.end = file.getFilePointer();
+    }
+
+    /**
+     * to override by group by
+     */
+    protected void writeRow(RowDataPacket row) {
+        for (int i = 0; i < row.getFieldCount(); i++) {
+            writeValue(row.getValue(i));
+        }
+    }
+
+    protected final void writeValue(byte[] value) {
+        if (value == null) {
+            ensureBlockCapacity(1);
+            block[blockLength++] = 0;
+            return;
+        }
+        ensureBlockCapacity(5 + value.length);
+        int v = value.length + 1;
+        while ((v & ~0x7f) != 0) {
+            block[blockLength++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        block[blockLength++] = (byte) v;
+        System.arraycopy(value, 0, block, blockLength, value.length);
+        blockLength += value.length;
+    }
+
+    private void ensureBlockCapacity(int size) {
+        if (blockLength + size > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length << 1, blockLength + size));
+        }
+    }
+
+    private void flushBlock(ResultDiskTape tape) {
+        if (blockLength == 0) {
+            return;
+        }
+        tape.addBlock(file.getFilePointer() + writeBuffer.position());
+        byte[] data = block;
+        int dataLength = blockLength;
+        blockHeader[0] = BLOCK_PLAIN;
+        if (compressor != null) {
+            if (compressed.length < blockLength) {
+                compressed = new byte[block.length];
+            }
+            // only keep the compressed one if it is smaller
+            int compressedLength = compressor.compress(block, blockLength, compressed, 0, blockLength - 1);
+            if (compressedLength > 0) {
+                data = compressed;
+                dataLength = compressedLength;
+                blockHeader[0] = BLOCK_LZF;
+            }
+        }
+        writeInt(blockHeader, 1, blockLength);
+        writeBuffer = writeToBuffer(blockHeader, 0, BLOCK_HEADER_SIZE, writeBuffer);
+        writeBuffer = writeToBuffer(data, 0, dataLength, writeBuffer);
+        blockLength = 0;
     }
 
-    protected ByteBuffer writeToBuffer(byte[] src, ByteBuffer buffer) {
-        int offset = 0;
-        int len = src.length;
+    protected ByteBuffer writeToBuffer(byte[] src, int off, int length, ByteBuffer buffer) {
+        int offset = off;
+        int len = length;
         int remaining = buffer.remaining();
         while (len > 0) {
             if (remaining >= len) {
@@ -87,12 +194,22 @@ public abstract class ResultDiskBuffer implements ResultExternal {
                 offset += remaining;
                 len -= remaining;
                 remaining = buffer.remaining();
-                continue;
             }
         }
         return buffer;
     }
 
+    private static void writeInt(byte[] b, int offset, int v) {
+        b[offset] = (byte) (v >>> 24);
+        b[offset + 1] = (byte) (v >>> 16);
+        b[offset + 2] = (byte) (v >>> 8);
+        b[offset + 3] = (byte) v;
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return ((b[offset] & 0xff) << 24) | ((b[offset + 1] & 0xff) << 16) | ((b[offset + 2] & 0xff) << 8) | (b[offset + 3] & 0xff);
+    }
+
     static class TapeItem {
 
         RowDataPacket row;
@@ -106,132 +223,104 @@ public abstract class ResultDiskBuffer implements ResultExternal {
 
     /**
      * Represents a virtual disk tape for the merge sort algorithm. Each virtual
-     * disk tape is a region of the temp file.
+     * disk tape is a list of blocks of the temp file.
      */
     static class ResultDiskTape {
 
-        BufferPool pool;
         FileStore file;
         int fieldCount;
-        long filePos;
-        long start;
         long end;
-        long pos;
-        int readBufferOffset;
-        ByteBuffer readBuffer;
+        /* the block index, the file position of every block of the tape in order */
+        private long[] blocks = new long[8];
+        private int blockCount;
+        private int nextBlock;
+        private byte[] stored;
+        private byte[] expanded;
+        /* the rows of the current block */
+        private byte[] data;
+        private int dataPos;
+        private int dataLength;
 
-        ResultDiskTape(BufferPool pool, FileStore file, int fieldCount) {
-            this.pool = pool;
+        ResultDiskTape(FileStore file, int fieldCount) {
             this.file = file;
             this.fieldCount = fieldCount;
-            this.readBuffer = pool.allocate();
         }
 
-        public boolean isEnd() {
-            return isReadAll();
-        }
-
-        public RowDataPacket nextRow() {
-            if (isReadAll())
-                return null;
-            byte[] row;
-            byte[] singlePacket = getSinglePacket();
-            if (singlePacket.length == MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE) {
-                List<byte[]> rowParts = new ArrayList<>();
-                rowParts.add(singlePacket);
-                byte[] dataTmp;
-                do {
-                    dataTmp = getSinglePacket();
-                    rowParts.add(dataTmp);
-                } while (dataTmp.length == MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE);
-
-                row = new byte[(rowParts.size() - 1) * MySQLPacket.MAX_PACKET_SIZE + dataTmp.length];
-                ByteUtil.writeUB3(row, MySQLPacket.MAX_PACKET_SIZE);
-                row[3] = rowParts.get(0)[3];
-                for (int i = 0; i < rowParts.size(); i++) {
-                    byte[] rowPart = rowParts.get(i);
-                    System.arraycopy(rowPart, 4, row, 4 + i * MySQLPacket.MAX_PACKET_SIZE, rowPart.length - MySQLPacket.PACKET_HEADER_SIZE);
-                }
-            } else {
-                row = singlePacket;
+        void addBlock(long position) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount << 1);
             }
-            RowDataPacket currentRow = new RowDataPacket(fieldCount);
-            currentRow.read(row);
-            return currentRow;
+            blocks[blockCount++] = position;
         }
 
-        private boolean isReadAll() {
-            return this.end == this.pos;
+        void reset() {
+            nextBlock = 0;
+            dataPos = 0;
+            dataLength = 0;
         }
 
-        private void readIntoBuffer() {
-            file.seek(filePos);
-            filePos += file.read(readBuffer, end);
+        public boolean isEnd() {
+            return dataPos == dataLength && nextBlock == blockCount;
         }
 
-        private byte[] getSinglePacket() {
-            int offset = readBufferOffset, length = 0, position = readBuffer.position();
-            length = getPacketLength(readBuffer, offset);
-            while (length == -1 || position < offset + length) {
-                if (!readBuffer.hasRemaining()) {
-                    checkReadBuffer(offset);
-                }
-                // read new data to buffer
-                readIntoBuffer();
-                // get new offset for buffer compact
-                offset = readBufferOffset;
-                position = readBuffer.position();
-                if (length == -1) {
-                    length = getPacketLength(readBuffer, offset);
-                }
+        public RowDataPacket nextRow() {
+            if (dataPos == dataLength) {
+                if (nextBlock == blockCount)
+                    return null;
+                readBlock(nextBlock++);
             }
-
-            readBuffer.position(offset);
-            byte[] data = new byte[length];
-            readBuffer.get(data, 0, length);
-            offset += length;
-            pos += length;
-            if (position == offset) {
-                if (readBufferOffset != 0) {
-                    readBufferOffset = 0;
+            RowDataPacket currentRow = new RowDataPacket(fieldCount);
+            for (int i = 0; i < fieldCount; i++) {
+                int v = readVarInt();
+                if (v == 0) {
+                    currentRow.add(null);
+                } else {
+                    currentRow.add(Arrays.copyOfRange(data, dataPos, dataPos + v - 1));
+                    dataPos += v - 1;
                 }
-                readBuffer.clear();
-                readIntoBuffer();
-            } else {
-                readBufferOffset = offset;
-                readBuffer.position(position);
             }
-            return data;
+            return currentRow;
         }
 
-        private int getPacketLength(ByteBuffer buffer, int offset) {
-            if (buffer.position() < offset + 4) {
-                return -1;
-            } else {
-                int length = buffer.get(offset) & 0xff;
-                length |= (buffer.get(++offset) & 0xff) << 8;
-                length |= (buffer.get(++offset) & 0xff) << 16;
-                return length + 4;
-            }
+        private int readVarInt() {
+            int v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[dataPos++];
+                v |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return v;
         }
 
-        private void checkReadBuffer(int offset) {
-            // if offset is 0,then expend buffer; else set offset to 0,compact
-            // buffer
-            if (offset == 0) {
-                if (readBuffer.capacity() >= Integer.MAX_VALUE) {
-                    throw new IllegalArgumentException("Packet size over the limit.");
+        private void readBlock(int index) {
+            long blockStart = blocks[index];
+            long blockEnd = index + 1 < blockCount ? blocks[index + 1] : end;
+            int storedLength = (int) (blockEnd - blockStart);
+            if (stored == null || stored.length < storedLength) {
+                stored = new byte[Math.max(storedLength, BLOCK_SIZE)];
+            }
+            file.seek(blockStart);
+            ByteBuffer buffer = ByteBuffer.wrap(stored, 0, storedLength);
+            while (buffer.hasRemaining()) {
+                if (file.read(buffer, blockEnd) <= 0) {
+                    throw TmpFileException.get(ErrorCode.ER_FILE_READ, "spilled block");
+                }
+            }
+            int rawLength = readInt(stored, 1);
+            if (stored[0] == BLOCK_LZF) {
+                if (expanded == null || expanded.length < rawLength) {
+                    expanded = new byte[Math.max(rawLength, BLOCK_SIZE)];
                 }
-                int size = readBuffer.capacity() > (Integer.MAX_VALUE >> 1) ? Integer.MAX_VALUE : readBuffer.capacity() << 1;
-                ByteBuffer newBuffer = ByteBuffer.allocate(size);
-                readBuffer.position(offset);
-                newBuffer.put(readBuffer);
-                pool.recycle(readBuffer);
-                readBuffer = newBuffer;
+                CompressLZF.expand(stored, BLOCK_HEADER_SIZE, storedLength - BLOCK_HEADER_SIZE, expanded, 0, rawLength);
+                data = expanded;
+                dataPos = 0;
+                dataLength = rawLength;
             } else {
-                readBuffer.position(offset);
-                readBuffer.compact();
-                readBufferOffset = 0;
+                data = stored;
+                dataPos = BLOCK_HEADER_SIZE;
+                dataLength = BLOCK_HEADER_SIZE + rawLength;
             }
         }
     }
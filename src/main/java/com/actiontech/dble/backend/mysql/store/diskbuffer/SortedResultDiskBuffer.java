@@ -74,25 +74,11 @@ public class SortedResultDiskBuffer extends ResultDiskBuffer {
          * we should make rows sorted first, then write them into file
          */
         if (logger.isDebugEnabled()) {
-            logger.debug(" convert list to array start:" + TimeUtil.currentTimeMillis());
+            logger.debug("write rows to disk start:" + TimeUtil.currentTimeMillis());
         }
-        RowDataPacket[] rowArray = new RowDataPacket[rows.size()];
-        rows.toArray(rowArray);
-        final long start = file.getFilePointer();
-        for (RowDataPacket row : rowArray) {
-            byte[] b = row.toBytes();
-            writeBuffer = writeToBuffer(b, writeBuffer);
-        }
-        // help for gc
-        rowArray = null;
-        writeBuffer.flip();
-        file.write(writeBuffer);
-        writeBuffer.clear();
         /* make a new tape */
         ResultDiskTape tape = makeResultDiskTape();
-        tape.start = start;
-        tape.filePos = start;
-        tape.end = file.getFilePointer();
+        writeRows(rows, tape);
         tapes.add(tape);
         rowCount += rows.size();
         if (logger.isDebugEnabled()) {
@@ -107,7 +93,7 @@ public class SortedResultDiskBuffer extends ResultDiskBuffer {
      * @return
      */
     protected ResultDiskTape makeResultDiskTape() {
-        return new ResultDiskTape(pool, file, columnCount);
+        return new ResultDiskTape(file, columnCount);
     }
 
     @Override
@@ -125,10 +111,7 @@ public class SortedResultDiskBuffer extends ResultDiskBuffer {
     @Override
     public final void reset() {
         for (ResultDiskTape tape : tapes) {
-            tape.filePos = tape.start;
-            tape.pos = tape.start;
-            tape.readBufferOffset = 0;
-            tape.readBuffer.clear();
+            tape.reset();
         }
         resetHeap();
     }
@@ -27,7 +27,7 @@ public class UnSortedResultDiskBuffer extends ResultDiskBuffer {
 
     public UnSortedResultDiskBuffer(BufferPool pool, int columnCount) {
         super(pool, columnCount);
-        mainTape = new ResultDiskTape(pool, file, columnCount);
+        mainTape = new ResultDiskTape(file, columnCount);
     }
 
     @Override
@@ -40,14 +40,7 @@ public class UnSortedResultDiskBuffer extends ResultDiskBuffer {
         if (logger.isDebugEnabled()) {
             logger.debug("addRows start:" + TimeUtil.currentTimeMillis());
         }
-        for (RowDataPacket row : rows) {
-            byte[] b = row.toBytes();
-            writeBuffer = writeToBuffer(b, writeBuffer);
-        }
-        writeBuffer.flip();
-        file.write(writeBuffer);
-        writeBuffer.clear();
-        mainTape.end = file.getFilePointer();
+        writeRows(rows, mainTape);
         rowCount += rows.size();
         if (logger.isDebugEnabled()) {
             logger.debug("write rows to disk end:" + TimeUtil.currentTimeMillis());
@@ -57,15 +50,11 @@ public class UnSortedResultDiskBuffer extends ResultDiskBuffer {
 
     @Override
     public void reset() {
-        mainTape.pos = mainTape.start;
-        mainTape.filePos = mainTape.start;
-        mainTape.readBufferOffset = 0;
-        mainTape.readBuffer.clear();
+        mainTape.reset();
     }
 
     @Override
     public RowDataPacket next() {
-        file.seek(mainTape.pos);
         return mainTape.nextRow();
     }
 
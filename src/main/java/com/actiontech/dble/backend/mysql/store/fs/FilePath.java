@@ -72,12 +72,13 @@ public abstract class FilePath {
                     Map<String, FilePath> map = Collections.synchronizedMap(new HashMap<String, FilePath>());
                     FilePathDisk p = new FilePathDisk();
                     map.put(p.getScheme(), p);
-                    defaultProvider = p;
                     FilePathNio p2 = new FilePathNio();
                     map.put(p2.getScheme(), p2);
                     FilePathNioMapped p3 = new FilePathNioMapped();
                     map.put(p3.getScheme(), p3);
                     providers = map;
+                    // set at last, the providers are read without the lock once it is not null
+                    defaultProvider = p;
                 }
             }
         }
@@ -100,6 +100,10 @@ public enum TxState {
         }
     }
 
+    public int getValue() {
+        return value;
+    }
+
     public String getState() {
         switch (value) {
             case 0:
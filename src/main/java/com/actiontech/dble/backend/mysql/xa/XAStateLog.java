@@ -7,7 +7,7 @@ package com.actiontech.dble.backend.mysql.xa;
 
 import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.backend.mysql.xa.recovery.Repository;
-import com.actiontech.dble.backend.mysql.xa.recovery.impl.FileSystemRepository;
+import com.actiontech.dble.backend.mysql.xa.recovery.impl.FileWALRepository;
 import com.actiontech.dble.backend.mysql.xa.recovery.impl.InMemoryRepository;
 import com.actiontech.dble.backend.mysql.xa.recovery.impl.KVStoreRepository;
 import com.actiontech.dble.config.model.ClusterConfig;
@@ -17,15 +17,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Condition;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 public final class XAStateLog {
@@ -33,26 +26,26 @@ public final class XAStateLog {
     }
 
     public static final Logger LOGGER = LoggerFactory.getLogger(XAStateLog.class);
-    private static final Repository FILE_REPOSITORY;
+    public static final String XA_ALERT_FLAG = "XA_ALERT_FLAG";
+    private static final InMemoryRepository IN_MEMORY_REPOSITORY = new InMemoryRepository();
+    /* the local log appends the changed entry only, the kv store is rewritten by checkpoint */
+    private static final FileWALRepository WAL_REPOSITORY;
+    private static final Repository KV_REPOSITORY;
 
     static {
         if (ClusterConfig.getInstance().isClusterEnable() && ClusterConfig.getInstance().useZkMode()) {
-            FILE_REPOSITORY = new KVStoreRepository();
+            WAL_REPOSITORY = null;
+            KV_REPOSITORY = new KVStoreRepository();
         } else {
-            FILE_REPOSITORY = new FileSystemRepository();
+            WAL_REPOSITORY = new FileWALRepository(IN_MEMORY_REPOSITORY);
+            KV_REPOSITORY = null;
         }
     }
 
-    public static final String XA_ALERT_FLAG = "XA_ALERT_FLAG";
-    private static final Repository IN_MEMORY_REPOSITORY = new InMemoryRepository();
-    private static ReentrantLock lock = new ReentrantLock();
-    private static AtomicBoolean hasLeader = new AtomicBoolean(false);
-    private static volatile boolean isWriting = false;
-    private static Condition waitWriting = lock.newCondition();
-    private static ReentrantLock lockNum = new ReentrantLock();
-    private static AtomicInteger batchNum = new AtomicInteger(0);
-    private static Set<Long> waitSet = new CopyOnWriteArraySet<>();
-    private static ConcurrentMap<Long, Boolean> mapResult = new ConcurrentHashMap<>();
+    private static final ReentrantLock CHECKPOINT_LOCK = new ReentrantLock();
+    private static final AtomicLong CHECKPOINT_REQUESTS = new AtomicLong(0);
+    /* the requests up to it are covered by the written checkpoint, guarded by CHECKPOINT_LOCK */
+    private static long checkpointCovered = 0;
     private static volatile boolean writeAlert = false;
 
     public static boolean saveXARecoveryLog(String xaTxId, TxState sessionState) {
@@ -70,6 +63,7 @@ public final class XAStateLog {
                 sessionState == TxState.TX_ROLLBACKING_STATE) {
             return writeCheckpoint(xaTxId);
         }
+        appendLog(coordinatorLogEntry);
         return true;
     }
 
@@ -94,97 +88,68 @@ public final class XAStateLog {
             }
         }
         flushMemoryRepository(xaTxId, coordinatorLogEntry);
+        if (SystemConfig.getInstance().getUsePerformanceMode() != 1) {
+            appendLog(coordinatorLogEntry);
+        }
+    }
+
+    /**
+     * the change which is not required to be durable at once is appended without waiting,
+     * it is forced together with the next durable one
+     */
+    private static void appendLog(CoordinatorLogEntry coordinatorLogEntry) {
+        if (WAL_REPOSITORY != null) {
+            WAL_REPOSITORY.append(coordinatorLogEntry, false);
+        }
     }
 
+    /**
+     * make the entry of xaTxId durable, the callers at the same time share one force of the log
+     */
     public static boolean writeCheckpoint(String xaTxId) {
-        lock.lock();
-        try {
-            while (isWriting) {
-                waitSet.add(Thread.currentThread().getId());
-                waitWriting.await();
-            }
-        } catch (InterruptedException e) {
-            LOGGER.warn("writeCheckpoint error, waiter XID is " + xaTxId, e);
-        } finally {
-            lock.unlock();
+        if (WAL_REPOSITORY != null) {
+            CoordinatorLogEntry coordinatorLogEntry = IN_MEMORY_REPOSITORY.get(xaTxId);
+            return coordinatorLogEntry != null && WAL_REPOSITORY.append(coordinatorLogEntry, true);
         }
-        lockNum.lock();
+        return writeKVCheckpoint(xaTxId);
+    }
+
+    /**
+     * the checkpoint is the snapshot of all entries, so the requests arrived before the snapshot are covered by it
+     * and the callers waiting for the lock needn't write again
+     */
+    private static boolean writeKVCheckpoint(String xaTxId) {
+        long request = CHECKPOINT_REQUESTS.incrementAndGet();
+        CHECKPOINT_LOCK.lock();
         try {
-            batchNum.incrementAndGet();
-            mapResult.put(Thread.currentThread().getId(), false);
-        } finally {
-            lockNum.unlock();
-        }
-        if (hasLeader.compareAndSet(false, true)) { // leader thread
-            waitSet.remove(Thread.currentThread().getId());
-            while (waitSet.size() > 0) {
-                //  make all wait thread all became leader or  follower
-                Thread.yield();
+            if (checkpointCovered >= request) {
+                return true;
             }
-            lockNum.lock();
+            final long covered = CHECKPOINT_REQUESTS.get();
+            // copy memoryRepository
+            List<CoordinatorLogEntry> logs = new ArrayList<>();
+            ReentrantLock lockMap = IN_MEMORY_REPOSITORY.getLock();
+            lockMap.lock();
             try {
-                isWriting = true;
-                boolean writeResult = false;
-                // copy memoryRepository
-                List<CoordinatorLogEntry> logs = new ArrayList<>();
-                ReentrantLock lockMap = ((InMemoryRepository) IN_MEMORY_REPOSITORY).getLock();
-                lockMap.lock();
-                try {
-                    Collection<CoordinatorLogEntry> logCollection = IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false);
-                    for (CoordinatorLogEntry coordinatorLogEntry : logCollection) {
-                        CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
-                        if (log != null) {
-                            logs.add(log);
-                        }
-                    }
-                } catch (Throwable e) {
-                    LOGGER.warn("logCollection deep copy error, leader Xid is:" + xaTxId, e);
-                    logs.clear();
-                } finally {
-                    lockMap.unlock();
-                }
-                if (!logs.isEmpty()) {
-                    writeResult = FILE_REPOSITORY.writeCheckpoint(logs);
-                }
-                while (batchNum.get() != 1) {
-                    Thread.yield();
-                }
-                batchNum.decrementAndGet();
-                hasLeader.set(false);
-                lock.lock();
-                try {
-                    if (writeResult) {
-                        for (Long aLong : mapResult.keySet()) {
-                            mapResult.put(aLong, true);
-                        }
+                for (CoordinatorLogEntry coordinatorLogEntry : IN_MEMORY_REPOSITORY.getAllCoordinatorLogEntries(false)) {
+                    CoordinatorLogEntry log = coordinatorLogEntry.getDeepCopy();
+                    if (log != null) {
+                        logs.add(log);
                     }
-                    isWriting = false;
-                    mapResult.remove(Thread.currentThread().getId());
-                    // 1.wakeup follower to return 2.wake up waiting threads continue
-                    waitWriting.signalAll();
-                    return writeResult;
-                } finally {
-                    lock.unlock();
                 }
+            } catch (Throwable e) {
+                LOGGER.warn("logCollection deep copy error, Xid is:" + xaTxId, e);
+                return false;
             } finally {
-                lockNum.unlock();
+                lockMap.unlock();
             }
-        } else { // follower thread
-            lock.lock();
-            try {
-                waitSet.remove(Thread.currentThread().getId());
-                batchNum.decrementAndGet();
-                // the follower's status has copied and ready to write
-                waitWriting.await();
-                boolean result = mapResult.get(Thread.currentThread().getId());
-                mapResult.remove(Thread.currentThread().getId());
-                return result;
-            } catch (InterruptedException e) {
-                LOGGER.warn("writeCheckpoint error, follower Xid is:" + xaTxId, e);
+            if (!logs.isEmpty() && !KV_REPOSITORY.writeCheckpoint(logs)) {
                 return false;
-            } finally {
-                lock.unlock();
             }
+            checkpointCovered = covered;
+            return true;
+        } finally {
+            CHECKPOINT_LOCK.unlock();
         }
     }
 
@@ -36,18 +36,21 @@ public class FileSystemRepository implements Repository {
     public static final Logger LOGGER = LoggerFactory.getLogger(FileSystemRepository.class);
     private VersionedFile file;
     private FileChannel rwChannel = null;
+    private String baseDir;
+    private String baseName;
 
     public FileSystemRepository() {
+        this(SystemConfig.getInstance().getXaRecoveryLogBaseDir(), SystemConfig.getInstance().getXaRecoveryLogBaseName());
+    }
+
+    public FileSystemRepository(String baseDir, String baseName) {
+        this.baseDir = baseDir;
+        this.baseName = baseName;
         init();
     }
 
     @Override
     public void init() {
-        SystemConfig systemConfig = SystemConfig.getInstance();
-
-        String baseDir = systemConfig.getXaRecoveryLogBaseDir();
-        String baseName = systemConfig.getXaRecoveryLogBaseName();
-
         LOGGER.debug("baseDir " + baseDir);
         LOGGER.debug("baseName " + baseName);
 
@@ -222,8 +225,8 @@ public class FileSystemRepository implements Repository {
     /**
      * create the log base dir
      */
-    private void createBaseDir(String baseDir) {
-        File baseDirFolder = new File(baseDir);
+    private void createBaseDir(String dir) {
+        File baseDirFolder = new File(dir);
         if (!baseDirFolder.exists()) {
             baseDirFolder.mkdirs();
         }
@@ -0,0 +1,565 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.xa.recovery.impl;
+
+import com.actiontech.dble.alarm.AlarmCode;
+import com.actiontech.dble.alarm.Alert;
+import com.actiontech.dble.alarm.AlertUtil;
+import com.actiontech.dble.alarm.ToResolveContainer;
+import com.actiontech.dble.backend.mysql.xa.CoordinatorLogEntry;
+import com.actiontech.dble.backend.mysql.xa.ParticipantLogEntry;
+import com.actiontech.dble.backend.mysql.xa.TxState;
+import com.actiontech.dble.backend.mysql.xa.recovery.Repository;
+import com.actiontech.dble.config.model.SystemConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import static com.actiontech.dble.backend.mysql.xa.XAStateLog.XA_ALERT_FLAG;
+
+/**
+ * append-only write-ahead log of the xa coordinator log entries.
+ * <p>
+ * every state change appends the snapshot of the entry as a record, the last record of the id wins when recovering:
+ * <pre>
+ * int    length of the body
+ * int    crc32 of the body
+ * body   id, state, participant count, (host, port, expires, schema, state) of every participant
+ * </pre>
+ * the records are written and forced by a dedicated thread, all the records queued while the previous force was
+ * running are written by one force. the log is compacted into the snapshot of the live entries when it grows,
+ * or replaced by the checkpoint given by {@link #writeCheckpoint}.
+ * a torn record at the tail is the write not finished before crash, it is truncated when the log is opened.
+ */
+public class FileWALRepository implements Repository {
+    public static final Logger LOGGER = LoggerFactory.getLogger(FileWALRepository.class);
+    private static final String SUFFIX = ".wal";
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 24;
+    private static final long COMPACT_MIN_SIZE = 16L << 20;
+
+    private final InMemoryRepository liveRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition written = lock.newCondition();
+    private List<PendingRecord> pending = new ArrayList<>();
+    // the checkpoint not written yet, and the requests covered by it
+    private List<byte[]> checkpoint = null;
+    private List<PendingRecord> covered = new ArrayList<>();
+    private boolean closed = false;
+    private Thread writer;
+    private File file;
+    private String baseDir;
+    private String baseName;
+    private FileChannel channel;
+    private long compactSize = COMPACT_MIN_SIZE;
+
+    /**
+     * only for recovering, the log is never written
+     */
+    public FileWALRepository() {
+        this(null);
+    }
+
+    /**
+     * @param liveRepository the entries kept after the log is compacted
+     */
+    public FileWALRepository(InMemoryRepository liveRepository) {
+        this(SystemConfig.getInstance().getXaRecoveryLogBaseDir(), SystemConfig.getInstance().getXaRecoveryLogBaseName(), liveRepository);
+    }
+
+    FileWALRepository(String baseDir, String baseName, InMemoryRepository liveRepository) {
+        this.baseDir = baseDir;
+        this.baseName = baseName;
+        this.liveRepository = liveRepository;
+        init();
+    }
+
+    @Override
+    public void init() {
+        File baseDirFolder = new File(baseDir);
+        if (!baseDirFolder.exists()) {
+            baseDirFolder.mkdirs();
+        }
+        file = new File(baseDirFolder, baseName + SUFFIX);
+        if (!file.exists()) {
+            migrateLegacyLog();
+        }
+    }
+
+    /**
+     * the json checkpoint written by the older version is converted at the first start
+     */
+    private void migrateLegacyLog() {
+        FileSystemRepository legacy = new FileSystemRepository(baseDir, baseName);
+        Collection<CoordinatorLogEntry> entries = legacy.getAllCoordinatorLogEntries(true);
+        legacy.close();
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<byte[]> records = new ArrayList<>(entries.size());
+        for (CoordinatorLogEntry entry : entries) {
+            byte[] record = toRecord(entry);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        try {
+            replaceLog(records);
+            LOGGER.info("xa recovery log is converted to " + file.getPath() + ", " + records.size() + " entries");
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to convert the xa recovery log", e);
+        }
+    }
+
+    /**
+     * append the entry without waiting for it is forced
+     */
+    @Override
+    public void put(String id, CoordinatorLogEntry coordinatorLogEntry) {
+        append(coordinatorLogEntry, false);
+    }
+
+    /**
+     * append the entry, the snapshot is taken at once so the later change of the entry is not in the record
+     *
+     * @param sync wait until the record is forced to disk
+     * @return false if the record is not durable
+     */
+    public boolean append(CoordinatorLogEntry coordinatorLogEntry, boolean sync) {
+        PendingRecord record;
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            startWriterIfNecessary();
+            // serialized under the lock, so the order of the records is the order of the changes
+            byte[] data = toRecord(coordinatorLogEntry);
+            if (data == null) {
+                return true;
+            }
+            record = new PendingRecord(data);
+            pending.add(record);
+            hasPending.signal();
+            if (!sync) {
+                return true;
+            }
+            while (!record.done) {
+                written.await();
+            }
+            return record.success;
+        } catch (InterruptedException e) {
+            LOGGER.warn("interrupted while waiting for the xa log written, xid is " + coordinatorLogEntry.getId(), e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startWriterIfNecessary() {
+        if (writer == null) {
+            writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    writeLoop();
+                }
+            }, "xa-wal-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<PendingRecord> batch;
+            List<byte[]> snapshot = null;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && checkpoint == null && !closed) {
+                    hasPending.awaitUninterruptibly();
+                }
+                if (checkpoint != null) {
+                    // the records queued after the checkpoint are left to the next round
+                    snapshot = checkpoint;
+                    checkpoint = null;
+                    batch = covered;
+                    covered = new ArrayList<>();
+                } else if (pending.isEmpty()) {
+                    return;
+                } else {
+                    batch = pending;
+                    pending = new ArrayList<>();
+                }
+                if (snapshot == null && needCompact()) {
+                    // the snapshot is newer than all the records taken, they needn't be written
+                    snapshot = snapshotLiveEntries();
+                }
+            } finally {
+                lock.unlock();
+            }
+            boolean success = snapshot == null ? writeBatch(batch) : compact(snapshot);
+            lock.lock();
+            try {
+                for (PendingRecord record : batch) {
+                    record.success = success;
+                    record.done = true;
+                }
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean writeBatch(List<PendingRecord> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).data);
+        }
+        try {
+            if (channel == null) {
+                channel = openForAppend();
+            }
+            long start = channel.position();
+            try {
+                while (buffers[buffers.length - 1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // the partial batch must not be followed by the next one
+                channel.truncate(start);
+                channel.position(start);
+                throw e;
+            }
+            resolveAlert();
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write xa log", e);
+            AlertUtil.alertSelf(AlarmCode.XA_WRITE_IO_FAIL, Alert.AlertLevel.WARN, "Failed to write xa log:" + e.getMessage(), null);
+            closeChannel();
+            return false;
+        }
+    }
+
+    private boolean needCompact() {
+        return liveRepository != null && channel != null && file.length() > compactSize;
+    }
+
+    private List<byte[]> snapshotLiveEntries() {
+        List<byte[]> records = new ArrayList<>();
+        ReentrantLock lockMap = liveRepository.getLock();
+        lockMap.lock();
+        try {
+            for (CoordinatorLogEntry entry : liveRepository.getAllCoordinatorLogEntries(false)) {
+                byte[] record = toRecord(entry);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+        } finally {
+            lockMap.unlock();
+        }
+        return records;
+    }
+
+    private boolean compact(List<byte[]> snapshot) {
+        try {
+            closeChannel();
+            long size = replaceLog(snapshot);
+            compactSize = Math.max(COMPACT_MIN_SIZE, size * 2);
+            channel = openForAppend();
+            resolveAlert();
+            return true;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to compact xa log", e);
+            AlertUtil.alertSelf(AlarmCode.XA_WRITE_CHECK_POINT_FAIL, Alert.AlertLevel.WARN, "Failed to compact xa log:" + e.getMessage(), null);
+            ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL.add(XA_ALERT_FLAG);
+            closeChannel();
+            return false;
+        }
+    }
+
+    /**
+     * write the records into the temp file and rename it to the log, the log is either the old or the new one after crash
+     *
+     * @return the size of the new log
+     */
+    private long replaceLog(List<byte[]> records) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (byte[] record : records) {
+                ByteBuffer buffer = ByteBuffer.wrap(record);
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(false);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file.length();
+    }
+
+    private FileChannel openForAppend() throws IOException {
+        long validSize = readLog(new HashMap<String, CoordinatorLogEntry>());
+        FileChannel fc = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (fc.size() > validSize) {
+            LOGGER.warn("truncate the torn tail of xa log " + file.getPath() + " from " + fc.size() + " to " + validSize);
+            fc.truncate(validSize);
+        }
+        fc.position(validSize);
+        return fc;
+    }
+
+    private void resolveAlert() {
+        if (ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL.size() > 0) {
+            AlertUtil.alertSelfResolve(AlarmCode.XA_WRITE_CHECK_POINT_FAIL, Alert.AlertLevel.WARN, null, ToResolveContainer.XA_WRITE_CHECK_POINT_FAIL, XA_ALERT_FLAG);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.info("Error closing xa log - ignoring", e);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * @return the last record of the id in the log, null if it's never logged
+     */
+    @Override
+    public CoordinatorLogEntry get(String coordinatorId) {
+        Map<String, CoordinatorLogEntry> entries = new HashMap<>();
+        try {
+            readLog(entries);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read xa log", e);
+            AlertUtil.alertSelf(AlarmCode.XA_READ_IO_FAIL, Alert.AlertLevel.WARN, "Failed to read xa log:" + e.getMessage(), null);
+        }
+        return entries.get(coordinatorId);
+    }
+
+    /**
+     * the entries committed or rollbacked are finished, they are not returned
+     */
+    @Override
+    public Collection<CoordinatorLogEntry> getAllCoordinatorLogEntries(boolean first) {
+        Map<String, CoordinatorLogEntry> entries = new LinkedHashMap<>();
+        try {
+            readLog(entries);
+        } catch (IOException e) {
+            LOGGER.warn("Error in recover", e);
+            AlertUtil.alertSelf(AlarmCode.XA_READ_IO_FAIL, Alert.AlertLevel.WARN, "Error in recover:" + e.getMessage(), null);
+        }
+        Iterator<CoordinatorLogEntry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            TxState state = iterator.next().getTxState();
+            if (state == TxState.TX_COMMITTED_STATE || state == TxState.TX_ROLLBACKED_STATE) {
+                iterator.remove();
+            }
+        }
+        return entries.values();
+    }
+
+    /**
+     * @return the size of the valid records from the head of the log
+     */
+    private long readLog(Map<String, CoordinatorLogEntry> entries) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        long validSize = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException end) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    LOGGER.warn("the xa log record at " + validSize + " has invalid length " + length + ", the rest is ignored");
+                    break;
+                }
+                byte[] body = new byte[length];
+                int checksum;
+                try {
+                    checksum = in.readInt();
+                    in.readFully(body);
+                } catch (EOFException unexpectedEOF) {
+                    LOGGER.info("Unexpected EOF - xa log not closed properly last time?");
+                    break;
+                }
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    LOGGER.warn("the xa log record at " + validSize + " has wrong checksum, the rest is ignored");
+                    AlertUtil.alertSelf(AlarmCode.XA_READ_DECODE_FAIL, Alert.AlertLevel.WARN,
+                            "the xa log record at " + validSize + " has wrong checksum", null);
+                    break;
+                }
+                CoordinatorLogEntry entry = fromBody(body);
+                entries.put(entry.getId(), entry);
+                validSize += HEADER_SIZE + length;
+            }
+        }
+        return validSize;
+    }
+
+    /**
+     * @return null if the participants of the entry are not all initialized
+     */
+    static byte[] toRecord(CoordinatorLogEntry entry) {
+        ParticipantLogEntry[] participants = entry.getParticipants();
+        for (ParticipantLogEntry participant : participants) {
+            if (participant == null) {
+                return null;
+            }
+        }
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + participants.length * 48);
+            DataOutputStream out = new DataOutputStream(bos);
+            // placeholder of the header
+            out.writeLong(0);
+            out.writeUTF(entry.getId());
+            out.writeByte(entry.getTxState().getValue());
+            out.writeShort(participants.length);
+            for (ParticipantLogEntry participant : participants) {
+                out.writeUTF(participant.getHost());
+                out.writeInt(participant.getPort());
+                out.writeLong(participant.getExpires());
+                out.writeUTF(participant.getSchema());
+                out.writeByte(participant.getTxState().getValue());
+            }
+            out.flush();
+            byte[] record = bos.toByteArray();
+            int length = record.length - HEADER_SIZE;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_SIZE, length);
+            ByteBuffer header = ByteBuffer.wrap(record, 0, HEADER_SIZE);
+            header.putInt(length);
+            header.putInt((int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            // never happen for the memory stream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CoordinatorLogEntry fromBody(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        String id = in.readUTF();
+        TxState txState = TxState.valueOf(in.readUnsignedByte());
+        ParticipantLogEntry[] participants = new ParticipantLogEntry[in.readUnsignedShort()];
+        for (int i = 0; i < participants.length; i++) {
+            String host = in.readUTF();
+            int port = in.readInt();
+            long expires = in.readLong();
+            String schema = in.readUTF();
+            TxState participantState = TxState.valueOf(in.readUnsignedByte());
+            participants[i] = new ParticipantLogEntry(id, host, port, expires, schema, participantState);
+        }
+        return new CoordinatorLogEntry(id, participants, txState);
+    }
+
+    /**
+     * replace the log with the checkpoint and wait until it is forced, the same way as the log is compacted.
+     * the records appended before are superseded by the checkpoint, the ones appended after are kept behind it.
+     *
+     * @return false if the checkpoint is not durable
+     */
+    @Override
+    public boolean writeCheckpoint(Collection<CoordinatorLogEntry> checkpointContent) {
+        List<byte[]> records = new ArrayList<>(checkpointContent.size());
+        for (CoordinatorLogEntry entry : checkpointContent) {
+            byte[] record = toRecord(entry);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        PendingRecord request = new PendingRecord(null);
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            startWriterIfNecessary();
+            checkpoint = records;
+            covered.addAll(pending);
+            covered.add(request);
+            pending = new ArrayList<>();
+            hasPending.signal();
+            while (!request.done) {
+                written.await();
+            }
+            return request.success;
+        } catch (InterruptedException e) {
+            LOGGER.warn("interrupted while waiting for the xa checkpoint written", e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * the records queued are still written before the writer exits
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        lock.lock();
+        try {
+            closed = true;
+            hasPending.signalAll();
+            thread = writer;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                LOGGER.info("interrupted while closing xa log - ignoring", e);
+            }
+        }
+        closeChannel();
+    }
+
+    /**
+     * the log has no record of removal, the finished entries are dropped when the log is compacted
+     */
+    @Override
+    public void remove(String id) {
+        throw new UnsupportedOperationException();
+    }
+
+    private static final class PendingRecord {
+        private final byte[] data;
+        private boolean done = false;
+        private boolean success = false;
+
+        private PendingRecord(byte[] data) {
+            this.data = data;
+        }
+    }
+}
@@ -7,16 +7,19 @@ import com.actiontech.dble.backend.mysql.nio.MySQLConnectionListener;
 import com.actiontech.dble.backend.mysql.nio.handler.ConnectionHeartBeatHandler;
 import com.actiontech.dble.config.model.db.DbInstanceConfig;
 import com.actiontech.dble.net.NIOProcessor;
+import com.actiontech.dble.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.*;
 
@@ -24,11 +27,28 @@ import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.*;
 public class ConnectionPool extends PoolBase implements MySQLConnectionListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionPool.class);
+    // the max connections released recently by one thread
+    private static final int MAX_RECENT_CONNECTIONS = 16;
+    // the key of the connections without schema, such as the ones fresh created
+    private static final String NO_SCHEMA = "";
 
     private final QueuedSequenceSynchronizer synchronizer;
     private final AtomicInteger waiters;
-    private final CopyOnWriteArrayList<BackendConnection> allConnections;
+    private final Set<BackendConnection> allConnections;
     private final AtomicInteger totalConnections = new AtomicInteger();
+    // the connections released by the current thread, borrowed first by the same thread
+    private final ThreadLocal<ArrayList<BackendConnection>> recentConnections = new ThreadLocal<ArrayList<BackendConnection>>() {
+        @Override
+        protected ArrayList<BackendConnection> initialValue() {
+            return new ArrayList<>(MAX_RECENT_CONNECTIONS);
+        }
+    };
+    // every connection turning idle is pushed, the entries borrowed by other ways are skipped when popped
+    private final IdleStack idleConnections = new IdleStack();
+    // the idle connections of each schema, borrowed before idleConnections to avoid the schema sync
+    private final ConcurrentHashMap<String, IdleStack> schemaIdleConnections = new ConcurrentHashMap<>();
+    private final LatencyHistogram borrowLatency = new LatencyHistogram();
+    private final LongAdder avoidedSchemaSync = new LongAdder();
 
     // evictor
     private final WeakReference<ClassLoader> factoryClassLoader;
@@ -50,14 +70,27 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
 
         this.synchronizer = new QueuedSequenceSynchronizer();
         this.waiters = new AtomicInteger();
-        this.allConnections = new CopyOnWriteArrayList<>();
+        this.allConnections = ConcurrentHashMap.newKeySet();
         this.poolConfig = config.getPoolConfig();
     }
 
     public BackendConnection borrow(final String schema, long timeout, final TimeUnit timeUnit) throws InterruptedException {
-
-        timeout = timeUnit.toNanos(timeout);
         final long startScan = System.nanoTime();
+        BackendConnection conn = borrowRecent(schema);
+        if (conn == null) {
+            conn = borrowIdle(schema);
+        }
+        if (conn == null) {
+            conn = borrow(schema, timeUnit.toNanos(timeout), startScan);
+        }
+        if (conn != null && schema != null && schema.equals(conn.getSchema())) {
+            avoidedSchemaSync.increment();
+        }
+        borrowLatency.record(System.nanoTime() - startScan);
+        return conn;
+    }
+
+    private BackendConnection borrow(final String schema, long timeout, final long startScan) throws InterruptedException {
         final long originTimeout = timeout;
         BackendConnection createEntry = null;
         long startSeq;
@@ -66,14 +99,16 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
             do {
                 do {
                     startSeq = synchronizer.currentSequence();
-                    for (BackendConnection entry : allConnections) {
-                        if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
-                            // if we might have stolen another thread's new connection, restart the add...
-                            if (waiters.get() > 1 && createEntry == null) {
-                                newPooledEntry(schema);
-                            }
-                            return entry;
+                    BackendConnection entry = borrowIdle();
+                    if (entry == null) {
+                        entry = borrowByScan();
+                    }
+                    if (entry != null) {
+                        // if we might have stolen another thread's new connection, restart the add...
+                        if (waiters.get() > 1 && createEntry == null) {
+                            newPooledEntry(schema);
                         }
+                        return entry;
                     }
 
                 } while (startSeq < synchronizer.currentSequence());
@@ -91,6 +126,83 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
         return null;
     }
 
+    /**
+     * borrow the connection of the schema released by the current thread, the latest first
+     */
+    private BackendConnection borrowRecent(final String schema) {
+        final ArrayList<BackendConnection> recent = recentConnections.get();
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            final BackendConnection entry = recent.get(i);
+            if (entry.isClosed() || entry.getState() != STATE_NOT_IN_USE) {
+                // borrowed by other ways
+                recent.remove(i);
+            } else if (StringUtil.equals(entry.getSchema(), schema) && entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                recent.remove(i);
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * borrow the idle connection of the schema, the entry whose schema is changed after it's pushed is skipped
+     */
+    private BackendConnection borrowIdle(final String schema) {
+        final IdleStack stack = schemaIdleConnections.get(schemaKey(schema));
+        if (stack == null) {
+            return null;
+        }
+        BackendConnection entry;
+        while ((entry = stack.pop()) != null) {
+            if (!entry.isClosed() && StringUtil.equals(entry.getSchema(), schema) &&
+                    entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private BackendConnection borrowIdle() {
+        BackendConnection entry;
+        while ((entry = idleConnections.pop()) != null) {
+            if (!entry.isClosed() && entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the idle connection missing in the idle stack, such as the one dropped by IdleStack.push
+     */
+    private BackendConnection borrowByScan() {
+        for (BackendConnection entry : allConnections) {
+            if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the connection turns idle, it's pushed to the idle stack and the idle stack of its schema,
+     * the stacks keep at most maxCon entries
+     */
+    private void setIdle(final BackendConnection conn) {
+        conn.lazySet(STATE_NOT_IN_USE);
+        if (!isClosed.get()) {
+            idleConnections.push(conn, config.getMaxCon());
+            final String key = schemaKey(conn.getSchema());
+            schemaIdleConnections.putIfAbsent(key, new IdleStack());
+            schemaIdleConnections.get(key).push(conn, config.getMaxCon());
+        }
+        synchronizer.signal();
+    }
+
+    private static String schemaKey(final String schema) {
+        return schema == null ? NO_SCHEMA : schema;
+    }
+
     /**
      * Create a new pooled object.
      *
@@ -120,8 +232,12 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
             return;
         }
 
-        conn.lazySet(STATE_NOT_IN_USE);
-        synchronizer.signal();
+        final ArrayList<BackendConnection> recent = recentConnections.get();
+        if (recent.size() == MAX_RECENT_CONNECTIONS) {
+            recent.remove(0);
+        }
+        recent.add(conn);
+        setIdle(conn);
     }
 
     private void fillPool() {
@@ -162,8 +278,7 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
             return;
         }
 
-        conn.lazySet(STATE_NOT_IN_USE);
-        synchronizer.signal();
+        setIdle(conn);
     }
 
     @Override
@@ -178,8 +293,7 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
 
     @Override
     public void onHeartbeatSuccess(BackendConnection conn) {
-        conn.lazySet(STATE_NOT_IN_USE);
-        synchronizer.signal();
+        setIdle(conn);
     }
 
     public int getCount(final int... states) {
@@ -283,6 +397,8 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
         if (isClosed.compareAndSet(false, true)) {
             stopEvictor();
             closeAllConnections(closureReason, closeFront);
+            idleConnections.clear();
+            schemaIdleConnections.clear();
         }
     }
 
@@ -314,6 +430,17 @@ public class ConnectionPool extends PoolBase implements MySQLConnectionListener
 
     }
 
+    public LatencyHistogram getBorrowLatency() {
+        return borrowLatency;
+    }
+
+    /**
+     * the count of borrow given a connection already on the schema, so no schema sync is sent
+     */
+    public long getAvoidedSchemaSync() {
+        return avoidedSchemaSync.sum();
+    }
+
     public final int getThreadsAwaitingConnection() {
         return synchronizer.getQueueLength();
     }
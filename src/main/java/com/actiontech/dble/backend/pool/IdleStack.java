@@ -0,0 +1,36 @@
+package com.actiontech.dble.backend.pool;
+
+import com.actiontech.dble.backend.BackendConnection;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * the lock-free stack of the idle connections, the latest pushed is popped first.
+ * a connection may be borrowed by other ways after it's pushed, so the entries popped must be checked
+ * by compareAndSet, and the oldest entry is dropped when the stack is full of the stale entries
+ */
+final class IdleStack {
+    private final ConcurrentLinkedDeque<BackendConnection> entries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    void push(BackendConnection conn, int maxSize) {
+        entries.offerFirst(conn);
+        if (size.incrementAndGet() > maxSize && entries.pollLast() != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    BackendConnection pop() {
+        final BackendConnection entry = entries.pollFirst();
+        if (entry != null) {
+            size.decrementAndGet();
+        }
+        return entry;
+    }
+
+    void clear() {
+        entries.clear();
+        size.set(0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.actiontech.dble.backend.pool;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * the count of the latencies in each range, the upper bound of a range is 10 times of the last one
+ */
+public final class LatencyHistogram {
+    // the upper bounds in nanoseconds, the last range has no bound
+    private static final long[] BOUNDS = {10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+    private static final String[] NAMES = {"<10us", "<100us", "<1ms", "<10ms", "<100ms", "<1s", ">=1s"};
+    private final LongAdder[] counts = new LongAdder[NAMES.length];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS.length && nanos >= BOUNDS[i]) {
+            i++;
+        }
+        counts[i].increment();
+    }
+
+    public int size() {
+        return counts.length;
+    }
+
+    public String getName(int index) {
+        return NAMES[index];
+    }
+
+    public long getCount(int index) {
+        return counts[index].sum();
+    }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SizeClassBufferPool
+ * <p>
+ * the buffers are grouped by size classes(chunkSize, chunkSize*2, chunkSize*4 ... pageSize),
+ * a page is assigned to a size class when it is first needed and cut into buffers of the size.
+ * the free buffers of every size class are kept in a lock-free queue, and the reactor threads
+ * (named with LOCAL_BUF_THREAD_PREX) keep a few free buffers of their own, so allocate and recycle
+ * need neither lock nor scan of pages.
+ * the page assigned to a size class is never given back, so the pool is suitable for the
+ * workload whose buffer sizes are stable.
+ */
+@SuppressWarnings("restriction")
+public class SizeClassBufferPool implements BufferPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SizeClassBufferPool.class);
+    /* the bytes of every size class cached by one reactor thread */
+    private static final int THREAD_CACHE_BYTES = 256 * 1024;
+
+    private final int chunkSize;
+    private final int pageSize;
+    private final short pageCount;
+    private final SizeClass[] sizeClasses;
+    /* page buffer -> page, never changed after constructed */
+    private final Map<ByteBuffer, Page> pages;
+    private final Queue<Page> freePages = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger freePageCount;
+    private final AtomicLong usedBytes = new AtomicLong(0);
+    private final LongAdder oversizeCount = new LongAdder();
+    private final LongAdder badRecycleCount = new LongAdder();
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<ThreadCache>() {
+        @Override
+        protected ThreadCache initialValue() {
+            return Thread.currentThread().getName().startsWith(DirectByteBufferPool.LOCAL_BUF_THREAD_PREX) ? new ThreadCache(sizeClasses) : null;
+        }
+    };
+
+    public SizeClassBufferPool(int pageSize, short chunkSize, short pageCount) {
+        this.chunkSize = chunkSize;
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        int classCount = 1;
+        while (((long) chunkSize << classCount) <= pageSize) {
+            classCount++;
+        }
+        sizeClasses = new SizeClass[classCount];
+        for (int i = 0; i < classCount; i++) {
+            sizeClasses[i] = new SizeClass(chunkSize << i);
+        }
+        Map<ByteBuffer, Page> allPages = new IdentityHashMap<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            Page page = new Page(ByteBuffer.allocateDirect(pageSize), pageSize / chunkSize);
+            allPages.put(page.buf, page);
+            freePages.offer(page);
+        }
+        this.pages = Collections.unmodifiableMap(allPages);
+        this.freePageCount = new AtomicInteger(pageCount);
+    }
+
+    public ByteBuffer allocate() {
+        return allocate(chunkSize);
+    }
+
+    public ByteBuffer allocate(int size) {
+        int classIndex = getClassIndex(size);
+        if (classIndex < 0) {
+            oversizeCount.increment();
+            return ByteBuffer.allocate(size);
+        }
+        SizeClass sizeClass = sizeClasses[classIndex];
+        sizeClass.allocateCount.increment();
+        ByteBuffer buffer = null;
+        ThreadCache cache = threadCache.get();
+        if (cache != null) {
+            buffer = cache.poll(classIndex);
+        }
+        if (buffer != null) {
+            sizeClass.threadCacheHit.increment();
+        } else {
+            buffer = sizeClass.poll();
+            if (buffer == null) {
+                buffer = carvePage(classIndex);
+            }
+            if (buffer == null) {
+                sizeClass.fallbackCount.increment();
+                LOGGER.warn("can't allocate DirectByteBuffer from SizeClassBufferPool. Please pay attention to whether it is a memory leak or there is no enough direct memory.");
+                return ByteBuffer.allocate(size);
+            }
+            sizeClass.sharedHit.increment();
+        }
+        if (!markUsed(buffer)) {
+            // never happens unless the pool itself is broken, drop the buffer
+            badRecycleCount.increment();
+            return ByteBuffer.allocate(size);
+        }
+        usedBytes.addAndGet(sizeClass.size);
+        buffer.clear();
+        return buffer;
+    }
+
+    public void recycle(ByteBuffer theBuf) {
+        if (!(theBuf instanceof DirectBuffer)) {
+            theBuf.clear();
+            return;
+        }
+        Object parent = ((DirectBuffer) theBuf).attachment();
+        Page page = parent == null ? null : pages.get(parent);
+        int classIndex = page == null ? -1 : page.classIndex;
+        if (classIndex < 0 || theBuf.capacity() != sizeClasses[classIndex].size || !markUnused(page, theBuf)) {
+            badRecycleCount.increment();
+            LOGGER.info("warning ,not recycled buffer " + theBuf);
+            return;
+        }
+        SizeClass sizeClass = sizeClasses[classIndex];
+        sizeClass.recycleCount.increment();
+        usedBytes.addAndGet(-sizeClass.size);
+        ThreadCache cache = threadCache.get();
+        if (cache == null || !cache.offer(classIndex, theBuf)) {
+            sizeClass.offer(theBuf);
+        }
+    }
+
+    private int getClassIndex(int size) {
+        for (int i = 0; i < sizeClasses.length; i++) {
+            if (size <= sizeClasses[i].size) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * assign a free page to the size class, one of the buffers is returned and the others are shared
+     */
+    private ByteBuffer carvePage(int classIndex) {
+        Page page = freePages.poll();
+        if (page == null) {
+            return null;
+        }
+        freePageCount.decrementAndGet();
+        SizeClass sizeClass = sizeClasses[classIndex];
+        page.classIndex = classIndex;
+        sizeClass.pageCount.incrementAndGet();
+        // the page is only owned by this thread now, no one else moves its position
+        ByteBuffer first = null;
+        int count = pageSize / sizeClass.size;
+        for (int i = 0; i < count; i++) {
+            page.buf.limit((i + 1) * sizeClass.size);
+            page.buf.position(i * sizeClass.size);
+            ByteBuffer buffer = page.buf.slice();
+            if (first == null) {
+                first = buffer;
+            } else {
+                sizeClass.offer(buffer);
+            }
+        }
+        page.buf.clear();
+        return first;
+    }
+
+    private int slotOf(Page page, ByteBuffer buffer) {
+        long offset = ((DirectBuffer) buffer).address() - page.address;
+        return (int) (offset / chunkSize);
+    }
+
+    private boolean markUsed(ByteBuffer buffer) {
+        Page page = pages.get(((DirectBuffer) buffer).attachment());
+        return page.used.compareAndSet(slotOf(page, buffer), 0, 1);
+    }
+
+    private boolean markUnused(Page page, ByteBuffer buffer) {
+        return page.used.compareAndSet(slotOf(page, buffer), 1, 0);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * return the total size of the buffer memory
+     *
+     * @return long
+     */
+    public long capacity() {
+        return (long) pageSize * pageCount;
+    }
+
+    /**
+     * return the remain free part of memory, including the buffers cached by threads
+     *
+     * @return long
+     */
+    public long size() {
+        return capacity() - usedBytes.get();
+    }
+
+    /**
+     * the allocations which are not served by the thread cache
+     */
+    public int getSharedOptsCount() {
+        long count = 0;
+        for (SizeClass sizeClass : sizeClasses) {
+            count += sizeClass.sharedHit.sum() + sizeClass.fallbackCount.sum();
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    public SizeClass[] getSizeClasses() {
+        return sizeClasses;
+    }
+
+    public int getFreePageCount() {
+        return freePageCount.get();
+    }
+
+    public long getOversizeCount() {
+        return oversizeCount.sum();
+    }
+
+    public long getBadRecycleCount() {
+        return badRecycleCount.sum();
+    }
+
+    private static final class Page {
+        private final ByteBuffer buf;
+        private final long address;
+        /* one flag for every chunk, only the first chunk of a buffer is used */
+        private final AtomicIntegerArray used;
+        private volatile int classIndex = -1;
+
+        private Page(ByteBuffer buf, int chunkCount) {
+            this.buf = buf;
+            this.address = ((DirectBuffer) buf).address();
+            this.used = new AtomicIntegerArray(chunkCount);
+        }
+    }
+
+    public static final class SizeClass {
+        private final int size;
+        private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger freeCount = new AtomicInteger(0);
+        private final AtomicInteger pageCount = new AtomicInteger(0);
+        private final LongAdder allocateCount = new LongAdder();
+        private final LongAdder threadCacheHit = new LongAdder();
+        private final LongAdder sharedHit = new LongAdder();
+        private final LongAdder fallbackCount = new LongAdder();
+        private final LongAdder recycleCount = new LongAdder();
+
+        private SizeClass(int size) {
+            this.size = size;
+        }
+
+        private ByteBuffer poll() {
+            ByteBuffer buffer = freeBuffers.poll();
+            if (buffer != null) {
+                freeCount.decrementAndGet();
+            }
+            return buffer;
+        }
+
+        private void offer(ByteBuffer buffer) {
+            freeBuffers.offer(buffer);
+            freeCount.incrementAndGet();
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getPageCount() {
+            return pageCount.get();
+        }
+
+        public int getFreeCount() {
+            return freeCount.get();
+        }
+
+        public long getAllocateCount() {
+            return allocateCount.sum();
+        }
+
+        public long getThreadCacheHit() {
+            return threadCacheHit.sum();
+        }
+
+        public long getSharedHit() {
+            return sharedHit.sum();
+        }
+
+        public long getFallbackCount() {
+            return fallbackCount.sum();
+        }
+
+        public long getRecycleCount() {
+            return recycleCount.sum();
+        }
+    }
+
+    /**
+     * the free buffers of one thread, only touched by the owner thread
+     */
+    private static final class ThreadCache {
+        private final ByteBuffer[][] buffers;
+        private final int[] counts;
+
+        private ThreadCache(SizeClass[] sizeClasses) {
+            buffers = new ByteBuffer[sizeClasses.length][];
+            counts = new int[sizeClasses.length];
+            for (int i = 0; i < sizeClasses.length; i++) {
+                buffers[i] = new ByteBuffer[Math.max(1, THREAD_CACHE_BYTES / sizeClasses[i].size)];
+            }
+        }
+
+        private ByteBuffer poll(int classIndex) {
+            if (counts[classIndex] == 0) {
+                return null;
+            }
+            int index = --counts[classIndex];
+            ByteBuffer buffer = buffers[classIndex][index];
+            buffers[classIndex][index] = null;
+            return buffer;
+        }
+
+        private boolean offer(int classIndex, ByteBuffer buffer) {
+            if (counts[classIndex] == buffers[classIndex].length) {
+                return false;
+            }
+            buffers[classIndex][counts[classIndex]++] = buffer;
+            return true;
+        }
+    }
+}
@@ -14,6 +14,11 @@ public interface CachePool {
 
     void putIfAbsent(Object key, Object value);
 
+    /**
+     * put the value even if the key exists, used to replace the stale value
+     */
+    void put(Object key, Object value);
+
     Object get(Object key);
 
     void clearCache();
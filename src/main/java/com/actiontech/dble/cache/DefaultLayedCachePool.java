@@ -76,6 +76,14 @@ public class DefaultLayedCachePool implements LayerCachePool {
         }
     }
 
+    @Override
+    public void put(Object key, Object value) {
+        CachePool pool = getCache(DEFAULT_CACHE);
+        if (pool != null) {
+            pool.put(key, value);
+        }
+    }
+
     /* obsoleted, to be clean */
     @Override
     public Object get(Object key) {
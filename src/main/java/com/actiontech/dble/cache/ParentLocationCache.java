@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.cache;
+
+/**
+ * the numeric parent key -> the index of the root parent's shardingNode of a child table.
+ * it's a direct-mapped cache on primitive arrays, a new key replaces the key in the same slot,
+ * so the memory is bounded by the size and there is no boxing or eviction list.
+ */
+public final class ParentLocationCache {
+    public static final int MISS = -1;
+    private final long[] keys;
+    // the index of the shardingNode + 1, 0 means the slot is empty
+    private final int[] nodes;
+    private final int mask;
+
+    public ParentLocationCache(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 1));
+        if (capacity < size && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.nodes = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the index of the shardingNode, MISS if the key is not cached
+     */
+    public synchronized int get(long key) {
+        int slot = slot(key);
+        if (nodes[slot] != 0 && keys[slot] == key) {
+            return nodes[slot] - 1;
+        }
+        return MISS;
+    }
+
+    public synchronized void put(long key, int nodeIndex) {
+        int slot = slot(key);
+        keys[slot] = key;
+        nodes[slot] = nodeIndex + 1;
+    }
+
+    public int capacity() {
+        return nodes.length;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -44,6 +44,15 @@ public class EnchachePool implements CachePool {
 
     }
 
+    @Override
+    public void put(Object key, Object value) {
+        enCache.put(new Element(key, value));
+        cacheStatistics.incPutTimes();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(name + " put cache ,key:" + key + " value:" + value);
+        }
+    }
+
     @Override
     public Object get(Object key) {
         Element cacheEl = enCache.get(key);
@@ -29,6 +29,12 @@ public class MapDBCachePool implements CachePool {
 
     }
 
+    @Override
+    public void put(Object key, Object value) {
+        hTreeMap.put(key, value);
+        cacheStatistics.incPutTimes();
+    }
+
     @Override
     public Object get(Object key) {
         Object value = hTreeMap.get(key);
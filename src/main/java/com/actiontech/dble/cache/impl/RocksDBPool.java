@@ -42,6 +42,12 @@ public class RocksDBPool implements CachePool {
         }
     }
 
+    @Override
+    public void put(Object key, Object value) {
+        // the put of the db always replaces the old value
+        putIfAbsent(key, value);
+    }
+
     @Override
     public Object get(Object key) {
         try {
@@ -46,6 +46,8 @@ public final class ClusterConfig {
     private long showBinlogStatusTimeout = 60 * 1000;
     private String sequenceStartTime;
     private boolean sequenceInstanceByZk = true;
+    // the percent of the segment consumed when the next segment is prefetched, 0 means no prefetch
+    private int sequencePrefetchPercent = 0;
 
     private long startTimeMilliseconds = 1288834974657L; //Thu Nov 04 09:42:54 CST 2010
 
@@ -141,6 +143,19 @@ public final class ClusterConfig {
     }
 
 
+    public int getSequencePrefetchPercent() {
+        return sequencePrefetchPercent;
+    }
+
+    @SuppressWarnings("unused")
+    public void setSequencePrefetchPercent(int sequencePrefetchPercent) {
+        if (sequencePrefetchPercent >= 0 && sequencePrefetchPercent < 100) {
+            this.sequencePrefetchPercent = sequencePrefetchPercent;
+        } else {
+            problemReporter.warn("sequencePrefetchPercent value is " + sequencePrefetchPercent + ", it will use default value:" + this.sequencePrefetchPercent);
+        }
+    }
+
     public String getSequenceStartTime() {
         return sequenceStartTime;
     }
@@ -180,6 +195,7 @@ public final class ClusterConfig {
                 ", sequenceHandlerType=" + sequenceHandlerType +
                 ", sequenceStartTime=" + sequenceStartTime +
                 ", sequenceInstanceByZk=" + sequenceInstanceByZk +
+                ", sequencePrefetchPercent=" + sequencePrefetchPercent +
                 "]";
     }
 
@@ -57,7 +57,11 @@ public final class SystemConfig {
     private int usingAIO = 0;
     private int useThreadUsageStat = 0;
     private int usePerformanceMode = 0;
+    // how the executors of performance mode wait for the tasks, 0 for busy spin, 1 for adaptive spin and then park
+    private int performanceModeWaitType = 0;
     private int useSerializableMode = 0;
+    // route the server side prepared statement by the sharding column parameter without parsing it again
+    private int usePreparedRouteCache = 1;
 
     //query time cost statistics
     private int useCostTimeStat = 0;
@@ -73,6 +77,22 @@ public final class SystemConfig {
     private int checkTableConsistency = 0;
     private long checkTableConsistencyPeriod = 30 * 60 * 1000;
 
+    //meta
+    // load the table meta from the snapshot file at start and check it with backends in background
+    private int useTableMetaSnapshot = 0;
+    private String tableMetaSnapshotBaseDir = "metaSnapshot";
+    // the max count of the show create table queries running on one dbInstance
+    private int metaFetchConcurrency = 8;
+
+    //insert batch
+    // the tables whose single row inserts in autocommit are coalesced into one insert per shardingNode, schema.table separated by ','
+    private String insertBatchTables = null;
+    // the time the first insert of a batch waits for others (microsecond)
+    private int insertBatchWindow = 1000;
+    private int insertBatchMaxRows = 100;
+    // the max count of the numeric parent keys cached for locating the shardingNode of child tables, 0 means no cache
+    private int parentLocationCacheSize = 65536;
+
     //processor check conn
     private long processorCheckPeriod = 1000L;
     // sql execute timeout (second)
@@ -93,8 +113,10 @@ public final class SystemConfig {
 
     //use JoinStrategy
     private boolean useJoinStrategy = false;
+    private boolean useHashJoin = false;
     private int nestLoopRowsSize = 2000;
     private int nestLoopConnSize = 4;
+    private long tableStatisticsPeriod = 10 * 60 * 1000;
 
     //query memory used for per session,unit is M
     private int otherMemSize = 4;
@@ -109,7 +131,11 @@ public final class SystemConfig {
     // buffer pool page number
     private short bufferPoolPageNumber = (short) (Platform.getMaxDirectMemory() * 0.8 / bufferPoolPageSize);
     private boolean useDefaultPageNumber = true;
+    // 0 for the page based pool, 1 for the size class based pool
+    private int bufferPoolType = 0;
     private int mappedFileSize = 1024 * 1024 * 64;
+    // 0 for the plain blocks, 1 for the LZF compressed blocks of the spilled result
+    private int useSpillCompression = 0;
 
     // sql statistics
     private int useSqlStat = 1;
@@ -137,7 +163,11 @@ public final class SystemConfig {
 
     // for join tmp results
     private int mergeQueueSize = 1024;
+    // merge the ordered results in two levels when the shards are more than it, 0 means never
+    private int parallelMergeThreshold = 0;
     private int orderByQueueSize = 1024;
+    // order by with limit keeps only offset+limit rows in memory when it is not more than it, 0 means never
+    private int orderByTopNMaxRows = 10000;
     private int joinQueueSize = 1024;
     //slow log
     private int enableSlowLog = 0;
@@ -198,6 +228,15 @@ public final class SystemConfig {
         this.useJoinStrategy = useJoinStrategy;
     }
 
+    public boolean isUseHashJoin() {
+        return useHashJoin;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseHashJoin(boolean useHashJoin) {
+        this.useHashJoin = useHashJoin;
+    }
+
     public String getXaRecoveryLogBaseDir() {
         return (this.getHomePath() + File.separatorChar + xaRecoveryLogBaseDir + File.separatorChar).replaceAll(File.separator + "+", File.separator);
     }
@@ -572,6 +611,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getBufferPoolType() {
+        return bufferPoolType;
+    }
+
+    @SuppressWarnings("unused")
+    public void setBufferPoolType(int bufferPoolType) {
+        if (bufferPoolType >= 0 && bufferPoolType <= 1) {
+            this.bufferPoolType = bufferPoolType;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "bufferPoolType", bufferPoolType, this.bufferPoolType));
+        }
+    }
+
     public short getBufferPoolPageNumber() {
         return bufferPoolPageNumber;
     }
@@ -738,6 +790,102 @@ public final class SystemConfig {
         }
     }
 
+    public int getUseTableMetaSnapshot() {
+        return useTableMetaSnapshot;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseTableMetaSnapshot(int useTableMetaSnapshot) {
+        if (useTableMetaSnapshot >= 0 && useTableMetaSnapshot <= 1) {
+            this.useTableMetaSnapshot = useTableMetaSnapshot;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useTableMetaSnapshot", useTableMetaSnapshot, this.useTableMetaSnapshot));
+        }
+    }
+
+    public String getTableMetaSnapshotBaseDir() {
+        return (this.getHomePath() + File.separatorChar + tableMetaSnapshotBaseDir + File.separatorChar).replaceAll(File.separator + "+", File.separator);
+    }
+
+    @SuppressWarnings("unused")
+    public void setTableMetaSnapshotBaseDir(String tableMetaSnapshotBaseDir) {
+        this.tableMetaSnapshotBaseDir = tableMetaSnapshotBaseDir;
+    }
+
+    public String getInsertBatchTables() {
+        return insertBatchTables;
+    }
+
+    @SuppressWarnings("unused")
+    public void setInsertBatchTables(String insertBatchTables) {
+        this.insertBatchTables = insertBatchTables;
+    }
+
+    public int getInsertBatchWindow() {
+        return insertBatchWindow;
+    }
+
+    @SuppressWarnings("unused")
+    public void setInsertBatchWindow(int insertBatchWindow) {
+        if (insertBatchWindow > 0) {
+            this.insertBatchWindow = insertBatchWindow;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "insertBatchWindow", insertBatchWindow, this.insertBatchWindow));
+        }
+    }
+
+    public int getInsertBatchMaxRows() {
+        return insertBatchMaxRows;
+    }
+
+    @SuppressWarnings("unused")
+    public void setInsertBatchMaxRows(int insertBatchMaxRows) {
+        if (insertBatchMaxRows > 1) {
+            this.insertBatchMaxRows = insertBatchMaxRows;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "insertBatchMaxRows", insertBatchMaxRows, this.insertBatchMaxRows));
+        }
+    }
+
+    public int getParentLocationCacheSize() {
+        return parentLocationCacheSize;
+    }
+
+    @SuppressWarnings("unused")
+    public void setParentLocationCacheSize(int parentLocationCacheSize) {
+        if (parentLocationCacheSize >= 0) {
+            this.parentLocationCacheSize = parentLocationCacheSize;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "parentLocationCacheSize", parentLocationCacheSize, this.parentLocationCacheSize));
+        }
+    }
+
+    public int getMetaFetchConcurrency() {
+        return metaFetchConcurrency;
+    }
+
+    @SuppressWarnings("unused")
+    public void setMetaFetchConcurrency(int metaFetchConcurrency) {
+        if (metaFetchConcurrency > 0) {
+            this.metaFetchConcurrency = metaFetchConcurrency;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "metaFetchConcurrency", metaFetchConcurrency, this.metaFetchConcurrency));
+        }
+    }
+
+    public long getTableStatisticsPeriod() {
+        return tableStatisticsPeriod;
+    }
+
+    @SuppressWarnings("unused")
+    public void setTableStatisticsPeriod(long tableStatisticsPeriod) {
+        if (tableStatisticsPeriod > 0) {
+            this.tableStatisticsPeriod = tableStatisticsPeriod;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "tableStatisticsPeriod", tableStatisticsPeriod, this.tableStatisticsPeriod));
+        }
+    }
+
     public int getNestLoopRowsSize() {
         return nestLoopRowsSize;
     }
@@ -777,6 +925,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getParallelMergeThreshold() {
+        return parallelMergeThreshold;
+    }
+
+    @SuppressWarnings("unused")
+    public void setParallelMergeThreshold(int parallelMergeThreshold) {
+        if (parallelMergeThreshold >= 0) {
+            this.parallelMergeThreshold = parallelMergeThreshold;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "parallelMergeThreshold", parallelMergeThreshold, this.parallelMergeThreshold));
+        }
+    }
+
     public int getOtherMemSize() {
         return otherMemSize;
     }
@@ -829,6 +990,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getUseSpillCompression() {
+        return useSpillCompression;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUseSpillCompression(int useSpillCompression) {
+        if (useSpillCompression >= 0 && useSpillCompression <= 1) {
+            this.useSpillCompression = useSpillCompression;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "useSpillCompression", useSpillCompression, this.useSpillCompression));
+        }
+    }
+
     public int getNestLoopConnSize() {
         return nestLoopConnSize;
     }
@@ -855,6 +1029,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getOrderByTopNMaxRows() {
+        return orderByTopNMaxRows;
+    }
+
+    @SuppressWarnings("unused")
+    public void setOrderByTopNMaxRows(int orderByTopNMaxRows) {
+        if (orderByTopNMaxRows >= 0) {
+            this.orderByTopNMaxRows = orderByTopNMaxRows;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "orderByTopNMaxRows", orderByTopNMaxRows, this.orderByTopNMaxRows));
+        }
+    }
+
 
     public String getViewPersistenceConfBaseDir() {
         return (this.getHomePath() + File.separatorChar + viewPersistenceConfBaseDir + File.separatorChar).replaceAll(File.separator + "+", File.separator);
@@ -940,6 +1127,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getPerformanceModeWaitType() {
+        return performanceModeWaitType;
+    }
+
+    @SuppressWarnings("unused")
+    public void setPerformanceModeWaitType(int performanceModeWaitType) {
+        if (performanceModeWaitType >= 0 && performanceModeWaitType <= 1) {
+            this.performanceModeWaitType = performanceModeWaitType;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "performanceModeWaitType", performanceModeWaitType, this.performanceModeWaitType));
+        }
+    }
+
     public int getUseSerializableMode() {
         return useSerializableMode;
     }
@@ -953,6 +1153,19 @@ public final class SystemConfig {
         }
     }
 
+    public int getUsePreparedRouteCache() {
+        return usePreparedRouteCache;
+    }
+
+    @SuppressWarnings("unused")
+    public void setUsePreparedRouteCache(int usePreparedRouteCache) {
+        if (usePreparedRouteCache >= 0 && usePreparedRouteCache <= 1) {
+            this.usePreparedRouteCache = usePreparedRouteCache;
+        } else {
+            problemReporter.warn(String.format(WARNING_FORMAT, "usePreparedRouteCache", usePreparedRouteCache, this.usePreparedRouteCache));
+        }
+    }
+
 
     public int getWriteToBackendExecutor() {
         return writeToBackendExecutor;
@@ -1169,7 +1382,9 @@ public final class SystemConfig {
                 ", usingAIO=" + usingAIO +
                 ", useThreadUsageStat=" + useThreadUsageStat +
                 ", usePerformanceMode=" + usePerformanceMode +
+                ", performanceModeWaitType=" + performanceModeWaitType +
                 ", useSerializableMode=" + useSerializableMode +
+                ", usePreparedRouteCache=" + usePreparedRouteCache +
                 ", useCostTimeStat=" + useCostTimeStat +
                 ", maxCostStatSize=" + maxCostStatSize +
                 ", costSamplePercent=" + costSamplePercent +
@@ -1179,6 +1394,13 @@ public final class SystemConfig {
                 ", txIsolation=" + txIsolation +
                 ", checkTableConsistency=" + checkTableConsistency +
                 ", checkTableConsistencyPeriod=" + checkTableConsistencyPeriod +
+                ", useTableMetaSnapshot=" + useTableMetaSnapshot +
+                ", tableMetaSnapshotBaseDir=" + tableMetaSnapshotBaseDir +
+                ", metaFetchConcurrency=" + metaFetchConcurrency +
+                ", insertBatchTables=" + insertBatchTables +
+                ", insertBatchWindow=" + insertBatchWindow +
+                ", insertBatchMaxRows=" + insertBatchMaxRows +
+                ", parentLocationCacheSize=" + parentLocationCacheSize +
                 ", processorCheckPeriod=" + processorCheckPeriod +
                 ", sqlExecuteTimeout=" + sqlExecuteTimeout +
                 ", recordTxn=" + recordTxn +
@@ -1189,14 +1411,18 @@ public final class SystemConfig {
                 ", xaSessionCheckPeriod=" + xaSessionCheckPeriod +
                 ", xaLogCleanPeriod=" + xaLogCleanPeriod +
                 ", useJoinStrategy=" + useJoinStrategy +
+                ", useHashJoin=" + useHashJoin +
                 ", nestLoopConnSize=" + nestLoopConnSize +
                 ", nestLoopRowsSize=" + nestLoopRowsSize +
+                ", tableStatisticsPeriod=" + tableStatisticsPeriod +
                 ", otherMemSize=" + otherMemSize +
                 ", orderMemSize=" + orderMemSize +
                 ", joinMemSize=" + joinMemSize +
                 ", bufferPoolChunkSize=" + bufferPoolChunkSize +
                 ", bufferPoolPageSize=" + bufferPoolPageSize +
                 ", bufferPoolPageNumber=" + bufferPoolPageNumber +
+                ", bufferPoolType=" + bufferPoolType +
+                ", useSpillCompression=" + useSpillCompression +
                 ", useSqlStat=" + useSqlStat +
                 ", sqlRecordCount=" + sqlRecordCount +
                 ", maxResultSet=" + maxResultSet +
@@ -1212,7 +1438,9 @@ public final class SystemConfig {
                 ", viewPersistenceConfBaseName=" + viewPersistenceConfBaseName +
                 ", joinQueueSize=" + joinQueueSize +
                 ", mergeQueueSize=" + mergeQueueSize +
+                ", parallelMergeThreshold=" + parallelMergeThreshold +
                 ", orderByQueueSize=" + orderByQueueSize +
+                ", orderByTopNMaxRows=" + orderByTopNMaxRows +
                 ", enableSlowLog=" + enableSlowLog +
                 ", slowLogBaseDir=" + slowLogBaseDir +
                 ", slowLogBaseName=" + slowLogBaseName +
@@ -5,6 +5,9 @@
 
 package com.actiontech.dble.config.model.sharding.table;
 
+import com.actiontech.dble.cache.ParentLocationCache;
+import com.actiontech.dble.config.model.SystemConfig;
+
 import java.util.List;
 
 public class ChildTableConfig extends BaseTableConfig {
@@ -13,6 +16,9 @@ public class ChildTableConfig extends BaseTableConfig {
     private final String parentColumn;
     private final String incrementColumn;
     private final String locateRTableKeySql;
+    // SELECT parent.parentColumn FROM ... WHERE ... parent.parentColumn IN (
+    private final String locateRTableKeysSql;
+    private final ParentLocationCache parentLocationCache;
     private final ShardingTableConfig directRouteTC;
 
     public ChildTableConfig(String name, int maxLimit, List<String> shardingNodes, BaseTableConfig parentTC, String joinColumn, String parentColumn, String incrementColumn) {
@@ -23,9 +29,14 @@ public class ChildTableConfig extends BaseTableConfig {
         this.incrementColumn = incrementColumn;
         this.directRouteTC = findDirectRouteTC();
         if (directRouteTC == null) {
-            locateRTableKeySql = genLocateRootParentSQL();
+            locateRTableKeySql = genLocateRootParentSQL(false);
+            locateRTableKeysSql = genLocateRootParentSQL(true);
+            int cacheSize = SystemConfig.getInstance().getParentLocationCacheSize();
+            parentLocationCache = cacheSize > 0 ? new ParentLocationCache(cacheSize) : null;
         } else {
             locateRTableKeySql = null;
+            locateRTableKeysSql = null;
+            parentLocationCache = null;
         }
     }
 
@@ -64,7 +75,10 @@ public class ChildTableConfig extends BaseTableConfig {
         }
     }
 
-    private String genLocateRootParentSQL() {
+    /**
+     * @param byKeys select the join key values by IN, so that the node of each value can be known from the result
+     */
+    private String genLocateRootParentSQL(boolean byKeys) {
         BaseTableConfig tb = this;
         StringBuilder tableSb = new StringBuilder();
         StringBuilder condition = new StringBuilder();
@@ -75,7 +89,7 @@ public class ChildTableConfig extends BaseTableConfig {
             ChildTableConfig thisTable = (ChildTableConfig) tb;
             tableSb.append(thisTable.parentTC.name).append(',');
             if (level == 0) {
-                latestCond = " " + thisTable.parentTC.getName() + '.' + thisTable.parentColumn + "=";
+                latestCond = " " + thisTable.parentTC.getName() + '.' + thisTable.parentColumn + (byKeys ? " IN (" : "=");
             } else {
                 String relation = thisTable.parentTC.getName() + '.' + thisTable.parentColumn + '=' + tb.name + '.' + thisTable.joinColumn;
                 condition.append(relation).append(" AND ");
@@ -86,9 +100,7 @@ public class ChildTableConfig extends BaseTableConfig {
         }
         ChildTableConfig firstGenChildTable = (ChildTableConfig) prevTC;
         return "SELECT " +
-                firstGenChildTable.parentTC.name +
-                '.' +
-                firstGenChildTable.parentColumn +
+                (byKeys ? parentTC.getName() + '.' + parentColumn : firstGenChildTable.parentTC.name + '.' + firstGenChildTable.parentColumn) +
                 " FROM " +
                 tableSb.substring(0, tableSb.length() - 1) +
                 " WHERE " +
@@ -125,6 +137,17 @@ public class ChildTableConfig extends BaseTableConfig {
         return locateRTableKeySql;
     }
 
+    public String getLocateRTableKeysSql() {
+        return locateRTableKeysSql;
+    }
+
+    /**
+     * @return null if the parentLocationCacheSize is 0 or the child table is routed by the parent's rule directly
+     */
+    public ParentLocationCache getParentLocationCache() {
+        return parentLocationCache;
+    }
+
     public ShardingTableConfig getDirectRouteTC() {
         return directRouteTC;
     }
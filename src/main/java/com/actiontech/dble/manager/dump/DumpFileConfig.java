@@ -10,6 +10,8 @@ public class DumpFileConfig {
     private String writePath;
     private int writeQueueSize = 500;
     private int maxValues = 4000;
+    // the threads parsing the inserts of sharding table
+    private int parallelism = Runtime.getRuntime().availableProcessors();
 
     public String getDefaultSchema() {
         return defaultSchema;
@@ -61,4 +63,12 @@ public class DumpFileConfig {
     public void setMaxValues(int maxValues) {
         this.maxValues = maxValues;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
 }
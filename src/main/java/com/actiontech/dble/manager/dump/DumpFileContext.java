@@ -8,6 +8,7 @@ import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * @author Baofengqi
@@ -31,6 +32,7 @@ public final class DumpFileContext {
     private List<ErrorMsg> errors;
     private boolean needSkipError;
     private DumpFileConfig config;
+    private ExecutorService routeExecutor;
 
     public DumpFileContext(DumpFileWriter writer, DumpFileConfig config) {
         this.writer = writer;
@@ -150,6 +152,14 @@ public final class DumpFileContext {
         return config;
     }
 
+    public ExecutorService getRouteExecutor() {
+        return routeExecutor;
+    }
+
+    void setRouteExecutor(ExecutorService routeExecutor) {
+        this.routeExecutor = routeExecutor;
+    }
+
     public Set<String> getAllShardingNodes() {
         return allShardingNodes;
     }
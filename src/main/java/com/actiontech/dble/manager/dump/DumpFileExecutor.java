@@ -4,6 +4,7 @@ import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.manager.dump.handler.StatementHandler;
 import com.actiontech.dble.manager.dump.handler.StatementHandlerManager;
 import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.util.ExecutorUtil;
 import com.actiontech.dble.util.TimeUtil;
 import com.alibaba.druid.sql.ast.SQLStatement;
 import org.slf4j.Logger;
@@ -11,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.SQLSyntaxErrorException;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 
 /**
@@ -32,6 +34,8 @@ public final class DumpFileExecutor implements Runnable {
     }
 
     public void start() {
+        ExecutorService routeExecutor = ExecutorUtil.createFixed("dump-file-router", context.getConfig().getParallelism());
+        this.context.setRouteExecutor(routeExecutor);
         this.self = new Thread(this, "dump-file-executor");
         this.self.start();
     }
@@ -46,6 +50,15 @@ public final class DumpFileExecutor implements Runnable {
 
     @Override
     public void run() {
+        try {
+            execute();
+        } finally {
+            context.getRouteExecutor().shutdownNow();
+            StatementHandlerManager.reset();
+        }
+    }
+
+    private void execute() {
         String stmt = null;
         DumpFileWriter writer = context.getWriter();
         long startTime = TimeUtil.currentTimeMillis();
@@ -64,6 +77,9 @@ public final class DumpFileExecutor implements Runnable {
                 }
 
                 int type = ServerParse.parse(stmt);
+                if (type != ServerParse.INSERT) {
+                    StatementHandlerManager.flushInsert(context);
+                }
                 // pre handle
                 if (preHandle(writer, type, stmt)) {
                     continue;
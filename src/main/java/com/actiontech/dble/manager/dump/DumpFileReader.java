@@ -8,7 +8,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.charset.StandardCharsets;
 import java.util.concurrent.BlockingQueue;
 import java.util.regex.Pattern;
 
@@ -20,8 +19,8 @@ public final class DumpFileReader {
     public static final Logger LOGGER = LoggerFactory.getLogger("dumpFileLog");
     public static final String EOF = "dump file eof";
     public static final Pattern CREATE_VIEW = Pattern.compile("CREATE\\s+VIEW\\s+`?([a-zA-Z_0-9\\-_]+)`?\\s+", Pattern.CASE_INSENSITIVE);
-    private StringBuilder tempStr = new StringBuilder(200);
     private BlockingQueue<String> readQueue;
+    private DumpStatementScanner scanner;
     private FileChannel fileChannel;
     private long fileLength;
     private long readLength;
@@ -29,6 +28,7 @@ public final class DumpFileReader {
 
     public DumpFileReader(BlockingQueue<String> queue) {
         this.readQueue = queue;
+        this.scanner = new DumpStatementScanner(queue);
     }
 
     public void open(String fileName) throws IOException {
@@ -52,14 +52,11 @@ public final class DumpFileReader {
                     readPercent = (int) percent;
                     LOGGER.info("dump file has bean read " + readPercent + "%");
                 }
-                readSQLByEOF(buffer.array(), byteRead);
+                scanner.scan(buffer.array(), 0, byteRead);
                 buffer.clear();
                 byteRead = fileChannel.read(buffer);
             }
-            if (tempStr != null) {
-                this.readQueue.put(tempStr.toString());
-                this.tempStr = null;
-            }
+            scanner.finish();
             this.readQueue.put(EOF);
         } finally {
             try {
@@ -73,40 +70,4 @@ public final class DumpFileReader {
         }
     }
 
-    // read one statement by ;
-    private void readSQLByEOF(byte[] linesByte, int byteRead) throws InterruptedException {
-        String stmts = new String(linesByte, 0, byteRead, StandardCharsets.UTF_8);
-        boolean endWithEOF = stmts.endsWith(";");
-        String[] lines = stmts.split(";");
-        int len = lines.length - 1;
-
-        int i = 0;
-        if (len > 0 && tempStr != null) {
-            tempStr.append(lines[0]);
-            this.readQueue.put(tempStr.toString());
-            tempStr = null;
-            i = 1;
-        }
-
-        for (; i < len; i++) {
-            this.readQueue.put(lines[i]);
-        }
-
-        if (!endWithEOF) {
-            if (tempStr == null) {
-                tempStr = new StringBuilder(lines[len]);
-            } else {
-                tempStr.append(lines[len]);
-            }
-        } else {
-            if (tempStr != null) {
-                tempStr.append(lines[len]);
-                this.readQueue.put(tempStr.toString());
-                tempStr = null;
-            } else {
-                this.readQueue.put(lines[len]);
-            }
-        }
-    }
-
 }
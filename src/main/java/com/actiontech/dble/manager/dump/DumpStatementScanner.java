@@ -0,0 +1,180 @@
+package com.actiontech.dble.manager.dump;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * split the bytes of dump file into statements by ';' without decoding the whole buffer,
+ * the ';' in quotes, backticks and comments is not a delimiter.
+ * the bytes of utf8 multibyte chars are all over 0x7f, so they are never taken as the delimiter or quotes.
+ */
+final class DumpStatementScanner {
+
+    private static final int NORMAL = 0;
+    private static final int SINGLE_QUOTE = 1;
+    private static final int DOUBLE_QUOTE = 2;
+    private static final int BACKTICK = 3;
+    private static final int LINE_COMMENT = 4;
+    private static final int BLOCK_COMMENT = 5;
+    // '*' in block comment
+    private static final int BLOCK_COMMENT_STAR = 6;
+    // '-' in normal
+    private static final int DASH = 7;
+    // '--' in normal
+    private static final int DOUBLE_DASH = 8;
+    // '/' in normal
+    private static final int SLASH = 9;
+
+    private final BlockingQueue<String> queue;
+    private int state = NORMAL;
+    private boolean escaped = false;
+    // the bytes of the statement not finished in the last buffer
+    private byte[] pending = new byte[256];
+    private int pendingLength = 0;
+
+    DumpStatementScanner(BlockingQueue<String> queue) {
+        this.queue = queue;
+    }
+
+    void scan(byte[] buffer, int offset, int length) throws InterruptedException {
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            if (next(buffer[i])) {
+                emit(buffer, start, i - start);
+                start = i + 1;
+            }
+        }
+        append(buffer, start, end - start);
+    }
+
+    /**
+     * the bytes after the last ';'
+     */
+    void finish() throws InterruptedException {
+        if (pendingLength > 0) {
+            queue.put(new String(pending, 0, pendingLength, StandardCharsets.UTF_8));
+            pendingLength = 0;
+        }
+    }
+
+    /**
+     * @return true if b is the delimiter
+     */
+    private boolean next(byte b) {
+        switch (state) {
+            case SINGLE_QUOTE:
+                quoted(b, '\'');
+                return false;
+            case DOUBLE_QUOTE:
+                quoted(b, '"');
+                return false;
+            case BACKTICK:
+                if (b == '`') {
+                    state = NORMAL;
+                }
+                return false;
+            case LINE_COMMENT:
+                if (b == '\n') {
+                    state = NORMAL;
+                }
+                return false;
+            case BLOCK_COMMENT:
+                if (b == '*') {
+                    state = BLOCK_COMMENT_STAR;
+                }
+                return false;
+            case BLOCK_COMMENT_STAR:
+                if (b == '/') {
+                    state = NORMAL;
+                } else if (b != '*') {
+                    state = BLOCK_COMMENT;
+                }
+                return false;
+            case DASH:
+                if (b == '-') {
+                    state = DOUBLE_DASH;
+                    return false;
+                }
+                return normal(b);
+            case DOUBLE_DASH:
+                if (b == '\n') {
+                    state = NORMAL;
+                    return false;
+                } else if (b <= ' ' && b >= 0) {
+                    state = LINE_COMMENT;
+                    return false;
+                }
+                return normal(b);
+            case SLASH:
+                if (b == '*') {
+                    state = BLOCK_COMMENT;
+                    return false;
+                }
+                return normal(b);
+            default:
+                return normal(b);
+        }
+    }
+
+    private boolean normal(byte b) {
+        state = NORMAL;
+        switch (b) {
+            case ';':
+                return true;
+            case '\'':
+                state = SINGLE_QUOTE;
+                break;
+            case '"':
+                state = DOUBLE_QUOTE;
+                break;
+            case '`':
+                state = BACKTICK;
+                break;
+            case '#':
+                state = LINE_COMMENT;
+                break;
+            case '-':
+                state = DASH;
+                break;
+            case '/':
+                state = SLASH;
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    private void quoted(byte b, char quote) {
+        if (escaped) {
+            escaped = false;
+        } else if (b == '\\') {
+            escaped = true;
+        } else if (b == quote) {
+            state = NORMAL;
+        }
+    }
+
+    private void emit(byte[] buffer, int start, int length) throws InterruptedException {
+        if (pendingLength == 0) {
+            queue.put(new String(buffer, start, length, StandardCharsets.UTF_8));
+            return;
+        }
+        append(buffer, start, length);
+        queue.put(new String(pending, 0, pendingLength, StandardCharsets.UTF_8));
+        pendingLength = 0;
+    }
+
+    private void append(byte[] buffer, int start, int length) {
+        if (length <= 0) {
+            return;
+        }
+        if (pendingLength + length > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length << 1, pendingLength + length));
+        }
+        System.arraycopy(buffer, start, pending, pendingLength, length);
+        pendingLength += length;
+    }
+}
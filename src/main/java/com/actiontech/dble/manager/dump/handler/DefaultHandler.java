@@ -9,7 +9,7 @@ import java.sql.SQLNonTransientException;
 public class DefaultHandler implements StatementHandler {
 
     @Override
-    public SQLStatement preHandle(DumpFileContext context, String stmt) throws SQLNonTransientException {
+    public SQLStatement preHandle(DumpFileContext context, String stmt) throws SQLNonTransientException, InterruptedException {
         return null;
     }
 
@@ -15,34 +15,44 @@ import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
 import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLNonTransientException;
-import java.util.List;
+import java.sql.SQLSyntaxErrorException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 class InsertHandler extends DefaultHandler {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger("dumpFileLog");
     private static final Pattern INSERT_STMT = Pattern.compile("insert\\s+into\\s+`?(.*)`\\s+values", Pattern.CASE_INSENSITIVE);
     private final ShardingValuesHandler shardingValuesHandler = new ShardingValuesHandler();
-    private final DefaultValuesHandler defaultValuesHandler = new DefaultValuesHandler();
-    private DefaultValuesHandler valuesHandler;
+    // the inserts of current table parsed and routed by the workers, written in the order of dump file
+    private final Deque<RoutingInsert> routingInserts = new ArrayDeque<>();
     private String currentTable;
+    private boolean isRouteByWorker = false;
 
     @Override
-    public SQLStatement preHandle(DumpFileContext context, String stmt) throws DumpException, SQLNonTransientException {
+    public SQLStatement preHandle(DumpFileContext context, String stmt) throws DumpException, SQLNonTransientException, InterruptedException {
         // get table name simply
         String table = null;
         Matcher matcher = InsertHandler.INSERT_STMT.matcher(stmt);
         if (matcher.find()) {
             table = matcher.group(1);
         }
+        isRouteByWorker = false;
+        if (table == null || !table.equalsIgnoreCase(currentTable)) {
+            flush(context);
+        }
         context.setTable(table);
         if (table != null && table.equalsIgnoreCase(currentTable)) {
-            if (context.isSkipContext() || !(context.getTableConfig() instanceof ShardingTableConfig)) {
-                return null;
-            }
-            return RouteStrategyFactory.getRouteStrategy().parserSQL(stmt);
+            isRouteByWorker = !context.isSkipContext() && context.getTableConfig() instanceof ShardingTableConfig;
+            return null;
         } else {
             currentTable = table;
         }
@@ -63,48 +73,88 @@ class InsertHandler extends DefaultHandler {
             insertHeader.append(insert.getColumns().toString());
         }
         insertHeader.append(" VALUES");
-        if (context.getTableConfig() instanceof ShardingTableConfig) {
-            shardingValuesHandler.reset();
-            valuesHandler = shardingValuesHandler;
-        } else {
-            valuesHandler = defaultValuesHandler;
-        }
-        valuesHandler.setInsertHeader(insertHeader);
+        shardingValuesHandler.reset();
+        shardingValuesHandler.setInsertHeader(insertHeader);
         return insert;
     }
 
     @Override
     public void handle(DumpFileContext context, SQLStatement sqlStatement) throws InterruptedException {
-        MySqlInsertStatement insert = (MySqlInsertStatement) sqlStatement;
-        SQLInsertStatement.ValuesClause valueClause;
-
-        valuesHandler.preProcess(context);
-        for (int i = 0; i < insert.getValuesList().size(); i++) {
-            valueClause = insert.getValuesList().get(i);
-            try {
-                processIncrementColumn(context, valueClause.getValues());
-                valuesHandler.process(context, valueClause.getValues(), i == 0);
-            } catch (SQLNonTransientException e) {
-                context.addError(e.getMessage());
-            }
+        InsertRouter router = new InsertRouter(context, null);
+        write(context, router.route((MySqlInsertStatement) sqlStatement));
+    }
+
+    /**
+     * the inserts after the first one of the sharding table are parsed by the workers,
+     * the others are written as they are
+     */
+    @Override
+    public void handle(DumpFileContext context, String stmt) throws InterruptedException {
+        if (!isRouteByWorker) {
+            super.handle(context, stmt);
+            return;
+        }
+        InsertRouter router = new InsertRouter(context, stmt);
+        routingInserts.add(new RoutingInsert(stmt, context.getRouteExecutor().submit(router)));
+        // bound the routed rows not written
+        while (routingInserts.size() > context.getConfig().getParallelism() * 4) {
+            writeFirst(context);
         }
-        valuesHandler.postProcess(context);
     }
 
-    private void processIncrementColumn(DumpFileContext context, List<SQLExpr> values) throws SQLNonTransientException {
-        int incrementIndex = context.getIncrementColumnIndex();
-        if (incrementIndex == -1) {
+    /**
+     * write all the inserts routed by the workers
+     */
+    void flush(DumpFileContext context) throws InterruptedException {
+        while (!routingInserts.isEmpty()) {
+            writeFirst(context);
+        }
+    }
+
+    /**
+     * the inserts left by the interrupted task
+     */
+    void reset() {
+        routingInserts.clear();
+        currentTable = null;
+    }
+
+    private void writeFirst(DumpFileContext context) throws InterruptedException {
+        RoutingInsert insert = routingInserts.poll();
+        RoutedValues routedValues;
+        try {
+            routedValues = insert.future.get();
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof SQLSyntaxErrorException)) {
+                throw new RuntimeException(e.getCause());
+            }
+            if (!context.isSkipContext()) {
+                String currentStmt = insert.stmt.length() <= 1024 ? insert.stmt : insert.stmt.substring(0, 1024);
+                context.setSkipContext(true);
+                LOGGER.warn("current stmt[" + currentStmt + "] error.", e.getCause());
+                context.addError("current stmt[" + currentStmt + "] error,because:" + e.getCause().getMessage());
+            }
             return;
         }
+        // the former insert of the table is wrong
+        if (!context.isSkipContext()) {
+            write(context, routedValues);
+        }
+    }
 
-        String tableKey = StringUtil.getFullName(context.getSchema(), context.getTable());
-        long val = SequenceManager.getHandler().nextId(tableKey);
-        SQLExpr value = values.get(incrementIndex);
-        if (!StringUtil.isEmpty(SQLUtils.toMySqlString(value)) && !context.isNeedSkipError()) {
+    private void write(DumpFileContext context, RoutedValues routedValues) throws InterruptedException {
+        if (routedValues.isIncrementSet && !context.isNeedSkipError()) {
             context.addError("For table using global sequence, dble has set increment column values for you.");
             context.setNeedSkipError(true);
         }
-        values.set(incrementIndex, new SQLIntegerExpr(val));
+        for (String error : routedValues.errors) {
+            context.addError(error);
+        }
+        for (Map.Entry<String, List<String>> entry : routedValues.rows.entrySet()) {
+            for (String row : entry.getValue()) {
+                shardingValuesHandler.write(context, entry.getKey(), row);
+            }
+        }
     }
 
     /**
@@ -169,4 +219,79 @@ class InsertHandler extends DefaultHandler {
         context.setIncrementColumnIndex(incrementColumnIndex);
         context.setPartitionColumnIndex(partitionColumnIndex);
     }
+
+    private static final class RoutingInsert {
+        private final String stmt;
+        private final Future<RoutedValues> future;
+
+        private RoutingInsert(String stmt, Future<RoutedValues> future) {
+            this.stmt = stmt;
+            this.future = future;
+        }
+    }
+
+    /**
+     * the values of insert grouped by shardingNode
+     */
+    private static final class RoutedValues {
+        private final Map<String, List<String>> rows = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private boolean isIncrementSet = false;
+    }
+
+    /**
+     * parse and route an insert without the context, so it can run in the worker
+     */
+    private final class InsertRouter implements Callable<RoutedValues> {
+        private final String stmt;
+        private final ShardingTableConfig tableConfig;
+        private final int partitionColumnIndex;
+        private final int incrementColumnIndex;
+        private final String tableKey;
+
+        private InsertRouter(DumpFileContext context, String stmt) {
+            this.stmt = stmt;
+            this.tableConfig = (ShardingTableConfig) context.getTableConfig();
+            this.partitionColumnIndex = context.getPartitionColumnIndex();
+            this.incrementColumnIndex = context.getIncrementColumnIndex();
+            this.tableKey = StringUtil.getFullName(context.getSchema(), context.getTable());
+        }
+
+        @Override
+        public RoutedValues call() throws SQLSyntaxErrorException {
+            return route((MySqlInsertStatement) RouteStrategyFactory.getRouteStrategy().parserSQL(stmt));
+        }
+
+        private RoutedValues route(MySqlInsertStatement insert) {
+            RoutedValues routedValues = new RoutedValues();
+            for (SQLInsertStatement.ValuesClause valueClause : insert.getValuesList()) {
+                List<SQLExpr> values = valueClause.getValues();
+                try {
+                    if (incrementColumnIndex != -1 && setIncrementValue(values)) {
+                        routedValues.isIncrementSet = true;
+                    }
+                    String shardingNode = ShardingValuesHandler.calculateShardingNode(tableConfig, partitionColumnIndex, values);
+                    List<String> rows = routedValues.rows.get(shardingNode);
+                    if (rows == null) {
+                        rows = new ArrayList<>();
+                        routedValues.rows.put(shardingNode, rows);
+                    }
+                    rows.add(shardingValuesHandler.toString(values, true));
+                } catch (SQLNonTransientException e) {
+                    routedValues.errors.add(e.getMessage());
+                }
+            }
+            return routedValues;
+        }
+
+        /**
+         * @return true if the value of increment column is set in dump file
+         */
+        private boolean setIncrementValue(List<SQLExpr> values) throws SQLNonTransientException {
+            long val = SequenceManager.getHandler().nextId(tableKey);
+            SQLExpr value = values.get(incrementColumnIndex);
+            values.set(incrementColumnIndex, new SQLIntegerExpr(val));
+            return !StringUtil.isEmpty(SQLUtils.toMySqlString(value));
+        }
+    }
 }
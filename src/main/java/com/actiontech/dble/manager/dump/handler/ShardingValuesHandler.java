@@ -32,31 +32,35 @@ public class ShardingValuesHandler extends DefaultValuesHandler {
 
     @Override
     public void process(DumpFileContext context, List<SQLExpr> values, boolean isFirst) throws SQLNonTransientException, InterruptedException {
-        Integer nodeIndex = handleShardingColumn(context, values);
-        String shardingNode = context.getTableConfig().getShardingNodes().get(nodeIndex);
-        // sharding table
+        ShardingTableConfig tableConfig = (ShardingTableConfig) context.getTableConfig();
+        String shardingNode = calculateShardingNode(tableConfig, context.getPartitionColumnIndex(), values);
+        write(context, shardingNode, toString(values, true));
+    }
+
+    /**
+     * @param row the values of one row without ',' before it
+     */
+    void write(DumpFileContext context, String shardingNode, String row) throws InterruptedException {
         LongPtr num = shardingNodes.get(shardingNode);
         if (num == null) {
             shardingNodes.put(shardingNode, new LongPtr(1));
-            context.getWriter().writeInsertHeader(shardingNode, insertHeader.toString() + toString(values, true));
+            context.getWriter().writeInsertHeader(shardingNode, insertHeader.toString() + row);
             return;
         }
-        String stmt;
         if (num.get() < context.getConfig().getMaxValues()) {
             num.incre();
-            stmt = toString(values, false);
+            context.getWriter().writeInsertValues(shardingNode, "," + row);
         } else {
             shardingNodes.put(shardingNode, new LongPtr(1));
             context.getWriter().writeInsertValues(shardingNode, ";");
             context.getWriter().writeInsertHeader(shardingNode, insertHeader.toString());
-            stmt = toString(values, true);
+            context.getWriter().writeInsertValues(shardingNode, row);
         }
-        context.getWriter().writeInsertValues(shardingNode, stmt);
     }
 
-    private Integer handleShardingColumn(DumpFileContext context, List<SQLExpr> values) throws SQLNonTransientException {
-        AbstractPartitionAlgorithm algorithm = ((ShardingTableConfig) context.getTableConfig()).getFunction();
-        SQLExpr expr = values.get(context.getPartitionColumnIndex());
+    static String calculateShardingNode(ShardingTableConfig tableConfig, int partitionColumnIndex, List<SQLExpr> values) throws SQLNonTransientException {
+        AbstractPartitionAlgorithm algorithm = tableConfig.getFunction();
+        SQLExpr expr = values.get(partitionColumnIndex);
         String shardingValue = null;
         if (expr instanceof SQLIntegerExpr) {
             SQLIntegerExpr intExpr = (SQLIntegerExpr) expr;
@@ -74,12 +78,12 @@ public class ShardingValuesHandler extends DefaultValuesHandler {
         try {
             nodeIndex = algorithm.calculate(shardingValue);
             // null means can't find any valid index
-            if (nodeIndex == null || nodeIndex >= context.getTableConfig().getShardingNodes().size()) {
+            if (nodeIndex == null || nodeIndex >= tableConfig.getShardingNodes().size()) {
                 throw new SQLNonTransientException("can't find any valid shardingnode shardingValue" + values.toString());
             }
         } catch (Exception e) {
             throw new SQLNonTransientException("can't calculate valid shardingnode shardingValue" + values.toString() + ",due to " + e.getMessage());
         }
-        return nodeIndex;
+        return tableConfig.getShardingNodes().get(nodeIndex);
     }
 }
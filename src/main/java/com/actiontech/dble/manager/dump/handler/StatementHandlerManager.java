@@ -1,5 +1,6 @@
 package com.actiontech.dble.manager.dump.handler;
 
+import com.actiontech.dble.manager.dump.DumpFileContext;
 import com.actiontech.dble.server.parser.ServerParse;
 
 import java.util.Map;
@@ -33,4 +34,15 @@ public final class StatementHandlerManager {
         return handlers.get("default");
     }
 
+    /**
+     * the inserts routed by the workers must be written before other statements
+     */
+    public static void flushInsert(DumpFileContext context) throws InterruptedException {
+        ((InsertHandler) handlers.get("insert")).flush(context);
+    }
+
+    public static void reset() {
+        ((InsertHandler) handlers.get("insert")).reset();
+    }
+
 }
@@ -182,6 +182,9 @@ public final class ShowHandler {
             case ManagerParseShow.DIRECTMEMORY:
                 ShowDirectMemory.execute(c);
                 break;
+            case ManagerParseShow.BUFFER_POOL:
+                ShowBufferPool.execute(c);
+                break;
             case ManagerParseShow.CONNECTION_COUNT:
                 ShowConnectionCount.execute(c);
                 break;
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.manager.response;
+
+import com.actiontech.dble.backend.mysql.PacketUtil;
+import com.actiontech.dble.buffer.BufferPool;
+import com.actiontech.dble.buffer.SizeClassBufferPool;
+import com.actiontech.dble.config.ErrorCode;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.manager.ManagerConnection;
+import com.actiontech.dble.net.mysql.EOFPacket;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.ResultSetHeaderPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import com.actiontech.dble.util.IntegerUtil;
+import com.actiontech.dble.util.LongUtil;
+import com.actiontech.dble.util.StringUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * show @@buffer_pool
+ * <p>
+ * the counters of every size class of SizeClassBufferPool
+ */
+public final class ShowBufferPool {
+    private ShowBufferPool() {
+    }
+
+    private static final int FIELD_COUNT = 8;
+    private static final ResultSetHeaderPacket HEADER = PacketUtil.getHeader(FIELD_COUNT);
+    private static final FieldPacket[] FIELDS = new FieldPacket[FIELD_COUNT];
+    private static final EOFPacket EOF = new EOFPacket();
+
+    static {
+        int i = 0;
+        byte packetId = 0;
+        HEADER.setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("SIZE_CLASS", Fields.FIELD_TYPE_VAR_STRING);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("PAGES", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("FREE_BUFFERS", Fields.FIELD_TYPE_LONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("ALLOCATE_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("THREAD_CACHE_HIT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("SHARED_HIT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("FALLBACK_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i++].setPacketId(++packetId);
+
+        FIELDS[i] = PacketUtil.getField("RECYCLE_COUNT", Fields.FIELD_TYPE_LONGLONG);
+        FIELDS[i].setPacketId(++packetId);
+
+        EOF.setPacketId(++packetId);
+    }
+
+    public static void execute(ManagerConnection c) {
+        BufferPool bufferPool = BufferPoolManager.getBufferPool();
+        if (!(bufferPool instanceof SizeClassBufferPool)) {
+            c.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, "show @@buffer_pool is only supported when bufferPoolType=1");
+            return;
+        }
+        ByteBuffer buffer = c.allocate();
+
+        // write header
+        buffer = HEADER.write(buffer, c, true);
+
+        // write fields
+        for (FieldPacket field : FIELDS) {
+            buffer = field.write(buffer, c, true);
+        }
+
+        // write eof
+        buffer = EOF.write(buffer, c, true);
+
+        // write rows
+        byte packetId = EOF.getPacketId();
+        String charset = c.getCharset().getResults();
+        SizeClassBufferPool pool = (SizeClassBufferPool) bufferPool;
+        for (SizeClassBufferPool.SizeClass sizeClass : pool.getSizeClasses()) {
+            RowDataPacket row = new RowDataPacket(FIELD_COUNT);
+            row.add(StringUtil.encode(String.valueOf(sizeClass.getSize()), charset));
+            row.add(IntegerUtil.toBytes(sizeClass.getPageCount()));
+            row.add(IntegerUtil.toBytes(sizeClass.getFreeCount()));
+            row.add(LongUtil.toBytes(sizeClass.getAllocateCount()));
+            row.add(LongUtil.toBytes(sizeClass.getThreadCacheHit()));
+            row.add(LongUtil.toBytes(sizeClass.getSharedHit()));
+            row.add(LongUtil.toBytes(sizeClass.getFallbackCount()));
+            row.add(LongUtil.toBytes(sizeClass.getRecycleCount()));
+            row.setPacketId(++packetId);
+            buffer = row.write(buffer, c, true);
+        }
+        // the pages not assigned to any size class yet
+        RowDataPacket unassigned = getRow("UNASSIGNED", pool.getFreePageCount(), 0, 0, charset);
+        unassigned.setPacketId(++packetId);
+        buffer = unassigned.write(buffer, c, true);
+        // the allocations larger than the page, always from heap
+        RowDataPacket oversize = getRow("OVERSIZE", 0, pool.getOversizeCount(), 0, charset);
+        oversize.setPacketId(++packetId);
+        buffer = oversize.write(buffer, c, true);
+        // the buffers recycled twice or not from the pool
+        RowDataPacket rejected = getRow("REJECTED_RECYCLE", 0, 0, pool.getBadRecycleCount(), charset);
+        rejected.setPacketId(++packetId);
+        buffer = rejected.write(buffer, c, true);
+
+        // write last eof
+        EOFPacket lastEof = new EOFPacket();
+        lastEof.setPacketId(++packetId);
+        buffer = lastEof.write(buffer, c, true);
+
+        // write buffer
+        c.write(buffer);
+    }
+
+    private static RowDataPacket getRow(String name, int pages, long fallbackCount, long recycleCount, String charset) {
+        RowDataPacket row = new RowDataPacket(FIELD_COUNT);
+        row.add(StringUtil.encode(name, charset));
+        row.add(IntegerUtil.toBytes(pages));
+        row.add(IntegerUtil.toBytes(0));
+        row.add(LongUtil.toBytes(fallbackCount));
+        row.add(LongUtil.toBytes(0));
+        row.add(LongUtil.toBytes(0));
+        row.add(LongUtil.toBytes(fallbackCount));
+        row.add(LongUtil.toBytes(recycleCount));
+        return row;
+    }
+}
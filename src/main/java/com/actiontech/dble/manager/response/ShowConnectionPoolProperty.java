@@ -9,6 +9,8 @@ import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.datasource.PhysicalDbGroup;
 import com.actiontech.dble.backend.datasource.PhysicalDbInstance;
 import com.actiontech.dble.backend.mysql.PacketUtil;
+import com.actiontech.dble.backend.pool.ConnectionPool;
+import com.actiontech.dble.backend.pool.LatencyHistogram;
 import com.actiontech.dble.backend.pool.PoolConfig;
 import com.actiontech.dble.config.Fields;
 import com.actiontech.dble.manager.ManagerConnection;
@@ -111,6 +113,19 @@ public final class ShowConnectionPoolProperty {
                 row = getRow(group.getGroupName(), instance.getName(), "timeBetweenEvictionRunsMillis", poolConfig.getTimeBetweenEvictionRunsMillis() + "", c.getCharset().getClient());
                 row.setPacketId(++packetId);
                 buffer = row.write(buffer, c, true);
+                ConnectionPool pool = instance.getConnectionPool();
+                if (pool != null) {
+                    // the count of borrow in each range of the time spent
+                    LatencyHistogram borrowLatency = pool.getBorrowLatency();
+                    for (int i = 0; i < borrowLatency.size(); i++) {
+                        row = getRow(group.getGroupName(), instance.getName(), "borrowTime" + borrowLatency.getName(i), borrowLatency.getCount(i) + "", c.getCharset().getClient());
+                        row.setPacketId(++packetId);
+                        buffer = row.write(buffer, c, true);
+                    }
+                    row = getRow(group.getGroupName(), instance.getName(), "avoidedSchemaSync", pool.getAvoidedSchemaSync() + "", c.getCharset().getClient());
+                    row.setPacketId(++packetId);
+                    buffer = row.write(buffer, c, true);
+                }
             }
         }
 
@@ -130,6 +130,7 @@ public final class ShowHelp {
         HELPS.put("show @@syslog limit=?", "Report system log");
         HELPS.put("show @@white", "Report server white host ");
         HELPS.put("show @@directmemory", "Report server direct memory pool usage");
+        HELPS.put("show @@buffer_pool", "Report the size classes of the buffer pool when bufferPoolType=1");
         HELPS.put("show @@command.count", "Report the current number of querys");
         HELPS.put("show @@connection.count", "Report the current number of connections");
         HELPS.put("show @@backend.statistics", "Report backend node info");
@@ -227,7 +228,7 @@ public final class ShowHelp {
         HELPS.put("dbGroup @@events ", "show all the dbGroup ha event which not finished yet ");
 
         //dump file
-        HELPS.put("split src dest -sschema -r500 -w500 -l10000", "split dump file into multi dump files according to shardingNode");
+        HELPS.put("split src dest -sschema -r500 -w500 -l10000 -t4", "split dump file into multi dump files according to shardingNode");
 
         // list sort
         KEYS.addAll(HELPS.keySet());
@@ -84,6 +84,7 @@ public final class ShowSysParam {
         paramValues.add(new ParamInfo("sequenceHandlerType", ClusterConfig.getInstance().getSequenceHandlerType() > 4 || ClusterConfig.getInstance().getSequenceHandlerType() < 1 ? "Incorrect Sequence Type" : SEQUENCES[ClusterConfig.getInstance().getSequenceHandlerType()], "Global Sequence Type. The default is Local TimeStamp(like Snowflake)"));
         paramValues.add(new ParamInfo("sequenceStartTime", ClusterConfig.getInstance().getSequenceStartTime(), "valid for sequenceHandlerType=2 or 3, default is 2010-11-04 09:42:54"));
         paramValues.add(new ParamInfo("sequenceInstanceByZk", ClusterConfig.getInstance().isSequenceInstanceByZk() + "", "valid for sequenceHandlerType=3 and clusterMode is zk, default true"));
+        paramValues.add(new ParamInfo("sequencePrefetchPercent", ClusterConfig.getInstance().getSequencePrefetchPercent() + "", "valid for sequenceHandlerType=1, the next segment is fetched in background when this percent of the segment is used, 0 means never, default 0"));
 
         SystemConfig sysConfig = SystemConfig.getInstance();
         paramValues.add(new ParamInfo("serverId", sysConfig.getServerId() + "", "serverID of machine which install dble, the default value is the machine IP"));
@@ -106,6 +107,8 @@ public final class ShowSysParam {
         paramValues.add(new ParamInfo("usingAIO", sysConfig.getUsingAIO() + "", "Whether the AIO is enable, The default number is 0(use NIO instead)"));
         paramValues.add(new ParamInfo("useThreadUsageStat", sysConfig.getUseThreadUsageStat() + "", "Whether the thread usage statistics function is enabled.The default value is 0"));
         paramValues.add(new ParamInfo("usePerformanceMode", sysConfig.getUsePerformanceMode() + "", "Whether use the performance mode is enabled.The default value is 0"));
+        paramValues.add(new ParamInfo("performanceModeWaitType", sysConfig.getPerformanceModeWaitType() + "", "How the executors of performance mode wait for the tasks, 0 for busy spin, 1 for adaptive spin and then park.The default value is 0"));
+        paramValues.add(new ParamInfo("usePreparedRouteCache", sysConfig.getUsePreparedRouteCache() + "", "Whether the server side prepared statement routed by the sharding column parameter skips the parse and route of the sql.The default value is 1"));
         paramValues.add(new ParamInfo("useCostTimeStat", sysConfig.getUseCostTimeStat() + "", "Whether the cost time of query can be track by Btrace.The default value is 0"));
         paramValues.add(new ParamInfo("maxCostStatSize", sysConfig.getMaxCostStatSize() + "", "The max cost total percentage.The default value is 100"));
         paramValues.add(new ParamInfo("costSamplePercent", sysConfig.getCostSamplePercent() + "", "The percentage of cost sample.The default value is 1"));
@@ -115,6 +118,13 @@ public final class ShowSysParam {
         paramValues.add(new ParamInfo("autocommit", sysConfig.getAutocommit() + "", "The initially autocommit value.The default value is 1"));
         paramValues.add(new ParamInfo("checkTableConsistency", sysConfig.getCheckTableConsistency() + "", "Whether the consistency tableStructure check is enabled.The default value is 0"));
         paramValues.add(new ParamInfo("checkTableConsistencyPeriod", sysConfig.getCheckTableConsistencyPeriod() + "ms", "The period of consistency tableStructure check .The default value is 30*60*1000"));
+        paramValues.add(new ParamInfo("useTableMetaSnapshot", sysConfig.getUseTableMetaSnapshot() + "", "Whether the table meta is loaded from the snapshot file at start and checked with backends in background.The default value is 0"));
+        paramValues.add(new ParamInfo("tableMetaSnapshotBaseDir", sysConfig.getTableMetaSnapshotBaseDir(), "The directory of the table meta snapshot file.The default value is ./metaSnapshot/"));
+        paramValues.add(new ParamInfo("metaFetchConcurrency", sysConfig.getMetaFetchConcurrency() + "", "The max count of the show create table queries running on one dbInstance at the same time.The default value is 8"));
+        paramValues.add(new ParamInfo("insertBatchTables", sysConfig.getInsertBatchTables() + "", "The tables whose single row inserts in autocommit are coalesced into one insert per shardingNode, schema.table separated by ','.The default value is null"));
+        paramValues.add(new ParamInfo("insertBatchWindow", sysConfig.getInsertBatchWindow() + "us", "The time the first insert of a batch waits for others.The default value is 1000us"));
+        paramValues.add(new ParamInfo("insertBatchMaxRows", sysConfig.getInsertBatchMaxRows() + "", "The max rows of a coalesced insert.The default value is 100"));
+        paramValues.add(new ParamInfo("parentLocationCacheSize", sysConfig.getParentLocationCacheSize() + "", "The max count of the numeric parent keys cached for locating the shardingNode of child tables, 0 means no cache.The default value is 65536"));
         paramValues.add(new ParamInfo("processorCheckPeriod", sysConfig.getProcessorCheckPeriod() / 1000 + " Seconds", "The period between the jobs for cleaning the closed or overtime connections. The default is 1 second"));
         paramValues.add(new ParamInfo("sqlExecuteTimeout", sysConfig.getSqlExecuteTimeout() + " Seconds", "The max query executing time.If time out,the connection will be closed. The default is 300 seconds"));
         paramValues.add(new ParamInfo("recordTxn", sysConfig.getRecordTxn() + "", "Whether the transaction be recorded as a file,The default value is 0"));
@@ -127,15 +137,19 @@ public final class ShowSysParam {
         paramValues.add(new ParamInfo("xaLogCleanPeriod", sysConfig.getXaLogCleanPeriod() + "ms", "The xa log clear period.The default value is 1000ms"));
         paramValues.add(new ParamInfo("xaRetryCount", sysConfig.getXaRetryCount() + "", "Indicates the number of background retries if the xa failed to commit/rollback.The default value is 0, retry infinitely"));
         paramValues.add(new ParamInfo("useJoinStrategy", sysConfig.isUseJoinStrategy() + "", "Whether nest loop join is enabled.The default value is false"));
+        paramValues.add(new ParamInfo("useHashJoin", sysConfig.isUseHashJoin() + "", "Whether hash join is enabled for the cross node equi-join.The default value is false"));
         paramValues.add(new ParamInfo("nestLoopConnSize", sysConfig.getNestLoopConnSize() + "", "The nest loop temporary tables block number.The default value is 4"));
         paramValues.add(new ParamInfo("nestLoopRowsSize", sysConfig.getNestLoopRowsSize() + "", "The nest loop temporary tables rows for every block.The default value is 2000"));
+        paramValues.add(new ParamInfo("tableStatisticsPeriod", sysConfig.getTableStatisticsPeriod() + "ms", "The period of sampling the table rows and cardinality for choosing the join strategy.The default value is 10*60*1000"));
         paramValues.add(new ParamInfo("otherMemSize", sysConfig.getOtherMemSize() + "M", "The additional size of memory can be used in a complex query.The default size is 4M"));
         paramValues.add(new ParamInfo("orderMemSize", sysConfig.getOrderMemSize() + "M", "The additional size of memory can be used in a complex query order.The default size is 4M"));
         paramValues.add(new ParamInfo("joinMemSize", sysConfig.getJoinMemSize() + "M", "The additional size of memory can be used in a complex query join.The default size is 4M"));
         paramValues.add(new ParamInfo("bufferPoolChunkSize", sysConfig.getBufferPoolChunkSize() + "B", "The chunk size of memory bufferPool. The min direct memory used for allocating"));
         paramValues.add(new ParamInfo("bufferPoolPageSize", sysConfig.getBufferPoolPageSize() + "B", "The page size of memory bufferPool. The max direct memory used for allocating"));
         paramValues.add(new ParamInfo("bufferPoolPageNumber", sysConfig.getBufferPoolPageNumber() + "", "The page number of memory bufferPool. The All bufferPool size is PageNumber * PageSize"));
+        paramValues.add(new ParamInfo("bufferPoolType", sysConfig.getBufferPoolType() + "", "The type of memory bufferPool, 0 is page based, 1 is size class based with thread cache. The default value is 0"));
         paramValues.add(new ParamInfo("mappedFileSize", sysConfig.getMappedFileSize() + "", "The Memory linked file size,when complex query resultSet is too large the Memory will be turned to file temporary"));
+        paramValues.add(new ParamInfo("useSpillCompression", sysConfig.getUseSpillCompression() + "", "Whether the blocks of the large resultSet turned to file temporary are compressed, the default value is 0"));
         paramValues.add(new ParamInfo("useSqlStat", sysConfig.getUseSqlStat() + "", "Whether the SQL statistics function is enable or not.The default value is 1"));
         paramValues.add(new ParamInfo("sqlRecordCount", sysConfig.getSqlRecordCount() + "", "The slow SQL statistics limit,if the slow SQL record is large than the size,the record will be clear.The default value is 10"));
         paramValues.add(new ParamInfo("maxResultSet", sysConfig.getMaxResultSet() + "B", "The large resultSet SQL standard.The default value is 512*1024B"));
@@ -151,7 +165,9 @@ public final class ShowSysParam {
         paramValues.add(new ParamInfo("viewPersistenceConfBaseName", sysConfig.getViewPersistenceConfBaseName(), "The name of the view record file.The default value is viewJson"));
         paramValues.add(new ParamInfo("joinQueueSize", sysConfig.getJoinQueueSize() + "", "Size of join queue,Avoid using too much memory"));
         paramValues.add(new ParamInfo("mergeQueueSize", sysConfig.getMergeQueueSize() + "", "Size of merge queue,Avoid using too much memory"));
+        paramValues.add(new ParamInfo("parallelMergeThreshold", sysConfig.getParallelMergeThreshold() + "", "The ordered results of more shards than it are merged by several threads first, 0 means never.The default value is 0"));
         paramValues.add(new ParamInfo("orderByQueueSize", sysConfig.getOrderByQueueSize() + "", "Size of order by queue,Avoid using too much memory"));
+        paramValues.add(new ParamInfo("orderByTopNMaxRows", sysConfig.getOrderByTopNMaxRows() + "", "Order by with limit keeps only offset+limit rows in memory when it is not more than this value, 0 means never. The default value is 10000"));
         paramValues.add(new ParamInfo("enableSlowLog", sysConfig.getEnableSlowLog() + "", "Enable Slow Query Log"));
         paramValues.add(new ParamInfo("slowLogBaseDir", sysConfig.getSlowLogBaseDir() + "", "The directory of slow query log,The default value is ./slowlogs/"));
         paramValues.add(new ParamInfo("slowLogBaseName", sysConfig.getSlowLogBaseName() + "", "The name of the slow query log.The default value is slow-query"));
@@ -35,12 +35,14 @@ import com.actiontech.dble.meta.table.ServerMetaHandler;
 import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.server.util.SchemaUtil;
 import com.actiontech.dble.server.util.SchemaUtil.SchemaInfo;
+import com.actiontech.dble.singleton.ProxyMeta;
 import com.actiontech.dble.util.StringUtil;
 import com.actiontech.dble.util.ZKUtils;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.SQLNonTransientException;
 import java.util.*;
 import java.util.concurrent.*;
@@ -195,6 +197,11 @@ public class ProxyMetaManager {
         String tbName = tm.getTableName();
         SchemaMeta schemaMeta = catalogs.get(schema);
         if (schemaMeta != null) {
+            TableMeta oldMeta = schemaMeta.getTableMeta(tbName);
+            if (oldMeta != null) {
+                // the statistics of the old structure is still a good estimate before next sampling
+                tm.setStatistics(oldMeta.getStatistics());
+            }
             schemaMeta.addTableMeta(tbName, tm);
         }
     }
@@ -444,9 +451,16 @@ public class ProxyMetaManager {
      */
     public void initMeta(ServerConfig config) {
         Set<String> selfNode = getSelfNodes(config);
-        ServerMetaHandler handler = new ServerMetaHandler(this, config, selfNode);
-        handler.setFilter(null);
-        handler.execute();
+        Map<String, Map<String, TableMeta>> snapshot = loadSnapshot();
+        if (snapshot != null) {
+            initMetaFromSnapshot(config, snapshot);
+            checkSnapshotInBackground(config, selfNode, snapshot);
+        } else {
+            ServerMetaHandler handler = new ServerMetaHandler(this, config, selfNode);
+            handler.setFilter(null);
+            handler.execute();
+            saveSnapshot();
+        }
         initViewMeta();
         if (SystemConfig.getInstance().getCheckTableConsistency() == 1) {
             scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MetaDataChecker-%d").build());
@@ -469,6 +483,7 @@ public class ProxyMetaManager {
         // if the meta reload interrupted by reload release
         // do not reload the view meta or start a new scheduler
         if (handler.execute()) {
+            saveSnapshot();
             initViewMeta();
             if (SystemConfig.getInstance().getCheckTableConsistency() == 1) {
                 scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("MetaDataChecker-%d").build());
@@ -479,6 +494,98 @@ public class ProxyMetaManager {
         return false;
     }
 
+    private Map<String, Map<String, TableMeta>> loadSnapshot() {
+        if (SystemConfig.getInstance().getUseTableMetaSnapshot() != 1) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Map<String, TableMeta>> snapshot = TableMetaSnapshot.load(TableMetaSnapshot.getFile());
+            if (snapshot != null) {
+                LOGGER.info("load table meta snapshot in " + (System.currentTimeMillis() - start) + "ms");
+            }
+            return snapshot;
+        } catch (IOException e) {
+            LOGGER.warn("can't load table meta snapshot, the meta will be fetched from backends", e);
+            return null;
+        }
+    }
+
+    private void saveSnapshot() {
+        if (SystemConfig.getInstance().getUseTableMetaSnapshot() != 1) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            TableMetaSnapshot.save(TableMetaSnapshot.getFile(), catalogs);
+            LOGGER.info("save table meta snapshot in " + (System.currentTimeMillis() - start) + "ms");
+        } catch (IOException e) {
+            LOGGER.warn("can't save table meta snapshot", e);
+        }
+    }
+
+    /**
+     * only the tables still in the config are loaded, the new tables are added by the background check
+     */
+    private void initMetaFromSnapshot(ServerConfig config, Map<String, Map<String, TableMeta>> snapshot) {
+        for (SchemaConfig schema : config.getSchemas().values()) {
+            createDatabase(schema.getName());
+            Map<String, TableMeta> tables = snapshot.get(schema.getName());
+            if (tables == null) {
+                continue;
+            }
+            for (TableMeta tableMeta : tables.values()) {
+                if (schema.getShardingNode() != null || schema.getTables().containsKey(tableMeta.getTableName())) {
+                    addTable(schema.getName(), tableMeta);
+                }
+            }
+        }
+    }
+
+    private void checkSnapshotInBackground(final ServerConfig config, final Set<String> selfNode, final Map<String, Map<String, TableMeta>> snapshot) {
+        Thread checker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.currentTimeMillis();
+                ServerMetaHandler handler = new ServerMetaHandler(ProxyMetaManager.this, config, selfNode);
+                handler.setSnapshot(snapshot);
+                if (handler.execute() && ProxyMeta.getInstance().getTmManager() == ProxyMetaManager.this) {
+                    LOGGER.info("check table meta snapshot with backends finished in " + (System.currentTimeMillis() - start) + "ms");
+                    saveSnapshot();
+                }
+            }
+        }, "MetaSnapshotChecker");
+        checker.setDaemon(true);
+        checker.start();
+    }
+
+    /**
+     * replace the table meta loaded from the snapshot by the one fetched from backends,
+     * unless the table is changed or dropped by ddl after loaded
+     *
+     * @param loaded the table meta loaded from the snapshot, null if it is not in the snapshot
+     */
+    public void refreshSnapshotTable(String schema, TableMeta loaded, TableMeta fresh) {
+        String tbName = fresh.getTableName();
+        metaLock.lock();
+        try {
+            SchemaMeta schemaMeta = catalogs.get(schema);
+            if (schemaMeta == null || lockTables.containsKey(genLockKey(schema, tbName))) {
+                return;
+            }
+            TableMeta current = schemaMeta.getTableMeta(tbName);
+            if (current != loaded) {
+                return;
+            }
+            if (current == null || !current.equals(new TableMeta(fresh, current.getVersion()))) {
+                LOGGER.info("table meta of " + schema + "." + tbName + " in snapshot is different from backends, replaced");
+                addTable(schema, fresh);
+            }
+        } finally {
+            metaLock.unlock();
+        }
+    }
+
     public void terminate() {
         if (checkTaskHandler != null) {
             checkTaskHandler.cancel(false);
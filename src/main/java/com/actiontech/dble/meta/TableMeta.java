@@ -1,9 +1,10 @@
 package com.actiontech.dble.meta;
 
+import com.actiontech.dble.meta.table.DbleCreateTableParser;
 import com.actiontech.dble.util.StringUtil;
-import com.alibaba.druid.sql.ast.statement.SQLColumnConstraint;
-import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
-import com.alibaba.druid.sql.ast.statement.SQLNotNullConstraint;
+import com.alibaba.druid.sql.ast.SQLObject;
+import com.alibaba.druid.sql.ast.statement.*;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlCreateTableStatement;
 
 import java.util.List;
 
@@ -13,6 +14,10 @@ public final class TableMeta {
     private long version;
     private String createSql;
     private List<ColumnMeta> columns;
+    // not a part of the structure, kept when the meta is copied
+    private volatile TableStatistics statistics = new TableStatistics();
+    // parsed from createSql at the first use
+    private volatile Boolean insertCoalescable;
 
     public TableMeta() {
     }
@@ -21,6 +26,7 @@ public final class TableMeta {
         tableName = origin.getTableName();
         columns = origin.getColumns();
         createSql = origin.getCreateSql();
+        statistics = origin.getStatistics();
         version = newVersion;
     }
 
@@ -56,6 +62,46 @@ public final class TableMeta {
         this.createSql = createSql;
     }
 
+    /**
+     * the single row inserts can be coalesced into one multi rows insert only if the table has no auto_increment
+     * column, so no row gets a generated id, and the engine is InnoDB, so a failed insert leaves no row
+     */
+    public boolean isInsertCoalescable() {
+        Boolean coalescable = insertCoalescable;
+        if (coalescable == null) {
+            coalescable = parseInsertCoalescable(createSql);
+            insertCoalescable = coalescable;
+        }
+        return coalescable;
+    }
+
+    private static boolean parseInsertCoalescable(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        MySqlCreateTableStatement createStatement;
+        try {
+            createStatement = new DbleCreateTableParser(sql).parseCreateTable(true);
+        } catch (Exception e) {
+            return false;
+        }
+        for (SQLTableElement element : createStatement.getTableElementList()) {
+            if (element instanceof SQLColumnDefinition && ((SQLColumnDefinition) element).isAutoIncrement()) {
+                return false;
+            }
+        }
+        SQLObject engine = createStatement.getTableOptions().get("ENGINE");
+        return engine != null && "InnoDB".equalsIgnoreCase(StringUtil.removeBackAndDoubleQuote(engine.toString()));
+    }
+
+    public TableStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(TableStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) {
@@ -85,6 +131,12 @@ public final class TableMeta {
         private String dataType;
         private boolean canNull = true;
 
+        public ColumnMeta(String name, String dataType, boolean canNull) {
+            this.name = name;
+            this.dataType = dataType;
+            this.canNull = canNull;
+        }
+
         public ColumnMeta(SQLColumnDefinition def) {
             this.name = StringUtil.removeBackAndDoubleQuote(def.getName().getSimpleName());
             this.dataType = def.getDataType().getName();
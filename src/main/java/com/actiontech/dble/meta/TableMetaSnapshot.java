@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta;
+
+import com.actiontech.dble.config.model.SystemConfig;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * the table meta of all schemas saved in one file, it is loaded at start instead of show create table on every
+ * shardingNode, then checked with backends in background.
+ * <pre>
+ * int    magic
+ * int    format version, the file of other version is ignored
+ * long   saved time
+ * schemas, tables of the schema, columns of the table
+ * long   crc32 of all above
+ * </pre>
+ * the columns are saved too, so the create sql needn't be parsed when it is loaded.
+ */
+public final class TableMetaSnapshot {
+    private static final int MAGIC = 0x44424d53;
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_NAME = "tableMeta.snapshot";
+    private static final int MAX_STRING_LENGTH = 1 << 26;
+
+    private TableMetaSnapshot() {
+    }
+
+    public static File getFile() {
+        return new File(SystemConfig.getInstance().getTableMetaSnapshotBaseDir(), FILE_NAME);
+    }
+
+    /**
+     * write into the temp file and rename it, the file is either the old or the new one after crash
+     */
+    public static void save(File file, Map<String, SchemaMeta> catalogs) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("can't create the directory " + dir.getPath());
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp)) {
+            CheckedOutputStream cos = new CheckedOutputStream(new BufferedOutputStream(fos, 64 * 1024), new CRC32());
+            DataOutputStream out = new DataOutputStream(cos);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(catalogs.size());
+            for (Map.Entry<String, SchemaMeta> schema : catalogs.entrySet()) {
+                writeString(out, schema.getKey());
+                // copy first, the size must be the same as the tables written
+                List<TableMeta> tables = new ArrayList<>(schema.getValue().getTableMetas().values());
+                out.writeInt(tables.size());
+                for (TableMeta table : tables) {
+                    writeTable(out, table);
+                }
+            }
+            out.flush();
+            out.writeLong(cos.getChecksum().getValue());
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return the tables of the schemas, null if the file doesn't exist
+     * @throws IOException the file is broken or written by other version
+     */
+    public static Map<String, Map<String, TableMeta>> load(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileInputStream fis = new FileInputStream(file)) {
+            CheckedInputStream cis = new CheckedInputStream(new BufferedInputStream(fis, 64 * 1024), new CRC32());
+            DataInputStream in = new DataInputStream(cis);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("the file " + file.getPath() + " is not a table meta snapshot");
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("the format version " + version + " of the table meta snapshot is not supported");
+            }
+            in.readLong();
+            int schemaCount = readCount(in);
+            Map<String, Map<String, TableMeta>> schemas = new HashMap<>();
+            for (int i = 0; i < schemaCount; i++) {
+                String schema = readString(in);
+                int tableCount = readCount(in);
+                Map<String, TableMeta> tables = new HashMap<>();
+                for (int j = 0; j < tableCount; j++) {
+                    TableMeta table = readTable(in);
+                    tables.put(table.getTableName(), table);
+                }
+                schemas.put(schema, tables);
+            }
+            long expected = cis.getChecksum().getValue();
+            if (in.readLong() != expected || in.read() >= 0) {
+                throw new IOException("the checksum of the table meta snapshot is wrong");
+            }
+            return schemas;
+        } catch (EOFException e) {
+            throw new IOException("the table meta snapshot is truncated", e);
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, TableMeta table) throws IOException {
+        writeString(out, table.getTableName());
+        out.writeLong(table.getVersion());
+        writeString(out, table.getCreateSql());
+        List<TableMeta.ColumnMeta> columns = table.getColumns();
+        out.writeInt(columns.size());
+        for (TableMeta.ColumnMeta column : columns) {
+            writeString(out, column.getName());
+            writeString(out, column.getDataType());
+            out.writeBoolean(column.isCanNull());
+        }
+    }
+
+    private static TableMeta readTable(DataInputStream in) throws IOException {
+        TableMeta table = new TableMeta();
+        table.setTableName(readString(in));
+        table.setVersion(in.readLong());
+        table.setCreateSql(readString(in));
+        int columnCount = readCount(in);
+        List<TableMeta.ColumnMeta> columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            String name = readString(in);
+            String dataType = readString(in);
+            columns.add(new TableMeta.ColumnMeta(name, dataType, in.readBoolean()));
+        }
+        table.setColumns(columns);
+        return table;
+    }
+
+    /**
+     * the create sql may be longer than writeUTF supports
+     */
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("the table meta snapshot is broken, count " + count);
+        }
+        return count;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("the table meta snapshot is broken, string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
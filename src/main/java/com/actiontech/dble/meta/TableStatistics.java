@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * the estimated statistics of a table, sampled from information_schema of every sharding node.
+ * the values are estimated by the storage engine, they are only used for choosing the plan.
+ */
+public class TableStatistics {
+    public static final long UNKNOWN = -1L;
+
+    /* shardingNode -> rows */
+    private final Map<String, Long> nodeRows = new ConcurrentHashMap<>();
+    /* shardingNode -> bytes of data */
+    private final Map<String, Long> nodeDataLength = new ConcurrentHashMap<>();
+    /* shardingNode -> (lower case column -> cardinality of the index starting with the column) */
+    private final Map<String, Map<String, Long>> nodeCardinality = new ConcurrentHashMap<>();
+    private volatile long updateTime = 0L;
+
+    public void updateRows(String shardingNode, long rows, long dataLength) {
+        nodeRows.put(shardingNode, rows);
+        nodeDataLength.put(shardingNode, dataLength);
+        updateTime = System.currentTimeMillis();
+    }
+
+    public void updateCardinality(String shardingNode, Map<String, Long> columnCardinality) {
+        nodeCardinality.put(shardingNode, columnCardinality);
+        updateTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the sum of rows of the sharding nodes, UNKNOWN if any sharding node has not been sampled
+     */
+    public long getRows(Collection<String> shardingNodes) {
+        return sum(nodeRows, shardingNodes);
+    }
+
+    /**
+     * @return the sum of data length of the sharding nodes, UNKNOWN if any sharding node has not been sampled
+     */
+    public long getDataLength(Collection<String> shardingNodes) {
+        return sum(nodeDataLength, shardingNodes);
+    }
+
+    private static long sum(Map<String, Long> nodeValues, Collection<String> shardingNodes) {
+        long total = 0;
+        for (String shardingNode : shardingNodes) {
+            Long value = nodeValues.get(shardingNode);
+            if (value == null) {
+                return UNKNOWN;
+            }
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * @return the estimated count of distinct values of the column in the sharding nodes,
+     * UNKNOWN if there is no index starting with the column
+     */
+    public long getCardinality(Collection<String> shardingNodes, String column) {
+        String key = column.toLowerCase();
+        long cardinality = 0;
+        for (String shardingNode : shardingNodes) {
+            Map<String, Long> columns = nodeCardinality.get(shardingNode);
+            Long nodeCard = columns == null ? null : columns.get(key);
+            if (nodeCard == null) {
+                return UNKNOWN;
+            }
+            cardinality += nodeCard;
+        }
+        return cardinality;
+    }
+
+    public long getUpdateTime() {
+        return updateTime;
+    }
+}
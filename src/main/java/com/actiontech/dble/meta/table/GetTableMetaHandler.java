@@ -18,9 +18,7 @@ import com.actiontech.dble.sqlengine.MultiTablesMetaJob;
 import com.actiontech.dble.sqlengine.SQLQueryResult;
 import com.actiontech.dble.sqlengine.SQLQueryResultListener;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 public abstract class GetTableMetaHandler {
     private static final String MYSQL_TABLE_COLS = "Table";
@@ -35,6 +33,7 @@ public abstract class GetTableMetaHandler {
             "character_set_client",
     };
     private static final String SQL_SHOW_CREATE_TABLE = "show create table `{0}`;";
+    private static final int TABLES_PER_QUERY = 256;
     protected final ReloadLogHelper logger;
     protected String schema;
 
@@ -43,24 +42,41 @@ public abstract class GetTableMetaHandler {
         this.logger = new ReloadLogHelper(isReload);
     }
 
+    /**
+     * the tables are fetched by several queries, so the queries of the shardingNode with many tables
+     * run at the same time, the queries on one dbInstance are bounded by MetaFetchLimiter
+     */
     public void execute(String shardingNode, Set<String> tables) {
-        StringBuilder sbSql = new StringBuilder();
-        for (String table : tables) {
-            sbSql.append(SQL_SHOW_CREATE_TABLE.replace("{0}", table));
-        }
         ShardingNode dn = DbleServer.getInstance().getConfig().getShardingNodes().get(shardingNode);
         PhysicalDbInstance ds = dn.getDbGroup().getWriteDbInstance();
-        if (ds.isAlive()) {
-            logger.info("dbInstance is alive start sqljob for shardingNode:" + shardingNode);
-            MultiRowSQLQueryResultHandler resultHandler = new MultiRowSQLQueryResultHandler(MYSQL_SHOW_CREATE_TABLE_COLS, new TableStructureListener(shardingNode, tables, ds));
-            MultiTablesMetaJob sqlJob = new MultiTablesMetaJob(sbSql.toString(), dn.getDatabase(), resultHandler, ds, logger.isReload());
-            sqlJob.run();
+        List<Set<String>> batches = splitTables(tables);
+        NodeProgress progress = new NodeProgress(shardingNode, batches.size());
+        MetaFetchLimiter limiter = MetaFetchLimiter.getInstance(ds.getDbGroupConfig().getName() + "." + ds.getConfig().getInstanceName());
+        boolean alive = ds.isAlive();
+        if (alive) {
+            logger.info("dbInstance is alive start sqljob for shardingNode:" + shardingNode + ", query count:" + batches.size());
         } else {
-            logger.info("dbInstance is not alive start sqljob for shardingNode:" + shardingNode);
-            MultiRowSQLQueryResultHandler resultHandler = new MultiRowSQLQueryResultHandler(MYSQL_SHOW_CREATE_TABLE_COLS, new TableStructureListener(shardingNode, tables, null));
-            MultiTablesMetaJob sqlJob = new MultiTablesMetaJob(sbSql.toString(), shardingNode, resultHandler, false, logger.isReload());
-            sqlJob.run();
+            logger.info("dbInstance is not alive start sqljob for shardingNode:" + shardingNode + ", query count:" + batches.size());
+        }
+        for (Set<String> batch : batches) {
+            limiter.submit(new FetchJob(dn, alive ? ds : null, batch, progress, limiter));
+        }
+    }
+
+    private static List<Set<String>> splitTables(Set<String> tables) {
+        List<Set<String>> batches = new ArrayList<>(tables.size() / TABLES_PER_QUERY + 1);
+        Set<String> batch = null;
+        for (String table : tables) {
+            if (batch == null || batch.size() == TABLES_PER_QUERY) {
+                batch = new HashSet<>();
+                batches.add(batch);
+            }
+            batch.add(table);
         }
+        if (batches.isEmpty()) {
+            batches.add(new HashSet<String>());
+        }
+        return batches;
     }
 
     abstract void countdown(String shardingNode, Set<String> tables);
@@ -71,15 +87,22 @@ public abstract class GetTableMetaHandler {
         private String shardingNode;
         private PhysicalDbInstance ds;
         private Set<String> expectedTables;
+        private NodeProgress progress;
+        private MetaFetchLimiter limiter;
 
-        TableStructureListener(String shardingNode, Set<String> expectedTables, PhysicalDbInstance ds) {
+        TableStructureListener(String shardingNode, Set<String> expectedTables, PhysicalDbInstance ds, NodeProgress progress,
+                               MetaFetchLimiter limiter) {
             this.shardingNode = shardingNode;
             this.expectedTables = expectedTables;
             this.ds = ds;
+            this.progress = progress;
+            this.limiter = limiter;
         }
 
         @Override
         public void onResult(SQLQueryResult<List<Map<String, String>>> result) {
+            // the query is finished, the next one on the dbInstance can start while the result is parsed
+            limiter.finish();
             String key = null;
             if (ds != null) {
                 key = "dbInstance[" + ds.getDbGroupConfig().getName() + "." + ds.getConfig().getInstanceName() + "],sharding_node[" + shardingNode + "],schema[" + schema + "]";
@@ -113,8 +136,65 @@ public abstract class GetTableMetaHandler {
                 handleTable(shardingNode, table, isView, createSQL);
             }
 
+            progress.finishQuery(expectedTables);
+        }
+    }
+
+    private final class FetchJob implements Runnable {
+        private final ShardingNode dn;
+        private final PhysicalDbInstance ds;
+        private final Set<String> tables;
+        private final NodeProgress progress;
+        private final MetaFetchLimiter limiter;
+
+        private FetchJob(ShardingNode dn, PhysicalDbInstance ds, Set<String> tables, NodeProgress progress, MetaFetchLimiter limiter) {
+            this.dn = dn;
+            this.ds = ds;
+            this.tables = tables;
+            this.progress = progress;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void run() {
+            StringBuilder sbSql = new StringBuilder();
+            for (String table : tables) {
+                sbSql.append(SQL_SHOW_CREATE_TABLE.replace("{0}", table));
+            }
+            MultiRowSQLQueryResultHandler resultHandler = new MultiRowSQLQueryResultHandler(MYSQL_SHOW_CREATE_TABLE_COLS,
+                    new TableStructureListener(dn.getName(), tables, ds, progress, limiter));
+            MultiTablesMetaJob sqlJob;
+            if (ds != null) {
+                sqlJob = new MultiTablesMetaJob(sbSql.toString(), dn.getDatabase(), resultHandler, ds, logger.isReload());
+            } else {
+                sqlJob = new MultiTablesMetaJob(sbSql.toString(), dn.getName(), resultHandler, false, logger.isReload());
+            }
+            sqlJob.run();
+        }
+    }
+
+    /**
+     * the shardingNode is counted down once after all its queries are finished
+     */
+    private final class NodeProgress {
+        private final String shardingNode;
+        private final Set<String> remainingTables = new HashSet<>();
+        private int remainingQueries;
+
+        private NodeProgress(String shardingNode, int queries) {
+            this.shardingNode = shardingNode;
+            this.remainingQueries = queries;
+        }
+
+        private void finishQuery(Set<String> notFound) {
+            synchronized (this) {
+                remainingTables.addAll(notFound);
+                if (--remainingQueries > 0) {
+                    return;
+                }
+            }
             logger.info("shardingNode normally count down:" + shardingNode + " for schema " + schema);
-            countdown(shardingNode, expectedTables);
+            countdown(shardingNode, remainingTables);
         }
     }
 
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta.table;
+
+import com.actiontech.dble.config.model.SystemConfig;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * bound the meta queries running on one dbInstance at the same time.
+ * the query over the bound waits in the queue and is started by the finished one, so the caller is never blocked,
+ * it may be a nio thread which the running queries depend on.
+ */
+final class MetaFetchLimiter {
+    private static final ConcurrentMap<String, MetaFetchLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final int maxRunning;
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int running = 0;
+
+    private MetaFetchLimiter(int maxRunning) {
+        this.maxRunning = maxRunning;
+    }
+
+    static MetaFetchLimiter getInstance(String dbInstance) {
+        MetaFetchLimiter limiter = LIMITERS.get(dbInstance);
+        if (limiter == null) {
+            limiter = new MetaFetchLimiter(SystemConfig.getInstance().getMetaFetchConcurrency());
+            MetaFetchLimiter exists = LIMITERS.putIfAbsent(dbInstance, limiter);
+            if (exists != null) {
+                limiter = exists;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * @param job the job must call {@link #finish()} once when it is finished, whether it is succeed or not
+     */
+    void submit(Runnable job) {
+        synchronized (this) {
+            if (running >= maxRunning) {
+                waiting.add(job);
+                return;
+            }
+            running++;
+        }
+        job.run();
+    }
+
+    void finish() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                running--;
+                return;
+            }
+        }
+        next.run();
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta.table;
+
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.meta.TableMeta;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handler for checking the meta of single sharding loaded from the snapshot in background,
+ * the table is replaced only if it is different from backends and not changed by ddl after loaded
+ */
+public class SchemaSnapshotCheckMetaHandler extends SchemaInitMetaHandler {
+    private final String schema;
+    private final Map<String, TableMeta> loadedTables;
+
+    SchemaSnapshotCheckMetaHandler(ServerMetaHandler serverMetaHandler, SchemaConfig schemaConfig, Set<String> selfNode,
+                                   Map<String, TableMeta> loadedTables) {
+        super(serverMetaHandler, schemaConfig, selfNode);
+        this.schema = schemaConfig.getName();
+        this.loadedTables = loadedTables == null ? Collections.<String, TableMeta>emptyMap() : loadedTables;
+    }
+
+    @Override
+    void handleSingleMetaData(TableMeta tableMeta) {
+        if (tableMeta != null) {
+            getTmManager().refreshSnapshotTable(schema, loadedTables.get(tableMeta.getTableName()), tableMeta);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.meta.ProxyMetaManager;
 import com.actiontech.dble.meta.ReloadLogHelper;
 import com.actiontech.dble.meta.ReloadManager;
+import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.util.CollectionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,7 @@ public class ServerMetaHandler {
     private Set<String> selfNode;
     private Map<String, Set<String>> filter;
     private Map<String, SchemaConfig> reloadSchemas;
+    private Map<String, Map<String, TableMeta>> snapshot;
 
     public ServerMetaHandler(ProxyMetaManager tmManager, ServerConfig config, Set<String> selfNode) {
         this.tmManager = tmManager;
@@ -72,7 +74,12 @@ public class ServerMetaHandler {
                 ReloadLogHelper.info("reload meta loop interrupted by command ,break the loop", LOGGER);
                 break;
             }
-            SchemaInitMetaHandler multiTableMeta = new SchemaInitMetaHandler(this, entry.getValue(), selfNode);
+            SchemaInitMetaHandler multiTableMeta;
+            if (snapshot == null) {
+                multiTableMeta = new SchemaInitMetaHandler(this, entry.getValue(), selfNode);
+            } else {
+                multiTableMeta = new SchemaSnapshotCheckMetaHandler(this, entry.getValue(), selfNode, snapshot.get(entry.getKey()));
+            }
             if (filter != null) {
                 multiTableMeta.setFilterTables(filter.get(entry.getKey()));
                 ReloadLogHelper.infoList("sharding filter " + entry.getKey(), LOGGER, filter.get(entry.getKey()));
@@ -131,4 +138,11 @@ public class ServerMetaHandler {
     public void setFilter(Map<String, Set<String>> filter) {
         this.filter = filter;
     }
+
+    /**
+     * check the table meta loaded from the snapshot instead of init
+     */
+    public void setSnapshot(Map<String, Map<String, TableMeta>> snapshot) {
+        this.snapshot = snapshot;
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta.table;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.datasource.ShardingNode;
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.meta.SchemaMeta;
+import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.meta.TableStatistics;
+import com.actiontech.dble.singleton.ProxyMeta;
+import com.actiontech.dble.sqlengine.MultiRowSQLQueryResultHandler;
+import com.actiontech.dble.sqlengine.SQLJob;
+import com.actiontech.dble.sqlengine.SQLQueryResult;
+import com.actiontech.dble.sqlengine.SQLQueryResultListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+
+/**
+ * sample the estimated rows and the index cardinality of every table from information_schema of
+ * every sharding node, the results are cached in TableMeta and used for choosing the join strategy.
+ * the jobs are asynchronous, the old statistics are kept until the new ones come back.
+ */
+public class TableStatisticsHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TableStatisticsHandler.class);
+    private static final String TABLE_COL = "TABLE_NAME";
+    private static final String ROWS_COL = "TABLE_ROWS";
+    private static final String DATA_LENGTH_COL = "DATA_LENGTH";
+    private static final String COLUMN_COL = "COLUMN_NAME";
+    private static final String CARDINALITY_COL = "CARDINALITY";
+    private static final String SQL_ROWS = "SELECT TABLE_NAME AS " + TABLE_COL + ", TABLE_ROWS AS " + ROWS_COL +
+            ", DATA_LENGTH AS " + DATA_LENGTH_COL + " FROM information_schema.TABLES WHERE TABLE_TYPE = 'BASE TABLE' AND TABLE_SCHEMA = '%s'";
+    private static final String SQL_CARDINALITY = "SELECT TABLE_NAME AS " + TABLE_COL + ", COLUMN_NAME AS " + COLUMN_COL +
+            ", MAX(CARDINALITY) AS " + CARDINALITY_COL + " FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = '%s'" +
+            " AND SEQ_IN_INDEX = 1 GROUP BY TABLE_NAME, COLUMN_NAME";
+
+    public void execute() {
+        ProxyMetaManager tmManager = ProxyMeta.getInstance().getTmManager();
+        if (tmManager == null) {
+            return;
+        }
+        // shardingNode -> (table -> metas), a physical table may be seen by more than one schema
+        Map<String, Map<String, List<TableMeta>>> nodeTables = new HashMap<>();
+        for (SchemaConfig schema : DbleServer.getInstance().getConfig().getSchemas().values()) {
+            SchemaMeta schemaMeta = tmManager.getCatalogs().get(schema.getName());
+            if (schemaMeta == null) {
+                continue;
+            }
+            for (TableMeta tableMeta : schemaMeta.getTableMetas().values()) {
+                BaseTableConfig tableConfig = schema.getTables().get(tableMeta.getTableName());
+                List<String> shardingNodes;
+                if (tableConfig != null) {
+                    shardingNodes = tableConfig.getShardingNodes();
+                } else if (schema.getShardingNode() != null) {
+                    shardingNodes = Collections.singletonList(schema.getShardingNode());
+                } else {
+                    continue;
+                }
+                for (String shardingNode : shardingNodes) {
+                    nodeTables.computeIfAbsent(shardingNode, k -> new HashMap<>()).
+                            computeIfAbsent(tableMeta.getTableName(), k -> new ArrayList<>()).add(tableMeta);
+                }
+            }
+        }
+        for (Map.Entry<String, Map<String, List<TableMeta>>> entry : nodeTables.entrySet()) {
+            ShardingNode dn = DbleServer.getInstance().getConfig().getShardingNodes().get(entry.getKey());
+            if (dn == null) {
+                continue;
+            }
+            String rowsSql = String.format(SQL_ROWS, dn.getDatabase());
+            MultiRowSQLQueryResultHandler rowsHandler = new MultiRowSQLQueryResultHandler(new String[]{TABLE_COL, ROWS_COL, DATA_LENGTH_COL},
+                    new TableRowsListener(entry.getKey(), entry.getValue()));
+            new SQLJob(rowsSql, entry.getKey(), rowsHandler, false).run();
+
+            String cardinalitySql = String.format(SQL_CARDINALITY, dn.getDatabase());
+            MultiRowSQLQueryResultHandler cardinalityHandler = new MultiRowSQLQueryResultHandler(new String[]{TABLE_COL, COLUMN_COL, CARDINALITY_COL},
+                    new TableCardinalityListener(entry.getKey(), entry.getValue()));
+            new SQLJob(cardinalitySql, entry.getKey(), cardinalityHandler, false).run();
+        }
+    }
+
+    private static String getTableName(Map<String, String> row) {
+        String table = row.get(TABLE_COL);
+        if (table != null && DbleServer.getInstance().getSystemVariables().isLowerCaseTableNames()) {
+            table = table.toLowerCase();
+        }
+        return table;
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return TableStatistics.UNKNOWN;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return TableStatistics.UNKNOWN;
+        }
+    }
+
+    private static class TableRowsListener implements SQLQueryResultListener<SQLQueryResult<List<Map<String, String>>>> {
+        private final String shardingNode;
+        private final Map<String, List<TableMeta>> tables;
+
+        TableRowsListener(String shardingNode, Map<String, List<TableMeta>> tables) {
+            this.shardingNode = shardingNode;
+            this.tables = tables;
+        }
+
+        @Override
+        public void onResult(SQLQueryResult<List<Map<String, String>>> result) {
+            if (!result.isSuccess()) {
+                LOGGER.info("can't get the table rows from shardingNode:" + shardingNode + ", the statistics is not updated");
+                return;
+            }
+            for (Map<String, String> row : result.getResult()) {
+                List<TableMeta> metas = tables.get(getTableName(row));
+                long rows = parseLong(row.get(ROWS_COL));
+                long dataLength = parseLong(row.get(DATA_LENGTH_COL));
+                if (metas == null || rows < 0 || dataLength < 0) {
+                    continue;
+                }
+                for (TableMeta meta : metas) {
+                    meta.getStatistics().updateRows(shardingNode, rows, dataLength);
+                }
+            }
+        }
+    }
+
+    private static class TableCardinalityListener implements SQLQueryResultListener<SQLQueryResult<List<Map<String, String>>>> {
+        private final String shardingNode;
+        private final Map<String, List<TableMeta>> tables;
+
+        TableCardinalityListener(String shardingNode, Map<String, List<TableMeta>> tables) {
+            this.shardingNode = shardingNode;
+            this.tables = tables;
+        }
+
+        @Override
+        public void onResult(SQLQueryResult<List<Map<String, String>>> result) {
+            if (!result.isSuccess()) {
+                LOGGER.info("can't get the index cardinality from shardingNode:" + shardingNode + ", the statistics is not updated");
+                return;
+            }
+            Map<String, Map<String, Long>> tableCardinality = new HashMap<>();
+            for (Map<String, String> row : result.getResult()) {
+                String table = getTableName(row);
+                String column = row.get(COLUMN_COL);
+                long cardinality = parseLong(row.get(CARDINALITY_COL));
+                if (!tables.containsKey(table) || column == null || cardinality < 0) {
+                    continue;
+                }
+                tableCardinality.computeIfAbsent(table, k -> new HashMap<>()).put(column.toLowerCase(), cardinality);
+            }
+            for (Map.Entry<String, List<TableMeta>> entry : tables.entrySet()) {
+                Map<String, Long> columns = tableCardinality.get(entry.getKey());
+                if (columns == null) {
+                    columns = Collections.emptyMap();
+                }
+                for (TableMeta meta : entry.getValue()) {
+                    meta.getStatistics().updateCardinality(shardingNode, columns);
+                }
+            }
+        }
+    }
+}
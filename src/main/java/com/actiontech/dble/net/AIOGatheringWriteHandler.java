@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net;
+
+import java.nio.channels.CompletionHandler;
+
+class AIOGatheringWriteHandler implements CompletionHandler<Long, AIOSocketWR> {
+
+    @Override
+    public void completed(final Long result, final AIOSocketWR wr) {
+        try {
+
+            wr.writing.set(false);
+
+            if (result >= 0) {
+                wr.onGatheredWriteFinished(result);
+            } else {
+                wr.con.close("write erro " + result);
+            }
+        } catch (Exception e) {
+            AbstractConnection.LOGGER.info("caught aio process err:", e);
+        }
+
+    }
+
+    @Override
+    public void failed(Throwable exc, AIOSocketWR wr) {
+        wr.writing.set(false);
+        wr.con.close("write failed " + exc);
+    }
+
+}
@@ -9,14 +9,21 @@ import com.actiontech.dble.util.TimeUtil;
 
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousSocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class AIOSocketWR extends SocketWR {
     private static final AIOReadHandler AIO_READ_HANDLER = new AIOReadHandler();
     private static final AIOWriteHandler AIO_WRITE_HANDLER = new AIOWriteHandler();
+    private static final AIOGatheringWriteHandler AIO_GATHERING_WRITE_HANDLER = new AIOGatheringWriteHandler();
     private final AsynchronousSocketChannel channel;
     protected final AbstractConnection con;
     protected final AtomicBoolean writing = new AtomicBoolean(false);
+    // the views of the buffers in the gathering write, [gatheredIndex, gatheredCount) are not finished
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHER_BUFFERS];
+    private int gatheredIndex;
+    private int gatheredCount;
 
 
     public AIOSocketWR(AbstractConnection conn) {
@@ -48,6 +55,11 @@ public class AIOSocketWR extends SocketWR {
 
     }
 
+    private void asyncWriteGathered() {
+        this.channel.write(gathered, gatheredIndex, gatheredCount - gatheredIndex, 0L, TimeUnit.MILLISECONDS, this,
+                AIO_GATHERING_WRITE_HANDLER);
+    }
+
     /**
      * return true ,means no more data
      *
@@ -57,6 +69,10 @@ public class AIOSocketWR extends SocketWR {
         if (!writing.compareAndSet(false, true)) {
             return false;
         }
+        if (gatheredIndex < gatheredCount) {
+            asyncWriteGathered();
+            return false;
+        }
         ByteBuffer theBuffer = con.writeBuffer;
         if (theBuffer == null || !theBuffer.hasRemaining()) { // writeFinished,if buffer not NULL,recycle
             if (theBuffer != null) {
@@ -64,6 +80,14 @@ public class AIOSocketWR extends SocketWR {
                 con.writeBuffer = null;
 
             }
+            gatheredCount = gather(con.writeQueue, gathered);
+            if (gatheredCount > 1) {
+                gatheredIndex = 0;
+                asyncWriteGathered();
+                return false;
+            }
+            Arrays.fill(gathered, 0, gatheredCount, null);
+            gatheredCount = 0;
             // poll again
             ByteBuffer buffer = con.writeQueue.poll();
             // more data
@@ -104,6 +128,31 @@ public class AIOSocketWR extends SocketWR {
 
     }
 
+    /**
+     * the buffers finished leave the write queue, the rest is written again by write0
+     */
+    protected void onGatheredWriteFinished(long result) {
+        con.netOutBytes += result;
+        con.processor.addNetOutBytes(result);
+        con.lastWriteTime = TimeUtil.currentTimeMillis();
+        while (gatheredIndex < gatheredCount && !gathered[gatheredIndex].hasRemaining()) {
+            gathered[gatheredIndex++] = null;
+            ByteBuffer buffer = con.writeQueue.poll();
+            // the queue is cleared if the connection is closed
+            if (buffer != null) {
+                con.recycle(buffer);
+            }
+        }
+        if (gatheredIndex == gatheredCount) {
+            gatheredIndex = 0;
+            gatheredCount = 0;
+        }
+        boolean noMoreData = this.write0();
+        if (noMoreData) {
+            this.doNextWriteCheck();
+        }
+    }
+
     public void doNextWriteCheck() {
 
         boolean noMoreData = false;
@@ -13,6 +13,7 @@ import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.mysql.CharsetNames;
 import com.actiontech.dble.net.mysql.MySQLPacket;
+import com.actiontech.dble.net.mysql.PacketChunk;
 import com.actiontech.dble.server.NonBlockingSession;
 import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.util.CompressUtil;
@@ -315,20 +316,16 @@ public abstract class AbstractConnection implements NIOConnection {
             }
             if (position >= offset + length && readBuffer != null) {
                 // handle this package
-                readBuffer.position(offset);
-                byte[] data = new byte[length];
-                readBuffer.get(data, 0, length);
-                data = checkData(data, length);
-                if (data == null) {
+                int end = handlePackets(offset, length, position);
+                if (end == -1) {
                     return;
                 }
-                handle(data);
                 // maybe handle stmt_close
                 if (isClosed()) {
                     return;
                 }
                 // offset to next position
-                offset += length;
+                offset = end;
                 // reached end
                 if (position == offset) {
                     readReachEnd();
@@ -351,6 +348,50 @@ public abstract class AbstractConnection implements NIOConnection {
         }
     }
 
+    /**
+     * @return the end of the packets handled, -1 if the big packet is not finished
+     */
+    private int handlePackets(int offset, int length, int position) {
+        int end = readChunk(offset, position);
+        if (end != -1) {
+            return end;
+        }
+        readBuffer.position(offset);
+        byte[] data = new byte[length];
+        readBuffer.get(data, 0, length);
+        data = checkData(data, length);
+        if (data == null) {
+            return -1;
+        }
+        handle(data);
+        return offset + length;
+    }
+
+    /**
+     * hand all the complete packets from offset to the handler in one chunk,
+     * so they're copied out of the read buffer at once instead of one array per packet
+     *
+     * @return the end of the packets handled, -1 if the packets must be handled one by one
+     */
+    private int readChunk(int offset, int position) {
+        if (rowData != null || isSupportCompress() || !(handler instanceof PacketChunkHandler)) {
+            return -1;
+        }
+        int end = offset;
+        int count = 0;
+        int length;
+        while ((length = getPacketLength(readBuffer, end)) != -1 && end + length <= position &&
+                length < MySQLPacket.MAX_PACKET_SIZE + MySQLPacket.PACKET_HEADER_SIZE) {
+            end += length;
+            count++;
+        }
+        if (count < 2) {
+            return -1;
+        }
+        ((PacketChunkHandler) handler).handle(PacketChunk.read(readBuffer, offset, end, count));
+        return end;
+    }
+
     private void readReachEnd() {
         // if cur buffer is temper none direct byte buffer and not
         // received large message in recent 30 seconds
@@ -479,8 +520,10 @@ public abstract class AbstractConnection implements NIOConnection {
     }
 
     public ByteBuffer writeToBuffer(byte[] src, ByteBuffer buffer) {
-        int offset = 0;
-        int length = src.length;
+        return writeToBuffer(src, 0, src.length, buffer);
+    }
+
+    public ByteBuffer writeToBuffer(byte[] src, int offset, int length, ByteBuffer buffer) {
         int remaining = buffer.remaining();
         while (length > 0) {
             if (remaining >= length) {
@@ -16,6 +16,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class NIOSocketWR extends SocketWR {
@@ -26,6 +27,7 @@ public class NIOSocketWR extends SocketWR {
     private final AbstractConnection con;
     private final SocketChannel channel;
     private final AtomicBoolean writing = new AtomicBoolean(false);
+    private final ByteBuffer[] gathered = new ByteBuffer[MAX_GATHER_BUFFERS];
 
     public NIOSocketWR(AbstractConnection con) {
         this.con = con;
@@ -165,7 +167,17 @@ public class NIOSocketWR extends SocketWR {
                 con.recycle(buffer);
             }
         }
-        while ((buffer = con.writeQueue.poll()) != null) {
+        while (!con.writeQueue.isEmpty()) {
+            int count = gather(con.writeQueue, gathered);
+            if (count > 1) {
+                flowControlCount = writeGathered(count, flowControlCount);
+                if (con.writeBuffer != null) {
+                    return false;
+                }
+                continue;
+            }
+            Arrays.fill(gathered, 0, count, null);
+            buffer = con.writeQueue.poll();
             if (buffer.position() == 5 && bufferIsQuit(buffer)) {
                 quitFlag = true;
             }
@@ -177,16 +189,7 @@ public class NIOSocketWR extends SocketWR {
 
             buffer.flip();
             try {
-                while (buffer.hasRemaining()) {
-                    written = channel.write(buffer);
-                    if (written > 0) {
-                        con.netOutBytes += written;
-                        con.processor.addNetOutBytes(written);
-                        con.lastWriteTime = TimeUtil.currentTimeMillis();
-                    } else {
-                        break;
-                    }
-                }
+                writeBuffer(buffer);
             } catch (Throwable e) {
                 con.recycle(buffer);
                 if (!quitFlag) {
@@ -217,6 +220,56 @@ public class NIOSocketWR extends SocketWR {
         return true;
     }
 
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int written = channel.write(buffer);
+            if (written > 0) {
+                con.netOutBytes += written;
+                con.processor.addNetOutBytes(written);
+                con.lastWriteTime = TimeUtil.currentTimeMillis();
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * write the count gathered buffers by one syscall while the channel takes them,
+     * the buffer partly written is moved to con.writeBuffer and the rest stay in the queue
+     */
+    private int writeGathered(int count, int flowControlCount) throws IOException {
+        int index = 0;
+        try {
+            while (index < count) {
+                long written = channel.write(gathered, index, count - index);
+                if (written > 0) {
+                    con.netOutBytes += written;
+                    con.processor.addNetOutBytes(written);
+                    con.lastWriteTime = TimeUtil.currentTimeMillis();
+                } else {
+                    break;
+                }
+                while (index < count && !gathered[index].hasRemaining()) {
+                    index++;
+                }
+            }
+            ByteBuffer buffer;
+            // the queue is cleared if the connection is closed
+            for (int i = 0; i < index && (buffer = con.writeQueue.poll()) != null; i++) {
+                con.recycle(buffer);
+                flowControlCount = checkFlowControl(flowControlCount);
+            }
+            if (index < count && (buffer = con.writeQueue.poll()) != null) {
+                buffer.flip();
+                buffer.position(gathered[index].position());
+                con.writeBuffer = buffer;
+            }
+            return flowControlCount;
+        } finally {
+            Arrays.fill(gathered, 0, count, null);
+        }
+    }
+
     private int checkFlowControl(int flowControlCount) {
         FlowControllerConfig config = WriteQueueFlowController.getFlowCotrollerConfig();
         if (con.isFlowControlled()) {
@@ -0,0 +1,18 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net;
+
+import com.actiontech.dble.net.mysql.PacketChunk;
+
+/**
+ * the NIOHandler which can take all the complete packets of one read at once,
+ * so the packets are not copied into their own arrays when they're read
+ */
+public interface PacketChunkHandler extends NIOHandler {
+
+    void handle(PacketChunk chunk);
+
+}
@@ -7,9 +7,14 @@ package com.actiontech.dble.net;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Queue;
 
 
 public abstract class SocketWR {
+    // the max buffers and bytes of the write queue written by one gathering write
+    static final int MAX_GATHER_BUFFERS = 64;
+    static final int MAX_GATHER_BYTES = 1024 * 1024;
+
     public abstract void asyncRead() throws IOException;
 
     public abstract void doNextWriteCheck();
@@ -19,4 +24,31 @@ public abstract class SocketWR {
     public abstract void disableRead();
 
     public abstract void enableRead();
+
+    /**
+     * fill views with the flipped duplicates of the buffers at the head of the write queue,
+     * the buffers stay in the queue until they are written, so the queue is untouched if the write fails.
+     * the quit packet and the close mark are not gathered, they are written by the single buffer path
+     *
+     * @return the count of the views
+     */
+    static int gather(Queue<ByteBuffer> writeQueue, ByteBuffer[] views) {
+        int count = 0;
+        int bytes = 0;
+        for (ByteBuffer buffer : writeQueue) {
+            if (count == views.length || bytes >= MAX_GATHER_BYTES || buffer.limit() == 0 || isQuit(buffer)) {
+                break;
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.flip();
+            views[count++] = view;
+            bytes += view.remaining();
+        }
+        return count;
+    }
+
+    private static boolean isQuit(ByteBuffer buffer) {
+        return buffer.position() == 5 && buffer.get(0) == 1 && buffer.get(1) == 0 && buffer.get(2) == 0 &&
+                buffer.get(3) == 0 && buffer.get(4) == 1;
+    }
 }
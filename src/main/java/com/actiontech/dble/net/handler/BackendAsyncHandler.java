@@ -8,6 +8,7 @@ package com.actiontech.dble.net.handler;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.net.NIOHandler;
+import com.actiontech.dble.net.mysql.PacketChunk;
 import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
 
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -18,19 +19,19 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @author mycat
  */
 public abstract class BackendAsyncHandler implements NIOHandler {
-    protected final ConcurrentLinkedQueue<byte[]> dataQueue = new ConcurrentLinkedQueue<>();
+    protected final ConcurrentLinkedQueue<PacketChunk> dataQueue = new ConcurrentLinkedQueue<>();
     protected final AtomicBoolean isHandling = new AtomicBoolean(false);
 
-    protected void offerData(byte[] data, Executor executor) {
-        if (dataQueue.offer(data)) {
+    protected void offerData(PacketChunk chunk, Executor executor) {
+        if (dataQueue.offer(chunk)) {
             handleQueue(executor);
         } else {
             offerDataError();
         }
     }
 
-    protected void offerData(byte[] data) {
-        if (dataQueue.offer(data)) {
+    protected void offerData(PacketChunk chunk) {
+        if (dataQueue.offer(chunk)) {
             pushTask();
         } else {
             offerDataError();
@@ -78,7 +79,7 @@ public abstract class BackendAsyncHandler implements NIOHandler {
     }
 
     private void handleInnerData() {
-        byte[] data;
+        PacketChunk chunk;
 
         //threadUsageStat start
         String threadName = null;
@@ -97,9 +98,10 @@ public abstract class BackendAsyncHandler implements NIOHandler {
             workStart = System.nanoTime();
         }
         //handleData
-        while ((data = dataQueue.poll()) != null) {
-            handleData(data);
+        while ((chunk = dataQueue.poll()) != null) {
+            handleChunk(chunk);
         }
+        handleDataEnd();
         //threadUsageStat end
         if (workUsage != null && threadName.startsWith("backend")) {
             workUsage.setCurrentSecondUsed(workUsage.getCurrentSecondUsed() + System.nanoTime() - workStart);
@@ -108,7 +110,22 @@ public abstract class BackendAsyncHandler implements NIOHandler {
 
     protected abstract void offerDataError();
 
-    protected abstract void handleData(byte[] data);
+    protected void handleChunk(PacketChunk chunk) {
+        for (int i = 0; i < chunk.size(); i++) {
+            handleData(chunk, i);
+        }
+    }
+
+    /**
+     * handle the index-th packet of the chunk
+     */
+    protected abstract void handleData(PacketChunk chunk, int index);
+
+    /**
+     * all the data received is handled
+     */
+    protected void handleDataEnd() {
+    }
 
     protected abstract void handleDataError(Exception e);
 }
@@ -5,6 +5,8 @@
 
 package com.actiontech.dble.net.handler;
 
+import com.actiontech.dble.util.ParkingConcurrentQueue;
+
 import java.util.Queue;
 
 public class ConcurrentBackEndHandlerRunnable implements Runnable {
@@ -16,9 +18,14 @@ public class ConcurrentBackEndHandlerRunnable implements Runnable {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void run() {
         BackendAsyncHandler handler;
+        ParkingConcurrentQueue.Waiter waiter = new ParkingConcurrentQueue.Waiter();
         while (true) {
+            if (backendHandlerQueue instanceof ParkingConcurrentQueue) {
+                ((ParkingConcurrentQueue<BackendAsyncHandler>) backendHandlerQueue).take(waiter).executeQueue();
+            }
             while ((handler = backendHandlerQueue.poll()) != null) {
                 handler.executeQueue();
             }
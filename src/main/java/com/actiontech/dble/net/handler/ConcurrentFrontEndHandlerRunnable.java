@@ -8,6 +8,7 @@ package com.actiontech.dble.net.handler;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
+import com.actiontech.dble.util.ParkingConcurrentQueue;
 
 import java.util.Queue;
 
@@ -20,6 +21,7 @@ public class ConcurrentFrontEndHandlerRunnable implements Runnable {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public void run() {
         FrontendCommandHandler handler;
         ThreadWorkUsage workUsage = null;
@@ -28,23 +30,30 @@ public class ConcurrentFrontEndHandlerRunnable implements Runnable {
             workUsage = new ThreadWorkUsage();
             DbleServer.getInstance().getThreadUsedMap().put(threadName, workUsage);
         }
+        ParkingConcurrentQueue.Waiter waiter = new ParkingConcurrentQueue.Waiter();
         while (true) {
+            if (frontHandlerQueue instanceof ParkingConcurrentQueue) {
+                handle(((ParkingConcurrentQueue<FrontendCommandHandler>) frontHandlerQueue).take(waiter), workUsage);
+            }
             while ((handler = frontHandlerQueue.poll()) != null) {
+                handle(handler, workUsage);
+            }
+        }
+    }
 
-                //threadUsageStat start
-                long workStart = 0;
-                if (workUsage != null) {
-                    workStart = System.nanoTime();
-                }
+    private void handle(FrontendCommandHandler handler, ThreadWorkUsage workUsage) {
+        //threadUsageStat start
+        long workStart = 0;
+        if (workUsage != null) {
+            workStart = System.nanoTime();
+        }
 
-                //handler data
-                handler.handle();
+        //handler data
+        handler.handle();
 
-                //threadUsageStat end
-                if (workUsage != null) {
-                    workUsage.setCurrentSecondUsed(workUsage.getCurrentSecondUsed() + System.nanoTime() - workStart);
-                }
-            }
+        //threadUsageStat end
+        if (workUsage != null) {
+            workUsage.setCurrentSecondUsed(workUsage.getCurrentSecondUsed() + System.nanoTime() - workStart);
         }
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.mysql;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * the complete packets of one read, copied from the read buffer into one array at once.
+ * a packet is an offset and a length in the array, it's copied into its own array by getPacket
+ * only when the handler needs to keep it.
+ */
+public final class PacketChunk {
+    private final byte[] data;
+    // the offset of each packet, offsets[count] is the end of the last packet
+    private final int[] offsets;
+    private final int count;
+
+    private PacketChunk(byte[] data, int[] offsets, int count) {
+        this.data = data;
+        this.offsets = offsets;
+        this.count = count;
+    }
+
+    public static PacketChunk wrap(byte[] packet) {
+        return new PacketChunk(packet, new int[]{0, packet.length}, 1);
+    }
+
+    /**
+     * copy the count packets in [offset, end) of the buffer, the packets must not be split into several packets
+     */
+    public static PacketChunk read(ByteBuffer buffer, int offset, int end, int count) {
+        byte[] data = new byte[end - offset];
+        buffer.position(offset);
+        buffer.get(data, 0, data.length);
+        int[] offsets = new int[count + 1];
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = position;
+            int length = (data[position] & 0xff) | ((data[position + 1] & 0xff) << 8) | ((data[position + 2] & 0xff) << 16);
+            position += length + MySQLPacket.PACKET_HEADER_SIZE;
+        }
+        offsets[count] = position;
+        return new PacketChunk(data, offsets, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * the array shared by all the packets of the chunk
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getLength(int index) {
+        return offsets[index + 1] - offsets[index];
+    }
+
+    /**
+     * the first byte of the packet body, such as OkPacket.FIELD_COUNT
+     */
+    public byte getType(int index) {
+        return data[offsets[index] + MySQLPacket.PACKET_HEADER_SIZE];
+    }
+
+    public byte[] getPacket(int index) {
+        if (count == 1) {
+            return data;
+        }
+        return Arrays.copyOfRange(data, offsets[index], offsets[index + 1]);
+    }
+}
@@ -79,7 +79,17 @@ public class RowDataPacket extends MySQLPacket {
     }
 
     public void read(byte[] data) {
-        MySQLMessage mm = new MySQLMessage(data);
+        read(new MySQLMessage(data));
+    }
+
+    /**
+     * read the row packet at [offset, offset + length) in data
+     */
+    public void read(byte[] data, int offset, int length) {
+        read(new MySQLMessage(data, offset, length));
+    }
+
+    private void read(MySQLMessage mm) {
         packetLength = mm.readUB3();
         packetId = mm.read();
         for (int i = 0; i < fieldCount; i++) {
@@ -31,7 +31,7 @@ public class JoinNode extends PlanNode {
 
 
     public enum Strategy {
-        SORTMERGE, NESTLOOP
+        SORTMERGE, NESTLOOP, HASH
     }
 
     private boolean isNotIn = false;
@@ -75,6 +75,8 @@ public class JoinNode extends PlanNode {
     private List<ERTable> erKeys = new ArrayList<>();
 
     private Strategy strategy = Strategy.SORTMERGE;
+    // hash join: true if the hash table is built on the left node
+    private boolean isHashBuildLeft = false;
 
     public JoinNode() {
         this.leftOuter = false;
@@ -542,6 +544,14 @@ public class JoinNode extends PlanNode {
         this.strategy = strategy;
     }
 
+    public boolean isHashBuildLeft() {
+        return isHashBuildLeft;
+    }
+
+    public void setHashBuildLeft(boolean hashBuildLeft) {
+        this.isHashBuildLeft = hashBuildLeft;
+    }
+
     public Item getOtherJoinOnFilter() {
         return otherJoinOnFilter;
     }
@@ -106,6 +106,10 @@ public class TableNode extends PlanNode {
         return tableName;
     }
 
+    public TableMeta getTableMeta() {
+        return tableMeta;
+    }
+
     /**
      * @param tableName the tableName to set
      */
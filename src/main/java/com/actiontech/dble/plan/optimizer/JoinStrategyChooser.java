@@ -5,18 +5,31 @@
 
 package com.actiontech.dble.plan.optimizer;
 
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.meta.TableStatistics;
 import com.actiontech.dble.plan.common.item.Item;
 import com.actiontech.dble.plan.node.JoinNode;
 import com.actiontech.dble.plan.node.JoinNode.Strategy;
+import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.plan.node.TableNode;
 
 import java.util.ArrayList;
 
 public class JoinStrategyChooser {
+    /* the big table must be so many times bigger than the small one, or the nest loop is not worth the extra round trip */
+    private static final long NEST_LOOP_RATIO = 10L;
     private JoinNode jn;
+    private final long leftRows;
+    private final long rightRows;
 
     public JoinStrategyChooser(JoinNode jn) {
         this.jn = jn;
+        this.leftRows = RowCountEstimator.estimateRows(jn.getLeftNode());
+        this.rightRows = RowCountEstimator.estimateRows(jn.getRightNode());
+    }
+
+    private boolean isEstimated() {
+        return leftRows != TableStatistics.UNKNOWN && rightRows != TableStatistics.UNKNOWN;
     }
 
     /**
@@ -40,10 +53,55 @@ public class JoinStrategyChooser {
         }
     }
 
+    /**
+     * tryHashJoin
+     *
+     * @return boolean true:join will be executed by building a hash table on one child and probing it with the other,
+     * the children's results need not be ordered by the join columns
+     */
+    public boolean tryHashJoin() {
+        if (!SystemConfig.getInstance().isUseHashJoin()) {
+            return false;
+        }
+        if (jn.isNotIn() || jn.getJoinFilter().isEmpty()) {
+            return false;
+        }
+        boolean isBuildLeft;
+        if (jn.isInnerJoin()) {
+            if (isEstimated()) {
+                isBuildLeft = leftRows < rightRows;
+            } else {
+                // build on the side with filter, which is expected to be the smaller one
+                isBuildLeft = isSmallNode(jn.getLeftNode()) && !isSmallNode(jn.getRightNode());
+            }
+        } else if (jn.isLeftOuterJoin()) {
+            // every left row must be sent, so the right one is always the build side
+            isBuildLeft = false;
+        } else {
+            return false;
+        }
+        // the build side is expected to spill to disk, sort merge with the ordered children is cheaper
+        long buildLength = RowCountEstimator.estimateDataLength(isBuildLeft ? jn.getLeftNode() : jn.getRightNode());
+        if (buildLength > SystemConfig.getInstance().getJoinMemSize() * 1024L * 1024L) {
+            return false;
+        }
+        jn.setHashBuildLeft(isBuildLeft);
+        jn.setStrategy(Strategy.HASH);
+        return true;
+    }
+
     /**
      * @return
      */
     private boolean tryInnerJoinNestLoop() {
+        if (isEstimated()) {
+            boolean isLeftSmall = leftRows <= rightRows;
+            if (isNestLoopWorth(isLeftSmall ? leftRows : rightRows, isLeftSmall ? rightRows : leftRows)) {
+                handleNestLoopStrategy(isLeftSmall);
+                return true;
+            }
+            return false;
+        }
         TableNode tnLeft = (TableNode) jn.getLeftNode();
         TableNode tnRight = (TableNode) jn.getRightNode();
         boolean isLeftSmall = isSmallTable(tnLeft);
@@ -62,6 +120,13 @@ public class JoinStrategyChooser {
      * @return
      */
     private boolean tryLeftJoinNestLoop() {
+        if (isEstimated()) {
+            if (isNestLoopWorth(leftRows, rightRows)) {
+                handleNestLoopStrategy(true);
+                return true;
+            }
+            return false;
+        }
         TableNode tnLeft = (TableNode) jn.getLeftNode();
         TableNode tnRight = (TableNode) jn.getRightNode();
         // left join and only left node has where filter
@@ -73,6 +138,15 @@ public class JoinStrategyChooser {
         }
     }
 
+    /**
+     * the rows of the small table are sent to the big one as IN filter,
+     * they must be fit in the temp table and make the big one much smaller
+     */
+    private boolean isNestLoopWorth(long smallRows, long bigRows) {
+        long tempTableLimit = (long) SystemConfig.getInstance().getNestLoopRowsSize() * SystemConfig.getInstance().getNestLoopConnSize();
+        return smallRows <= tempTableLimit && bigRows >= NEST_LOOP_RATIO * Math.max(smallRows, 1L);
+    }
+
     private void handleNestLoopStrategy(boolean isLeftSmall) {
         jn.setStrategy(Strategy.NESTLOOP);
         TableNode tnLeft = (TableNode) jn.getLeftNode();
@@ -82,7 +156,7 @@ public class JoinStrategyChooser {
     }
 
     /**
-     * the table contains where is small table now
+     * the table contains where is small table when there is no statistics
      *
      * @param tn
      * @return
@@ -90,4 +164,8 @@ public class JoinStrategyChooser {
     private boolean isSmallTable(TableNode tn) {
         return tn.getWhereFilter() != null;
     }
+
+    private boolean isSmallNode(PlanNode node) {
+        return node.type() == PlanNode.PlanNodeType.TABLE && isSmallTable((TableNode) node);
+    }
 }
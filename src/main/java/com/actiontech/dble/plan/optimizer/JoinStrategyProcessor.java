@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.plan.optimizer;
 
+import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.plan.node.JoinNode;
 import com.actiontech.dble.plan.node.PlanNode;
 import com.actiontech.dble.plan.util.PlanUtil;
@@ -19,11 +20,14 @@ public final class JoinStrategyProcessor {
             return qtn;
         if (qtn.type() == PlanNode.PlanNodeType.JOIN) {
             JoinNode jn = (JoinNode) qtn;
+            JoinStrategyChooser chooser = new JoinStrategyChooser(jn);
             if (jn.getLeftNode().type() == PlanNode.PlanNodeType.TABLE && jn.getRightNode().type() == PlanNode.PlanNodeType.TABLE) {
-                JoinStrategyChooser chooser = new JoinStrategyChooser((JoinNode) qtn);
-                chooser.tryNestLoop();
+                if (!SystemConfig.getInstance().isUseJoinStrategy() || !chooser.tryNestLoop()) {
+                    chooser.tryHashJoin();
+                }
                 return qtn;
             }
+            chooser.tryHashJoin();
         }
         for (PlanNode child : qtn.getChildren())
             optimize(child);
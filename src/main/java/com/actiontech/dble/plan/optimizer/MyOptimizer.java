@@ -52,16 +52,17 @@ public final class MyOptimizer {
                 //  push down filter
                 node = FilterPusher.optimize(node);
 
+                // join strategy must be chosen before pushing down order by, hash join needs no ordered child
+                SystemConfig sysConfig = SystemConfig.getInstance();
+                if (sysConfig.isUseJoinStrategy() || sysConfig.isUseHashJoin()) {
+                    node = JoinStrategyProcessor.optimize(node);
+                }
+
                 node = OrderByPusher.optimize(node);
 
                 node = LimitPusher.optimize(node);
 
                 node = SelectedProcessor.optimize(node);
-
-                boolean useJoinStrategy = SystemConfig.getInstance().isUseJoinStrategy();
-                if (useJoinStrategy) {
-                    node = JoinStrategyProcessor.optimize(node);
-                }
             }
             return node;
         } catch (MySQLOutPutException e) {
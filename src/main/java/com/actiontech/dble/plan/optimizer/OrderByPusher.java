@@ -64,7 +64,9 @@ public final class OrderByPusher {
                     join.getRightJoinOnOrders(), implicitOrders);
             boolean leftOrderPushSuc = false;
             boolean rightOrderPushSuc = false;
-            if (canMatch) {
+            // hash join's children need not be ordered, and its result is not ordered either
+            boolean needOrderedChild = join.getStrategy() != JoinNode.Strategy.HASH;
+            if (needOrderedChild && canMatch) {
                 // push down join column first
                 leftOrderPushSuc = tryPushOrderToChild(join, join.getLeftJoinOnOrders(), join.getLeftNode());
                 if (leftOrderPushSuc) {
@@ -74,7 +76,7 @@ public final class OrderByPusher {
                 if (rightOrderPushSuc) {
                     tryPushOrderToChild(join, implicitOrders, join.getRightNode());
                 }
-            } else {
+            } else if (needOrderedChild) {
                 leftOrderPushSuc = tryPushOrderToChild(join, join.getLeftJoinOnOrders(), join.getLeftNode());
                 rightOrderPushSuc = tryPushOrderToChild(join, join.getRightJoinOnOrders(), join.getRightNode());
             }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.optimizer;
+
+import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.meta.TableStatistics;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.function.operator.cmpfunc.*;
+import com.actiontech.dble.plan.common.item.function.operator.logic.ItemCondAnd;
+import com.actiontech.dble.plan.common.item.function.operator.logic.ItemCondOr;
+import com.actiontech.dble.plan.node.PlanNode;
+import com.actiontech.dble.plan.node.TableNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * estimate the rows a plan node returns from the sampled TableStatistics,
+ * only the table node is estimated, the selectivity of the filter follows the rules of thumb.
+ */
+public final class RowCountEstimator {
+    private static final double EQUAL_SELECTIVITY = 0.1;
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+    private static final double LIKE_SELECTIVITY = 0.1;
+    private static final double NULL_SELECTIVITY = 0.1;
+    private static final double DEFAULT_SELECTIVITY = 0.5;
+
+    private RowCountEstimator() {
+    }
+
+    /**
+     * @return the estimated rows, TableStatistics.UNKNOWN if it can't be estimated
+     */
+    public static long estimateRows(PlanNode node) {
+        if (node.type() != PlanNode.PlanNodeType.TABLE) {
+            return TableStatistics.UNKNOWN;
+        }
+        TableNode tn = (TableNode) node;
+        TableMeta tableMeta = tn.getTableMeta();
+        if (tableMeta == null) {
+            return TableStatistics.UNKNOWN;
+        }
+        Collection<String> shardingNodes = getShardingNodes(tn);
+        long rows = tableMeta.getStatistics().getRows(shardingNodes);
+        if (rows == TableStatistics.UNKNOWN) {
+            return rows;
+        }
+        return (long) Math.ceil(rows * selectivity(tn.getWhereFilter(), tableMeta.getStatistics(), shardingNodes));
+    }
+
+    /**
+     * @return the estimated bytes, TableStatistics.UNKNOWN if it can't be estimated
+     */
+    public static long estimateDataLength(PlanNode node) {
+        if (node.type() != PlanNode.PlanNodeType.TABLE) {
+            return TableStatistics.UNKNOWN;
+        }
+        TableNode tn = (TableNode) node;
+        TableMeta tableMeta = tn.getTableMeta();
+        if (tableMeta == null) {
+            return TableStatistics.UNKNOWN;
+        }
+        Collection<String> shardingNodes = getShardingNodes(tn);
+        long dataLength = tableMeta.getStatistics().getDataLength(shardingNodes);
+        if (dataLength == TableStatistics.UNKNOWN) {
+            return dataLength;
+        }
+        return (long) Math.ceil(dataLength * selectivity(tn.getWhereFilter(), tableMeta.getStatistics(), shardingNodes));
+    }
+
+    private static Collection<String> getShardingNodes(TableNode tn) {
+        Collection<String> shardingNodes = tn.getNoshardNode();
+        if (tn.getUnGlobalTableCount() == 0 && shardingNodes.size() > 1) {
+            // every node of the global table has the same data, and only one of them is read
+            return Collections.singletonList(shardingNodes.iterator().next());
+        }
+        return shardingNodes;
+    }
+
+    private static double selectivity(Item filter, TableStatistics statistics, Collection<String> shardingNodes) {
+        if (filter == null) {
+            return 1;
+        }
+        if (filter instanceof ItemCondAnd) {
+            double result = 1;
+            // the same condition may be pushed to the table more than once, it filters no more rows
+            List<Item> counted = new ArrayList<>();
+            for (Item arg : filter.arguments()) {
+                if (!counted.contains(arg)) {
+                    counted.add(arg);
+                    result *= selectivity(arg, statistics, shardingNodes);
+                }
+            }
+            return result;
+        } else if (filter instanceof ItemCondOr) {
+            double result = 0;
+            for (Item arg : filter.arguments()) {
+                result += selectivity(arg, statistics, shardingNodes);
+            }
+            return Math.min(result, 1);
+        } else if (filter instanceof ItemFuncEqual || filter instanceof ItemFuncStrictEqual) {
+            return equalSelectivity(filter, statistics, shardingNodes);
+        } else if (filter instanceof ItemFuncNe) {
+            return 1 - equalSelectivity(filter, statistics, shardingNodes);
+        } else if (filter instanceof ItemFuncIn) {
+            double result = Math.min((filter.getArgCount() - 1) * equalSelectivity(filter, statistics, shardingNodes), 1);
+            return ((ItemFuncIn) filter).isNegate() ? 1 - result : result;
+        } else if (filter instanceof ItemFuncGt || filter instanceof ItemFuncGe || filter instanceof ItemFuncLt ||
+                filter instanceof ItemFuncLe || filter instanceof ItemFuncBetweenAnd) {
+            return RANGE_SELECTIVITY;
+        } else if (filter instanceof ItemFuncLike) {
+            return LIKE_SELECTIVITY;
+        } else if (filter instanceof ItemFuncIsnull) {
+            return NULL_SELECTIVITY;
+        } else if (filter instanceof ItemFuncIsnotnull) {
+            return 1 - NULL_SELECTIVITY;
+        }
+        return DEFAULT_SELECTIVITY;
+    }
+
+    /**
+     * the selectivity of 'column = constant', the first argument is the column
+     */
+    private static double equalSelectivity(Item filter, TableStatistics statistics, Collection<String> shardingNodes) {
+        Item column = filter.arguments().get(0);
+        if (column.type() != Item.ItemType.FIELD_ITEM && filter.getArgCount() == 2) {
+            column = filter.arguments().get(1);
+        }
+        if (column.type() == Item.ItemType.FIELD_ITEM) {
+            long cardinality = statistics.getCardinality(shardingNodes, column.getItemName());
+            if (cardinality > 0) {
+                return 1.0 / cardinality;
+            }
+        }
+        return EQUAL_SELECTIVITY;
+    }
+}
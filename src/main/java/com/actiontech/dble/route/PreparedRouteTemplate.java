@@ -0,0 +1,526 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.BindValue;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ERTable;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.config.privileges.ShardingPrivileges.CheckType;
+import com.actiontech.dble.route.util.RouterUtil;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.singleton.InsertBatcher;
+import com.actiontech.dble.singleton.ProxyMeta;
+import com.actiontech.dble.util.StringUtil;
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.expr.*;
+import com.alibaba.druid.sql.ast.statement.*;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlDeleteStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * the route of a statement with placeholders which only depends on the value of the sharding column.
+ * it is built once for a server side prepared statement or for a normalized sql template(see SqlTemplateUtil),
+ * so the later executions calculate the shardingNode from the value directly instead of parsing
+ * and routing the sql again.
+ * <p>
+ * only the single sharding table SELECT/UPDATE/DELETE with "sharding_column = ?" in the top level AND
+ * of the where and the single row INSERT with the sharding column in the column list are supported,
+ * the template of other statements is marked as unsupported and they are executed as the normal query.
+ */
+public final class PreparedRouteTemplate {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PreparedRouteTemplate.class);
+
+    private final String schema;
+    private final SchemaConfig schemaConfig;
+    private final ShardingTableConfig tableConfig;
+    private final int sqlType;
+    private final CheckType checkType;
+    /* the index of the parameter compared with the sharding column, -1 if unsupported */
+    private final int paramIndex;
+    private final boolean lockRead;
+
+    private PreparedRouteTemplate(String schema, SchemaConfig schemaConfig, ShardingTableConfig tableConfig,
+                                  int sqlType, int paramIndex, boolean lockRead) {
+        this.schema = schema;
+        this.schemaConfig = schemaConfig;
+        this.tableConfig = tableConfig;
+        this.sqlType = sqlType;
+        this.paramIndex = paramIndex;
+        this.lockRead = lockRead;
+        if (sqlType == ServerParse.INSERT) {
+            checkType = CheckType.INSERT;
+        } else if (sqlType == ServerParse.UPDATE) {
+            checkType = CheckType.UPDATE;
+        } else if (sqlType == ServerParse.DELETE) {
+            checkType = CheckType.DELETE;
+        } else {
+            checkType = CheckType.SELECT;
+        }
+    }
+
+    private static PreparedRouteTemplate unsupported(String schema, SchemaConfig schemaConfig) {
+        return new PreparedRouteTemplate(schema, schemaConfig, null, ServerParse.OTHER, -1, false);
+    }
+
+    /**
+     * @return the template of the statement, never null
+     */
+    public static PreparedRouteTemplate build(String sql, int paramCount, String schema) {
+        return build(sql, paramCount, schema, DbleServer.getInstance().getConfig().getSchemas().get(schema));
+    }
+
+    static PreparedRouteTemplate build(String sql, int paramCount, String schema, SchemaConfig schemaConfig) {
+        if (schemaConfig == null || paramCount == 0 || ServerParse.startWithHint(sql) ||
+                !RouterUtil.removeSchema(sql, schema).equals(sql)) {
+            return unsupported(schema, schemaConfig);
+        }
+        int sqlType = ServerParse.parse(sql) & 0xff;
+        if (sqlType != ServerParse.SELECT && sqlType != ServerParse.UPDATE && sqlType != ServerParse.DELETE &&
+                sqlType != ServerParse.INSERT) {
+            return unsupported(schema, schemaConfig);
+        }
+        SQLStatement statement;
+        try {
+            List<SQLStatement> list = new MySqlStatementParser(sql).parseStatementList();
+            if (list.size() != 1) {
+                return unsupported(schema, schemaConfig);
+            }
+            statement = list.get(0);
+        } catch (Exception e) {
+            // let the normal route report the error
+            return unsupported(schema, schemaConfig);
+        }
+
+        SQLExprTableSource from = getTableSource(statement);
+        ShardingTableConfig tableConfig = from == null ? null : getTableConfig(schemaConfig, from);
+        if (tableConfig == null) {
+            return unsupported(schema, schemaConfig);
+        }
+        int paramIndex;
+        if (statement instanceof MySqlInsertStatement) {
+            // the normal route marks the insert of the batch tables to be coalesced
+            paramIndex = InsertBatcher.getInstance().isBatchTable(schema, tableConfig.getName()) ? -1 :
+                    getInsertParamIndex((MySqlInsertStatement) statement, tableConfig, paramCount);
+        } else {
+            paramIndex = getShardingParamIndex(statement, tableConfig.getShardingColumn(), paramCount);
+            if (paramIndex >= 0 && statement instanceof MySqlUpdateStatement &&
+                    !canUpdateColumns((MySqlUpdateStatement) statement, schemaConfig, tableConfig)) {
+                paramIndex = -1;
+            }
+        }
+        if (paramIndex < 0) {
+            return unsupported(schema, schemaConfig);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("statement is routed by parameter " + paramIndex + ", sql: " + sql);
+        }
+        return new PreparedRouteTemplate(schema, schemaConfig, tableConfig, sqlType, paramIndex, isLockRead(statement));
+    }
+
+    /**
+     * @return the only table of the statement, null if the statement is not supported
+     */
+    private static SQLExprTableSource getTableSource(SQLStatement statement) {
+        SQLTableSource from;
+        SQLExpr where;
+        if (statement instanceof SQLSelectStatement) {
+            SQLSelectQuery query = ((SQLSelectStatement) statement).getSelect().getQuery();
+            if (!(query instanceof MySqlSelectQueryBlock) || ((MySqlSelectQueryBlock) query).getInto() != null) {
+                return null;
+            }
+            from = ((MySqlSelectQueryBlock) query).getFrom();
+            where = ((MySqlSelectQueryBlock) query).getWhere();
+        } else if (statement instanceof MySqlUpdateStatement) {
+            from = ((MySqlUpdateStatement) statement).getTableSource();
+            where = ((MySqlUpdateStatement) statement).getWhere();
+        } else if (statement instanceof MySqlDeleteStatement) {
+            MySqlDeleteStatement delete = (MySqlDeleteStatement) statement;
+            if (delete.getFrom() != null || delete.getUsing() != null) {
+                return null;
+            }
+            from = delete.getTableSource();
+            where = delete.getWhere();
+        } else if (statement instanceof MySqlInsertStatement) {
+            MySqlInsertStatement insert = (MySqlInsertStatement) statement;
+            // insert ... select, multi rows, on duplicate key update and the columns from meta are left to the normal route
+            if (insert.getQuery() != null || insert.getValuesList().size() != 1 || insert.getColumns().isEmpty() ||
+                    !insert.getDuplicateKeyUpdate().isEmpty()) {
+                return null;
+            }
+            from = insert.getTableSource();
+            where = null;
+        } else {
+            return null;
+        }
+        if (!(from instanceof SQLExprTableSource) || !(((SQLExprTableSource) from).getExpr() instanceof SQLIdentifierExpr) ||
+                (where == null && !(statement instanceof MySqlInsertStatement))) {
+            return null;
+        }
+        return (SQLExprTableSource) from;
+    }
+
+    private static ShardingTableConfig getTableConfig(SchemaConfig schemaConfig, SQLExprTableSource from) {
+        String table = StringUtil.removeBackQuote(((SQLIdentifierExpr) from.getExpr()).getName());
+        if (DbleServer.getInstance().getSystemVariables().isLowerCaseTableNames()) {
+            table = table.toLowerCase();
+        }
+        BaseTableConfig tc = schemaConfig.getTables().get(table);
+        if (!(tc instanceof ShardingTableConfig) || ((ShardingTableConfig) tc).getShardingColumn() == null) {
+            return null;
+        }
+        return (ShardingTableConfig) tc;
+    }
+
+    private static boolean isLockRead(SQLStatement statement) {
+        if (!(statement instanceof SQLSelectStatement)) {
+            return false;
+        }
+        MySqlSelectQueryBlock block = (MySqlSelectQueryBlock) ((SQLSelectStatement) statement).getSelect().getQuery();
+        return block.isForUpdate() || block.isLockInShareMode();
+    }
+
+    /**
+     * @return the index of the parameter of the sharding column in values, -1 if it is not a parameter
+     */
+    private static int getInsertParamIndex(MySqlInsertStatement insert, ShardingTableConfig tableConfig, int paramCount) {
+        // the increment column is filled by the normal route
+        if (tableConfig.getIncrementColumn() != null) {
+            return -1;
+        }
+        ParamVisitor visitor = new ParamVisitor(tableConfig.getShardingColumn());
+        insert.accept(visitor);
+        if (visitor.unsupported || visitor.params.size() != paramCount) {
+            return -1;
+        }
+        List<SQLExpr> columns = insert.getColumns();
+        List<SQLExpr> values = insert.getValues().getValues();
+        if (columns.size() != values.size()) {
+            return -1;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (isColumn(columns.get(i), tableConfig.getShardingColumn())) {
+                return isParam(values.get(i)) ? indexOf(visitor.params, values.get(i)) : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(List<SQLVariantRefExpr> params, SQLExpr param) {
+        for (int i = 0; i < params.size(); i++) {
+            // SQLVariantRefExpr.equals only compares the name
+            if (params.get(i) == param) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the parameter which decides the route, -1 if the route depends on others
+     */
+    private static int getShardingParamIndex(SQLStatement statement, String shardingColumn, int paramCount) {
+        SQLExpr where;
+        List<SQLUpdateSetItem> updateItems = null;
+        if (statement instanceof SQLSelectStatement) {
+            where = ((MySqlSelectQueryBlock) ((SQLSelectStatement) statement).getSelect().getQuery()).getWhere();
+        } else if (statement instanceof MySqlUpdateStatement) {
+            where = ((MySqlUpdateStatement) statement).getWhere();
+            updateItems = ((MySqlUpdateStatement) statement).getItems();
+        } else {
+            where = ((MySqlDeleteStatement) statement).getWhere();
+        }
+        ParamVisitor visitor = new ParamVisitor(shardingColumn);
+        statement.accept(visitor);
+        // the sharding column is compared only once in the where, so the route is decided by the parameter only
+        ParamVisitor whereVisitor = new ParamVisitor(shardingColumn);
+        where.accept(whereVisitor);
+        if (visitor.unsupported || visitor.params.size() != paramCount || whereVisitor.shardingColumnCount != 1) {
+            return -1;
+        }
+        if (updateItems != null) {
+            for (SQLUpdateSetItem item : updateItems) {
+                if (isColumn(item.getColumn(), shardingColumn)) {
+                    // the normal route reports the error
+                    return -1;
+                }
+            }
+        }
+        SQLVariantRefExpr shardingParam = findShardingParam(where, shardingColumn);
+        return shardingParam == null ? -1 : indexOf(visitor.params, shardingParam);
+    }
+
+    /**
+     * the increment column and the columns referred by the ER children can't be updated,
+     * the normal route reports the error as DruidUpdateParser does
+     */
+    private static boolean canUpdateColumns(MySqlUpdateStatement update, SchemaConfig schemaConfig, ShardingTableConfig tableConfig) {
+        String incrementColumn = tableConfig.getIncrementColumn();
+        Map<ERTable, Set<ERTable>> erRelations = schemaConfig.getFkErRelations();
+        for (SQLUpdateSetItem item : update.getItems()) {
+            if (incrementColumn != null && isColumn(item.getColumn(), incrementColumn)) {
+                return false;
+            }
+            String column = getColumnName(item.getColumn());
+            if (erRelations != null && column != null &&
+                    erRelations.containsKey(new ERTable(schemaConfig.getName(), tableConfig.getName(), column.toUpperCase()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * find "sharding_column = ?" in the top level AND of the where
+     */
+    private static SQLVariantRefExpr findShardingParam(SQLExpr expr, String shardingColumn) {
+        if (!(expr instanceof SQLBinaryOpExpr)) {
+            return null;
+        }
+        SQLBinaryOpExpr opExpr = (SQLBinaryOpExpr) expr;
+        if (opExpr.getOperator() == SQLBinaryOperator.BooleanAnd) {
+            SQLVariantRefExpr param = findShardingParam(opExpr.getLeft(), shardingColumn);
+            return param != null ? param : findShardingParam(opExpr.getRight(), shardingColumn);
+        } else if (opExpr.getOperator() == SQLBinaryOperator.Equality) {
+            if (isColumn(opExpr.getLeft(), shardingColumn) && isParam(opExpr.getRight())) {
+                return (SQLVariantRefExpr) opExpr.getRight();
+            } else if (isColumn(opExpr.getRight(), shardingColumn) && isParam(opExpr.getLeft())) {
+                return (SQLVariantRefExpr) opExpr.getLeft();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isParam(SQLExpr expr) {
+        return expr instanceof SQLVariantRefExpr && "?".equals(((SQLVariantRefExpr) expr).getName());
+    }
+
+    private static boolean isColumn(SQLExpr expr, String column) {
+        String name = getColumnName(expr);
+        return name != null && name.equalsIgnoreCase(column);
+    }
+
+    private static String getColumnName(SQLExpr expr) {
+        if (expr instanceof SQLIdentifierExpr) {
+            return StringUtil.removeBackQuote(((SQLIdentifierExpr) expr).getName());
+        } else if (expr instanceof SQLPropertyExpr) {
+            return StringUtil.removeBackQuote(((SQLPropertyExpr) expr).getName());
+        }
+        return null;
+    }
+
+    /**
+     * the template is built for the schema and config, it must be rebuilt after use or reload
+     */
+    public boolean isValid(String currentSchema) {
+        return schema.equals(currentSchema) && DbleServer.getInstance().getConfig().getSchemas().get(schema) == schemaConfig;
+    }
+
+    public boolean isSupported() {
+        return paramIndex >= 0;
+    }
+
+    /**
+     * @return the shardingNode of the bound values, null if it can't be calculated here
+     */
+    public String calculateShardingNode(BindValue[] bindValues, int[] paramTypes) {
+        BindValue bindValue = bindValues[paramIndex];
+        if (bindValue.isNull()) {
+            return null;
+        }
+        String value;
+        switch (paramTypes[paramIndex] & 0xff) {
+            case Fields.FIELD_TYPE_TINY:
+                value = String.valueOf(bindValue.getByteBinding());
+                break;
+            case Fields.FIELD_TYPE_SHORT:
+                value = String.valueOf(bindValue.getShortBinding());
+                break;
+            case Fields.FIELD_TYPE_LONG:
+                value = String.valueOf(bindValue.getIntBinding());
+                break;
+            case Fields.FIELD_TYPE_LONGLONG:
+                value = String.valueOf(bindValue.getLongBinding());
+                break;
+            case Fields.FIELD_TYPE_VAR_STRING:
+            case Fields.FIELD_TYPE_STRING:
+            case Fields.FIELD_TYPE_VARCHAR:
+                value = String.valueOf(bindValue.getValue());
+                break;
+            default:
+                // the literal of other types may be different from the text routed by the normal route
+                return null;
+        }
+        return calculateShardingNode(value);
+    }
+
+    /**
+     * @param literals the literals stripped by SqlTemplateUtil.normalize
+     * @return the shardingNode of the literals, null if it can't be calculated here
+     */
+    public String calculateShardingNode(List<String> literals) {
+        return calculateShardingNode(literals.get(paramIndex));
+    }
+
+    private String calculateShardingNode(String value) {
+        try {
+            // the table meta is lost or the table is doing ddl, the normal route reports the error
+            if (ProxyMeta.getInstance().getTmManager().getSyncTableMeta(schema, tableConfig.getName()) == null) {
+                return null;
+            }
+            int nodeIndex = tableConfig.getFunction().calculateIndex(value);
+            if (nodeIndex < 0 || nodeIndex >= tableConfig.getShardingNodes().size()) {
+                return null;
+            }
+            return tableConfig.getShardingNodes().get(nodeIndex);
+        } catch (Exception e) {
+            // let the normal route report the error
+            return null;
+        }
+    }
+
+    public RouteResultset route(String sql, String shardingNode, boolean autocommit) {
+        RouteResultset rrs = new RouteResultset(sql, sqlType);
+        rrs.setSchema(schema);
+        rrs.setTable(tableConfig.getName());
+        if (lockRead && !autocommit) {
+            rrs.setCanRunInReadDB(false);
+        }
+        return RouterUtil.routeToSingleNode(rrs, shardingNode);
+    }
+
+    public String getSchema() {
+        return schema;
+    }
+
+    public String getTable() {
+        return tableConfig.getName();
+    }
+
+    public CheckType getCheckType() {
+        return checkType;
+    }
+
+    /**
+     * collect the parameters in the order of the sql, and reject the statements which the normal route
+     * may rewrite or route to more than one node
+     */
+    private static class ParamVisitor extends MySqlASTVisitorAdapter {
+        private final String shardingColumn;
+        private final List<SQLVariantRefExpr> params = new ArrayList<>();
+        private int shardingColumnCount = 0;
+        private boolean unsupported = false;
+
+        ParamVisitor(String shardingColumn) {
+            this.shardingColumn = shardingColumn;
+        }
+
+        @Override
+        public boolean visit(SQLVariantRefExpr x) {
+            if ("?".equals(x.getName())) {
+                params.add(x);
+            } else {
+                // user variables and system variables
+                unsupported = true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLIdentifierExpr x) {
+            if (isColumn(x, shardingColumn)) {
+                shardingColumnCount++;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLPropertyExpr x) {
+            if (isColumn(x, shardingColumn)) {
+                shardingColumnCount++;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLMethodInvokeExpr x) {
+            String name = x.getMethodName().toUpperCase();
+            switch (name) {
+                case "LAST_INSERT_ID":
+                case "DATABASE":
+                case "SCHEMA":
+                case "FOUND_ROWS":
+                case "ROW_COUNT":
+                case "CONNECTION_ID":
+                case "USER":
+                case "CURRENT_USER":
+                case "SESSION_USER":
+                case "SYSTEM_USER":
+                    unsupported = true;
+                    return false;
+                default:
+                    return true;
+            }
+        }
+
+        @Override
+        public boolean visit(SQLQueryExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLInSubQueryExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLExistsExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLAllExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLAnyExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLSomeExpr x) {
+            unsupported = true;
+            return false;
+        }
+
+        @Override
+        public boolean visit(SQLSequenceExpr x) {
+            unsupported = true;
+            return false;
+        }
+    }
+}
@@ -63,6 +63,10 @@ public final class RouteResultset implements Serializable {
     private Boolean runOnSlave = null;
     private String[] groupByCols;
 
+    // single row insert which can be coalesced with others, the statement is insertBatchHeader + insertBatchRow
+    private String insertBatchHeader;
+    private String insertBatchRow;
+
     public String[] getGroupByCols() {
         return groupByCols;
     }
@@ -316,6 +320,19 @@ public final class RouteResultset implements Serializable {
         this.complexSQL = complexSQL;
     }
 
+    public String getInsertBatchHeader() {
+        return insertBatchHeader;
+    }
+
+    public String getInsertBatchRow() {
+        return insertBatchRow;
+    }
+
+    public void setInsertBatch(String header, String row) {
+        this.insertBatchHeader = header;
+        this.insertBatchRow = row;
+    }
+
     public boolean isAlwaysFalse() {
         return alwaysFalse;
     }
@@ -17,6 +17,7 @@ import java.util.Map;
  * @author lxy
  */
 public abstract class AbstractPartitionAlgorithm implements RuleAlgorithm, Serializable {
+    public static final int NO_NODE = -1;
     protected String alias;
     protected String name;
 
@@ -43,6 +44,45 @@ public abstract class AbstractPartitionAlgorithm implements RuleAlgorithm, Seria
     @Override
     public void init() {
     }
+    /**
+     * the same as calculate without boxing, the functions used in routing override it with primitive lookup
+     *
+     * @return the index of sharding node, NO_NODE if no node matches
+     */
+    public int calculateIndex(String columnValue) {
+        Integer nodeIndex = calculate(columnValue);
+        return nodeIndex == null ? NO_NODE : nodeIndex;
+    }
+
+    /**
+     * the same as calculateRange, but beginValue is null for column < endValue and endValue is null for column > beginValue
+     *
+     * @return the index of nodes, an empty array means all nodes
+     */
+    public Integer[] calculateOpenRange(String beginValue, String endValue) {
+        if (beginValue == null || endValue == null) {
+            return new Integer[0];
+        }
+        return calculateRange(beginValue, endValue);
+    }
+
+    /**
+     * the order of the column values, used to intersect the ranges and to check whether the value is in range
+     *
+     * @return null if the value can't be ordered by the algorithm
+     */
+    public Long rangeKey(String columnValue) {
+        return null;
+    }
+
+    protected static Long parseLongKey(String columnValue) {
+        try {
+            return Long.parseLong(columnValue);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * getPartitionNum
      * @return   return -1 means no limit
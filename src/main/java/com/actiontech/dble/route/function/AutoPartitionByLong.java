@@ -14,6 +14,8 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * auto partition by Long ,can be used in auto increment primary key partition
@@ -26,6 +28,7 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
     private String mapFile = null;
     private String ruleFile = null;
     private LongRange[] longRanges;
+    private LongRangeLookup rangeLookup;
     private int defaultNode = -1;
     private int hashCode = 1;
 
@@ -51,27 +54,24 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
 
     @Override
     public Integer calculate(String columnValue) {
-        //columnValue = NumberParseUtil.eliminateQuote(columnValue);
-        try {
+        int nodeIndex = calculateIndex(columnValue);
+        return nodeIndex == NO_NODE ? null : nodeIndex;
+    }
 
+    @Override
+    public int calculateIndex(String columnValue) {
+        try {
             if (columnValue == null || columnValue.equalsIgnoreCase("NULL")) {
-                if (defaultNode >= 0) {
-                    return defaultNode;
-                }
-                return null;
+                return defaultNode >= 0 ? defaultNode : NO_NODE;
             }
 
             long value = Long.parseLong(columnValue);
-            for (LongRange longRang : this.longRanges) {
-                if (value <= longRang.getValueEnd() && value >= longRang.getValueStart()) {
-                    return longRang.getNodeIndex();
-                }
+            int nodeIndex = rangeLookup.find(value);
+            if (nodeIndex >= 0) {
+                return nodeIndex;
             }
             // use default node for other value
-            if (defaultNode >= 0) {
-                return defaultNode;
-            }
-            return null;
+            return defaultNode >= 0 ? defaultNode : NO_NODE;
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("columnValue:" + columnValue + " Please eliminate any quote and non number within it.", e);
         }
@@ -84,10 +84,8 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
     public boolean isUseDefaultNode(String columnValue) {
         try {
             long value = Long.parseLong(columnValue);
-            for (LongRange longRang : this.longRanges) {
-                if (value <= longRang.getValueEnd() && value >= longRang.getValueStart()) {
-                    return false;
-                }
+            if (rangeLookup.find(value) >= 0) {
+                return false;
             }
             if (defaultNode >= 0) {
                 return true;
@@ -101,30 +99,36 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
 
     @Override
     public Integer[] calculateRange(String beginValue, String endValue) {
-        Integer begin = 0, end = 0;
-        if (isUseDefaultNode(beginValue) || isUseDefaultNode(endValue)) {
-            begin = 0;
-            end = longRanges.length - 1;
-        } else {
-            begin = calculate(beginValue);
-            end = calculate(endValue);
-        }
-
+        return calculateOpenRange(beginValue, endValue);
+    }
 
-        if (begin == null || end == null) {
+    /**
+     * the nodes of the ranges in the map file overlap [begin, end], and the default node if some values are not covered
+     */
+    @Override
+    public Integer[] calculateOpenRange(String beginValue, String endValue) {
+        long begin;
+        long end;
+        try {
+            begin = beginValue == null ? Long.MIN_VALUE : Long.parseLong(beginValue);
+            end = endValue == null ? Long.MAX_VALUE : Long.parseLong(endValue);
+        } catch (NumberFormatException e) {
             return new Integer[0];
         }
-        if (end >= begin) {
-            int len = end - begin + 1;
-            Integer[] re = new Integer[len];
-
-            for (int i = 0; i < len; i++) {
-                re[i] = begin + i;
-            }
-            return re;
-        } else {
+        if (begin > end) {
             return new Integer[0];
         }
+        Set<Integer> ids = new TreeSet<>();
+        boolean covered = rangeLookup.collect(begin, end, ids);
+        if (!covered && defaultNode >= 0) {
+            ids.add(defaultNode);
+        }
+        return ids.toArray(new Integer[ids.size()]);
+    }
+
+    @Override
+    public Long rangeKey(String columnValue) {
+        return parseLongKey(columnValue);
     }
 
     @Override
@@ -181,6 +185,7 @@ public class AutoPartitionByLong extends AbstractPartitionAlgorithm implements R
                 sb.append("\"");
             }
             longRanges = longRangeList.toArray(new LongRange[longRangeList.size()]);
+            rangeLookup = new LongRangeLookup(longRanges);
             sb.append("}");
             propertiesMap.put("mapFile", sb.toString());
         } catch (Exception e) {
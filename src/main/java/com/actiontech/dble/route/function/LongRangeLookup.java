@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.function;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * the LongRange[] of the rule file compiled into sorted primitive arrays, the value is found by binary search.
+ * if the ranges overlap, the first matched range in the rule file wins as before, so they are scanned in order.
+ */
+final class LongRangeLookup implements Serializable {
+    private static final long serialVersionUID = -2235067530471402785L;
+    private final long[] starts;
+    private final long[] ends;
+    private final int[] nodes;
+    private final boolean overlapped;
+
+    LongRangeLookup(LongRange[] longRanges) {
+        LongRange[] sorted = longRanges.clone();
+        Arrays.sort(sorted, new Comparator<LongRange>() {
+            @Override
+            public int compare(LongRange o1, LongRange o2) {
+                return Long.compare(o1.getValueStart(), o2.getValueStart());
+            }
+        });
+        boolean isOverlapped = false;
+        for (int i = 1; i < sorted.length && !isOverlapped; i++) {
+            isOverlapped = sorted[i].getValueStart() <= sorted[i - 1].getValueEnd();
+        }
+        if (isOverlapped) {
+            sorted = longRanges;
+        }
+        this.overlapped = isOverlapped;
+        this.starts = new long[sorted.length];
+        this.ends = new long[sorted.length];
+        this.nodes = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            starts[i] = sorted[i].getValueStart();
+            ends[i] = sorted[i].getValueEnd();
+            nodes[i] = sorted[i].getNodeIndex();
+        }
+    }
+
+    /**
+     * @return the node index of the range contains the value, -1 if not found
+     */
+    int find(long value) {
+        if (overlapped) {
+            for (int i = 0; i < starts.length; i++) {
+                if (value <= ends[i] && value >= starts[i]) {
+                    return nodes[i];
+                }
+            }
+            return -1;
+        }
+        int low = 0;
+        int high = starts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (value < starts[mid]) {
+                high = mid - 1;
+            } else if (value > ends[mid]) {
+                low = mid + 1;
+            } else {
+                return nodes[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * add the node index of the ranges overlap [begin, end] to result
+     *
+     * @return true if [begin, end] is covered by the ranges
+     */
+    boolean collect(long begin, long end, Set<Integer> result) {
+        if (overlapped) {
+            for (int i = 0; i < starts.length; i++) {
+                if (starts[i] <= end && ends[i] >= begin) {
+                    result.add(nodes[i]);
+                }
+            }
+            return false;
+        }
+        // the first range whose end >= begin
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] < begin) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        boolean covered = true;
+        long next = begin;
+        for (int i = low; i < starts.length && starts[i] <= end; i++) {
+            result.add(nodes[i]);
+            if (starts[i] > next) {
+                covered = false;
+            }
+            if (ends[i] >= end) {
+                return covered;
+            }
+            next = ends[i] + 1;
+        }
+        return false;
+    }
+}
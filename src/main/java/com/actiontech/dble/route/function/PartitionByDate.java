@@ -36,6 +36,7 @@ public class PartitionByDate extends AbstractPartitionAlgorithm implements RuleA
     private int defaultNode = -1;
     private transient ThreadLocal<SimpleDateFormat> formatter;
     private static final long ONE_DAY = 86400000;
+    private static final long MAX_RANGE_PARTITIONS = 1 << 16;
     private int hashCode = -1;
 
     @Override
@@ -122,29 +123,66 @@ public class PartitionByDate extends AbstractPartitionAlgorithm implements RuleA
 
     @Override
     public Integer[] calculateRange(String beginValue, String endValue) {
-        SimpleDateFormat format = new SimpleDateFormat(this.dateFormat);
+        return calculateOpenRange(beginValue, endValue);
+    }
+
+    /**
+     * the partitions between the partition of begin and the partition of end, the partitions are cyclic if sEndDate is set
+     */
+    @Override
+    public Integer[] calculateOpenRange(String beginValue, String endValue) {
+        long begin;
+        long end;
         try {
-            Date begin = format.parse(beginValue);
-            Date end = format.parse(endValue);
-            Calendar cal = Calendar.getInstance();
-            List<Integer> list = new ArrayList<>();
-            while (begin.getTime() <= end.getTime()) {
-                Integer nodeValue = this.calculate(format.format(begin));
-                if (Collections.frequency(list, nodeValue) < 1) list.add(nodeValue);
-                cal.setTime(begin);
-                cal.add(Calendar.DATE, 1);
-                begin = cal.getTime();
+            begin = beginValue == null ? Long.MIN_VALUE : formatter.get().parse(beginValue).getTime();
+            end = endValue == null ? Long.MAX_VALUE : formatter.get().parse(endValue).getTime();
+        } catch (ParseException e) {
+            LOGGER.info("error", e);
+            return new Integer[0];
+        }
+        if (begin > end) {
+            return new Integer[0];
+        }
+        Set<Integer> ids = new LinkedHashSet<>();
+        if (begin < beginDate) {
+            if (defaultNode >= 0) {
+                ids.add(defaultNode);
             }
-
-            Integer[] nodeArray = new Integer[list.size()];
-            for (int i = 0; i < list.size(); i++) {
-                nodeArray[i] = list.get(i);
+            if (end < beginDate) {
+                return ids.toArray(new Integer[ids.size()]);
+            }
+            begin = beginDate;
+        }
+        long beginPartition = (begin - beginDate) / partitionTime;
+        long endPartition = endValue == null ? Long.MAX_VALUE : (end - beginDate) / partitionTime;
+        if (nCount != 0 && endPartition - beginPartition >= nCount - 1) {
+            for (int i = 0; i < nCount; i++) {
+                ids.add(i);
             }
+        } else if (nCount != 0) {
+            for (long i = beginPartition; i <= endPartition; i++) {
+                ids.add((int) (i % nCount));
+            }
+        } else if (endPartition - beginPartition >= MAX_RANGE_PARTITIONS) {
+            // no limit of the partitions without sEndDate
+            return new Integer[0];
+        } else {
+            for (long i = beginPartition; i <= endPartition; i++) {
+                ids.add((int) i);
+            }
+        }
+        return ids.toArray(new Integer[ids.size()]);
+    }
 
-            return nodeArray;
+    @Override
+    public Long rangeKey(String columnValue) {
+        if (columnValue == null) {
+            return null;
+        }
+        try {
+            return formatter.get().parse(columnValue).getTime();
         } catch (ParseException e) {
-            LOGGER.info("error", e);
-            return new Integer[0];
+            return null;
         }
     }
 
@@ -13,6 +13,7 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -37,6 +38,9 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
      * DEFAULT_NODE key
      */
     private static final String DEFAULT_NODE = "DEFAULT_NODE";
+    // the max size of slots for the Integer keys
+    private static final int MAX_SLOT_SIZE = 1 << 16;
+    private static final int EMPTY_SLOT = Integer.MIN_VALUE;
 
     /**
      * defaultNode:-1 means no default node ,other means the default node index
@@ -46,6 +50,10 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
      */
     private int defaultNode = -1;
     private int hashCode = 1;
+    // the partition of Integer key k is slots[k - slotBase], null if the keys are too sparse
+    private int[] slots;
+    private int slotBase;
+    private int defaultPartition = NO_NODE;
 
     @Override
     public void init() {
@@ -78,23 +86,30 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
 
     @Override
     public Integer calculate(String columnValue) {
+        int nodeIndex = calculateIndex(columnValue);
+        return nodeIndex == NO_NODE ? null : nodeIndex;
+    }
+
+    @Override
+    public int calculateIndex(String columnValue) {
         try {
             if (columnValue == null || columnValue.equalsIgnoreCase("NULL")) {
-                return app2Partition.get(DEFAULT_NODE);
+                return defaultPartition;
             }
 
-            Object value = columnValue;
+            Integer pid;
             if (type == 0) {
-                value = Integer.valueOf(columnValue);
-            }
-            Integer rst;
-            Integer pid = app2Partition.get(value);
-            if (pid != null) {
-                rst = pid;
+                int key = Integer.parseInt(columnValue);
+                if (slots != null) {
+                    long slot = (long) key - slotBase;
+                    int rst = slot >= 0 && slot < slots.length ? slots[(int) slot] : EMPTY_SLOT;
+                    return rst == EMPTY_SLOT ? defaultPartition : rst;
+                }
+                pid = app2Partition.get(key);
             } else {
-                rst = app2Partition.get(DEFAULT_NODE);
+                pid = app2Partition.get(columnValue);
             }
-            return rst;
+            return pid != null ? pid : defaultPartition;
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("columnValue:" + columnValue + " Please check if the format satisfied.", e);
         }
@@ -106,6 +121,11 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
         return new Integer[0];
     }
 
+    @Override
+    public Long rangeKey(String columnValue) {
+        return type == 0 ? parseLongKey(columnValue) : null;
+    }
+
     @Override
     public int getPartitionNum() {
         return partitionNum;
@@ -175,6 +195,11 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
             }
             Set<Integer> set = new HashSet<>(app2Partition.values());
             partitionNum = set.size();
+            Integer defaultPid = app2Partition.get(DEFAULT_NODE);
+            defaultPartition = defaultPid == null ? NO_NODE : defaultPid;
+            if (type == 0) {
+                initSlots();
+            }
         } catch (Exception e) {
             if (e instanceof RuntimeException) {
                 throw (RuntimeException) e;
@@ -193,6 +218,29 @@ public class PartitionByFileMap extends AbstractPartitionAlgorithm implements Ru
         }
     }
 
+    private void initSlots() {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Object key : app2Partition.keySet()) {
+            if (key instanceof Integer) {
+                min = Math.min(min, (Integer) key);
+                max = Math.max(max, (Integer) key);
+            }
+        }
+        if (min > max || max - min >= MAX_SLOT_SIZE) {
+            return;
+        }
+        int[] tmpSlots = new int[(int) (max - min + 1)];
+        Arrays.fill(tmpSlots, EMPTY_SLOT);
+        for (Map.Entry<Object, Integer> entry : app2Partition.entrySet()) {
+            if (entry.getKey() instanceof Integer) {
+                tmpSlots[(int) ((Integer) entry.getKey() - min)] = entry.getValue();
+            }
+        }
+        slotBase = (int) min;
+        slots = tmpSlots;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
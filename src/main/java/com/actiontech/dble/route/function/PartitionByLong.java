@@ -39,21 +39,26 @@ public final class PartitionByLong extends AbstractPartitionAlgorithm implements
 
     @Override
     public Integer calculate(String columnValue) {
+        return calculateIndex(columnValue);
+    }
+
+    private Integer calculate(long key) {
+        return partitionUtil.partition(key);
+    }
+
+    @Override
+    public int calculateIndex(String columnValue) {
         try {
             if (columnValue == null || columnValue.equalsIgnoreCase("NULL")) {
                 return 0;
             }
             long key = Long.parseLong(columnValue);
-            return calculate(key);
+            return partitionUtil.partition(key);
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("columnValue:" + columnValue + " Please eliminate any quote and non number within it.", e);
         }
     }
 
-    private Integer calculate(long key) {
-        return partitionUtil.partition(key);
-    }
-
     @Override
     public Integer[] calculateRange(String beginValue, String endValue) {
         long begin;
@@ -97,6 +102,11 @@ public final class PartitionByLong extends AbstractPartitionAlgorithm implements
         }
     }
 
+    @Override
+    public Long rangeKey(String columnValue) {
+        return parseLongKey(columnValue);
+    }
+
     @Override
     public int getPartitionNum() {
         return partitionUtil.getSegmentLength();
@@ -15,7 +15,6 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.HashSet;
 import java.util.LinkedList;
-import java.util.regex.Pattern;
 
 /**
  * auto partition by Long
@@ -29,9 +28,9 @@ public class PartitionByPattern extends AbstractPartitionAlgorithm implements Ru
     private String mapFile = null;
     private String ruleFile = null;
     private LongRange[] longRanges;
+    private LongRangeLookup rangeLookup;
     private Integer[] allNode;
     private int defaultNode = -1; // default node for unexpected value
-    private static final Pattern PATTERN = Pattern.compile("[0-9]*");
     private int hashCode = 1;
 
     @Override
@@ -68,23 +67,25 @@ public class PartitionByPattern extends AbstractPartitionAlgorithm implements Ru
     }
 
     private Integer findNode(long hash) {
-        for (LongRange longRang : this.longRanges) {
-            if (hash <= longRang.getValueEnd() && hash >= longRang.getValueStart()) {
-                return longRang.getNodeIndex();
-            }
-        }
-        return null;
+        int nodeIndex = rangeLookup.find(hash);
+        return nodeIndex < 0 ? null : nodeIndex;
     }
 
     @Override
     public Integer calculate(String columnValue) {
+        int nodeIndex = calculateIndex(columnValue);
+        return nodeIndex == NO_NODE ? null : nodeIndex;
+    }
+
+    @Override
+    public int calculateIndex(String columnValue) {
         if (columnValue == null || columnValue.equalsIgnoreCase("NULL") || !isNumeric(columnValue)) {
-            return defaultNode < 0 ? null : defaultNode;
+            return defaultNode < 0 ? NO_NODE : defaultNode;
         }
 
         long value = Long.parseLong(columnValue);
         long hash = value % patternValue;
-        return findNode(hash);
+        return rangeLookup.find(hash);
     }
 
     /* x2 - x1 < m
@@ -158,13 +159,24 @@ public class PartitionByPattern extends AbstractPartitionAlgorithm implements Ru
         }
     }
 
+    @Override
+    public Long rangeKey(String columnValue) {
+        return columnValue != null && isNumeric(columnValue) ? parseLongKey(columnValue) : null;
+    }
+
     @Override
     public int getPartitionNum() {
         return this.longRanges.length;
     }
 
     private static boolean isNumeric(String str) {
-        return PATTERN.matcher(str).matches();
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     private void initializeAux(LinkedList<LongRange> ll, LongRange lr) {
@@ -238,6 +250,7 @@ public class PartitionByPattern extends AbstractPartitionAlgorithm implements Ru
 
             allNode = ids.toArray(new Integer[ids.size()]);
             longRanges = longRangeList.toArray(new LongRange[longRangeList.size()]);
+            rangeLookup = new LongRangeLookup(longRanges);
             sb.append("}");
             propertiesMap.put("mapFile", sb.toString());
         } catch (Exception e) {
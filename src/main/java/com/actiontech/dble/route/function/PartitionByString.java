@@ -69,6 +69,11 @@ public final class PartitionByString extends AbstractPartitionAlgorithm implemen
 
     @Override
     public Integer calculate(String key) {
+        return calculateIndex(key);
+    }
+
+    @Override
+    public int calculateIndex(String key) {
         if (key == null || key.equalsIgnoreCase("NULL")) {
             return 0;
         }
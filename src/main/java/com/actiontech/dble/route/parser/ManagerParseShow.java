@@ -75,6 +75,7 @@ public final class ManagerParseShow {
     public static final int SHOW_QUESTIONS = 67;
     public static final int DATADISTRIBUTION_WHERE = 68;
     public static final int CONNECTION_POOL_PROPERTY = 69;
+    public static final int BUFFER_POOL = 70;
     public static final Pattern PATTERN_FOR_TABLE_INFO = Pattern.compile("^\\s*schema\\s*=\\s*" +
             "(('|\")((?!`)((?!\\2).))+\\2|[a-zA-Z_0-9\\-]+)" +
             "\\s+and\\s+table\\s*=\\s*" +
@@ -291,6 +292,9 @@ public final class ManagerParseShow {
                 case 'I':
                 case 'i':
                     return show2BinCheck(stmt, offset);
+                case 'U':
+                case 'u':
+                    return show2BufferPoolCheck(stmt, offset);
                 default:
                     return OTHER;
             }
@@ -298,6 +302,30 @@ public final class ManagerParseShow {
         return OTHER;
     }
 
+    // SHOW @@BUFFER_POOL
+    private static int show2BufferPoolCheck(String stmt, int offset) {
+        if (stmt.length() > offset + "FFER_POOL".length()) {
+            char c2 = stmt.charAt(++offset);
+            char c3 = stmt.charAt(++offset);
+            char c4 = stmt.charAt(++offset);
+            char c5 = stmt.charAt(++offset);
+            char c6 = stmt.charAt(++offset);
+            char c7 = stmt.charAt(++offset);
+            char c8 = stmt.charAt(++offset);
+            char c9 = stmt.charAt(++offset);
+            char c10 = stmt.charAt(++offset);
+            if ((c2 == 'F' || c2 == 'f') && (c3 == 'F' || c3 == 'f') &&
+                    (c4 == 'E' || c4 == 'e') && (c5 == 'R' || c5 == 'r') && (c6 == '_') && (c7 == 'P' || c7 == 'p') &&
+                    (c8 == 'O' || c8 == 'o') && (c9 == 'O' || c9 == 'o') && (c10 == 'L' || c10 == 'l')) {
+                if (ParseUtil.isErrorTail(++offset, stmt)) {
+                    return OTHER;
+                }
+                return BUFFER_POOL;
+            }
+        }
+        return OTHER;
+    }
+
     // SHOW @@BINLOG.STATUS
     private static int show2BinCheck(String stmt, int offset) {
         if (stmt.length() > offset + "NLOG.STATUS".length()) {
@@ -322,13 +322,19 @@ public class ServerSchemaStatVisitor extends MySqlSchemaStatVisitor {
                     whereUnits.add(whereUnit);
                 }
                 return false;
-            case Like:
-            case NotLike:
-            case NotEqual:
             case GreaterThan:
             case GreaterThanOrEqual:
             case LessThan:
             case LessThanOrEqual:
+                if (!inSelect && !inOuterJoin) {
+                    // 1 < a is the same as a > 1
+                    handleCondition(x.getLeft(), x.getOperator().name, x.getRight());
+                    handleCondition(x.getRight(), reverseOperator(x.getOperator()).name, x.getLeft());
+                }
+                break;
+            case Like:
+            case NotLike:
+            case NotEqual:
             default:
                 break;
         }
@@ -497,6 +503,21 @@ public class ServerSchemaStatVisitor extends MySqlSchemaStatVisitor {
         return null;
     }
 
+    private static SQLBinaryOperator reverseOperator(SQLBinaryOperator operator) {
+        switch (operator) {
+            case GreaterThan:
+                return SQLBinaryOperator.LessThan;
+            case GreaterThanOrEqual:
+                return SQLBinaryOperator.LessThanOrEqual;
+            case LessThan:
+                return SQLBinaryOperator.GreaterThan;
+            case LessThanOrEqual:
+                return SQLBinaryOperator.GreaterThanOrEqual;
+            default:
+                return operator;
+        }
+    }
+
     @Override
     protected void handleCondition(SQLExpr expr, String operator, SQLExpr... valueExprs) {
         if (expr instanceof SQLCastExpr) {
@@ -5,6 +5,9 @@
 
 package com.actiontech.dble.route.parser.druid.impl;
 
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.nio.handler.FetchStoreNodeOfChildTableHandler;
+import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
 import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
@@ -13,6 +16,7 @@ import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
 import com.actiontech.dble.config.privileges.ShardingPrivileges;
 import com.actiontech.dble.config.privileges.ShardingPrivileges.CheckType;
 import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.net.ConnectionException;
 import com.actiontech.dble.plan.common.ptr.StringPtr;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
@@ -20,8 +24,10 @@ import com.actiontech.dble.route.parser.druid.ServerSchemaStatVisitor;
 import com.actiontech.dble.route.parser.util.Pair;
 import com.actiontech.dble.route.util.RouterUtil;
 import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.handler.ExplainHandler;
 import com.actiontech.dble.server.util.SchemaUtil;
 import com.actiontech.dble.server.util.SchemaUtil.SchemaInfo;
+import com.actiontech.dble.singleton.InsertBatcher;
 import com.actiontech.dble.singleton.ProxyMeta;
 import com.actiontech.dble.singleton.SequenceManager;
 import com.actiontech.dble.util.StringUtil;
@@ -36,6 +42,7 @@ import com.alibaba.druid.sql.ast.statement.SQLSelect;
 import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
 import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
 import com.alibaba.druid.sql.parser.SQLStatementParser;
 
 import java.sql.SQLException;
@@ -179,20 +186,19 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         final SchemaConfig schema = schemaInfo.getSchemaConfig();
         String tableName = schemaInfo.getTable();
         final ChildTableConfig tc = (ChildTableConfig) (schema.getTables().get(tableName));
-        if (isMultiInsert(insertStmt)) {
-            String msg = "ChildTable multi insert not provided";
-            LOGGER.info(msg);
-            throw new SQLNonTransientException(msg);
-        }
         String joinColumn = tc.getJoinColumn();
         int joinColumnIndex = getJoinColumnIndex(schemaInfo, insertStmt, joinColumn);
+        if (isMultiInsert(insertStmt)) {
+            parserBatchChildInsert(schemaInfo, rrs, insertStmt, sc, joinColumnIndex, isExplain);
+            return;
+        }
         final String joinColumnVal = insertStmt.getValues().getValues().get(joinColumnIndex).toString();
         String realVal = StringUtil.removeApostrophe(joinColumnVal);
         final String sql = RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema());
         rrs.setStatement(sql);
         // try to route by ER parent partion key
         RouteResultset theRrs = routeByERParentColumn(rrs, tc, realVal, schemaInfo);
-        if (theRrs != null) {
+        if (theRrs != null || routeByParentLocationCache(rrs, tc, realVal)) {
             rrs.setFinishedRoute(true);
         } else {
             rrs.setFinishedExecute(true);
@@ -201,6 +207,114 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
     }
 
 
+    /**
+     * insert into childTable() values (),(),....
+     * the rows are grouped by the shardingNode of the join key, the join keys not in the parent location cache
+     * are found by one query for each shardingNode of the root parent
+     */
+    private void parserBatchChildInsert(SchemaInfo schemaInfo, final RouteResultset rrs, final MySqlInsertStatement insertStmt,
+                                        final ServerConnection sc, int joinColumnIndex, boolean isExplain) throws SQLNonTransientException {
+        final ChildTableConfig tc = (ChildTableConfig) (schemaInfo.getSchemaConfig().getTables().get(schemaInfo.getTable()));
+        int columnNum = getTableColumns(schemaInfo, insertStmt.getColumns());
+        final Map<String, List<ValuesClause>> nodeValuesMap = new LinkedHashMap<>();
+        // the join key value -> the rows whose shardingNode is unknown
+        final Map<String, List<ValuesClause>> keyValuesMap = new LinkedHashMap<>();
+        for (ValuesClause valueClause : insertStmt.getValuesList()) {
+            if (valueClause.getValues().size() != columnNum) {
+                String msg = "bad insert sql columnSize != valueSize:" + columnNum + " != " + valueClause.getValues().size() + "values:" + valueClause;
+                LOGGER.info(msg);
+                throw new SQLNonTransientException(msg);
+            }
+            String joinColumnVal = StringUtil.removeApostrophe(valueClause.getValues().get(joinColumnIndex).toString());
+            String dn;
+            if (tc.getDirectRouteTC() != null) {
+                dn = calculateERParentNode(rrs, tc, joinColumnVal, schemaInfo);
+            } else {
+                dn = getCachedParentNode(tc, joinColumnVal);
+            }
+            if (dn == null) {
+                keyValuesMap.putIfAbsent(joinColumnVal, new ArrayList<>());
+                keyValuesMap.get(joinColumnVal).add(valueClause);
+            } else {
+                nodeValuesMap.putIfAbsent(dn, new ArrayList<>());
+                nodeValuesMap.get(dn).add(valueClause);
+            }
+        }
+        if (keyValuesMap.isEmpty()) {
+            setChildNodes(schemaInfo.getSchema(), rrs, insertStmt, nodeValuesMap);
+            rrs.setFinishedRoute(true);
+            return;
+        }
+        rrs.setStatement(RouterUtil.removeSchema(statementToString(insertStmt), schemaInfo.getSchema()));
+        rrs.setFinishedExecute(true);
+        final String schemaName = schemaInfo.getSchema();
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+            //get child result will be blocked, so use ComplexQueryExecutor
+            @Override
+            public void run() {
+                try {
+                    fetchParentNodes(tc, schemaName, joinColumnIndex, keyValuesMap, nodeValuesMap, sc);
+                    setChildNodes(schemaName, rrs, insertStmt, nodeValuesMap);
+                    if (isExplain) {
+                        ExplainHandler.writeOutHeadAndEof(sc, rrs);
+                    } else {
+                        sc.getSession2().execute(rrs);
+                    }
+                } catch (ConnectionException e) {
+                    sc.setTxInterrupt(e.toString());
+                    sc.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, e.toString());
+                } catch (SQLNonTransientException e) {
+                    sc.writeErrMessage(ErrorCode.ER_UNKNOWN_ERROR, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * find the shardingNodes of the join keys by one query for each shardingNode of the root parent,
+     * and move the rows from keyValuesMap to nodeValuesMap
+     */
+    private void fetchParentNodes(ChildTableConfig tc, String schemaName, int joinColumnIndex, Map<String, List<ValuesClause>> keyValuesMap,
+                                  Map<String, List<ValuesClause>> nodeValuesMap, ServerConnection sc) throws ConnectionException, SQLNonTransientException {
+        StringBuilder sql = new StringBuilder(tc.getLocateRTableKeysSql());
+        for (List<ValuesClause> rows : keyValuesMap.values()) {
+            sql.append(rows.get(0).getValues().get(joinColumnIndex)).append(',');
+        }
+        sql.setCharAt(sql.length() - 1, ')');
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("to find root parent's nodes sql :" + sql);
+        }
+        FetchStoreNodeOfChildTableHandler fetchHandler = new FetchStoreNodeOfChildTableHandler(sql.toString(), sc.getSession2());
+        Map<String, String> keyNodes = fetchHandler.executeKeys(tc.getRootParent().getShardingNodes(), keyValuesMap.size());
+        for (Map.Entry<String, List<ValuesClause>> entry : keyValuesMap.entrySet()) {
+            String dn = keyNodes.get(entry.getKey());
+            if (dn == null) {
+                // the value returned may be formatted differently from the value in sql, such as decimal
+                String findRootTBSql = tc.getLocateRTableKeySql() + entry.getValue().get(0).getValues().get(joinColumnIndex);
+                dn = new FetchStoreNodeOfChildTableHandler(findRootTBSql, sc.getSession2()).execute(schemaName, tc.getRootParent().getShardingNodes());
+            }
+            if (dn == null) {
+                throw new SQLNonTransientException("can't find (root) parent sharding node for the join key:" + entry.getKey());
+            }
+            cacheParentNode(tc, entry.getKey(), dn);
+            nodeValuesMap.putIfAbsent(dn, new ArrayList<>());
+            nodeValuesMap.get(dn).addAll(entry.getValue());
+        }
+    }
+
+    private void setChildNodes(String schemaName, RouteResultset rrs, MySqlInsertStatement insertStmt,
+                               Map<String, List<ValuesClause>> nodeValuesMap) {
+        RouteResultsetNode[] nodes = new RouteResultsetNode[nodeValuesMap.size()];
+        int count = 0;
+        for (Map.Entry<String, List<ValuesClause>> node : nodeValuesMap.entrySet()) {
+            insertStmt.getValuesList().clear();
+            insertStmt.getValuesList().addAll(node.getValue());
+            nodes[count++] = new RouteResultsetNode(node.getKey(), rrs.getSqlType(),
+                    RouterUtil.removeSchema(statementToString(insertStmt), schemaName));
+        }
+        rrs.setNodes(nodes);
+    }
+
     /**
      * @param schemaInfo      SchemaInfo
      * @param rrs             RouteResultset
@@ -216,8 +330,8 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         String shardingValue = shardingValueToSting(valueExpr, clientCharset);
         ShardingTableConfig tableConfig = (ShardingTableConfig) (schemaInfo.getSchemaConfig().getTables().get(schemaInfo.getTable()));
         checkDefaultValues(shardingValue, tableConfig.getName(), schemaInfo.getSchema(), partitionColumn);
-        Integer nodeIndex = tableConfig.getFunction().calculate(shardingValue);
-        if (nodeIndex == null || nodeIndex >= tableConfig.getShardingNodes().size()) {
+        int nodeIndex = tableConfig.getFunction().calculateIndex(shardingValue);
+        if (nodeIndex < 0 || nodeIndex >= tableConfig.getShardingNodes().size()) {
             String msg = "can't find any valid shardingNode :" + schemaInfo.getTable() + " -> " + partitionColumn + " -> " + shardingValue;
             LOGGER.info(msg);
             throw new SQLNonTransientException(msg);
@@ -244,6 +358,29 @@ public class DruidInsertParser extends DruidInsertReplaceParser {
         }
         rrs.setNodes(nodes);
         rrs.setFinishedRoute(true);
+        if (insertStmt.getDuplicateKeyUpdate().isEmpty() && !insertStmt.isIgnore() &&
+                InsertBatcher.getInstance().isBatchTable(schemaInfo.getSchema(), schemaInfo.getTable())) {
+            TableMeta tableMeta = ProxyMeta.getInstance().getTmManager().getSyncTableMeta(schemaInfo.getSchema(), schemaInfo.getTable());
+            if (tableMeta != null && tableMeta.isInsertCoalescable()) {
+                setInsertBatch(rrs, nodes[0].getStatement(), insertStmt.getValues());
+            }
+        }
+    }
+
+    /**
+     * the statement of the node is split into "INSERT INTO t (..) VALUES " and the row, so that
+     * the rows of the same header can be coalesced.
+     * the row calling LAST_INSERT_ID(expr) is not coalesced, its insert id can't be split from the batch
+     */
+    private void setInsertBatch(RouteResultset rrs, String sql, ValuesClause values) {
+        StringBuilder buf = new StringBuilder();
+        MySqlOutputVisitor visitor = new MySqlOutputVisitor(buf);
+        visitor.setShardingSupport(false);
+        values.accept(visitor);
+        String row = buf.toString();
+        if (sql.endsWith(row) && !row.toUpperCase().contains("LAST_INSERT_ID")) {
+            rrs.setInsertBatch(sql.substring(0, sql.length() - row.length()), row);
+        }
     }
 
     /**
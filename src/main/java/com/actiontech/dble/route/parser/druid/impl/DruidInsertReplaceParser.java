@@ -8,6 +8,7 @@ package com.actiontech.dble.route.parser.druid.impl;
 import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.backend.mysql.CharsetUtil;
 import com.actiontech.dble.backend.mysql.nio.handler.FetchStoreNodeOfChildTableHandler;
+import com.actiontech.dble.cache.ParentLocationCache;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
 import com.actiontech.dble.config.model.sharding.table.*;
@@ -208,6 +209,7 @@ abstract class DruidInsertReplaceParser extends DruidModifyParser {
                     if (LOGGER.isDebugEnabled()) {
                         LOGGER.debug("found partition node for child table to insert " + dn + " sql :" + sql);
                     }
+                    cacheParentNode(tc, StringUtil.removeApostrophe(joinColumnVal), dn);
                     RouterUtil.routeToSingleNode(rrs, dn);
                     if (isExplain) {
                         ExplainHandler.writeOutHeadAndEof(sc, rrs);
@@ -222,6 +224,49 @@ abstract class DruidInsertReplaceParser extends DruidModifyParser {
         });
     }
 
+    /**
+     * @return the shardingNode of the join key value in the ParentLocationCache of the child table, null if not cached
+     */
+    static String getCachedParentNode(ChildTableConfig tc, String joinKeyValue) {
+        ParentLocationCache cache = tc.getParentLocationCache();
+        Long key = parentCacheKey(joinKeyValue);
+        if (cache == null || key == null) {
+            return null;
+        }
+        int nodeIndex = cache.get(key);
+        return nodeIndex == ParentLocationCache.MISS ? null : tc.getRootParent().getShardingNodes().get(nodeIndex);
+    }
+
+    static boolean routeByParentLocationCache(RouteResultset rrs, ChildTableConfig tc, String joinKeyValue) {
+        String dn = getCachedParentNode(tc, joinKeyValue);
+        if (dn == null) {
+            return false;
+        }
+        RouterUtil.routeToSingleNode(rrs, dn);
+        return true;
+    }
+
+    static void cacheParentNode(ChildTableConfig tc, String joinKeyValue, String shardingNode) {
+        ParentLocationCache cache = tc.getParentLocationCache();
+        Long key = parentCacheKey(joinKeyValue);
+        int nodeIndex = tc.getRootParent().getShardingNodes().indexOf(shardingNode);
+        if (cache != null && key != null && nodeIndex >= 0) {
+            cache.put(key, nodeIndex);
+        }
+    }
+
+    /**
+     * only the canonical integer is cached, because '007' and '7' are different values of a char column
+     */
+    private static Long parentCacheKey(String joinKeyValue) {
+        try {
+            long key = Long.parseLong(joinKeyValue);
+            return String.valueOf(key).equals(joinKeyValue) ? key : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     String getErrorMsg() {
         return MODIFY_SQL_NOT_SUPPORT_MESSAGE;
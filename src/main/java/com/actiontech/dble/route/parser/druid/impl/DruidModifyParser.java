@@ -451,13 +451,7 @@ abstract class DruidModifyParser extends DefaultDruidParser {
     static RouteResultset routeByERParentColumn(RouteResultset rrs, ChildTableConfig tc, String joinColumnVal, SchemaUtil.SchemaInfo schemaInfo)
             throws SQLNonTransientException {
         if (tc.getDirectRouteTC() != null) {
-            ColumnRoute columnRoute = new ColumnRoute(joinColumnVal);
-            checkDefaultValues(joinColumnVal, tc.getName(), schemaInfo.getSchema(), tc.getJoinColumn());
-            Set<String> shardingNodeSet = RouterUtil.ruleCalculate(rrs, tc.getDirectRouteTC(), columnRoute, false);
-            if (shardingNodeSet.size() != 1) {
-                throw new SQLNonTransientException("parent key can't find  valid data node ,expect 1 but found: " + shardingNodeSet.size());
-            }
-            String dn = shardingNodeSet.iterator().next();
+            String dn = calculateERParentNode(rrs, tc, joinColumnVal, schemaInfo);
             if (SQLJob.LOGGER.isDebugEnabled()) {
                 SQLJob.LOGGER.debug("found partion node (using parent partition rule directly) for child table to insert  " + dn + " sql :" + rrs.getStatement());
             }
@@ -466,6 +460,20 @@ abstract class DruidModifyParser extends DefaultDruidParser {
         return null;
     }
 
+    /**
+     * calculate the shardingNode of the join key value by the rule of tc.getDirectRouteTC()
+     */
+    static String calculateERParentNode(RouteResultset rrs, ChildTableConfig tc, String joinColumnVal, SchemaUtil.SchemaInfo schemaInfo)
+            throws SQLNonTransientException {
+        ColumnRoute columnRoute = new ColumnRoute(joinColumnVal);
+        checkDefaultValues(joinColumnVal, tc.getName(), schemaInfo.getSchema(), tc.getJoinColumn());
+        Set<String> shardingNodeSet = RouterUtil.ruleCalculate(rrs, tc.getDirectRouteTC(), columnRoute, false);
+        if (shardingNodeSet.size() != 1) {
+            throw new SQLNonTransientException("parent key can't find  valid data node ,expect 1 but found: " + shardingNodeSet.size());
+        }
+        return shardingNodeSet.iterator().next();
+    }
+
     private static ArrayList<String> findAliasByMap(Map<String, String> tableAliasMap, String name) {
         ArrayList<String> x = new ArrayList<>();
         for (Map.Entry<String, String> entry : tableAliasMap.entrySet()) {
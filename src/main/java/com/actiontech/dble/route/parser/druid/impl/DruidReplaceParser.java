@@ -17,6 +17,7 @@ import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.plan.common.ptr.StringPtr;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
 import com.actiontech.dble.route.parser.druid.ServerSchemaStatVisitor;
 import com.actiontech.dble.route.parser.util.Pair;
 import com.actiontech.dble.route.util.RouterUtil;
@@ -293,7 +294,7 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
         rrs.setStatement(sql);
         // try to route by ER parent partition key
         RouteResultset theRrs = routeByERParentColumn(rrs, tc, realVal, schemaInfo);
-        if (theRrs != null) {
+        if (theRrs != null || routeByParentLocationCache(rrs, tc, realVal)) {
             rrs.setFinishedRoute(true);
         } else {
             rrs.setFinishedExecute(true);
@@ -389,8 +390,8 @@ public class DruidReplaceParser extends DruidInsertReplaceParser {
         SQLExpr valueExpr = replaceStatement.getValuesList().get(0).getValues().get(shardingColIndex);
         String shardingValue = shardingValueToSting(valueExpr, clientCharset);
         ShardingTableConfig tableConfig = (ShardingTableConfig) (schemaInfo.getSchemaConfig().getTables().get(schemaInfo.getTable()));
-        Integer nodeIndex = tableConfig.getFunction().calculate(shardingValue);
-        if (nodeIndex == null) {
+        int nodeIndex = tableConfig.getFunction().calculateIndex(shardingValue);
+        if (nodeIndex == AbstractPartitionAlgorithm.NO_NODE) {
             String msg = "can't find any valid shardingNode :" + schemaInfo.getTable() + " -> " + partitionColumn + " -> " + shardingValue;
             LOGGER.info(msg);
             throw new SQLNonTransientException(msg);
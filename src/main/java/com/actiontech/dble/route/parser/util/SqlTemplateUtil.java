@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import java.util.List;
+
+/**
+ * normalize the sql into the template whose integer and string literals are replaced by '?',
+ * the statements only different in the literals share one template.
+ */
+public final class SqlTemplateUtil {
+    private SqlTemplateUtil() {
+    }
+
+    /**
+     * @param sql      the sql
+     * @param literals the stripped literals in the order of the sql, the quotes of string are removed
+     * @return the template, null if the sql contains comment, '?' or the literal whose value is not the same as its text
+     */
+    public static String normalize(String sql, List<String> literals) {
+        int length = sql.length();
+        StringBuilder sb = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            switch (c) {
+                case '\'': {
+                    // X'..', N'..', _utf8'..' and so on
+                    if (i > 0 && isIdentifierChar(sql.charAt(i - 1))) {
+                        return null;
+                    }
+                    int end = findQuoteEnd(sql, i);
+                    if (end < 0) {
+                        return null;
+                    }
+                    literals.add(sql.substring(i + 1, end));
+                    sb.append('?');
+                    i = end + 1;
+                    continue;
+                }
+                case '"':
+                case '`': {
+                    // "..." may be identifier in ANSI_QUOTES mode, keep it
+                    int end = findQuoteEnd(sql, i);
+                    if (end < 0) {
+                        return null;
+                    }
+                    sb.append(sql, i, end + 1);
+                    i = end + 1;
+                    continue;
+                }
+                case '?':
+                case '#':
+                    return null;
+                case '/':
+                    if (i + 1 < length && sql.charAt(i + 1) == '*') {
+                        return null;
+                    }
+                    break;
+                case '-':
+                    if (i + 1 < length && sql.charAt(i + 1) == '-') {
+                        return null;
+                    }
+                    break;
+                default:
+                    if (c >= '0' && c <= '9' && (i == 0 || !isIdentifierChar(sql.charAt(i - 1)))) {
+                        int end = i + 1;
+                        while (end < length && (isIdentifierChar(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                            end++;
+                        }
+                        if (isPlainInteger(sql, i, end)) {
+                            literals.add(sql.substring(i, end));
+                            sb.append('?');
+                        } else {
+                            // 1.5, 1e3, 0x1F, 007 are kept in the template
+                            sb.append(sql, i, end);
+                        }
+                        i = end;
+                        continue;
+                    }
+                    break;
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the index of the close quote, -1 if not found or the content has escaped char
+     */
+    private static int findQuoteEnd(String sql, int start) {
+        char quote = sql.charAt(start);
+        for (int i = start + 1; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                return -1;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    // doubled quote
+                    return -1;
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isPlainInteger(String sql, int start, int end) {
+        if (sql.charAt(start) == '0') {
+            return end - start == 1;
+        }
+        for (int i = start; i < end; i++) {
+            char c = sql.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        // the same as the text of SQLIntegerExpr
+        return end - start < 19;
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '$' || c > 0x7f;
+    }
+}
@@ -20,10 +20,17 @@ public class Counter {
     AtomicLong curVal = new AtomicLong(0);
     //max seg value of this time,if the curVal equals this value than need to find a new segment
     long maxSegValue;
+    //the value returned when the next segment should be prefetched, -1 if no prefetch
+    final long prefetchValue;
 
     public Counter(long start, long maxSegValue) {
+        this(start, maxSegValue, -1);
+    }
+
+    public Counter(long start, long maxSegValue, long prefetchValue) {
         LOGGER.info("new counter " + start + "  " + maxSegValue);
         this.maxSegValue = maxSegValue;
+        this.prefetchValue = prefetchValue;
         curVal = new AtomicLong(start);
     }
 
@@ -89,7 +89,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
     public void okResponse(byte[] ok, BackendConnection conn) {
         boolean executeResponse = conn.syncAndExecute();
         if (executeResponse) {
-            ((SequenceVal) conn.getAttachment()).dbfinished = true;
+            ((SequenceVal) conn.getAttachment()).setDbFinished();
             conn.release();
         }
 
@@ -116,7 +116,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
 
     @Override
     public void rowEofResponse(byte[] eof, boolean isLeft, BackendConnection conn) {
-        ((SequenceVal) conn.getAttachment()).dbfinished = true;
+        ((SequenceVal) conn.getAttachment()).setDbFinished();
         conn.release();
     }
 
@@ -124,7 +124,7 @@ public class FetchMySQLSequenceHandler implements ResponseHandler {
         SequenceVal seqVal = ((SequenceVal) attachment);
         IncrSequenceMySQLHandler.LATEST_ERRORS.put(seqVal.seqName, errMsg);
         seqVal.dbretVal = null;
-        seqVal.dbfinished = true;
+        seqVal.setDbFinished();
     }
 
     @Override
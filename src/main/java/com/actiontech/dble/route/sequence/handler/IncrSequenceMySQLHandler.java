@@ -5,6 +5,7 @@
 
 package com.actiontech.dble.route.sequence.handler;
 
+import com.actiontech.dble.DbleServer;
 import com.actiontech.dble.config.ConfigFileName;
 import com.actiontech.dble.config.util.ConfigException;
 import com.actiontech.dble.route.util.PropertiesUtil;
@@ -75,10 +76,20 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
 
     }
 
-    private Long getNextValidSeqVal(SequenceVal seqVal) throws SQLNonTransientException {
-        long nexVal = seqVal.counter.getNext();
+    private long getNextValidSeqVal(SequenceVal seqVal) throws SQLNonTransientException {
+        Counter counter = seqVal.counter;
+        if (counter == null) {
+            // the first fetch failed
+            return getSeqValueFromDB(seqVal);
+        }
+        long nexVal = counter.getNext();
         if (nexVal != -1) {
+            if (nexVal == counter.prefetchValue) {
+                prefetch(seqVal);
+            }
             return nexVal;
+        } else if (seqVal.switchToPrefetched(counter)) {
+            return getNextValidSeqVal(seqVal);
         } else {
             return getSeqValueFromDB(seqVal);
         }
@@ -87,61 +98,77 @@ public class IncrSequenceMySQLHandler implements SequenceHandler {
     private long getSeqValueFromDB(SequenceVal seqVal) throws SQLNonTransientException {
         if (seqVal.fetching.compareAndSet(false, true)) {
             //if get the lock ,connect to mysql and get next
-            return this.execSeqFetcher(seqVal);
+            this.execSeqFetcher(seqVal);
         } else {
             //other who does get the lock just wait for awhile
-            return this.waitForResult(seqVal);
+            seqVal.waitOtherFinish();
         }
+        return this.getNextValidSeqVal(seqVal);
     }
 
     /**
-     * get the next segment & get the value[0]
+     * get the next segment as the current one
      *
      * @param seqVal
-     * @return
      * @throws SQLNonTransientException
      */
-    private long execSeqFetcher(SequenceVal seqVal) throws SQLNonTransientException {
+    private void execSeqFetcher(SequenceVal seqVal) throws SQLNonTransientException {
         try {
-            seqVal.dbretVal = null;
-            seqVal.dbfinished = false;
-            mysqlSeqFetcher.execute(seqVal);
-            Long[] values = seqVal.waitFinish();
-
-            //check if the result is right
-            if (values == null) {
-                throw new RuntimeException("can't fetch sequence in db,sequence :" + seqVal.seqName + " detail:" +
-                        mysqlSeqFetcher.getLastError(seqVal.seqName));
-            } else if (values[0] == 0) {
-                String msg = "sequence," + seqVal.seqName + " has not been set, please check configure in dble_sequence";
-                LOGGER.info(msg);
-                throw new SQLNonTransientException(msg);
-            } else {
-                //if the result is OK just return the first value
-                seqVal.setNewCounter(values[0], values[1]);
-                return values[0];
-            }
-        } catch (Exception e) {
-            throw e;
+            Long[] values = fetchSegment(seqVal);
+            seqVal.setNewCounter(values[0], values[1]);
         } finally {
             seqVal.signalAll();
         }
     }
 
     /**
-     * waiting for the packet exec to finish and get the next value
+     * fetch the next segments in background until there are enough for the consuming rate,
+     * the callers wait only if they use up the current segment before it is done
      *
      * @param seqVal
-     * @return
-     * @throws SQLNonTransientException
      */
-    private long waitForResult(SequenceVal seqVal) throws SQLNonTransientException {
-        seqVal.waitOtherFinish();
-        return this.getNextValidSeqVal(seqVal);
+    private void prefetch(final SequenceVal seqVal) {
+        if (!seqVal.fetching.compareAndSet(false, true)) {
+            return;
+        }
+        DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (seqVal.needPrefetch()) {
+                        Long[] values = fetchSegment(seqVal);
+                        seqVal.addPrefetchedCounter(values[0], values[1]);
+                    }
+                } catch (Exception e) {
+                    LOGGER.info("prefetch sequence " + seqVal.seqName + " failed", e);
+                } finally {
+                    seqVal.signalAll();
+                }
+            }
+        });
     }
 
-}
-
-
-
+    /**
+     * @return the segment [values[0], values[1])
+     */
+    private Long[] fetchSegment(SequenceVal seqVal) throws SQLNonTransientException {
+        seqVal.dbretVal = null;
+        seqVal.dbfinished = false;
+        long start = System.nanoTime();
+        mysqlSeqFetcher.execute(seqVal);
+        Long[] values = seqVal.waitFinish();
+
+        //check if the result is right
+        if (values == null) {
+            throw new RuntimeException("can't fetch sequence in db,sequence :" + seqVal.seqName + " detail:" +
+                    mysqlSeqFetcher.getLastError(seqVal.seqName));
+        } else if (values[0] == 0) {
+            String msg = "sequence," + seqVal.seqName + " has not been set, please check configure in dble_sequence";
+            LOGGER.info(msg);
+            throw new SQLNonTransientException(msg);
+        }
+        seqVal.setLastFetchNanos(System.nanoTime() - start);
+        return values;
+    }
 
+}
@@ -5,6 +5,11 @@
 
 package com.actiontech.dble.route.sequence.handler;
 
+import com.actiontech.dble.config.model.ClusterConfig;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
@@ -13,9 +18,10 @@ import java.util.concurrent.locks.ReentrantLock;
  * Created by huqing.yan on 2017/7/3.
  */
 public class SequenceVal {
+    private static final int MAX_PREFETCH_DEPTH = 8;
+    private static final long FETCH_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
 
-
-    Counter counter = null;
+    volatile Counter counter = null;
     //exec fetch sql result
     volatile String dbretVal = null;
     //exec fetch sql flag
@@ -31,6 +37,14 @@ public class SequenceVal {
     final String sql;
     private ReentrantLock executeLock = new ReentrantLock();
     private Condition condRelease = executeLock.newCondition();
+    private Condition condFinished = executeLock.newCondition();
+
+    //the segments fetched in background, used after the current one
+    private final Queue<Counter> prefetched = new ConcurrentLinkedQueue<>();
+    //how many segments are prefetched, adapted to the rate of consuming
+    private volatile int prefetchDepth = 1;
+    private volatile long lastFetchNanos;
+    private long counterStartNanos;
 
     public SequenceVal(String seqName, String shardingNode) {
         this.seqName = seqName;
@@ -38,33 +52,93 @@ public class SequenceVal {
         sql = "SELECT dble_seq_nextval('" + seqName + "')";
     }
 
-
-    public void setNewCounter(long start, long end) {
-        counter = new Counter(start, end);
+    /**
+     * the values of the new segment are [start, end)
+     */
+    public synchronized void setNewCounter(long start, long end) {
+        installCounter(newCounter(start, end));
         successFetched = true;
     }
 
+    public void addPrefetchedCounter(long start, long end) {
+        prefetched.offer(newCounter(start, end));
+        executeLock.lock();
+        try {
+            condRelease.signalAll();
+        } finally {
+            executeLock.unlock();
+        }
+    }
+
+    /**
+     * @return false if the exhausted counter is still in use and there is no prefetched segment
+     */
+    public synchronized boolean switchToPrefetched(Counter exhausted) {
+        if (counter != exhausted) {
+            return true;
+        }
+        Counter next = prefetched.poll();
+        if (next == null) {
+            return false;
+        }
+        installCounter(next);
+        return true;
+    }
+
+    public boolean needPrefetch() {
+        return prefetched.size() < prefetchDepth;
+    }
+
+    private Counter newCounter(long start, long end) {
+        int percent = ClusterConfig.getInstance().getSequencePrefetchPercent();
+        long prefetchValue = percent == 0 ? -1 : start + (end - start - 1) * percent / 100;
+        return new Counter(start - 1, end, prefetchValue);
+    }
+
+    private void installCounter(Counter newCounter) {
+        long now = System.nanoTime();
+        if (counter != null) {
+            // prefetch the segments consumed during one fetch
+            long used = Math.max(now - counterStartNanos, 1);
+            prefetchDepth = (int) Math.min(MAX_PREFETCH_DEPTH, 1 + lastFetchNanos / used);
+        }
+        counterStartNanos = now;
+        counter = newCounter;
+    }
+
+    public void setLastFetchNanos(long lastFetchNanos) {
+        this.lastFetchNanos = lastFetchNanos;
+    }
+
     public Long[] waitFinish() {
-        long start = System.currentTimeMillis();
-        long end = start + 10 * 1000;
-        while (System.currentTimeMillis() < end) {
-            if (dbfinished) {
-                if (dbretVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(dbretVal)) {
-                    break;
-                }
-                String[] items = dbretVal.split(",");
-                long curValue = Long.parseLong(items[0]);
-                int span = Integer.parseInt(items[1]);
-                return new Long[]{curValue, curValue + span};
-            } else {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    IncrSequenceMySQLHandler.LOGGER.info("wait db fetch sequnce err " + e);
-                }
+        executeLock.lock();
+        try {
+            long remaining = FETCH_TIMEOUT;
+            while (!dbfinished && remaining > 0) {
+                remaining = condFinished.awaitNanos(remaining);
             }
+        } catch (InterruptedException e) {
+            IncrSequenceMySQLHandler.LOGGER.info("wait db fetch sequnce err " + e);
+        } finally {
+            executeLock.unlock();
+        }
+        if (!dbfinished || dbretVal == null || IncrSequenceMySQLHandler.ERR_SEQ_RESULT.equals(dbretVal)) {
+            return null;
+        }
+        String[] items = dbretVal.split(",");
+        long curValue = Long.parseLong(items[0]);
+        int span = Integer.parseInt(items[1]);
+        return new Long[]{curValue, curValue + span};
+    }
+
+    public void setDbFinished() {
+        executeLock.lock();
+        try {
+            dbfinished = true;
+            condFinished.signalAll();
+        } finally {
+            executeLock.unlock();
         }
-        return null;
     }
 
     public boolean isSuccessFetched() {
@@ -74,7 +148,7 @@ public class SequenceVal {
     public void waitOtherFinish() {
         executeLock.lock();
         try {
-            while (fetching.get()) {
+            while (fetching.get() && prefetched.isEmpty()) {
                 condRelease.await();
             }
         } catch (Exception e) {
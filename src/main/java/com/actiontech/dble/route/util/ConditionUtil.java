@@ -117,10 +117,10 @@ public final class ConditionUtil {
         }
 
         String operator = condition.getOperator();
-        //execute only between ,in and = is
-        if (!operator.equalsIgnoreCase("between") && !operator.equals("=") && !operator.equalsIgnoreCase("in") && !operator.equalsIgnoreCase("IS")) {
+        //execute only between ,in, =, is and range
+        if (!isRouteOperator(operator)) {
             if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("condition [" + condition + "] will be pruned for operator is not [between,=,in,IS]");
+                LOGGER.trace("condition [" + condition + "] will be pruned for operator is not [between,=,in,IS,>,>=,<,<=]");
             }
             return null;
         }
@@ -346,6 +346,9 @@ public final class ConditionUtil {
             if (operator.equalsIgnoreCase("between")) {
                 RangeValue rv = new RangeValue(values.get(0), values.get(1));
                 routeCalculateUnit.addShardingExpr(table, columnName, rv);
+            } else if (isRangeOperator(operator)) {
+                RangeValue rv = operator.startsWith(">") ? new RangeValue(values.get(0), null) : new RangeValue(null, values.get(0));
+                routeCalculateUnit.addShardingExpr(table, columnName, rv);
             } else if (operator.equals("=")) {
                 routeCalculateUnit.addShardingExpr(table, columnName, values.get(0));
             } else if (operator.equalsIgnoreCase("in")) {
@@ -357,6 +360,15 @@ public final class ConditionUtil {
         }
     }
 
+    private static boolean isRouteOperator(String operator) {
+        return operator.equalsIgnoreCase("between") || operator.equals("=") || operator.equalsIgnoreCase("in") ||
+                operator.equalsIgnoreCase("IS") || isRangeOperator(operator);
+    }
+
+    private static boolean isRangeOperator(String operator) {
+        return operator.equals(">") || operator.equals(">=") || operator.equals("<") || operator.equals("<=");
+    }
+
     private static boolean checkConditionValues(List<Object> values) {
         for (Object value : values) {
             if (value != null && !value.toString().equals("")) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.util;
+
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
+import com.actiontech.dble.sqlengine.mpp.RangeValue;
+
+import java.util.Collection;
+
+/**
+ * the intersection of the RangeValues of the sharding column, such as a >= 1 and a < 10 and a between 5 and 20,
+ * the values are compared by AbstractPartitionAlgorithm.rangeKey.
+ * the begin/end is null if it's unbounded.
+ */
+final class RangeIntersection {
+    private String begin;
+    private long beginKey;
+    private String end;
+    private long endKey;
+
+    private RangeIntersection() {
+    }
+
+    /**
+     * @return null if some value can't be ordered by the algorithm
+     */
+    static RangeIntersection of(AbstractPartitionAlgorithm function, Collection<RangeValue> ranges) {
+        RangeIntersection intersection = new RangeIntersection();
+        for (RangeValue range : ranges) {
+            if (range.getBeginValue() != null) {
+                String value = String.valueOf(range.getBeginValue());
+                Long key = function.rangeKey(value);
+                if (key == null) {
+                    return null;
+                }
+                if (intersection.begin == null || key > intersection.beginKey) {
+                    intersection.begin = value;
+                    intersection.beginKey = key;
+                }
+            }
+            if (range.getEndValue() != null) {
+                String value = String.valueOf(range.getEndValue());
+                Long key = function.rangeKey(value);
+                if (key == null) {
+                    return null;
+                }
+                if (intersection.end == null || key < intersection.endKey) {
+                    intersection.end = value;
+                    intersection.endKey = key;
+                }
+            }
+        }
+        return intersection;
+    }
+
+    boolean isEmpty() {
+        return begin != null && end != null && beginKey > endKey;
+    }
+
+    /**
+     * @return true if the value is in the range or it can't be ordered
+     */
+    boolean contains(AbstractPartitionAlgorithm function, String value) {
+        Long key = function.rangeKey(value);
+        return key == null || ((begin == null || key >= beginKey) && (end == null || key <= endKey));
+    }
+
+    String getBegin() {
+        return begin;
+    }
+
+    String getEnd() {
+        return end;
+    }
+}
@@ -13,6 +13,7 @@ import com.actiontech.dble.config.model.sharding.table.*;
 import com.actiontech.dble.plan.node.QueryNode;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.route.function.AbstractPartitionAlgorithm;
 import com.actiontech.dble.route.parser.druid.DruidParser;
 import com.actiontech.dble.route.parser.druid.DruidShardingParseInfo;
 import com.actiontech.dble.route.parser.druid.RouteCalculateUnit;
@@ -381,6 +382,10 @@ public final class RouterUtil {
 
     public static Set<String> ruleCalculate(RouteResultset rrs, ShardingTableConfig tc, ColumnRoute columnRoute, boolean ignoreNull) {
         Set<String> routeNodeSet = new LinkedHashSet<>();
+        RangeIntersection range = null;
+        if (columnRoute.getRangeValues() != null) {
+            range = RangeIntersection.of(tc.getFunction(), columnRoute.getRangeValues());
+        }
         if (columnRoute.getColValue() != null) {
             String value = columnRoute.getColValue();
             //for explain
@@ -393,45 +398,17 @@ public final class RouterUtil {
                 routeNodeSet.add(shardingNode);
             }
         } else if (columnRoute.getInValues() != null) {
-            for (String value : columnRoute.getInValues()) {
+            for (String value : inValuesInRange(tc, columnRoute.getInValues(), range)) {
                 String shardingNode = ruleCalculateSingleValue(tc, value);
                 routeNodeSet.add(shardingNode);
             }
         }
         if (columnRoute.getRangeValues() != null) {
-            Set<String> rangeNodeSet = new LinkedHashSet<>();
-            boolean isFirst = true;
-            for (RangeValue rangeValue : columnRoute.getRangeValues()) { // get Intersection from all between and
-                Integer[] nodeRange = tc.getFunction().calculateRange(String.valueOf(rangeValue.getBeginValue()), String.valueOf(rangeValue.getEndValue()));
-                if (nodeRange != null) {
-                    if (isFirst) {
-                        if (nodeRange.length == 0) {
-                            rangeNodeSet.addAll(tc.getShardingNodes());
-                        } else {
-                            String shardingNode;
-                            for (Integer nodeId : nodeRange) {
-                                shardingNode = tc.getShardingNodes().get(nodeId);
-                                rangeNodeSet.add(shardingNode);
-                            }
-                        }
-                        isFirst = false;
-                    } else {
-                        if (nodeRange.length == 0) {
-                            rangeNodeSet.retainAll(tc.getShardingNodes());
-                        } else {
-                            String shardingNode;
-                            Set<String> tmpNodeSet = new LinkedHashSet<>();
-                            for (Integer nodeId : nodeRange) {
-                                shardingNode = tc.getShardingNodes().get(nodeId);
-                                tmpNodeSet.add(shardingNode);
-                            }
-                            rangeNodeSet.retainAll(tmpNodeSet);
-                        }
-                        if (rangeNodeSet.size() == 0) { //all between and is always false
-                            break;
-                        }
-                    }
-                }
+            Set<String> rangeNodeSet;
+            if (range != null) {
+                rangeNodeSet = ruleCalculateRange(tc, range);
+            } else {
+                rangeNodeSet = ruleCalculateRanges(tc, columnRoute.getRangeValues());
             }
             if (routeNodeSet.size() != 0) {
                 routeNodeSet.retainAll(rangeNodeSet);
@@ -452,9 +429,87 @@ public final class RouterUtil {
         return routeNodeSet;
     }
 
+    /**
+     * the values of in which are out of the range are always false, if all of them are out of range, keep them
+     */
+    private static Collection<String> inValuesInRange(ShardingTableConfig tc, Set<String> inValues, RangeIntersection range) {
+        if (range == null) {
+            return inValues;
+        }
+        List<String> values = new ArrayList<>(inValues.size());
+        for (String value : inValues) {
+            if (range.contains(tc.getFunction(), value)) {
+                values.add(value);
+            }
+        }
+        return values.isEmpty() ? inValues : values;
+    }
+
+    /**
+     * the nodes of the intersection of all ranges
+     */
+    private static Set<String> ruleCalculateRange(ShardingTableConfig tc, RangeIntersection range) {
+        Set<String> rangeNodeSet = new LinkedHashSet<>();
+        if (range.isEmpty()) {
+            return rangeNodeSet;
+        }
+        Integer[] nodeRange = tc.getFunction().calculateOpenRange(range.getBegin(), range.getEnd());
+        if (nodeRange == null || nodeRange.length == 0) {
+            rangeNodeSet.addAll(tc.getShardingNodes());
+        } else {
+            for (Integer nodeId : nodeRange) {
+                rangeNodeSet.add(tc.getShardingNodes().get(nodeId));
+            }
+        }
+        return rangeNodeSet;
+    }
+
+    /**
+     * the intersection of the nodes of each range, the ranges can't be compared by the algorithm
+     */
+    private static Set<String> ruleCalculateRanges(ShardingTableConfig tc, Set<RangeValue> rangeValues) {
+        Set<String> rangeNodeSet = new LinkedHashSet<>();
+        boolean isFirst = true;
+        for (RangeValue rangeValue : rangeValues) { // get Intersection from all between and
+            String begin = rangeValue.getBeginValue() == null ? null : String.valueOf(rangeValue.getBeginValue());
+            String end = rangeValue.getEndValue() == null ? null : String.valueOf(rangeValue.getEndValue());
+            Integer[] nodeRange = tc.getFunction().calculateOpenRange(begin, end);
+            if (nodeRange != null) {
+                if (isFirst) {
+                    if (nodeRange.length == 0) {
+                        rangeNodeSet.addAll(tc.getShardingNodes());
+                    } else {
+                        String shardingNode;
+                        for (Integer nodeId : nodeRange) {
+                            shardingNode = tc.getShardingNodes().get(nodeId);
+                            rangeNodeSet.add(shardingNode);
+                        }
+                    }
+                    isFirst = false;
+                } else {
+                    if (nodeRange.length == 0) {
+                        rangeNodeSet.retainAll(tc.getShardingNodes());
+                    } else {
+                        String shardingNode;
+                        Set<String> tmpNodeSet = new LinkedHashSet<>();
+                        for (Integer nodeId : nodeRange) {
+                            shardingNode = tc.getShardingNodes().get(nodeId);
+                            tmpNodeSet.add(shardingNode);
+                        }
+                        rangeNodeSet.retainAll(tmpNodeSet);
+                    }
+                    if (rangeNodeSet.size() == 0) { //all between and is always false
+                        break;
+                    }
+                }
+            }
+        }
+        return rangeNodeSet;
+    }
+
     private static String ruleCalculateSingleValue(ShardingTableConfig tc, String value) {
-        Integer nodeIndex = tc.getFunction().calculate(value);
-        if (nodeIndex == null) {
+        int nodeIndex = tc.getFunction().calculateIndex(value);
+        if (nodeIndex == AbstractPartitionAlgorithm.NO_NODE) {
             String msg = "can't find any valid shardingNode in table[" + tc.getName() +
                     "] -> column[" + tc.getShardingColumn() + "] -> value[" + value + "]";
             LOGGER.info(msg);
@@ -43,6 +43,7 @@ import com.actiontech.dble.server.status.SlowQueryLog;
 import com.actiontech.dble.server.trace.TraceRecord;
 import com.actiontech.dble.server.trace.TraceResult;
 import com.actiontech.dble.singleton.DDLTraceManager;
+import com.actiontech.dble.singleton.InsertBatcher;
 import com.actiontech.dble.singleton.PauseShardingNodeManager;
 import com.actiontech.dble.singleton.ProxyMeta;
 import com.actiontech.dble.statistic.stat.QueryTimeCost;
@@ -529,6 +530,13 @@ public class NonBlockingSession implements Session {
     }
 
     private void executeOther(RouteResultset rrs) {
+        if (InsertBatcher.canBatch(this, rrs)) {
+            setPreExecuteEnd(false);
+            readyToDeliver();
+            InsertBatcher.getInstance().add(this, rrs);
+            discard = true;
+            return;
+        }
         ExecutableHandler executableHandler;
         if (rrs.getNodes().length == 1) {
             executableHandler = new SingleNodeHandler(rrs, this);
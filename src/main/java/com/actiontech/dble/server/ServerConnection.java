@@ -440,6 +440,44 @@ public class ServerConnection extends FrontendConnection {
         session.execute(rrs);
     }
 
+    /**
+     * execute the server side prepared statement whose route is calculated by PreparedRouteTemplate,
+     * the checks of query are kept, only the parse and route are skipped
+     */
+    public void executePrepared(String sql, RouteResultset rrs) {
+        setExecuteSql(sql);
+        SerializableLock.getInstance().lock(this.id);
+        if (session.isKilled()) {
+            LOGGER.info("sql[" + sql + "] is killed.");
+            writeErrMessage(ErrorCode.ER_QUERY_INTERRUPTED, "The query is interrupted.");
+            return;
+        }
+        session.queryCount();
+        session.rowCountRolling();
+        if (rrs.getSqlType() != ServerParse.SELECT) {
+            if (userConfig instanceof ShardingUserConfig && ((ShardingUserConfig) userConfig).isReadOnly()) {
+                writeErrMessage(ErrorCode.ER_USER_READ_ONLY, "User READ ONLY");
+                return;
+            } else if (sessionReadOnly) {
+                writeErrMessage(ErrorCode.ER_CANT_EXECUTE_IN_READ_ONLY_TRANSACTION, "Cannot execute statement in a READ ONLY transaction.");
+                return;
+            }
+        }
+        session.singleTransactionsCount();
+        if (this.isClosed()) {
+            LOGGER.info("ignore execute ,server connection is closed " + this);
+            return;
+        }
+        if (txInterrupted) {
+            writeErrMessage(ErrorCode.ER_YES, txInterruptMsg);
+            return;
+        }
+        session.setQueryStartTime(System.currentTimeMillis());
+        session.endParse();
+        session.endRoute(rrs);
+        session.execute(rrs);
+    }
+
     public void initDB(byte[] data) {
         MySQLMessage mm = new MySQLMessage(data);
         mm.position(5);
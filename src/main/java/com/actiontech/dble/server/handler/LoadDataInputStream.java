@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.SocketWR;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * the file data of load data local infile, the packets are offered by the nio thread and parsed by the worker
+ * while the client is still sending.
+ * the reading of the client is paused when too much data is not parsed, so the memory is bounded.
+ */
+final class LoadDataInputStream extends InputStream {
+    private final SocketWR socketWR;
+    private final long pauseSize;
+    private final Queue<Chunk> chunks = new ArrayDeque<>();
+    private long pendingSize = 0;
+    private boolean paused = false;
+    private boolean finished = false;
+    // the data is dropped after discarded, the client must still send all packets before the response
+    private boolean discarded = false;
+
+    LoadDataInputStream(SocketWR socketWR, long pauseSize) {
+        this.socketWR = socketWR;
+        this.pauseSize = pauseSize;
+    }
+
+    /**
+     * called by the nio thread, never blocked
+     */
+    synchronized void offer(byte[] data, int offset, int length) {
+        if (discarded || finished || length <= 0) {
+            return;
+        }
+        chunks.add(new Chunk(data, offset, length));
+        pendingSize += length;
+        if (!paused && pendingSize >= pauseSize) {
+            paused = true;
+            socketWR.disableRead();
+        }
+        notifyAll();
+    }
+
+    /**
+     * the last packet is received
+     */
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    /**
+     * drop the data not parsed and the data received later
+     */
+    synchronized void discard() {
+        discarded = true;
+        chunks.clear();
+        pendingSize = 0;
+        resume();
+        notifyAll();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        Chunk chunk;
+        while ((chunk = chunks.peek()) == null) {
+            if (discarded) {
+                throw new IOException("the data of load data is discarded");
+            }
+            if (finished) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting the data of load data", e);
+            }
+        }
+        int n = Math.min(len, chunk.length - chunk.pos);
+        System.arraycopy(chunk.data, chunk.offset + chunk.pos, b, off, n);
+        chunk.pos += n;
+        if (chunk.pos == chunk.length) {
+            chunks.poll();
+        }
+        pendingSize -= n;
+        if (paused && pendingSize <= pauseSize / 2) {
+            resume();
+        }
+        return n;
+    }
+
+    @Override
+    public synchronized int available() {
+        Chunk chunk = chunks.peek();
+        return chunk == null ? 0 : chunk.length - chunk.pos;
+    }
+
+    @Override
+    public void close() {
+        discard();
+    }
+
+    synchronized long getPendingSize() {
+        return pendingSize;
+    }
+
+    synchronized boolean isPaused() {
+        return paused;
+    }
+
+    private void resume() {
+        if (paused) {
+            paused = false;
+            socketWR.enableRead();
+        }
+    }
+
+    private static final class Chunk {
+        private final byte[] data;
+        private final int offset;
+        private final int length;
+        private int pos = 0;
+
+        private Chunk(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
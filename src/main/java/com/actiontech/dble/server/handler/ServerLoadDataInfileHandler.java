@@ -16,7 +16,7 @@ import com.actiontech.dble.config.model.sharding.table.GlobalTableConfig;
 import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
 import com.actiontech.dble.meta.TableMeta;
 import com.actiontech.dble.net.handler.LoadDataInfileHandler;
-import com.actiontech.dble.net.mysql.BinaryPacket;
+import com.actiontech.dble.net.mysql.MySQLPacket;
 import com.actiontech.dble.net.mysql.OkPacket;
 import com.actiontech.dble.net.mysql.RequestFilePacket;
 import com.actiontech.dble.route.RouteResultset;
@@ -42,6 +42,8 @@ import com.google.common.collect.Lists;
 import com.google.common.io.Files;
 import com.univocity.parsers.csv.CsvParser;
 import com.univocity.parsers.csv.CsvParserSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.ByteBuffer;
@@ -50,6 +52,9 @@ import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -58,8 +63,11 @@ import java.util.regex.Pattern;
  * CHARACTER SET 'gbk' in load data sql  the charset need ', otherwise the druid will error
  */
 public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerLoadDataInfileHandler.class);
     //innodb limit of columns per table, https://dev.mysql.com/doc/refman/8.0/en/column-count-limit.html
     private static final int DEFAULT_MAX_COLUMNS = 1017;
+    // the client is paused when the data not parsed is over it
+    private static final long MAX_PENDING_SIZE = 16 * 1024 * 1024;
     private ServerConnection serverConnection;
     private String sql;
     private String fileName;
@@ -69,11 +77,9 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     private Map<String, LoadData> routeResultMap = new HashMap<>();
 
     private LoadData loadData;
-    private ByteArrayOutputStream tempByteBuffer;
-    private long tempByteBufferSize = 0;
     private String tempPath;
-    private String tempFile;
-    private boolean isHasStoreToFile = false;
+    private LoadDataInputStream fileStream;
+    private Future<String> parseResult;
 
     private SchemaConfig schema;
     private final SystemConfig systemConfig = SystemConfig.getInstance();
@@ -170,8 +176,6 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         }
 
         tempPath = SystemConfig.getInstance().getHomePath() + File.separator + "temp" + File.separator + serverConnection.getId() + File.separator;
-        tempFile = tempPath + "clientTemp.txt";
-        tempByteBuffer = new ByteArrayOutputStream();
 
         if (!trySetPartitionOrAutoIncrementColumnIndex(statement)) {
             return;
@@ -207,6 +211,7 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
             filePacket.setFileName(fileName.getBytes());
             filePacket.setPacketId(1);
             filePacket.write(buffer, serverConnection, true);
+            startParseStream();
         } else {
             if (!new File(fileName).exists()) {
                 String msg = fileName + " is not found!";
@@ -227,19 +232,13 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
 
     @Override
     public void handle(byte[] data) {
-        try {
-            if (sql == null) {
-                clear();
-                serverConnection.writeErrMessage(ErrorCode.ER_UNKNOWN_COM_ERROR, "Unknown command");
-                return;
-            }
-            BinaryPacket packet = new BinaryPacket();
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(data, 0, data.length);
-            packet.read(inputStream);
-
-            saveByteOrToFile(packet.getData(), false);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        if (sql == null) {
+            clear();
+            serverConnection.writeErrMessage(ErrorCode.ER_UNKNOWN_COM_ERROR, "Unknown command");
+            return;
+        }
+        if (fileStream != null) {
+            fileStream.offer(data, MySQLPacket.PACKET_HEADER_SIZE, data.length - MySQLPacket.PACKET_HEADER_SIZE);
         }
     }
 
@@ -287,41 +286,6 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         return true;
     }
 
-    private synchronized void saveByteOrToFile(byte[] data, boolean isForce) {
-        if (data != null) {
-            tempByteBufferSize = tempByteBufferSize + data.length;
-            try {
-                tempByteBuffer.write(data);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-        if ((isForce && isHasStoreToFile) || tempByteBufferSize > 200 * 1024 * 1024) { //200M
-            FileOutputStream channel = null;
-            try {
-                File file = new File(tempFile);
-                Files.createParentDirs(file);
-                channel = new FileOutputStream(file, true);
-
-                tempByteBuffer.writeTo(channel);
-                tempByteBuffer = new ByteArrayOutputStream();
-                tempByteBufferSize = 0;
-                isHasStoreToFile = true;
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            } finally {
-                try {
-                    if (channel != null) {
-                        channel.close();
-                    }
-                } catch (IOException ignored) {
-                    //ignore error
-                }
-            }
-        }
-    }
-
     private RouteResultset tryDirectRoute(String strSql, String[] lineList) throws SQLException {
         RouteResultset rrs = new RouteResultset(strSql, ServerParse.INSERT);
         rrs.setLoadData(true);
@@ -579,74 +543,107 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
     public void end(byte packId) {
         isStartLoadData = false;
         this.packID = packId;
-        //empty packet for end
-        saveByteOrToFile(null, true);
+        String error = waitParseStream();
+        if (error != null) {
+            clear();
+            serverConnection.writeErrMessage(++packId, ErrorCode.ER_WRONG_VALUE_COUNT_ON_ROW, "row data can't not calculate a sharding value," + error);
+            return;
+        }
 
-        if (isHasStoreToFile) {
-            parseFileByLine(tempFile, loadData.getCharset());
-        } else {
-            String content = new String(tempByteBuffer.toByteArray(), Charset.forName(loadData.getCharset()));
-            if ("".equals(content)) {
-                clear();
-                OkPacket ok = new OkPacket();
-                ok.setPacketId(++packId);
-                ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
-                ok.write(serverConnection);
-                return;
-            }
-            // List<String> lines = Splitter.on(loadData.getLineTerminatedBy()).omitEmptyStrings().splitToList(content);
-            CsvParserSettings settings = new CsvParserSettings();
-            settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
-            settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
-            settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
-            settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
-            settings.getFormat().setComment('\0');
-            if (loadData.getEnclose() != null) {
-                settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
-            } else {
-                settings.getFormat().setQuote('\0');
+        RouteResultset rrs = buildResultSet(routeResultMap);
+        if (rrs == null) {
+            clear();
+            OkPacket ok = new OkPacket();
+            ok.setPacketId(++packId);
+            ok.setMessage("Records: 0  Deleted: 0  Skipped: 0  Warnings: 0".getBytes());
+            ok.write(serverConnection);
+            return;
+        }
+        flushDataToFile();
+        serverConnection.getSession2().execute(rrs);
+    }
+
+    /**
+     * the rows are parsed and routed by the worker while the client is sending the file,
+     * only the rows of the last packets are left when the empty packet is received
+     */
+    private void startParseStream() {
+        final LoadDataInputStream in = new LoadDataInputStream(serverConnection.getSocketWR(), MAX_PENDING_SIZE);
+        fileStream = in;
+        parseResult = DbleServer.getInstance().getComplexQueryExecutor().submit(new Callable<String>() {
+            @Override
+            public String call() {
+                try {
+                    return parseStream(in);
+                } finally {
+                    in.discard();
+                }
             }
-            if (loadData.getEscape() != null) {
-                settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
+        });
+    }
+
+    private String waitParseStream() {
+        if (fileStream == null) {
+            return null;
+        }
+        fileStream.finish();
+        try {
+            return parseResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "load data is interrupted";
+        } catch (ExecutionException e) {
+            return e.getCause() == null ? e.getMessage() : e.getCause().getMessage();
+        }
+    }
+
+    /**
+     * @return the error message, null if all rows are routed
+     */
+    private String parseStream(LoadDataInputStream in) {
+        CsvParserSettings settings = new CsvParserSettings();
+        settings.setMaxColumns(DEFAULT_MAX_COLUMNS);
+        settings.setMaxCharsPerColumn(systemConfig.getMaxCharsPerColumn());
+        settings.getFormat().setLineSeparator(loadData.getLineTerminatedBy());
+        settings.getFormat().setDelimiter(loadData.getFieldTerminatedBy());
+        settings.getFormat().setComment('\0');
+        if (loadData.getEnclose() != null) {
+            settings.getFormat().setQuote(loadData.getEnclose().charAt(0));
+        } else {
+            settings.getFormat().setQuote('\0');
+        }
+        if (loadData.getEscape() != null) {
+            settings.getFormat().setQuoteEscape(loadData.getEscape().charAt(0));
+        }
+        settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
+        settings.setSkipEmptyLines(false);
+        settings.trimValues(false);
+
+        CsvParser parser = new CsvParser(settings);
+        try {
+            parser.beginParsing(new InputStreamReader(in, Charset.forName(loadData.getCharset())));
+            String[] row;
+
+            int ignoreNumber = 0;
+            if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
+                ignoreNumber = Integer.parseInt(statement.getIgnoreLinesNumber().toString());
             }
-            settings.getFormat().setNormalizedNewline(loadData.getLineTerminatedBy().charAt(0));
-            settings.setSkipEmptyLines(false);
-            settings.trimValues(false);
-
-            CsvParser parser = new CsvParser(settings);
-            try {
-                parser.beginParsing(new StringReader(content));
-                String[] row;
-
-                int ignoreNumber = 0;
-                if (statement.getIgnoreLinesNumber() != null && !"".equals(statement.getIgnoreLinesNumber().toString())) {
-                    ignoreNumber = Integer.parseInt(statement.getIgnoreLinesNumber().toString());
-                }
-                while ((row = parser.parseNext()) != null) {
-                    if (ignoreNumber == 0) {
-                        if ((row.length == 1 && row[0] == null) || row.length == 0) {
-                            continue;
-                        }
-                        try {
-                            parseOneLine(row);
-                        } catch (Exception e) {
-                            clear();
-                            serverConnection.writeErrMessage(++packId, ErrorCode.ER_WRONG_VALUE_COUNT_ON_ROW, "row data can't not calculate a sharding value," + e.getMessage());
-                            return;
-                        }
-                    } else {
-                        ignoreNumber--;
+            while ((row = parser.parseNext()) != null) {
+                if (ignoreNumber == 0) {
+                    if ((row.length == 1 && row[0] == null) || row.length == 0) {
+                        continue;
                     }
+                    parseOneLine(row);
+                } else {
+                    ignoreNumber--;
                 }
-            } finally {
-                parser.stopParsing();
             }
-        }
-
-        RouteResultset rrs = buildResultSet(routeResultMap);
-        if (rrs != null) {
-            flushDataToFile();
-            serverConnection.getSession2().execute(rrs);
+            return null;
+        } catch (Exception e) {
+            LOGGER.info("load data error", e);
+            return e.getMessage();
+        } finally {
+            parser.stopParsing();
         }
     }
 
@@ -762,23 +759,19 @@ public final class ServerLoadDataInfileHandler implements LoadDataInfileHandler
         isStartLoadData = false;
         schema = null;
         tableConfig = null;
-        isHasStoreToFile = false;
         packID = 0;
-        tempByteBufferSize = 0;
         tableName = null;
         partitionColumnIndex = -1;
         autoIncrementIndex = -1;
         appendAutoIncrementColumn = false;
-        if (tempFile != null) {
-            File temp = new File(tempFile);
-            if (temp.exists()) {
-                temp.delete();
-            }
+        if (fileStream != null) {
+            fileStream.discard();
+            fileStream = null;
         }
+        parseResult = null;
         if (tempPath != null && new File(tempPath).exists()) {
             deleteFile(tempPath);
         }
-        tempByteBuffer = null;
         loadData = null;
         sql = null;
         fileName = null;
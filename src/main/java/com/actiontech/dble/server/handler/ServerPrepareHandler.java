@@ -10,11 +10,14 @@ import com.actiontech.dble.backend.mysql.ByteUtil;
 import com.actiontech.dble.backend.mysql.PreparedStatement;
 import com.actiontech.dble.config.ErrorCode;
 import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.privileges.ShardingPrivileges;
 import com.actiontech.dble.net.handler.FrontendPrepareHandler;
 import com.actiontech.dble.net.mysql.ExecutePacket;
 import com.actiontech.dble.net.mysql.LongDataPacket;
 import com.actiontech.dble.net.mysql.OkPacket;
 import com.actiontech.dble.net.mysql.ResetPacket;
+import com.actiontech.dble.route.PreparedRouteTemplate;
 import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.server.response.PreparedStmtResponse;
 import com.actiontech.dble.util.HexFormatUtil;
@@ -118,6 +121,9 @@ public class ServerPrepareHandler implements FrontendPrepareHandler {
                 return;
             }
             BindValue[] bindValues = packet.getValues();
+            // calculate the route before the values are escaped
+            PreparedRouteTemplate template = getRouteTemplate(pStmt);
+            final String shardingNode = template == null ? null : template.calculateShardingNode(bindValues, pStmt.getParametersType());
             // reset the Parameter
             String sql = prepareStmtBindValue(pStmt, bindValues);
             source.getSession2().setPrepared(true);
@@ -125,8 +131,34 @@ public class ServerPrepareHandler implements FrontendPrepareHandler {
                 LOGGER.debug("execute prepare sql: " + sql);
             }
             pStmt.resetLongData();
-            source.query(sql);
+            if (shardingNode != null) {
+                source.executePrepared(sql, template.route(sql, shardingNode, source.isAutocommit()));
+            } else {
+                source.query(sql);
+            }
+        }
+    }
+
+    /**
+     * @return the template which can route the statement without parsing it, null if the statement needs the normal route
+     */
+    private PreparedRouteTemplate getRouteTemplate(PreparedStatement pStmt) {
+        String schema = source.getSchema();
+        if (SystemConfig.getInstance().getUsePreparedRouteCache() == 0 || schema == null ||
+                source.getUserConfig().getBlacklist() != null || source.getSession2().getRemingSql() != null) {
+            return null;
+        }
+        PreparedRouteTemplate template = pStmt.getRouteTemplate();
+        if (template == null || !template.isValid(schema)) {
+            template = PreparedRouteTemplate.build(pStmt.getStatement(), pStmt.getParametersNumber(), schema);
+            pStmt.setRouteTemplate(template);
+        }
+        if (!template.isSupported() ||
+                !ShardingPrivileges.checkPrivilege(source.getUserConfig(), template.getSchema(), template.getTable(), template.getCheckType())) {
+            // the normal route reports the privilege error
+            return null;
         }
+        return template;
     }
 
 
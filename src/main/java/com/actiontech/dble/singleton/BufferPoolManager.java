@@ -2,6 +2,7 @@ package com.actiontech.dble.singleton;
 
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.buffer.SizeClassBufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.memory.unsafe.Platform;
 
@@ -36,7 +37,11 @@ public final class BufferPoolManager {
         if ((long) bufferPoolPageSize * (long) bufferPoolPageNumber > Platform.getMaxDirectMemory()) {
             throw new IOException("Direct BufferPool size[bufferPoolPageSize(" + bufferPoolPageSize + ")*bufferPoolPageNumber(" + bufferPoolPageNumber + ")] larger than MaxDirectMemory[" + Platform.getMaxDirectMemory() + "]");
         }
-        bufferPool = new DirectByteBufferPool(bufferPoolPageSize, bufferPoolChunkSize, bufferPoolPageNumber);
+        if (SystemConfig.getInstance().getBufferPoolType() == 1) {
+            bufferPool = new SizeClassBufferPool(bufferPoolPageSize, bufferPoolChunkSize, bufferPoolPageNumber);
+        } else {
+            bufferPool = new DirectByteBufferPool(bufferPoolPageSize, bufferPoolChunkSize, bufferPoolPageNumber);
+        }
     }
 
 }
@@ -34,6 +34,7 @@ public final class CacheService {
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheService.class);
     private static final CacheService INSTANCE = new CacheService();
     private static final String SQL_ROUTE_CACHE = "SQLRouteCache";
+    private static final String SQL_TEMPLATE_CACHE = "SQLTemplateCache";
     private final Map<String, CachePoolFactory> poolFactories = new HashMap<>();
     private final ConcurrentMap<String, CachePool> allPools = new ConcurrentHashMap<>();
 
@@ -210,6 +211,10 @@ public final class CacheService {
         return INSTANCE.getCachePool(SQL_ROUTE_CACHE);
     }
 
+    public static CachePool getSqlTemplateCache() {
+        return INSTANCE.getCachePool(SQL_TEMPLATE_CACHE);
+    }
+
     public static CachePool getCachePoolByName(String poolName) {
         return INSTANCE.getCachePool(poolName);
     }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.singleton;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.mysql.nio.handler.InsertBatchHandler;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * coalesce the single row inserts in autocommit of the tables in insertBatchTables,
+ * the inserts to the same shardingNode with the same columns and the same charset/isolation arrived in
+ * insertBatchWindow are executed as one multi rows insert.
+ */
+public class InsertBatcher {
+    private static final InsertBatcher INSTANCE = new InsertBatcher();
+    private final Map<String, InsertBatchHandler> batches = new HashMap<>();
+    // insertBatchTables parsed into schema.table in lower case
+    private volatile String tablesConfig;
+    private volatile Set<String> tables = Collections.emptySet();
+
+    InsertBatcher() {
+    }
+
+    public static InsertBatcher getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isBatchTable(String schema, String table) {
+        Set<String> batchTables = getTables();
+        return !batchTables.isEmpty() && batchTables.contains((schema + "." + table).toLowerCase());
+    }
+
+    private Set<String> getTables() {
+        String config = SystemConfig.getInstance().getInsertBatchTables();
+        if (config == tablesConfig) {
+            return tables;
+        }
+        Set<String> parsed = new HashSet<>();
+        if (config != null) {
+            for (String table : config.split(",")) {
+                table = table.trim();
+                if (!table.isEmpty()) {
+                    parsed.add(table.toLowerCase());
+                }
+            }
+        }
+        tables = parsed;
+        tablesConfig = config;
+        return parsed;
+    }
+
+    /**
+     * the session can be batched only when it has no backend connection and no variables need to be synced
+     */
+    public static boolean canBatch(NonBlockingSession session, RouteResultset rrs) {
+        ServerConnection source = session.getSource();
+        return rrs.getInsertBatchHeader() != null && rrs.getNodes().length == 1 && !rrs.isLoadData() &&
+                source.isAutocommit() && !source.isTxStart() && session.getTargetCount() == 0 &&
+                !session.getIsMultiStatement().get() && session.getSessionXaID() == null &&
+                source.getUsrVariables().isEmpty() && source.getSysVariables().isEmpty();
+    }
+
+    public void add(NonBlockingSession session, RouteResultset rrs) {
+        ServerConnection source = session.getSource();
+        RouteResultsetNode node = rrs.getNodes()[0];
+        String key = node.getName() + "\n" + source.getCharset() + "\n" + source.getTxIsolation() + "\n" + rrs.getInsertBatchHeader();
+        InsertBatchHandler full = null;
+        synchronized (this) {
+            InsertBatchHandler batch = batches.get(key);
+            if (batch == null) {
+                batch = newBatch(node.getName(), rrs.getInsertBatchHeader());
+                batches.put(key, batch);
+                scheduleFlush(key, batch);
+            }
+            batch.add(session, rrs);
+            if (batch.size() >= SystemConfig.getInstance().getInsertBatchMaxRows()) {
+                batches.remove(key);
+                full = batch;
+            }
+        }
+        if (full != null) {
+            full.execute();
+        }
+    }
+
+    InsertBatchHandler newBatch(String shardingNode, String insertHeader) {
+        return new InsertBatchHandler(shardingNode, insertHeader);
+    }
+
+    private void scheduleFlush(final String key, final InsertBatchHandler batch) {
+        Scheduler.getInstance().getScheduledExecutor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (InsertBatcher.this) {
+                    if (!batches.remove(key, batch)) {
+                        // flushed by insertBatchMaxRows
+                        return;
+                    }
+                }
+                DbleServer.getInstance().getComplexQueryExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        batch.execute();
+                    }
+                });
+            }
+        }, SystemConfig.getInstance().getInsertBatchWindow(), TimeUnit.MICROSECONDS);
+    }
+}
@@ -5,13 +5,17 @@
 */
 package com.actiontech.dble.singleton;
 
+import com.actiontech.dble.cache.CachePool;
 import com.actiontech.dble.config.Versions;
 import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.privileges.ShardingPrivileges;
+import com.actiontech.dble.route.PreparedRouteTemplate;
 import com.actiontech.dble.route.RouteResultset;
 import com.actiontech.dble.route.factory.RouteStrategyFactory;
 import com.actiontech.dble.route.handler.HintHandler;
 import com.actiontech.dble.route.handler.HintHandlerFactory;
 import com.actiontech.dble.route.handler.HintSQLHandler;
+import com.actiontech.dble.route.parser.util.SqlTemplateUtil;
 import com.actiontech.dble.server.ServerConnection;
 import com.actiontech.dble.server.parser.ServerParse;
 import org.slf4j.Logger;
@@ -19,7 +23,9 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public final class RouteService {
@@ -53,6 +59,11 @@ public final class RouteService {
             }
         }
 
+        rrs = routeByTemplate(schema, sqlType, stmt, sc, isExplain);
+        if (rrs != null) {
+            return rrs;
+        }
+
         /*!dble: sql = select name from aa */
         /*!dble: sharding = test */
         int hintLength = RouteService.isHintSql(stmt);
@@ -111,6 +122,41 @@ public final class RouteService {
         return rrs;
     }
 
+    /**
+     * route the statement by the template of its sql whose literals are stripped, the template is parsed only once
+     *
+     * @return null if the statement needs the normal route
+     */
+    private RouteResultset routeByTemplate(SchemaConfig schema, int sqlType, String stmt, ServerConnection sc, boolean isExplain) {
+        CachePool templateCache = CacheService.getSqlTemplateCache();
+        if (templateCache == null || schema == null || isExplain ||
+                (sqlType != ServerParse.SELECT && sqlType != ServerParse.INSERT && sqlType != ServerParse.UPDATE && sqlType != ServerParse.DELETE) ||
+                sc.getSession2().getRemingSql() != null || sc.getSession2().getIsMultiStatement().get()) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        String template = SqlTemplateUtil.normalize(stmt, literals);
+        if (template == null || literals.isEmpty()) {
+            return null;
+        }
+        String cacheKey = schema.getName() + "_" + template;
+        PreparedRouteTemplate routeTemplate = (PreparedRouteTemplate) templateCache.get(cacheKey);
+        if (routeTemplate == null || !routeTemplate.isValid(schema.getName())) {
+            routeTemplate = PreparedRouteTemplate.build(template, literals.size(), schema.getName());
+            templateCache.put(cacheKey, routeTemplate);
+        }
+        if (!routeTemplate.isSupported() ||
+                !ShardingPrivileges.checkPrivilege(sc.getUserConfig(), routeTemplate.getSchema(), routeTemplate.getTable(), routeTemplate.getCheckType())) {
+            return null;
+        }
+        String shardingNode = routeTemplate.calculateShardingNode(literals);
+        if (shardingNode == null) {
+            return null;
+        }
+        sc.getSession2().endParse();
+        return routeTemplate.route(stmt, shardingNode, sc.isAutocommit());
+    }
+
     private static int isHintSql(String sql) {
         char[] annotation = Versions.ANNOTATION_NAME.toCharArray();
         int j = 0;
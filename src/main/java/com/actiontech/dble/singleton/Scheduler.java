@@ -7,6 +7,7 @@ import com.actiontech.dble.backend.pool.PooledEntry;
 import com.actiontech.dble.buffer.BufferPool;
 import com.actiontech.dble.config.model.SystemConfig;
 import com.actiontech.dble.config.model.user.UserName;
+import com.actiontech.dble.meta.table.TableStatisticsHandler;
 import com.actiontech.dble.net.NIOProcessor;
 import com.actiontech.dble.statistic.stat.SqlResultSizeRecorder;
 import com.actiontech.dble.statistic.stat.ThreadWorkUsage;
@@ -56,6 +57,24 @@ public final class Scheduler {
         }
         scheduledExecutor.scheduleAtFixedRate(threadStatRenew(), 0L, 1, TimeUnit.SECONDS);
         scheduledExecutor.scheduleAtFixedRate(printLongTimeDDL(), 0L, DDL_EXECUTE_CHECK_PERIOD, TimeUnit.SECONDS);
+        if (SystemConfig.getInstance().isUseJoinStrategy() || SystemConfig.getInstance().isUseHashJoin()) {
+            //the statistics is only used for choosing the join strategy
+            scheduledExecutor.scheduleWithFixedDelay(tableStatisticsCollect(), 0L, SystemConfig.getInstance().getTableStatisticsPeriod(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Runnable tableStatisticsCollect() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                timerExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        new TableStatisticsHandler().execute();
+                    }
+                });
+            }
+        };
     }
 
     private Runnable printLongTimeDDL() {
@@ -107,7 +107,13 @@ public class ColumnRoute {
                 if (i > 0) {
                     sb.append(", and ");
                 }
-                sb.append("value between ").append(rangeValue.getBeginValue()).append(" and ").append(rangeValue.getEndValue());
+                if (rangeValue.getBeginValue() == null) {
+                    sb.append("value <= ").append(rangeValue.getEndValue());
+                } else if (rangeValue.getEndValue() == null) {
+                    sb.append("value >= ").append(rangeValue.getBeginValue());
+                } else {
+                    sb.append("value between ").append(rangeValue.getBeginValue()).append(" and ").append(rangeValue.getEndValue());
+                }
                 i++;
             }
         }
@@ -5,6 +5,11 @@
 
 package com.actiontech.dble.sqlengine.mpp;
 
+/**
+ * the values of column between beginValue and endValue, the bounds are inclusive.
+ * beginValue is null for column < endValue and endValue is null for column > beginValue,
+ * the exclusive bound is taken as inclusive which is a superset for routing.
+ */
 public class RangeValue {
     private Object beginValue;
     private Object endValue;
@@ -17,8 +22,8 @@ public class RangeValue {
 
     @Override
     public int hashCode() {
-        int hash = beginValue.hashCode();
-        hash = hash * 31 + endValue.hashCode();
+        int hash = beginValue == null ? 0 : beginValue.hashCode();
+        hash = hash * 31 + (endValue == null ? 0 : endValue.hashCode());
         return hash;
     }
 
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import java.util.Arrays;
+
+/**
+ * a fast LZF block compressor, it trades the compression ratio for the speed.
+ * <p>
+ * the compressed block is a sequence of the chunks, the first byte of the chunk is the control byte:
+ * <pre>
+ * 000LLLLL                       literal run of L + 1 bytes, the bytes follow
+ * LLLOOOOO OOOOOOOO              back reference of L + 2 bytes at the distance O + 1
+ * 111OOOOO LLLLLLLL OOOOOOOO     back reference of L + 9 bytes at the distance O + 1
+ * </pre>
+ * the instance keeps the hash table, so it is not thread safe.
+ */
+public class CompressLZF {
+    private static final int HASH_BITS = 14;
+    private static final int MAX_LITERAL = 1 << 5;
+    private static final int MAX_OFFSET = 1 << 13;
+    private static final int MAX_REF = (1 << 8) + (1 << 3);
+
+    private final int[] hashTable = new int[1 << HASH_BITS];
+
+    /**
+     * @param in       the source
+     * @param inLen    the length of the source, from 0
+     * @param out      the target
+     * @param outPos   the offset of the target
+     * @param outLimit the end of the target can be written, exclusive
+     * @return the compressed length, 0 if the compressed data would not fit in the target
+     */
+    public int compress(byte[] in, int inLen, byte[] out, int outPos, int outLimit) {
+        if (outPos >= outLimit) {
+            return 0;
+        }
+        Arrays.fill(hashTable, -1);
+        int inPos = 0;
+        int op = outPos;
+        int literalPos = op++;
+        int literals = 0;
+        while (inPos < inLen - 2) {
+            int hash = hash(in, inPos);
+            int ref = hashTable[hash];
+            hashTable[hash] = inPos;
+            int offset = inPos - ref - 1;
+            if (ref >= 0 && offset < MAX_OFFSET && in[ref] == in[inPos] && in[ref + 1] == in[inPos + 1] &&
+                    in[ref + 2] == in[inPos + 2]) {
+                int maxLen = Math.min(MAX_REF, inLen - inPos);
+                int len = 3;
+                while (len < maxLen && in[ref + len] == in[inPos + len]) {
+                    len++;
+                }
+                // close the literal run, the reserved control byte is taken back if the run is empty
+                if (literals == 0) {
+                    op--;
+                } else {
+                    out[literalPos] = (byte) (literals - 1);
+                }
+                if (op + 4 > outLimit) {
+                    return 0;
+                }
+                int lenCode = len - 2;
+                if (lenCode < 7) {
+                    out[op++] = (byte) ((lenCode << 5) | (offset >>> 8));
+                } else {
+                    out[op++] = (byte) ((7 << 5) | (offset >>> 8));
+                    out[op++] = (byte) (lenCode - 7);
+                }
+                out[op++] = (byte) offset;
+                // index the positions inside the match too, the later data is more likely to repeat them
+                int matchEnd = Math.min(inPos + len, inLen - 2);
+                for (int i = inPos + 1; i < matchEnd; i++) {
+                    hashTable[hash(in, i)] = i;
+                }
+                inPos += len;
+                literalPos = op++;
+                literals = 0;
+            } else {
+                if (op >= outLimit) {
+                    return 0;
+                }
+                out[op++] = in[inPos++];
+                if (++literals == MAX_LITERAL) {
+                    out[literalPos] = (byte) (MAX_LITERAL - 1);
+                    literalPos = op++;
+                    literals = 0;
+                }
+            }
+        }
+        while (inPos < inLen) {
+            if (op >= outLimit) {
+                return 0;
+            }
+            out[op++] = in[inPos++];
+            if (++literals == MAX_LITERAL) {
+                out[literalPos] = (byte) (MAX_LITERAL - 1);
+                literalPos = op++;
+                literals = 0;
+            }
+        }
+        if (literals == 0) {
+            op--;
+        } else {
+            out[literalPos] = (byte) (literals - 1);
+        }
+        return op - outPos;
+    }
+
+    /**
+     * @param in     the compressed data
+     * @param inPos  the offset of the compressed data
+     * @param inLen  the length of the compressed data
+     * @param out    the target
+     * @param outPos the offset of the target
+     * @param outLen the length of the uncompressed data
+     */
+    public static void expand(byte[] in, int inPos, int inLen, byte[] out, int outPos, int outLen) {
+        int ip = inPos;
+        int inEnd = inPos + inLen;
+        int op = outPos;
+        while (ip < inEnd) {
+            int ctrl = in[ip++] & 0xff;
+            if (ctrl < MAX_LITERAL) {
+                int run = ctrl + 1;
+                System.arraycopy(in, ip, out, op, run);
+                ip += run;
+                op += run;
+            } else {
+                int len = ctrl >>> 5;
+                if (len == 7) {
+                    len += in[ip++] & 0xff;
+                }
+                len += 2;
+                int ref = op - ((ctrl & 0x1f) << 8) - (in[ip++] & 0xff) - 1;
+                // the reference may overlap the output, copy byte by byte
+                for (int i = 0; i < len; i++) {
+                    out[op++] = out[ref++];
+                }
+            }
+        }
+        if (op != outPos + outLen) {
+            throw new IllegalArgumentException("the expanded length " + (op - outPos) + " is not the expected " + outLen);
+        }
+    }
+
+    private static int hash(byte[] in, int pos) {
+        int v = ((in[pos] & 0xff) << 16) | ((in[pos + 1] & 0xff) << 8) | (in[pos + 2] & 0xff);
+        return (v * -1640531535) >>> (32 - HASH_BITS);
+    }
+}
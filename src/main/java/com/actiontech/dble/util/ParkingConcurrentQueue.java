@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * unbounded lock-free queue whose consumers spin for a while and then park when it is empty.
+ * the spin count of every consumer adapts to the load: it doubles when the spin finds an element
+ * and halves when it doesn't, so a busy consumer never parks and an idle one costs nothing.
+ * the producers only pay an extra emptiness check of the parked consumers.
+ */
+public class ParkingConcurrentQueue<E> extends AbstractQueue<E> {
+    private static final int MIN_SPINS = 16;
+    private static final int MAX_SPINS = 1024;
+    private static final int YIELDS = 4;
+    /* the parked consumer is always woken up by offer, the timeout is only a safety net */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Queue<E> queue = new ConcurrentLinkedQueue<>();
+    private final Queue<Thread> parkedThreads = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public boolean offer(E e) {
+        queue.offer(e);
+        if (!parkedThreads.isEmpty()) {
+            Thread thread = parkedThreads.poll();
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public E peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return queue.iterator();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * retrieve and remove the head of the queue, waiting if necessary until an element becomes available
+     *
+     * @param waiter the spin state of the consumer, must not be shared by threads
+     */
+    public E take(Waiter waiter) {
+        E e;
+        for (int i = 0; i < waiter.spins; i++) {
+            if ((e = queue.poll()) != null) {
+                waiter.spins = Math.min(MAX_SPINS, waiter.spins << 1);
+                return e;
+            }
+        }
+        waiter.spins = Math.max(MIN_SPINS, waiter.spins >> 1);
+        for (int i = 0; i < YIELDS; i++) {
+            Thread.yield();
+            if ((e = queue.poll()) != null) {
+                return e;
+            }
+        }
+        Thread current = Thread.currentThread();
+        while (true) {
+            parkedThreads.offer(current);
+            // check again after registered, the element offered before it is not missed
+            if ((e = queue.poll()) != null) {
+                parkedThreads.remove(current);
+                return e;
+            }
+            LockSupport.parkNanos(this, MAX_PARK_NANOS);
+            // woken up by timeout or interrupt, the thread is still registered
+            parkedThreads.remove(current);
+            Thread.interrupted();
+            if ((e = queue.poll()) != null) {
+                return e;
+            }
+        }
+    }
+
+    public static final class Waiter {
+        private int spins = MAX_SPINS;
+    }
+}
@@ -20,6 +20,11 @@ public class SimpleCachePool implements LayerCachePool {
 
     }
 
+    @Override
+    public void put(Object key, Object value) {
+        cacheMap.put(key, value);
+    }
+
     @Override
     public Object get(Object key) {
         return cacheMap.get(key);
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler;
+
+import com.actiontech.dble.backend.mysql.BufferUtil;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.db.DbInstanceConfig;
+import com.actiontech.dble.net.mysql.ErrorPacket;
+import com.actiontech.dble.net.mysql.OkPacket;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class InsertBatchHandlerTest {
+    private static final String HEADER = "INSERT INTO t (id, name)\nVALUES ";
+    private int oldUseSqlStat;
+
+    @Before
+    public void setUp() {
+        oldUseSqlStat = SystemConfig.getInstance().getUseSqlStat();
+        SystemConfig.getInstance().setUseSqlStat(0);
+    }
+
+    @After
+    public void tearDown() {
+        SystemConfig.getInstance().setUseSqlStat(oldUseSqlStat);
+    }
+
+    @Test
+    public void testStatement() {
+        InsertBatchHandler handler = new InsertBatchHandler("dn1", HEADER);
+        handler.add(null, route("(1, 'a;b')"));
+        handler.add(null, route("(2, now())"));
+        Assert.assertEquals(2, handler.size());
+        Assert.assertEquals("INSERT INTO t (id, name)\nVALUES (1, 'a;b'),(2, now())", handler.getStatement());
+    }
+
+    @Test
+    public void testSplitOk() {
+        InsertBatchHandler handler = new TestInsertBatchHandler();
+        List<TestServerConnection> clients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestServerConnection client = new TestServerConnection();
+            client.setLastInsertId(100);
+            NonBlockingSession session = new NonBlockingSession(client);
+            session.getPacketId().set(i);
+            clients.add(client);
+            handler.add(session, route("(" + i + ", 'a')"));
+        }
+        TestBackendConnection conn = new TestBackendConnection();
+        handler.okResponse(batchOk(3), conn);
+        Assert.assertTrue(conn.released);
+
+        for (int i = 0; i < clients.size(); i++) {
+            TestServerConnection client = clients.get(i);
+            Assert.assertEquals(1, client.written.size());
+            OkPacket ok = client.written.get(0);
+            Assert.assertEquals(i + 1, ok.getPacketId());
+            Assert.assertEquals(1, ok.getAffectedRows());
+            Assert.assertEquals(0, ok.getInsertId());
+            Assert.assertEquals(0, client.getLastInsertId());
+        }
+
+        // the result of the batch is sent only once
+        handler.connectionClose(conn, "test");
+        for (TestServerConnection client : clients) {
+            Assert.assertEquals(1, client.written.size());
+            Assert.assertEquals(0, client.errors);
+        }
+    }
+
+    @Test
+    public void testErrorInBatch() {
+        final List<NonBlockingSession> executed = new ArrayList<>();
+        final List<RouteResultset> executedRoutes = new ArrayList<>();
+        InsertBatchHandler handler = new TestInsertBatchHandler() {
+            @Override
+            void executeAlone(NonBlockingSession session, RouteResultset rrs) {
+                executed.add(session);
+                executedRoutes.add(rrs);
+            }
+        };
+        List<NonBlockingSession> sessions = new ArrayList<>();
+        List<TestServerConnection> clients = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TestServerConnection client = new TestServerConnection();
+            NonBlockingSession session = new NonBlockingSession(client);
+            clients.add(client);
+            sessions.add(session);
+            handler.add(session, route("(" + i + ", 'a')"));
+        }
+        TestBackendConnection conn = new TestBackendConnection();
+        handler.errorResponse(duplicateError(), conn);
+        Assert.assertTrue(conn.released);
+
+        // the rows are executed again one by one in the order of the batch, the failed row gets its own error
+        Assert.assertEquals(sessions, executed);
+        for (int i = 0; i < executedRoutes.size(); i++) {
+            RouteResultset rrs = executedRoutes.get(i);
+            Assert.assertNull(rrs.getInsertBatchHeader());
+            Assert.assertEquals(HEADER + "(" + i + ", 'a')", rrs.getStatement());
+        }
+        // nothing is sent to the clients by the batch
+        handler.okResponse(batchOk(3), conn);
+        handler.connectionClose(conn, "test");
+        for (TestServerConnection client : clients) {
+            Assert.assertTrue(client.written.isEmpty());
+            Assert.assertEquals(0, client.errors);
+        }
+    }
+
+    private static RouteResultset route(String row) {
+        RouteResultset rrs = new RouteResultset(HEADER + row, ServerParse.INSERT);
+        rrs.setInsertBatch(HEADER, row);
+        return rrs;
+    }
+
+    private static byte[] batchOk(int affectedRows) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BufferUtil.writeUB3(buffer, 7);
+        buffer.put((byte) 1);
+        buffer.put(OkPacket.FIELD_COUNT);
+        BufferUtil.writeLength(buffer, affectedRows);
+        BufferUtil.writeLength(buffer, 0);
+        BufferUtil.writeUB2(buffer, 2);
+        BufferUtil.writeUB2(buffer, 0);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static byte[] duplicateError() {
+        byte[] message = "Duplicate entry '1' for key 'PRIMARY'".getBytes();
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BufferUtil.writeUB3(buffer, 9 + message.length);
+        buffer.put((byte) 1);
+        buffer.put(ErrorPacket.FIELD_COUNT);
+        BufferUtil.writeUB2(buffer, 1062);
+        buffer.put((byte) '#');
+        buffer.put("23000".getBytes());
+        buffer.put(message);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static class TestInsertBatchHandler extends InsertBatchHandler {
+        TestInsertBatchHandler() {
+            super("dn1", HEADER);
+        }
+
+        @Override
+        void writeOk(ServerConnection source, OkPacket ok) {
+            ((TestServerConnection) source).written.add(ok);
+        }
+    }
+
+    private static class TestServerConnection extends ServerConnection {
+        private final List<OkPacket> written = new ArrayList<>();
+        private int errors = 0;
+
+        @Override
+        public void writeErrMessage(int vendorCode, String msg) {
+            errors++;
+        }
+    }
+
+    private static class TestBackendConnection extends MySQLConnection {
+        private boolean released = false;
+
+        TestBackendConnection() {
+            super(null, new DbInstanceConfig("instance", "127.0.0.1", 3306, "127.0.0.1:3306", "test", "test", false, true),
+                    false, true, true);
+        }
+
+        @Override
+        public void release() {
+            released = true;
+        }
+    }
+}
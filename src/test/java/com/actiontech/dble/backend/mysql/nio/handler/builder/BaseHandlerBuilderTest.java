@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.builder;
+
+import com.actiontech.dble.config.model.SystemConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BaseHandlerBuilderTest {
+    private int oldMaxRows;
+
+    @Before
+    public void setUp() {
+        oldMaxRows = SystemConfig.getInstance().getOrderByTopNMaxRows();
+        SystemConfig.getInstance().setOrderByTopNMaxRows(100);
+    }
+
+    @After
+    public void tearDown() {
+        SystemConfig.getInstance().setOrderByTopNMaxRows(oldMaxRows);
+    }
+
+    @Test
+    public void testTopN() {
+        // no limit
+        Assert.assertEquals(-1, BaseHandlerBuilder.getTopN(-1, -1));
+        Assert.assertEquals(10, BaseHandlerBuilder.getTopN(-1, 10));
+        Assert.assertEquals(30, BaseHandlerBuilder.getTopN(20, 10));
+        Assert.assertEquals(0, BaseHandlerBuilder.getTopN(0, 0));
+        Assert.assertEquals(100, BaseHandlerBuilder.getTopN(90, 10));
+        // offset+limit over orderByTopNMaxRows is sorted as before
+        Assert.assertEquals(-1, BaseHandlerBuilder.getTopN(91, 10));
+        Assert.assertEquals(-1, BaseHandlerBuilder.getTopN(0, Long.MAX_VALUE));
+        Assert.assertEquals(-1, BaseHandlerBuilder.getTopN(Long.MAX_VALUE, 10));
+
+        SystemConfig.getInstance().setOrderByTopNMaxRows(0);
+        Assert.assertEquals(-1, BaseHandlerBuilder.getTopN(0, 10));
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.db.DbInstanceConfig;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.singleton.BufferPoolManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the tests of the complex query handlers which run on the complex query executor and spill to the buffer pool
+ */
+public abstract class AbstractHandlerTester {
+    protected static final int UTF8_GENERAL_CI = 33;
+    private ExecutorService executor;
+    private ExecutorService oldExecutor;
+
+    @Before
+    public void setUpExecutor() throws Exception {
+        if (BufferPoolManager.getBufferPool() == null) {
+            SystemConfig.getInstance().setBufferPoolPageSize(64 * 1024);
+            SystemConfig.getInstance().setBufferPoolPageNumber((short) 16);
+            BufferPoolManager.getInstance().init();
+        }
+        executor = Executors.newCachedThreadPool();
+        oldExecutor = setComplexQueryExecutor(executor);
+    }
+
+    @After
+    public void tearDownExecutor() throws Exception {
+        // the local results are closed by the handler after the eof is sent
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        setComplexQueryExecutor(oldExecutor);
+    }
+
+    private static ExecutorService setComplexQueryExecutor(ExecutorService newExecutor) throws Exception {
+        Field field = DbleServer.class.getDeclaredField("complexQueryExecutor");
+        field.setAccessible(true);
+        ExecutorService old = (ExecutorService) field.get(DbleServer.getInstance());
+        field.set(DbleServer.getInstance(), newExecutor);
+        return old;
+    }
+
+    protected static FieldPacket fieldPacket(String table, String name, FieldTypes type) {
+        FieldPacket fp = new FieldPacket();
+        fp.setName(name.getBytes());
+        fp.setTable(table.getBytes());
+        fp.setOrgTable(table.getBytes());
+        fp.setType(type.numberValue());
+        fp.setCharsetIndex(UTF8_GENERAL_CI);
+        fp.setLength(64);
+        if (type == FieldTypes.MYSQL_TYPE_NEWDECIMAL) {
+            fp.setDecimals((byte) 2);
+        }
+        return fp;
+    }
+
+    /**
+     * the session whose join and other buffers are limited by the given controller,
+     * the error is kept for the test thread because the handlers fail on the executor
+     */
+    public static class TestSession extends NonBlockingSession {
+        private final MemSizeController memSizeController;
+        private volatile String error;
+
+        public TestSession(MemSizeController memSizeController) {
+            super(new ServerConnection());
+            getSource().getCharset().setCollation("utf8_general_ci");
+            this.memSizeController = memSizeController;
+        }
+
+        @Override
+        public MemSizeController getJoinBufferMC() {
+            return memSizeController;
+        }
+
+        @Override
+        public MemSizeController getOtherBufferMC() {
+            return memSizeController;
+        }
+
+        @Override
+        public void onQueryError(byte[] message) {
+            error = new String(message);
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    /**
+     * the last handler of the chain, it keeps the rows sent to it
+     */
+    public static class CollectHandler extends BaseDMLHandler {
+        private final List<RowDataPacket> rows = Collections.synchronizedList(new ArrayList<RowDataPacket>());
+        private final CountDownLatch end = new CountDownLatch(1);
+        private volatile int fieldCount;
+
+        public CollectHandler() {
+            super(2, null);
+        }
+
+        @Override
+        public HandlerType type() {
+            return HandlerType.FINAL;
+        }
+
+        @Override
+        public void fieldEofResponse(byte[] header, List<byte[]> fields, List<FieldPacket> fieldPacketList, byte[] eof,
+                                     boolean left, BackendConnection conn) {
+            fieldCount = fieldPacketList.size();
+        }
+
+        @Override
+        public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean left, BackendConnection conn) {
+            rows.add(rowPacket);
+            return false;
+        }
+
+        @Override
+        public void rowEofResponse(byte[] eof, boolean left, BackendConnection conn) {
+            end.countDown();
+        }
+
+        @Override
+        protected void onTerminate() {
+        }
+
+        /**
+         * @return false if the eof is not received in time
+         */
+        public boolean awaitEnd(long timeout, TimeUnit unit) throws InterruptedException {
+            return end.await(timeout, unit);
+        }
+
+        public List<RowDataPacket> getRows() {
+            return rows;
+        }
+
+        public int getFieldCount() {
+            return fieldCount;
+        }
+    }
+
+    public static class TestBackendConnection extends MySQLConnection {
+        public TestBackendConnection() {
+            super(null, new DbInstanceConfig("instance", "127.0.0.1", 3306, "127.0.0.1:3306", "test", "test", false, true),
+                    false, true, true);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.BaseDMLHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataBatch;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LimitHandlerTest {
+
+    @Test
+    public void testRowBatch() {
+        LimitHandler limit = new LimitHandler(1, null, 3, 4);
+        CollectHandler collect = new CollectHandler();
+        limit.setNextHandlerOnly(collect);
+
+        Assert.assertFalse(limit.rowBatchResponse(batch(0, 2), false, null));
+        Assert.assertTrue(collect.rows.isEmpty());
+        Assert.assertFalse(limit.rowBatchResponse(batch(2, 5), false, null));
+        Assert.assertTrue(limit.rowBatchResponse(batch(5, 9), false, null));
+        Assert.assertTrue(limit.rowResponse(null, row(9), false, null));
+        Assert.assertEquals(4, collect.rows.size());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(3 + i, collect.rows.get(i).fieldValues.get(0)[0]);
+        }
+    }
+
+    private static RowDataBatch batch(int from, int to) {
+        RowDataBatch batch = new RowDataBatch(1);
+        for (int i = from; i < to; i++) {
+            batch.add(row(i));
+        }
+        return batch;
+    }
+
+    private static RowDataPacket row(int value) {
+        RowDataPacket row = new RowDataPacket(1);
+        row.add(new byte[]{(byte) value});
+        return row;
+    }
+
+    private static class CollectHandler extends BaseDMLHandler {
+        private final List<RowDataPacket> rows = new ArrayList<>();
+
+        CollectHandler() {
+            super(2, null);
+        }
+
+        @Override
+        public HandlerType type() {
+            return HandlerType.FINAL;
+        }
+
+        @Override
+        public void fieldEofResponse(byte[] header, List<byte[]> fields, List<FieldPacket> fieldPacketList, byte[] eof,
+                                     boolean left, BackendConnection conn) {
+        }
+
+        @Override
+        public boolean rowResponse(byte[] rowNull, RowDataPacket rowPacket, boolean left, BackendConnection conn) {
+            rows.add(rowPacket);
+            return false;
+        }
+
+        @Override
+        public void rowEofResponse(byte[] eof, boolean left, BackendConnection conn) {
+        }
+
+        @Override
+        protected void onTerminate() {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.groupby;
+
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.AbstractHandlerTester;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.plan.common.item.Item;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSum;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumCount;
+import com.actiontech.dble.plan.common.item.function.sumfunc.ItemSumSum;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+public class DirectGroupByHandlerTest extends AbstractHandlerTester {
+
+    @Test
+    public void testGroupInMemory() throws Exception {
+        checkGroupBy(new MemSizeController(1024L * 1024L * 64L));
+    }
+
+    @Test
+    public void testGroupSpilledToDisk() throws Exception {
+        // every bucket writes its groups to disk at every row
+        checkGroupBy(new MemSizeController(1));
+    }
+
+    /**
+     * the keys differ only by case in the rows, they are equal groups in the case insensitive collation
+     * but are hashed to different buckets, so they are grouped again in the merge of the buckets
+     */
+    private void checkGroupBy(MemSizeController memSizeController) throws Exception {
+        Random random = new Random(1);
+        List<RowDataPacket> rows = new ArrayList<>();
+        TreeMap<String, long[]> expected = new TreeMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String key = "key" + random.nextInt(50);
+            if (random.nextBoolean()) {
+                key = key.toUpperCase();
+            }
+            int value = random.nextInt(1000);
+            RowDataPacket row = new RowDataPacket(2);
+            row.add(key.getBytes());
+            row.add(String.valueOf(value).getBytes());
+            rows.add(row);
+            long[] group = expected.get(key.toUpperCase());
+            if (group == null) {
+                group = new long[2];
+                expected.put(key.toUpperCase(), group);
+            }
+            group[0] += value;
+            group[1]++;
+        }
+
+        CollectHandler collect = new CollectHandler();
+        TestSession session = new TestSession(memSizeController);
+        DirectGroupByHandler handler = new DirectGroupByHandler(1, session,
+                Collections.singletonList(new Order(new ItemField(null, "t", "k"))), sumFunctions());
+        handler.setNextHandlerOnly(collect);
+        MySQLConnection conn = new TestBackendConnection();
+        handler.fieldEofResponse(null, null, Arrays.asList(fieldPacket("t", "k", FieldTypes.MYSQL_TYPE_VAR_STRING),
+                fieldPacket("t", "v", FieldTypes.MYSQL_TYPE_LONG)), null, false, conn);
+        for (RowDataPacket row : rows) {
+            handler.rowResponse(null, row, false, conn);
+        }
+        handler.rowEofResponse(null, false, conn);
+        boolean ended = collect.awaitEnd(30, TimeUnit.SECONDS);
+        Assert.assertNull(session.getError());
+        Assert.assertTrue(ended);
+
+        // sum(v), count(v), k, v
+        Assert.assertEquals(4, collect.getFieldCount());
+        Assert.assertEquals(expected.size(), collect.getRows().size());
+        int index = 0;
+        for (Map.Entry<String, long[]> group : expected.entrySet()) {
+            RowDataPacket row = collect.getRows().get(index++);
+            Assert.assertEquals(group.getKey(), new String(row.getValue(2)).toUpperCase());
+            Assert.assertEquals(group.getValue()[0], Long.parseLong(new String(row.getValue(0))));
+            Assert.assertEquals(group.getValue()[1], Long.parseLong(new String(row.getValue(1))));
+        }
+    }
+
+    private static List<ItemSum> sumFunctions() {
+        List<Item> sumArgs = new ArrayList<>();
+        sumArgs.add(new ItemField(null, "t", "v"));
+        ItemSum sum = new ItemSumSum(sumArgs, false, false, null);
+        sum.setItemName("sum(v)");
+        List<Item> countArgs = new ArrayList<>();
+        countArgs.add(new ItemField(null, "t", "v"));
+        ItemSum count = new ItemSumCount(countArgs, false, false, null);
+        count.setItemName("count(v)");
+        List<ItemSum> sums = new ArrayList<>();
+        sums.add(sum);
+        sums.add(count);
+        return sums;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.query.impl.join;
+
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.handler.query.impl.AbstractHandlerTester;
+import com.actiontech.dble.backend.mysql.store.memalloc.MemSizeController;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.plan.common.item.ItemField;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class HashJoinHandlerTest extends AbstractHandlerTester {
+    /* a.id int */
+    private static final String[][] LEFT_ROWS = {{"1"}, {"2"}, {"2"}, {null}, {"3"}, {"5"}};
+    /* b.id decimal, b.name varchar */
+    private static final String[][] RIGHT_ROWS = {{"1.0", "x"}, {"2", "y"}, {"2.00", "z"}, {null, "n"}, {"4", "w"}};
+    private static final List<String> INNER_JOIN = Arrays.asList(
+            "1,1.0,x", "2,2,y", "2,2,y", "2,2.00,z", "2,2.00,z");
+    private static final List<String> LEFT_JOIN = Arrays.asList(
+            "1,1.0,x", "2,2,y", "2,2,y", "2,2.00,z", "2,2.00,z", "3,null,null", "5,null,null", "null,null,null");
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        // null keys are never joined, every duplicate key of the build side is joined
+        Assert.assertEquals(INNER_JOIN, join(false, false, false));
+        Assert.assertEquals(INNER_JOIN, join(false, true, false));
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        Assert.assertEquals(LEFT_JOIN, join(true, false, false));
+    }
+
+    @Test
+    public void testSpilledJoin() throws Exception {
+        Assert.assertEquals(INNER_JOIN, join(false, false, true));
+        Assert.assertEquals(INNER_JOIN, join(false, true, true));
+        Assert.assertEquals(LEFT_JOIN, join(true, false, true));
+    }
+
+    /**
+     * select * from a [left] join b on a.id = b.id
+     *
+     * @return the sorted rows of the join
+     */
+    private List<String> join(boolean isLeftJoin, boolean isBuildLeft, boolean spill) throws Exception {
+        // the hash table is spilled at the first row if the join buffer is full
+        TestSession session = new TestSession(new MemSizeController(spill ? 1 : 1024L * 1024L * 64L));
+        HashJoinHandler handler = new HashJoinHandler(1, session, isLeftJoin, isBuildLeft,
+                Collections.singletonList(new Order(new ItemField(null, "a", "id"))),
+                Collections.singletonList(new Order(new ItemField(null, "b", "id"))), null);
+        CollectHandler collect = new CollectHandler();
+        handler.setNextHandlerOnly(collect);
+        MySQLConnection conn = new TestBackendConnection();
+
+        // the rows of one side may arrive before the fields of the other side
+        handler.fieldEofResponse(null, null, Collections.singletonList(fieldPacket("a", "id", FieldTypes.MYSQL_TYPE_LONG)),
+                null, true, conn);
+        sendRows(handler, LEFT_ROWS, true, conn);
+        handler.fieldEofResponse(null, null, Arrays.asList(fieldPacket("b", "id", FieldTypes.MYSQL_TYPE_NEWDECIMAL),
+                fieldPacket("b", "name", FieldTypes.MYSQL_TYPE_VAR_STRING)), null, false, conn);
+        sendRows(handler, RIGHT_ROWS, false, conn);
+        boolean ended = collect.awaitEnd(30, TimeUnit.SECONDS);
+        Assert.assertNull(session.getError());
+        Assert.assertTrue(ended);
+        Assert.assertEquals(3, collect.getFieldCount());
+
+        List<String> rows = new ArrayList<>();
+        for (RowDataPacket row : collect.getRows()) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < row.getFieldCount(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                byte[] value = row.getValue(i);
+                sb.append(value == null ? "null" : new String(value));
+            }
+            rows.add(sb.toString());
+        }
+        Collections.sort(rows);
+        return rows;
+    }
+
+    private static void sendRows(HashJoinHandler handler, String[][] rows, boolean isLeft, MySQLConnection conn) {
+        for (String[] values : rows) {
+            RowDataPacket row = new RowDataPacket(values.length);
+            for (String value : values) {
+                row.add(value == null ? null : value.getBytes());
+            }
+            handler.rowResponse(null, row, isLeft, conn);
+        }
+        handler.rowEofResponse(null, isLeft, conn);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.backend.mysql.nio.handler.query.DMLResponseHandler;
+import com.actiontech.dble.net.mysql.FieldPacket;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.plan.common.item.ItemField;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JoinKeyHasherTest {
+    private static final int UTF8_GENERAL_CI = 33;
+
+    @Test
+    public void testNull() {
+        Join join = new Join(FieldTypes.MYSQL_TYPE_LONG, FieldTypes.MYSQL_TYPE_LONG, true);
+        Assert.assertNull(join.hasher.makeLeftKey(row((String) null)));
+        Assert.assertNull(join.hasher.makeRightKey(row((String) null)));
+        Assert.assertNotNull(join.hasher.makeLeftKey(row("0")));
+
+        // a null in any join column
+        List<FieldPacket> fps = new ArrayList<>();
+        fps.add(fieldPacket("a", "id", FieldTypes.MYSQL_TYPE_LONG));
+        fps.add(fieldPacket("a", "name", FieldTypes.MYSQL_TYPE_VAR_STRING));
+        List<Order> orders = new ArrayList<>();
+        orders.add(new Order(new ItemField(null, "a", "id")));
+        orders.add(new Order(new ItemField(null, "a", "name")));
+        JoinKeyHasher hasher = new JoinKeyHasher(fps, fps, orders, orders, false,
+                DMLResponseHandler.HandlerType.JOIN, true);
+        Assert.assertNull(hasher.makeLeftKey(row("1", null)));
+        Assert.assertNull(hasher.makeLeftKey(row(null, "a")));
+        Assert.assertEquals(hasher.makeLeftKey(row("1", "a")), hasher.makeRightKey(row("1", "A")));
+    }
+
+    @Test
+    public void testDifferentTypes() {
+        Join join = new Join(FieldTypes.MYSQL_TYPE_LONG, FieldTypes.MYSQL_TYPE_NEWDECIMAL, true);
+        join.assertEqual("2", "2.00");
+        join.assertEqual("0", "-0.0");
+        join.assertNotEqual("2", "2.01");
+
+        join = new Join(FieldTypes.MYSQL_TYPE_NEWDECIMAL, FieldTypes.MYSQL_TYPE_DOUBLE, true);
+        join.assertEqual("1.50", "1.5");
+        join.assertNotEqual("1.50", "1.51");
+
+        join = new Join(FieldTypes.MYSQL_TYPE_LONG, FieldTypes.MYSQL_TYPE_VAR_STRING, true);
+        join.assertEqual("12", "12");
+        join.assertEqual("12", "12.0");
+    }
+
+    @Test
+    public void testString() {
+        Join join = new Join(FieldTypes.MYSQL_TYPE_VAR_STRING, FieldTypes.MYSQL_TYPE_VAR_STRING, true);
+        join.assertEqual("abc", "ABC");
+        join.assertNotEqual("abc", "abd");
+
+        join = new Join(FieldTypes.MYSQL_TYPE_VAR_STRING, FieldTypes.MYSQL_TYPE_VAR_STRING, false);
+        join.assertEqual("abc", "abc");
+        join.assertNotEqual("abc", "ABC");
+    }
+
+    private static RowDataPacket row(String... values) {
+        RowDataPacket row = new RowDataPacket(values.length);
+        for (String value : values) {
+            row.add(value == null ? null : value.getBytes());
+        }
+        return row;
+    }
+
+    private static FieldPacket fieldPacket(String table, String name, FieldTypes type) {
+        FieldPacket fp = new FieldPacket();
+        fp.setName(name.getBytes());
+        fp.setTable(table.getBytes());
+        fp.setOrgTable(table.getBytes());
+        fp.setType(type.numberValue());
+        fp.setCharsetIndex(UTF8_GENERAL_CI);
+        fp.setLength(64);
+        if (type == FieldTypes.MYSQL_TYPE_NEWDECIMAL) {
+            fp.setDecimals((byte) 2);
+        } else if (type == FieldTypes.MYSQL_TYPE_DOUBLE) {
+            fp.setDecimals((byte) 31);
+        }
+        return fp;
+    }
+
+    /**
+     * the join of a.id = b.id, the hasher must agree with the comparator which checks the candidates
+     */
+    private static class Join {
+        private final JoinKeyHasher hasher;
+        private final TwoTableComparator comparator;
+
+        Join(FieldTypes leftType, FieldTypes rightType, boolean caseInsensitive) {
+            List<FieldPacket> leftFps = Collections.singletonList(fieldPacket("a", "id", leftType));
+            List<FieldPacket> rightFps = Collections.singletonList(fieldPacket("b", "id", rightType));
+            List<Order> leftOrders = Collections.singletonList(new Order(new ItemField(null, "a", "id")));
+            List<Order> rightOrders = Collections.singletonList(new Order(new ItemField(null, "b", "id")));
+            hasher = new JoinKeyHasher(leftFps, rightFps, leftOrders, rightOrders, false,
+                    DMLResponseHandler.HandlerType.JOIN, caseInsensitive);
+            comparator = new TwoTableComparator(leftFps, rightFps, leftOrders, rightOrders, false,
+                    DMLResponseHandler.HandlerType.JOIN, caseInsensitive);
+        }
+
+        void assertEqual(String left, String right) {
+            Assert.assertEquals(0, comparator.compare(row(left), row(right)));
+            Object leftKey = hasher.makeLeftKey(row(left));
+            Object rightKey = hasher.makeRightKey(row(right));
+            Assert.assertEquals(leftKey, rightKey);
+            Assert.assertEquals(leftKey.hashCode(), rightKey.hashCode());
+        }
+
+        void assertNotEqual(String left, String right) {
+            Assert.assertNotEquals(0, comparator.compare(row(left), row(right)));
+            Assert.assertNotEquals(hasher.makeLeftKey(row(left)), hasher.makeRightKey(row(right)));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class LoserTreeTest {
+    private static final Comparator<Integer> COMPARATOR = new Comparator<Integer>() {
+        @Override
+        public int compare(Integer o1, Integer o2) {
+            return o1.compareTo(o2);
+        }
+    };
+
+    @Test
+    public void testMerge() {
+        Random random = new Random(7);
+        for (int k = 1; k <= 17; k++) {
+            List<Iterator<Integer>> sources = new ArrayList<>();
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < k; i++) {
+                List<Integer> source = new ArrayList<>();
+                int size = random.nextInt(20);
+                for (int j = 0; j < size; j++) {
+                    source.add(random.nextInt(50));
+                }
+                Collections.sort(source);
+                expected.addAll(source);
+                sources.add(source.iterator());
+            }
+            Collections.sort(expected);
+
+            LoserTree<Integer> tree = new LoserTree<>(k, COMPARATOR);
+            for (int i = 0; i < k; i++) {
+                tree.setLeaf(i, sources.get(i).hasNext() ? sources.get(i).next() : null);
+            }
+            tree.build();
+            List<Integer> merged = new ArrayList<>();
+            Integer top;
+            while ((top = tree.peek()) != null) {
+                merged.add(top);
+                Iterator<Integer> source = sources.get(tree.getWinnerIndex());
+                tree.replaceWinner(source.hasNext() ? source.next() : null);
+            }
+            Assert.assertEquals("k = " + k, expected, merged);
+        }
+    }
+
+    @Test
+    public void testAllExhausted() {
+        LoserTree<Integer> tree = new LoserTree<>(3, COMPARATOR);
+        tree.build();
+        Assert.assertNull(tree.peek());
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.nio.handler.util;
+
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RowDataBatchTest {
+
+    @Test
+    public void testFilterInPlace() {
+        RowDataBatch batch = new RowDataBatch(2);
+        RowDataPacket[] rows = new RowDataPacket[5];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new RowDataPacket(1);
+            batch.add(rows[i]);
+        }
+        Assert.assertEquals(5, batch.size());
+        int kept = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            if (i % 2 == 0) {
+                batch.set(kept++, batch.get(i));
+            }
+        }
+        batch.truncate(kept);
+        Assert.assertEquals(3, batch.size());
+        Assert.assertSame(rows[0], batch.get(0));
+        Assert.assertSame(rows[2], batch.get(1));
+        Assert.assertSame(rows[4], batch.get(2));
+        batch.clear();
+        Assert.assertTrue(batch.isEmpty());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store;
+
+import com.actiontech.dble.backend.mysql.nio.handler.util.RowDataComparator;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import com.actiontech.dble.plan.Order;
+import com.actiontech.dble.plan.common.field.Field;
+import com.actiontech.dble.plan.common.item.FieldTypes;
+import com.actiontech.dble.plan.common.item.ItemField;
+import com.alibaba.druid.sql.ast.SQLOrderingSpecification;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TopNSortedLocalResultTest {
+
+    @Test
+    public void testAsc() {
+        TopNSortedLocalResult result = result(SQLOrderingSpecification.ASC, 3);
+        add(result, 5, 1, 9, 3, 7, 2, 8);
+        Assert.assertEquals(Arrays.asList(1, 2, 3), ids(result));
+    }
+
+    @Test
+    public void testDesc() {
+        TopNSortedLocalResult result = result(SQLOrderingSpecification.DESC, 3);
+        add(result, 5, 1, 9, 3, 7, 2, 8);
+        Assert.assertEquals(Arrays.asList(9, 8, 7), ids(result));
+    }
+
+    @Test
+    public void testTopNLargerThanInput() {
+        TopNSortedLocalResult result = result(SQLOrderingSpecification.ASC, 10);
+        add(result, 3, 1, 2);
+        Assert.assertEquals(Arrays.asList(1, 2, 3), ids(result));
+
+        result = result(SQLOrderingSpecification.DESC, 10);
+        add(result);
+        Assert.assertEquals(Collections.emptyList(), ids(result));
+    }
+
+    @Test
+    public void testZero() {
+        TopNSortedLocalResult result = result(SQLOrderingSpecification.ASC, 0);
+        add(result, 3, 1, 2);
+        Assert.assertEquals(Collections.emptyList(), ids(result));
+    }
+
+    @Test
+    public void testTies() {
+        TopNSortedLocalResult result = result(SQLOrderingSpecification.ASC, 4);
+        add(result, 2, 1, 2, 2, 3, 1, 2, 0);
+        Assert.assertEquals(Arrays.asList(0, 1, 1, 2), ids(result));
+
+        // the rows equal to the last one kept are dropped, the count is still topN
+        result = result(SQLOrderingSpecification.DESC, 3);
+        add(result, 1, 2, 2, 2, 2, 1);
+        Assert.assertEquals(Arrays.asList(2, 2, 2), ids(result));
+    }
+
+    private static TopNSortedLocalResult result(SQLOrderingSpecification sortOrder, long topN) {
+        Field field = Field.getFieldItem("id", null, "t", "t", FieldTypes.MYSQL_TYPE_LONG.numberValue(), 63, 11, 0, 0);
+        List<Field> fields = Collections.singletonList(field);
+        List<Order> orders = Collections.singletonList(new Order(new ItemField(null, "t", "id"), sortOrder));
+        return new TopNSortedLocalResult(null, 1, new RowDataComparator(fields, orders), "utf8", topN);
+    }
+
+    private static void add(TopNSortedLocalResult result, int... ids) {
+        for (int id : ids) {
+            RowDataPacket row = new RowDataPacket(1);
+            row.add(String.valueOf(id).getBytes());
+            result.add(row);
+        }
+        result.done();
+    }
+
+    private static List<Integer> ids(TopNSortedLocalResult result) {
+        List<Integer> ids = new ArrayList<>();
+        RowDataPacket row;
+        while ((row = result.next()) != null) {
+            ids.add(Integer.parseInt(new String(row.fieldValues.get(0))));
+        }
+        Assert.assertEquals(ids.size(), result.getRowCount());
+        return ids;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.store.diskbuffer;
+
+import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.net.mysql.RowDataPacket;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UnSortedResultDiskBufferTest {
+    private static final int COLUMN_COUNT = 3;
+
+    @Test
+    public void testPlainBlocks() {
+        checkSpill(0);
+    }
+
+    @Test
+    public void testCompressedBlocks() {
+        checkSpill(1);
+    }
+
+    private void checkSpill(int useSpillCompression) {
+        int old = SystemConfig.getInstance().getUseSpillCompression();
+        SystemConfig.getInstance().setUseSpillCompression(useSpillCompression);
+        DirectByteBufferPool pool = new DirectByteBufferPool(1024 * 1024, (short) 4096, (short) 2);
+        UnSortedResultDiskBuffer buffer = new UnSortedResultDiskBuffer(pool, COLUMN_COUNT);
+        try {
+            // more than one block, and one value bigger than the block
+            buffer.addRows(makeRows(0, 5000));
+            buffer.addRows(makeRows(5000, 5000));
+            buffer.done();
+            for (int round = 0; round < 2; round++) {
+                buffer.reset();
+                for (int i = 0; i < 10000; i++) {
+                    checkRow(i, buffer.next());
+                }
+                Assert.assertNull(buffer.next());
+            }
+        } finally {
+            buffer.close();
+            SystemConfig.getInstance().setUseSpillCompression(old);
+        }
+    }
+
+    private List<RowDataPacket> makeRows(int from, int count) {
+        List<RowDataPacket> rows = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            RowDataPacket row = new RowDataPacket(COLUMN_COUNT);
+            row.add(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+            row.add(i % 3 == 0 ? null : new byte[0]);
+            row.add(i == 7777 ? new byte[ResultDiskBuffer.BLOCK_SIZE * 2] : ("name_" + (i % 10)).getBytes(StandardCharsets.UTF_8));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void checkRow(int i, RowDataPacket row) {
+        Assert.assertNotNull(row);
+        Assert.assertEquals(String.valueOf(i), new String(row.getValue(0), StandardCharsets.UTF_8));
+        if (i % 3 == 0) {
+            Assert.assertNull(row.getValue(1));
+        } else {
+            Assert.assertEquals(0, row.getValue(1).length);
+        }
+        if (i == 7777) {
+            Assert.assertEquals(ResultDiskBuffer.BLOCK_SIZE * 2, row.getValue(2).length);
+        } else {
+            Assert.assertEquals("name_" + (i % 10), new String(row.getValue(2), StandardCharsets.UTF_8));
+        }
+    }
+}
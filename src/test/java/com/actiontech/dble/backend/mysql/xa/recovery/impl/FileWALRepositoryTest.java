@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.backend.mysql.xa.recovery.impl;
+
+import com.actiontech.dble.backend.mysql.xa.CoordinatorLogEntry;
+import com.actiontech.dble.backend.mysql.xa.ParticipantLogEntry;
+import com.actiontech.dble.backend.mysql.xa.TxState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class FileWALRepositoryTest {
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("xalog").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testLastRecordWins() {
+        FileWALRepository wal = new FileWALRepository(dir.getPath(), "xalog", new InMemoryRepository());
+        CoordinatorLogEntry a = newEntry("'Dble_Server.1.1'", TxState.TX_STARTED_STATE);
+        CoordinatorLogEntry b = newEntry("'Dble_Server.1.2'", TxState.TX_STARTED_STATE);
+        wal.append(a, false);
+        wal.append(b, false);
+        a.setTxState(TxState.TX_COMMITTING_STATE);
+        a.getParticipants()[1].setTxState(TxState.TX_COMMIT_FAILED_STATE);
+        Assert.assertTrue(wal.append(a, true));
+        b.setTxState(TxState.TX_COMMITTED_STATE);
+        Assert.assertTrue(wal.append(b, true));
+        wal.close();
+
+        Map<String, CoordinatorLogEntry> entries = recover();
+        Assert.assertEquals(1, entries.size());
+        CoordinatorLogEntry recovered = entries.get(a.getId());
+        Assert.assertEquals(TxState.TX_COMMITTING_STATE, recovered.getTxState());
+        Assert.assertEquals(2, recovered.getParticipants().length);
+        Assert.assertEquals(TxState.TX_PREPARED_STATE, recovered.getParticipants()[0].getTxState());
+        Assert.assertEquals(TxState.TX_COMMIT_FAILED_STATE, recovered.getParticipants()[1].getTxState());
+        Assert.assertEquals("db2", recovered.getParticipants()[1].getSchema());
+        Assert.assertEquals(3307, recovered.getParticipants()[1].getPort());
+        Assert.assertEquals(a.getId(), recovered.getParticipants()[1].getCoordinatorId());
+    }
+
+    @Test
+    public void testTornTailIsTruncated() throws IOException {
+        FileWALRepository wal = new FileWALRepository(dir.getPath(), "xalog", new InMemoryRepository());
+        Assert.assertTrue(wal.append(newEntry("'Dble_Server.1.1'", TxState.TX_PREPARING_STATE), true));
+        wal.close();
+        byte[] record = FileWALRepository.toRecord(newEntry("'Dble_Server.1.2'", TxState.TX_PREPARING_STATE));
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "xalog.wal"), true)) {
+            out.write(record, 0, record.length - 3);
+        }
+        Assert.assertEquals(1, recover().size());
+
+        wal = new FileWALRepository(dir.getPath(), "xalog", new InMemoryRepository());
+        Assert.assertTrue(wal.append(newEntry("'Dble_Server.1.3'", TxState.TX_ROLLBACKING_STATE), true));
+        wal.close();
+        Map<String, CoordinatorLogEntry> entries = recover();
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals(TxState.TX_ROLLBACKING_STATE, entries.get("'Dble_Server.1.3'").getTxState());
+    }
+
+    @Test
+    public void testUninitializedEntryIsSkipped() {
+        FileWALRepository wal = new FileWALRepository(dir.getPath(), "xalog", new InMemoryRepository());
+        CoordinatorLogEntry entry = new CoordinatorLogEntry("'Dble_Server.1.1'", new ParticipantLogEntry[2], TxState.TX_STARTED_STATE);
+        Assert.assertTrue(wal.append(entry, true));
+        wal.close();
+        Assert.assertTrue(recover().isEmpty());
+    }
+
+    @Test
+    public void testCheckpointReplacesLog() {
+        FileWALRepository wal = new FileWALRepository(dir.getPath(), "xalog", new InMemoryRepository());
+        CoordinatorLogEntry a = newEntry("'Dble_Server.1.1'", TxState.TX_PREPARING_STATE);
+        CoordinatorLogEntry b = newEntry("'Dble_Server.1.2'", TxState.TX_PREPARING_STATE);
+        for (int i = 0; i < 100; i++) {
+            wal.append(a, false);
+            wal.append(b, false);
+        }
+        Assert.assertTrue(wal.append(a, true));
+        long size = new File(dir, "xalog.wal").length();
+
+        a.setTxState(TxState.TX_COMMITTING_STATE);
+        Assert.assertTrue(wal.writeCheckpoint(Collections.singletonList(a)));
+        Assert.assertTrue(new File(dir, "xalog.wal").length() < size);
+        Assert.assertEquals(TxState.TX_COMMITTING_STATE, wal.get(a.getId()).getTxState());
+        Assert.assertNull(wal.get(b.getId()));
+
+        // appended behind the checkpoint
+        CoordinatorLogEntry c = newEntry("'Dble_Server.1.3'", TxState.TX_ROLLBACKING_STATE);
+        Assert.assertTrue(wal.append(c, true));
+        wal.close();
+        Assert.assertFalse(wal.writeCheckpoint(Collections.singletonList(a)));
+
+        Map<String, CoordinatorLogEntry> entries = recover();
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals(TxState.TX_COMMITTING_STATE, entries.get(a.getId()).getTxState());
+        Assert.assertEquals(TxState.TX_ROLLBACKING_STATE, entries.get(c.getId()).getTxState());
+    }
+
+    private Map<String, CoordinatorLogEntry> recover() {
+        FileWALRepository reader = new FileWALRepository(dir.getPath(), "xalog", null);
+        Map<String, CoordinatorLogEntry> entries = new HashMap<>();
+        for (CoordinatorLogEntry entry : reader.getAllCoordinatorLogEntries(true)) {
+            entries.put(entry.getId(), entry);
+        }
+        reader.close();
+        return entries;
+    }
+
+    private static CoordinatorLogEntry newEntry(String id, TxState state) {
+        ParticipantLogEntry[] participants = new ParticipantLogEntry[]{
+                new ParticipantLogEntry(id, "127.0.0.1", 3306, 0, "db1", TxState.TX_PREPARED_STATE),
+                new ParticipantLogEntry(id, "127.0.0.1", 3307, 0, "db2", TxState.TX_PREPARED_STATE),
+        };
+        return new CoordinatorLogEntry(id, participants, state);
+    }
+}
@@ -0,0 +1,188 @@
+package com.actiontech.dble.backend.pool;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnectionListener;
+import com.actiontech.dble.backend.mysql.nio.MySQLInstance;
+import com.actiontech.dble.config.model.db.DbGroupConfig;
+import com.actiontech.dble.config.model.db.DbInstanceConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.STATE_IN_USE;
+
+public class ConnectionPoolTest {
+    private static final String[] SCHEMAS = {"db1", "db2", "db3"};
+    private static final int MAX_CON = 8;
+    private DbInstanceConfig config;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        config = newConfig();
+        config.setMaxCon(MAX_CON);
+        config.setMinCon(2);
+        PoolConfig poolConfig = new PoolConfig();
+        // every idle connection over minCon is evicted by each run of the evictor
+        poolConfig.setIdleTimeout(0);
+        config.setPoolConfig(poolConfig);
+        MySQLInstance instance = new MySQLInstance(config, new DbGroupConfig("group", config, null, -1), false);
+        pool = new ConnectionPool(config, instance) {
+            @Override
+            BackendConnection newConnection(String schema, MySQLConnectionListener listener) {
+                TestConnection conn = new TestConnection(config, this);
+                conn.setSchema(schema);
+                listener.onCreateSuccess(conn);
+                return conn;
+            }
+        };
+        // opened without the evictor, the test runs it by itself
+        Field isClosed = ConnectionPool.class.getDeclaredField("isClosed");
+        isClosed.setAccessible(true);
+        ((AtomicBoolean) isClosed.get(pool)).set(false);
+    }
+
+    @Test
+    public void testBorrowReleased() throws Exception {
+        BackendConnection conn1 = pool.borrow("db1", 1, TimeUnit.SECONDS);
+        BackendConnection conn2 = pool.borrow("db2", 1, TimeUnit.SECONDS);
+        Assert.assertNotSame(conn1, conn2);
+        pool.release(conn1);
+        pool.release(conn2);
+
+        // the recent connection of the schema is borrowed before the latest released one
+        Assert.assertSame(conn1, pool.borrow("db1", 1, TimeUnit.SECONDS));
+        Assert.assertSame(conn2, pool.borrow("db2", 1, TimeUnit.SECONDS));
+        Assert.assertEquals(STATE_IN_USE, conn1.getState());
+        Assert.assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testBorrowReleasedByOtherThread() throws Exception {
+        final BackendConnection conn = pool.borrow("db1", 1, TimeUnit.SECONDS);
+        pool.release(conn);
+        final List<BackendConnection> borrowed = new ArrayList<>();
+        Thread other = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    borrowed.add(pool.borrow("db1", 1, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        other.start();
+        other.join();
+        // taken from the idle stack of the schema, the entry left in the recent list is skipped
+        Assert.assertSame(conn, borrowed.get(0));
+        Assert.assertNotSame(conn, pool.borrow("db1", 1, TimeUnit.SECONDS));
+        Assert.assertEquals(2, pool.size());
+    }
+
+    @Test
+    public void testBorrowEvicted() throws Exception {
+        List<BackendConnection> conns = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            conns.add(pool.borrow("db1", 1, TimeUnit.SECONDS));
+        }
+        for (BackendConnection conn : conns) {
+            pool.release(conn);
+        }
+        pool.new Evictor().run();
+        Assert.assertEquals(2, pool.size());
+
+        // the closed connections left in the recent list and the idle stacks are never borrowed
+        for (int i = 0; i < 4; i++) {
+            BackendConnection conn = pool.borrow("db1", 1, TimeUnit.SECONDS);
+            Assert.assertFalse(conn.isClosed());
+        }
+    }
+
+    @Test
+    public void testConcurrentBorrowAndEvict() throws Exception {
+        final int threads = 8;
+        final ConcurrentHashMap<BackendConnection, Thread> owners = new ConcurrentHashMap<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final AtomicInteger borrowed = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 2000; j++) {
+                            String schema = SCHEMAS[(index + j) % SCHEMAS.length];
+                            BackendConnection conn = pool.borrow(schema, 5, TimeUnit.SECONDS);
+                            if (conn == null) {
+                                continue;
+                            }
+                            borrowed.incrementAndGet();
+                            if (owners.putIfAbsent(conn, Thread.currentThread()) != null) {
+                                duplicates.incrementAndGet();
+                                continue;
+                            }
+                            if (conn.isClosed() || conn.getState() != STATE_IN_USE) {
+                                closed.incrementAndGet();
+                            }
+                            // the schema sync of the caller
+                            ((MySQLConnection) conn).setSchema(schema);
+                            Thread.yield();
+                            owners.remove(conn);
+                            pool.release(conn);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        ConnectionPool.Evictor evictor = pool.new Evictor();
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            evictor.run();
+        }
+
+        Assert.assertEquals(0, duplicates.get());
+        Assert.assertEquals(0, closed.get());
+        Assert.assertTrue(borrowed.get() > 0);
+        Assert.assertTrue(pool.size() <= MAX_CON);
+        Assert.assertEquals(0, pool.getCount(STATE_IN_USE));
+    }
+
+    static DbInstanceConfig newConfig() {
+        return new DbInstanceConfig("instance", "127.0.0.1", 3306, "127.0.0.1:3306", "test", "test", false, true);
+    }
+
+    static class TestConnection extends MySQLConnection {
+        private final ConnectionPool pool;
+
+        TestConnection(DbInstanceConfig config, ConnectionPool pool) {
+            super(null, config, false, true, true);
+            this.pool = pool;
+        }
+
+        @Override
+        public synchronized void close(String reason) {
+            if (!isClosed) {
+                isClosed = true;
+                if (pool != null) {
+                    pool.close(this);
+                }
+            }
+        }
+    }
+}
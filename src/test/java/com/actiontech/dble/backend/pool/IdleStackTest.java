@@ -0,0 +1,142 @@
+package com.actiontech.dble.backend.pool;
+
+import com.actiontech.dble.backend.BackendConnection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.STATE_IN_USE;
+import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.STATE_NOT_IN_USE;
+import static com.actiontech.dble.backend.mysql.nio.MySQLConnection.STATE_RESERVED;
+
+public class IdleStackTest {
+
+    private static List<BackendConnection> newConnections(int count) {
+        List<BackendConnection> conns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BackendConnection conn = new ConnectionPoolTest.TestConnection(ConnectionPoolTest.newConfig(), null);
+            conn.lazySet(STATE_NOT_IN_USE);
+            conns.add(conn);
+        }
+        return conns;
+    }
+
+    @Test
+    public void testPushPop() {
+        List<BackendConnection> conns = newConnections(4);
+        IdleStack stack = new IdleStack();
+        Assert.assertNull(stack.pop());
+        for (BackendConnection conn : conns) {
+            stack.push(conn, 3);
+        }
+        // the latest first, the eldest one is dropped over maxSize
+        Assert.assertSame(conns.get(3), stack.pop());
+        Assert.assertSame(conns.get(2), stack.pop());
+        stack.push(conns.get(0), 3);
+        Assert.assertSame(conns.get(0), stack.pop());
+        Assert.assertSame(conns.get(1), stack.pop());
+        Assert.assertNull(stack.pop());
+
+        stack.push(conns.get(0), 3);
+        stack.clear();
+        Assert.assertNull(stack.pop());
+    }
+
+    @Test
+    public void testConcurrentBorrowAndEvict() throws Exception {
+        final int threads = 8;
+        final int maxSize = 16;
+        final List<BackendConnection> conns = newConnections(32);
+        final IdleStack stack = new IdleStack();
+        for (BackendConnection conn : conns) {
+            stack.push(conn, maxSize);
+        }
+        final ConcurrentHashMap<BackendConnection, Thread> owners = new ConcurrentHashMap<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger borrowed = new AtomicInteger();
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 2000; j++) {
+                            BackendConnection conn = borrow(stack, conns);
+                            if (conn == null) {
+                                continue;
+                            }
+                            borrowed.incrementAndGet();
+                            if (owners.putIfAbsent(conn, Thread.currentThread()) != null) {
+                                duplicates.incrementAndGet();
+                                continue;
+                            }
+                            Thread.yield();
+                            owners.remove(conn);
+                            conn.lazySet(STATE_NOT_IN_USE);
+                            stack.push(conn, maxSize);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        // the evictor takes the idle connections without popping them, then gives them back
+        Thread evictor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!finished.get()) {
+                    for (BackendConnection conn : conns) {
+                        if (conn.compareAndSet(STATE_NOT_IN_USE, STATE_RESERVED)) {
+                            if (owners.putIfAbsent(conn, Thread.currentThread()) != null) {
+                                duplicates.incrementAndGet();
+                                continue;
+                            }
+                            owners.remove(conn);
+                            conn.lazySet(STATE_NOT_IN_USE);
+                            stack.push(conn, maxSize);
+                        }
+                    }
+                }
+            }
+        });
+        evictor.start();
+        Assert.assertTrue(done.await(60, TimeUnit.SECONDS));
+        finished.set(true);
+        evictor.join();
+
+        Assert.assertEquals(0, duplicates.get());
+        Assert.assertTrue(borrowed.get() > 0);
+        int remains = 0;
+        while (stack.pop() != null) {
+            remains++;
+        }
+        Assert.assertTrue(remains <= maxSize);
+    }
+
+    /**
+     * the way of ConnectionPool, the popped entry borrowed by others is skipped, scan all if the stack is empty
+     */
+    private static BackendConnection borrow(IdleStack stack, List<BackendConnection> conns) {
+        BackendConnection conn;
+        while ((conn = stack.pop()) != null) {
+            if (conn.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return conn;
+            }
+        }
+        for (BackendConnection entry : conns) {
+            if (entry.compareAndSet(STATE_NOT_IN_USE, STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.actiontech.dble.backend.pool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0);
+        histogram.record(9_999L);
+        histogram.record(10_000L);
+        histogram.record(5_000_000L);
+        histogram.record(1_000_000_000L);
+        histogram.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(7, histogram.size());
+        Assert.assertEquals("<10us", histogram.getName(0));
+        Assert.assertEquals(2, histogram.getCount(0));
+        Assert.assertEquals(1, histogram.getCount(1));
+        Assert.assertEquals(0, histogram.getCount(2));
+        Assert.assertEquals(1, histogram.getCount(3));
+        Assert.assertEquals(">=1s", histogram.getName(6));
+        Assert.assertEquals(2, histogram.getCount(6));
+    }
+}
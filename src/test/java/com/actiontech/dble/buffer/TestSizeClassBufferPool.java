@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import sun.nio.ch.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestSizeClassBufferPool {
+
+    @Test
+    public void testAllocateWithDifferentAddress() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024, (short) 256, (short) 2);
+        Set<Long> addresses = new HashSet<>();
+        List<ByteBuffer> buffs = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ByteBuffer byteBuffer = pool.allocate(256);
+            Assert.assertTrue("Should have enough memory", byteBuffer instanceof DirectBuffer);
+            Assert.assertEquals(256, byteBuffer.capacity());
+            Assert.assertTrue("Allocate with same address", addresses.add(((DirectBuffer) byteBuffer).address()));
+            buffs.add(byteBuffer);
+        }
+        Assert.assertEquals(0, pool.size());
+        for (ByteBuffer buff : buffs) {
+            pool.recycle(buff);
+        }
+        Assert.assertEquals(pool.capacity(), pool.size());
+    }
+
+    @Test
+    public void testAllocateHeapWhenOutOfMemory() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024, (short) 256, (short) 2);
+        List<ByteBuffer> buffs = new ArrayList<>();
+        int i = 0;
+        for (; i < 9; i++) {
+            ByteBuffer byteBuffer = pool.allocate(256);
+            if (!(byteBuffer instanceof DirectBuffer)) {
+                break;
+            }
+            buffs.add(byteBuffer);
+        }
+        Assert.assertEquals("Should out of memory when i = " + 8, 8, i);
+        Assert.assertEquals(1, pool.getSizeClasses()[0].getFallbackCount());
+        for (ByteBuffer buff : buffs) {
+            pool.recycle(buff);
+        }
+    }
+
+    @Test
+    public void testSizeClass() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024, (short) 256, (short) 4);
+        Assert.assertEquals(3, pool.getSizeClasses().length);
+        Assert.assertEquals(512, pool.allocate(257).capacity());
+        Assert.assertEquals(1024, pool.allocate(1024).capacity());
+        Assert.assertFalse(pool.allocate(1025) instanceof DirectBuffer);
+        Assert.assertEquals(1, pool.getOversizeCount());
+        Assert.assertEquals(2, pool.getFreePageCount());
+    }
+
+    @Test
+    public void testRecycleTwice() {
+        SizeClassBufferPool pool = new SizeClassBufferPool(1024, (short) 256, (short) 1);
+        ByteBuffer byteBuffer = pool.allocate(256);
+        pool.recycle(byteBuffer);
+        pool.recycle(byteBuffer);
+        Assert.assertEquals(1, pool.getBadRecycleCount());
+        Assert.assertEquals(pool.capacity(), pool.size());
+        Set<Long> addresses = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(addresses.add(((DirectBuffer) pool.allocate(256)).address()));
+        }
+    }
+
+    @Test
+    public void testThreadCache() throws InterruptedException {
+        final SizeClassBufferPool pool = new SizeClassBufferPool(1024, (short) 256, (short) 1);
+        final AtomicReference<Boolean> reused = new AtomicReference<>(false);
+        Thread reactor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ByteBuffer byteBuffer = pool.allocate(256);
+                pool.recycle(byteBuffer);
+                reused.set(pool.allocate(256) == byteBuffer);
+            }
+        }, DirectByteBufferPool.LOCAL_BUF_THREAD_PREX + "test");
+        reactor.start();
+        reactor.join();
+        Assert.assertTrue(reused.get());
+        Assert.assertEquals(1, pool.getSizeClasses()[0].getThreadCacheHit());
+        Assert.assertEquals(1, pool.getSharedOptsCount());
+    }
+}
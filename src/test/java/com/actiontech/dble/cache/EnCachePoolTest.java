@@ -52,4 +52,20 @@ public class EnCachePoolTest {
         Assert.assertEquals(null, enCachePool.get("1"));
     }
 
+    @Test
+    public void testPut() {
+        CacheConfiguration cacheConf = new CacheConfiguration();
+        cacheConf.setName("testputcache");
+        cacheConf.maxBytesLocalHeap(50, MemoryUnit.MEGABYTES);
+        Cache cache = new Cache(cacheConf);
+        CacheManager.create().addCache(cache);
+        EnchachePool pool = new EnchachePool(cacheConf.getName(), cache, 50 * 10000);
+
+        pool.putIfAbsent("1", "dn1");
+        pool.putIfAbsent("1", "dn2");
+        Assert.assertEquals("dn1", pool.get("1"));
+        pool.put("1", "dn2");
+        Assert.assertEquals("dn2", pool.get("1"));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParentLocationCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        ParentLocationCache cache = new ParentLocationCache(1000);
+        Assert.assertEquals(1024, cache.capacity());
+        Assert.assertEquals(ParentLocationCache.MISS, cache.get(0));
+        cache.put(0, 0);
+        cache.put(-5, 3);
+        cache.put(Long.MAX_VALUE, 1);
+        Assert.assertEquals(0, cache.get(0));
+        Assert.assertEquals(3, cache.get(-5));
+        Assert.assertEquals(1, cache.get(Long.MAX_VALUE));
+        Assert.assertEquals(ParentLocationCache.MISS, cache.get(5));
+    }
+
+    @Test
+    public void testBounded() {
+        ParentLocationCache cache = new ParentLocationCache(16);
+        for (long i = 0; i < 10000; i++) {
+            cache.put(i, (int) (i % 4));
+        }
+        int cached = 0;
+        for (long i = 0; i < 10000; i++) {
+            int node = cache.get(i);
+            if (node != ParentLocationCache.MISS) {
+                Assert.assertEquals(i % 4, node);
+                cached++;
+            }
+        }
+        Assert.assertTrue(cached > 0 && cached <= cache.capacity());
+    }
+}
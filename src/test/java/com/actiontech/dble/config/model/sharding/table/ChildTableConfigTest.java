@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.config.model.sharding.table;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ChildTableConfigTest {
+
+    @Test
+    public void testLocateRootParentSql() {
+        List<String> nodes = Arrays.asList("dn1", "dn2");
+        ShardingTableConfig customer = new ShardingTableConfig("customer", -1, nodes, null, null, "ID", false);
+        ChildTableConfig orders = new ChildTableConfig("orders", -1, nodes, customer, "CUSTOMER_ID", "ID", null);
+        Assert.assertSame(customer, orders.getDirectRouteTC());
+        Assert.assertNull(orders.getLocateRTableKeysSql());
+        Assert.assertNull(orders.getParentLocationCache());
+
+        ChildTableConfig items = new ChildTableConfig("items", -1, nodes, orders, "ORDER_ID", "ID", null);
+        Assert.assertNull(items.getDirectRouteTC());
+        Assert.assertEquals("SELECT customer.ID FROM orders,customer WHERE customer.ID=orders.CUSTOMER_ID AND  orders.ID=",
+                items.getLocateRTableKeySql());
+        Assert.assertEquals("SELECT orders.ID FROM orders,customer WHERE customer.ID=orders.CUSTOMER_ID AND  orders.ID IN (",
+                items.getLocateRTableKeysSql());
+        Assert.assertNotNull(items.getParentLocationCache());
+    }
+}
@@ -0,0 +1,51 @@
+package com.actiontech.dble.manager.dump;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class DumpStatementScannerTest {
+
+    @Test
+    public void testQuotesAndComments() throws InterruptedException {
+        String dump = "--\n-- Table structure for table `t;1`, it's\n--\n" +
+                "/*!40101 SET @a='x;y' */;\n" +
+                "INSERT INTO `t` VALUES (1,'a;b','it\\'s;'),(2,\"c;\",'d''e;');\n" +
+                "# comment;\nSELECT 1-1;\n";
+        List<String> stmts = scan(dump.getBytes(StandardCharsets.UTF_8), dump.length());
+        Assert.assertEquals(4, stmts.size());
+        Assert.assertEquals("--\n-- Table structure for table `t;1`, it's\n--\n/*!40101 SET @a='x;y' */", stmts.get(0));
+        Assert.assertEquals("\nINSERT INTO `t` VALUES (1,'a;b','it\\'s;'),(2,\"c;\",'d''e;')", stmts.get(1));
+        Assert.assertEquals("\n# comment;\nSELECT 1-1", stmts.get(2));
+        Assert.assertEquals("\n", stmts.get(3));
+    }
+
+    @Test
+    public void testStatementAcrossBuffers() throws InterruptedException {
+        String dump = "INSERT INTO `t` VALUES (1,'中文;'),(2,'b');INSERT INTO `t` VALUES (3,'c')";
+        byte[] bytes = dump.getBytes(StandardCharsets.UTF_8);
+        for (int size = 1; size < bytes.length; size++) {
+            List<String> stmts = scan(bytes, size);
+            Assert.assertEquals(2, stmts.size());
+            Assert.assertEquals("INSERT INTO `t` VALUES (1,'中文;'),(2,'b')", stmts.get(0));
+            Assert.assertEquals("INSERT INTO `t` VALUES (3,'c')", stmts.get(1));
+        }
+    }
+
+    private static List<String> scan(byte[] bytes, int bufferSize) throws InterruptedException {
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        DumpStatementScanner scanner = new DumpStatementScanner(queue);
+        for (int i = 0; i < bytes.length; i += bufferSize) {
+            scanner.scan(bytes, i, Math.min(bufferSize, bytes.length - i));
+        }
+        scanner.finish();
+        List<String> stmts = new ArrayList<>();
+        queue.drainTo(stmts);
+        return stmts;
+    }
+}
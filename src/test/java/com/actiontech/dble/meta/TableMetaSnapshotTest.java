@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.*;
+
+public class TableMetaSnapshotTest {
+    private File dir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("meta").toFile();
+        file = new File(dir, "tableMeta.snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Assert.assertNull(TableMetaSnapshot.load(file));
+        SchemaMeta schema = new SchemaMeta();
+        StringBuilder longSql = new StringBuilder("CREATE TABLE `t2` (`id` int NOT NULL COMMENT '");
+        for (int i = 0; i < 70000; i++) {
+            longSql.append('文');
+        }
+        longSql.append("')");
+        schema.addTableMeta("t1", newTable("t1", "CREATE TABLE `t1` (`id` int NOT NULL, `name` varchar(20))", 1L));
+        schema.addTableMeta("t2", newTable("t2", longSql.toString(), 2L));
+        Map<String, SchemaMeta> catalogs = new HashMap<>();
+        catalogs.put("db1", schema);
+        catalogs.put("db2", new SchemaMeta());
+        TableMetaSnapshot.save(file, catalogs);
+
+        Map<String, Map<String, TableMeta>> loaded = TableMetaSnapshot.load(file);
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertTrue(loaded.get("db2").isEmpty());
+        Assert.assertEquals(schema.getTableMeta("t1"), loaded.get("db1").get("t1"));
+        Assert.assertEquals(schema.getTableMeta("t2"), loaded.get("db1").get("t2"));
+        Assert.assertFalse(loaded.get("db1").get("t1").getColumns().get(0).isCanNull());
+    }
+
+    @Test
+    public void testBrokenFileIsRejected() throws IOException {
+        Map<String, SchemaMeta> catalogs = new HashMap<>();
+        SchemaMeta schema = new SchemaMeta();
+        schema.addTableMeta("t1", newTable("t1", "CREATE TABLE `t1` (`id` int NOT NULL, `name` varchar(20))", 1L));
+        catalogs.put("db1", schema);
+        TableMetaSnapshot.save(file, catalogs);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(30);
+            int b = raf.read();
+            raf.seek(30);
+            raf.write(b ^ 0x1);
+        }
+        try {
+            TableMetaSnapshot.load(file);
+            Assert.fail("the broken snapshot is loaded");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("checksum"));
+        }
+
+        TableMetaSnapshot.save(file, catalogs);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        try {
+            TableMetaSnapshot.load(file);
+            Assert.fail("the truncated snapshot is loaded");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("truncated"));
+        }
+    }
+
+    private static TableMeta newTable(String name, String sql, long version) {
+        TableMeta tableMeta = new TableMeta();
+        tableMeta.setTableName(name);
+        tableMeta.setVersion(version);
+        tableMeta.setCreateSql(sql);
+        List<TableMeta.ColumnMeta> columns = new ArrayList<>();
+        columns.add(new TableMeta.ColumnMeta("id", "int", false));
+        columns.add(new TableMeta.ColumnMeta("name", "varchar", true));
+        tableMeta.setColumns(columns);
+        return tableMeta;
+    }
+}
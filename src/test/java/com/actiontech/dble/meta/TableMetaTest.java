@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.meta;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableMetaTest {
+
+    @Test
+    public void testInsertCoalescable() {
+        Assert.assertTrue(tableMeta("CREATE TABLE `t` (\n\t`id` int(11) NOT NULL,\n\t`name` varchar(20) COMMENT 'auto_increment',\n" +
+                "\tPRIMARY KEY (`id`)\n) ENGINE = InnoDB CHARSET = utf8").isInsertCoalescable());
+        Assert.assertFalse(tableMeta("CREATE TABLE `t` (\n\t`id` int(11) NOT NULL AUTO_INCREMENT,\n\t`name` varchar(20),\n" +
+                "\tPRIMARY KEY (`id`)\n) ENGINE = InnoDB CHARSET = utf8").isInsertCoalescable());
+        Assert.assertFalse(tableMeta("CREATE TABLE `t` (\n\t`id` int(11) NOT NULL,\n\t`name` varchar(20)\n" +
+                ") ENGINE = MyISAM CHARSET = utf8").isInsertCoalescable());
+        Assert.assertFalse(tableMeta("CREATE TABLE `t` (\n\t`id` int(11) NOT NULL\n)").isInsertCoalescable());
+        Assert.assertFalse(tableMeta(null).isInsertCoalescable());
+    }
+
+    private static TableMeta tableMeta(String createSql) {
+        TableMeta meta = new TableMeta();
+        meta.setTableName("t");
+        meta.setCreateSql(createSql);
+        return meta;
+    }
+}
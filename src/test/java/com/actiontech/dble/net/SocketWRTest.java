@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class SocketWRTest {
+
+    @Test
+    public void testGather() {
+        ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        queue.offer(buffer(10));
+        queue.offer(buffer(20));
+        // the close mark
+        queue.offer(ByteBuffer.allocate(0));
+        queue.offer(buffer(30));
+
+        ByteBuffer[] views = new ByteBuffer[SocketWR.MAX_GATHER_BUFFERS];
+        Assert.assertEquals(2, SocketWR.gather(queue, views));
+        Assert.assertEquals(10, views[0].remaining());
+        Assert.assertEquals(20, views[1].remaining());
+        Assert.assertNull(views[2]);
+        // the buffers in the queue are untouched
+        Assert.assertEquals(4, queue.size());
+        Assert.assertEquals(10, queue.peek().position());
+    }
+
+    @Test
+    public void testGatherLimit() {
+        ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < SocketWR.MAX_GATHER_BUFFERS + 1; i++) {
+            queue.offer(buffer(1));
+        }
+        ByteBuffer[] views = new ByteBuffer[SocketWR.MAX_GATHER_BUFFERS];
+        Assert.assertEquals(SocketWR.MAX_GATHER_BUFFERS, SocketWR.gather(queue, views));
+
+        queue.clear();
+        queue.offer(buffer(SocketWR.MAX_GATHER_BYTES));
+        queue.offer(buffer(1));
+        Assert.assertEquals(1, SocketWR.gather(queue, views));
+    }
+
+    @Test
+    public void testQuitNotGathered() {
+        ConcurrentLinkedQueue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+        queue.offer(buffer(10));
+        ByteBuffer quit = ByteBuffer.allocate(16);
+        quit.put(new byte[]{1, 0, 0, 0, 1});
+        queue.offer(quit);
+        ByteBuffer[] views = new ByteBuffer[SocketWR.MAX_GATHER_BUFFERS];
+        Assert.assertEquals(1, SocketWR.gather(queue, views));
+        Assert.assertEquals(5, quit.position());
+    }
+
+    private static ByteBuffer buffer(int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size + 8);
+        buffer.put(new byte[size]);
+        return buffer;
+    }
+}
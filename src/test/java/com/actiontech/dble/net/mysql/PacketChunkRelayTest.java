@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.mysql;
+
+import com.actiontech.dble.backend.BackendConnection;
+import com.actiontech.dble.backend.mysql.BufferUtil;
+import com.actiontech.dble.backend.mysql.ByteUtil;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnection;
+import com.actiontech.dble.backend.mysql.nio.MySQLConnectionHandler;
+import com.actiontech.dble.backend.mysql.nio.handler.SingleNodeHandler;
+import com.actiontech.dble.buffer.DirectByteBufferPool;
+import com.actiontech.dble.config.FlowControllerConfig;
+import com.actiontech.dble.config.Fields;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.db.DbInstanceConfig;
+import com.actiontech.dble.net.AbstractConnection;
+import com.actiontech.dble.net.NIOProcessor;
+import com.actiontech.dble.net.SocketWR;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
+import com.actiontech.dble.singleton.WriteQueueFlowController;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PacketChunkRelayTest {
+    private static final String SQL = "select c from t";
+    private int oldUseSqlStat;
+    private FlowControllerConfig oldFlowControl;
+
+    @Before
+    public void setUp() {
+        oldUseSqlStat = SystemConfig.getInstance().getUseSqlStat();
+        SystemConfig.getInstance().setUseSqlStat(0);
+        oldFlowControl = WriteQueueFlowController.getFlowCotrollerConfig();
+        WriteQueueFlowController.configChange(new FlowControllerConfig(false, 4096, 256));
+    }
+
+    @After
+    public void tearDown() {
+        SystemConfig.getInstance().setUseSqlStat(oldUseSqlStat);
+        WriteQueueFlowController.configChange(oldFlowControl);
+    }
+
+    @Test
+    public void testRelayRows() throws Exception {
+        TestServerConnection client = new TestServerConnection();
+        TestSingleNodeHandler nodeHandler = new TestSingleNodeHandler(client.getSession2());
+        TestConnectionHandler handler = new TestConnectionHandler(nodeHandler);
+        // the packet ids of the backend are not the ones sent to the client
+        byte[] big = bigRow((byte) 26);
+        byte[] eof = eof((byte) 30);
+
+        handler.handleChunk(chunk(header((byte) 21), field((byte) 22), eof((byte) 23), row((byte) 24, "a"), row((byte) 25, "bb")));
+        // the merged big packet is handed alone, the connection never puts it into a chunk with others
+        handler.handleChunk(PacketChunk.wrap(big));
+        handler.handleChunk(chunk(row((byte) 28, "ccc"), row((byte) 29, "d"), eof));
+
+        // the rows in the chunks are relayed at once, the big packet goes to rowResponse
+        Assert.assertEquals(Arrays.asList(true, true), nodeHandler.relayed);
+        Assert.assertEquals(1, nodeHandler.rowResponses);
+
+        List<byte[]> packets = split(client.written.toByteArray());
+        Assert.assertEquals(10, packets.size());
+        for (int i = 0; i < packets.size(); i++) {
+            Assert.assertEquals(i + 1, packets.get(i)[3]);
+        }
+        Assert.assertArrayEquals(body(row((byte) 24, "a")), body(packets.get(3)));
+        Assert.assertArrayEquals(body(row((byte) 25, "bb")), body(packets.get(4)));
+        // the big packet is split again, the rest of it follows the full packet
+        Assert.assertEquals(MySQLPacket.MAX_PACKET_SIZE, ByteUtil.readUB3(packets.get(5), 0));
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        merged.write(body(packets.get(5)));
+        merged.write(body(packets.get(6)));
+        Assert.assertArrayEquals(body(big), merged.toByteArray());
+        Assert.assertArrayEquals(body(row((byte) 28, "ccc")), body(packets.get(7)));
+        Assert.assertArrayEquals(body(row((byte) 29, "d")), body(packets.get(8)));
+        Assert.assertArrayEquals(body(eof), body(packets.get(9)));
+    }
+
+    @Test
+    public void testPreparedNotRelayed() throws Exception {
+        TestServerConnection client = new TestServerConnection();
+        client.getSession2().setPrepared(true);
+        TestSingleNodeHandler nodeHandler = new TestSingleNodeHandler(client.getSession2());
+        TestConnectionHandler handler = new TestConnectionHandler(nodeHandler);
+
+        handler.handleChunk(chunk(header((byte) 21), field((byte) 22), eof((byte) 23), row((byte) 24, "a"), row((byte) 25, "bb"), eof((byte) 26)));
+
+        // the rows of the prepared statement are converted to the binary rows one by one
+        Assert.assertEquals(Arrays.asList(false, false), nodeHandler.relayed);
+        Assert.assertEquals(2, nodeHandler.rowResponses);
+
+        List<byte[]> packets = split(client.written.toByteArray());
+        Assert.assertEquals(6, packets.size());
+        for (int i = 0; i < packets.size(); i++) {
+            Assert.assertEquals(i + 1, packets.get(i)[3]);
+        }
+        Assert.assertArrayEquals(new byte[]{0, 0, 1, 'a'}, body(packets.get(3)));
+        Assert.assertArrayEquals(new byte[]{0, 0, 2, 'b', 'b'}, body(packets.get(4)));
+    }
+
+    private static PacketChunk chunk(byte[]... packets) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] packet : packets) {
+            out.write(packet);
+        }
+        byte[] data = out.toByteArray();
+        return PacketChunk.read(ByteBuffer.wrap(data), 0, data.length, packets.length);
+    }
+
+    private static List<byte[]> split(byte[] data) {
+        List<byte[]> packets = new ArrayList<>();
+        int position = 0;
+        while (position < data.length) {
+            int end = position + ByteUtil.readUB3(data, position) + MySQLPacket.PACKET_HEADER_SIZE;
+            packets.add(Arrays.copyOfRange(data, position, end));
+            position = end;
+        }
+        return packets;
+    }
+
+    private static byte[] body(byte[] packet) {
+        return Arrays.copyOfRange(packet, MySQLPacket.PACKET_HEADER_SIZE, packet.length);
+    }
+
+    private static byte[] packet(byte packetId, byte[] body) {
+        byte[] packet = new byte[body.length + MySQLPacket.PACKET_HEADER_SIZE];
+        ByteUtil.writeUB3(packet, body.length);
+        packet[3] = packetId;
+        System.arraycopy(body, 0, packet, MySQLPacket.PACKET_HEADER_SIZE, body.length);
+        return packet;
+    }
+
+    private static byte[] header(byte packetId) {
+        return packet(packetId, new byte[]{1});
+    }
+
+    private static byte[] field(byte packetId) {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        BufferUtil.writeWithLength(buffer, "def".getBytes());
+        BufferUtil.writeWithLength(buffer, "db".getBytes());
+        BufferUtil.writeWithLength(buffer, "t".getBytes());
+        BufferUtil.writeWithLength(buffer, "t".getBytes());
+        BufferUtil.writeWithLength(buffer, "c".getBytes());
+        BufferUtil.writeWithLength(buffer, "c".getBytes());
+        buffer.put((byte) 0x0c);
+        BufferUtil.writeUB2(buffer, 33);
+        BufferUtil.writeUB4(buffer, 255);
+        buffer.put((byte) Fields.FIELD_TYPE_VAR_STRING);
+        BufferUtil.writeUB2(buffer, 0);
+        buffer.put((byte) 0);
+        BufferUtil.writeUB2(buffer, 0);
+        return packet(packetId, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    private static byte[] eof(byte packetId) {
+        return packet(packetId, new byte[]{EOFPacket.FIELD_COUNT, 0, 0, 2, 0});
+    }
+
+    private static byte[] row(byte packetId, String value) {
+        byte[] body = new byte[value.length() + 1];
+        body[0] = (byte) value.length();
+        System.arraycopy(value.getBytes(), 0, body, 1, value.length());
+        return packet(packetId, body);
+    }
+
+    /**
+     * the row over the max packet size merged by the backend connection, the header of its first packet is kept
+     */
+    private static byte[] bigRow(byte packetId) {
+        byte[] packet = new byte[MySQLPacket.MAX_PACKET_SIZE + 10 + MySQLPacket.PACKET_HEADER_SIZE];
+        Arrays.fill(packet, (byte) 'x');
+        ByteUtil.writeUB3(packet, MySQLPacket.MAX_PACKET_SIZE);
+        packet[3] = packetId;
+        packet[4] = (byte) 0xfe;
+        return packet;
+    }
+
+    private static final class TestConnectionHandler extends MySQLConnectionHandler {
+        TestConnectionHandler(SingleNodeHandler nodeHandler) {
+            super(new TestBackendConnection());
+            setResponseHandler(nodeHandler);
+        }
+
+        @Override
+        protected void handleChunk(PacketChunk chunk) {
+            super.handleChunk(chunk);
+        }
+    }
+
+    private static final class TestSingleNodeHandler extends SingleNodeHandler {
+        private final List<Boolean> relayed = new ArrayList<>();
+        private int rowResponses = 0;
+
+        TestSingleNodeHandler(NonBlockingSession session) {
+            super(route(), session);
+        }
+
+        private static RouteResultset route() {
+            RouteResultset rrs = new RouteResultset(SQL, ServerParse.SELECT);
+            rrs.setNodes(new RouteResultsetNode[]{new RouteResultsetNode("dn1", ServerParse.SELECT, SQL)});
+            return rrs;
+        }
+
+        @Override
+        public boolean relayRows(byte[] data, int offset, int length, int count, BackendConnection conn) {
+            boolean result = super.relayRows(data, offset, length, count, conn);
+            relayed.add(result);
+            return result;
+        }
+
+        @Override
+        public boolean rowResponse(byte[] row, RowDataPacket rowPacket, boolean isLeft, BackendConnection conn) {
+            rowResponses++;
+            return super.rowResponse(row, rowPacket, isLeft, conn);
+        }
+    }
+
+    /**
+     * the client keeps the bytes written to the socket
+     */
+    private static final class TestServerConnection extends ServerConnection {
+        private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+        TestServerConnection() throws Exception {
+            setSession2(new NonBlockingSession(this));
+            setProcessor(new NIOProcessor("test", new DirectByteBufferPool(64 * 1024, (short) 4096, (short) 4)));
+            Field socketWR = AbstractConnection.class.getDeclaredField("socketWR");
+            socketWR.setAccessible(true);
+            socketWR.set(this, new WrittenSocketWR(this));
+        }
+    }
+
+    private static final class WrittenSocketWR extends SocketWR {
+        private final TestServerConnection con;
+
+        WrittenSocketWR(TestServerConnection con) {
+            this.con = con;
+        }
+
+        @Override
+        public void asyncRead() {
+        }
+
+        @Override
+        public void doNextWriteCheck() {
+            ByteBuffer buffer;
+            while ((buffer = con.getWriteQueue().poll()) != null) {
+                buffer.flip();
+                byte[] data = new byte[buffer.remaining()];
+                buffer.get(data);
+                con.written.write(data, 0, data.length);
+                con.recycle(buffer);
+            }
+        }
+
+        @Override
+        public boolean registerWrite(ByteBuffer buffer) {
+            return true;
+        }
+
+        @Override
+        public void disableRead() {
+        }
+
+        @Override
+        public void enableRead() {
+        }
+    }
+
+    private static final class TestBackendConnection extends MySQLConnection {
+        TestBackendConnection() {
+            super(null, new DbInstanceConfig("instance", "127.0.0.1", 3306, "127.0.0.1:3306", "test", "test", false, true),
+                    false, true, true);
+        }
+    }
+}
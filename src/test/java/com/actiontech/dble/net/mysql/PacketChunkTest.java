@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.net.mysql;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+public class PacketChunkTest {
+
+    @Test
+    public void testRead() {
+        byte[] first = row((byte) 1, "1", "aaa");
+        byte[] second = row((byte) 2, "22", null);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put(new byte[]{9, 9, 9});
+        buffer.put(first);
+        buffer.put(second);
+        int end = buffer.position();
+        // half of the next packet is not read yet
+        buffer.put(new byte[]{(byte) 10, 0, 0, 3});
+
+        PacketChunk chunk = PacketChunk.read(buffer, 3, end, 2);
+        Assert.assertEquals(2, chunk.size());
+        Assert.assertEquals(first.length + second.length, chunk.getData().length);
+        Assert.assertEquals(0, chunk.getOffset(0));
+        Assert.assertEquals(first.length, chunk.getOffset(1));
+        Assert.assertEquals(second.length, chunk.getLength(1));
+        Assert.assertArrayEquals(first, chunk.getPacket(0));
+        Assert.assertArrayEquals(second, chunk.getPacket(1));
+        Assert.assertEquals(end, buffer.position());
+
+        RowDataPacket row = new RowDataPacket(2);
+        row.read(chunk.getData(), chunk.getOffset(1), chunk.getLength(1));
+        Assert.assertEquals(2, row.packetId);
+        Assert.assertArrayEquals("22".getBytes(), row.getValue(0));
+        Assert.assertNull(row.getValue(1));
+    }
+
+    @Test
+    public void testWrap() {
+        byte[] packet = row((byte) 1, "1", "aaa");
+        PacketChunk chunk = PacketChunk.wrap(packet);
+        Assert.assertEquals(1, chunk.size());
+        Assert.assertEquals(packet.length, chunk.getLength(0));
+        Assert.assertEquals(packet[4], chunk.getType(0));
+        Assert.assertSame(packet, chunk.getPacket(0));
+    }
+
+    /**
+     * the text row packet of the short values
+     */
+    private static byte[] row(byte packetId, String... values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String value : values) {
+            if (value == null) {
+                out.write(0xfb);
+            } else {
+                out.write(value.length());
+                out.write(value.getBytes(), 0, value.length());
+            }
+        }
+        byte[] body = out.toByteArray();
+        byte[] packet = new byte[body.length + MySQLPacket.PACKET_HEADER_SIZE];
+        packet[0] = (byte) body.length;
+        packet[3] = packetId;
+        System.arraycopy(body, 0, packet, MySQLPacket.PACKET_HEADER_SIZE, body.length);
+        return packet;
+    }
+}
@@ -61,6 +61,14 @@ public class ManagerParserTest {
         Assert.assertEquals(ManagerParseShow.OTHER, ManagerParseShow.parse("show @@CONNECTION.SqlASDFASDF", 5));
     }
 
+    @Test
+    public void testShowBufferPool() {
+        Assert.assertEquals(ManagerParseShow.BUFFER_POOL, ManagerParseShow.parse("show @@buffer_pool", 5));
+        Assert.assertEquals(ManagerParseShow.BUFFER_POOL, ManagerParseShow.parse("SHOW @@BUFFER_POOL ", 5));
+        Assert.assertEquals(ManagerParseShow.OTHER, ManagerParseShow.parse("show @@buffer_poolASDF", 5));
+        Assert.assertEquals(ManagerParseShow.OTHER, ManagerParseShow.parse("show @@buffer", 5));
+    }
+
     @Test
     public void testShowDatabase() {
         Assert.assertEquals(ManagerParseShow.DATABASE, ManagerParseShow.parse("show @@database", 5));
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.plan.optimizer;
+
+import com.actiontech.dble.DbleServer;
+import com.actiontech.dble.config.ServerConfig;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.meta.TableStatistics;
+import com.actiontech.dble.plan.node.JoinNode;
+import com.actiontech.dble.plan.node.PlanNode;
+import com.actiontech.dble.plan.visitor.MySQLPlanNodeVisitor;
+import com.actiontech.dble.singleton.ProxyMeta;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlExprParser;
+import com.alibaba.druid.sql.dialect.mysql.parser.MySqlStatementParser;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class JoinStrategyChooserTest {
+    private static final String SCHEMA = "mysqldb";
+    private ServerConfig oldConfig;
+    private ProxyMetaManager oldManager;
+    private ProxyMetaManager manager;
+    private boolean oldUseJoinStrategy;
+    private boolean oldUseHashJoin;
+    private int oldJoinMemSize;
+
+    @Before
+    public void setUp() throws Exception {
+        oldConfig = setServerConfig(new ServerConfig());
+        oldManager = ProxyMeta.getInstance().getTmManager();
+        manager = new ProxyMetaManager();
+        manager.createDatabase(SCHEMA);
+        manager.addTable(SCHEMA, tableMeta("autoslot"));
+        manager.addTable(SCHEMA, tableMeta("offer"));
+        ProxyMeta.getInstance().setTmManager(manager);
+        oldUseJoinStrategy = SystemConfig.getInstance().isUseJoinStrategy();
+        oldUseHashJoin = SystemConfig.getInstance().isUseHashJoin();
+        oldJoinMemSize = SystemConfig.getInstance().getJoinMemSize();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        setServerConfig(oldConfig);
+        ProxyMeta.getInstance().setTmManager(oldManager);
+        SystemConfig.getInstance().setUseJoinStrategy(oldUseJoinStrategy);
+        SystemConfig.getInstance().setUseHashJoin(oldUseHashJoin);
+        SystemConfig.getInstance().setJoinMemSize(oldJoinMemSize);
+    }
+
+    private static ServerConfig setServerConfig(ServerConfig config) throws Exception {
+        Field field = DbleServer.class.getDeclaredField("config");
+        field.setAccessible(true);
+        ServerConfig old = (ServerConfig) field.get(DbleServer.getInstance());
+        field.set(DbleServer.getInstance(), config);
+        return old;
+    }
+
+    private static TableMeta tableMeta(String table) {
+        TableMeta meta = new TableMeta();
+        meta.setTableName(table);
+        List<TableMeta.ColumnMeta> columns = new ArrayList<>();
+        columns.add(columnMeta("id int(11) not null"));
+        columns.add(columnMeta("name varchar(20)"));
+        columns.add(columnMeta("sharding_id int(11)"));
+        meta.setColumns(columns);
+        return meta;
+    }
+
+    private static TableMeta.ColumnMeta columnMeta(String definition) {
+        return new TableMeta.ColumnMeta(new MySqlExprParser(definition).parseColumn());
+    }
+
+    /**
+     * the rows are spread evenly to the sharding nodes, every row is 100 bytes
+     */
+    private void setStatistics(String table, long rows, String... shardingNodes) {
+        TableStatistics statistics = new TableStatistics();
+        for (String shardingNode : shardingNodes) {
+            long nodeRows = rows / shardingNodes.length;
+            statistics.updateRows(shardingNode, nodeRows, nodeRows * 100);
+        }
+        manager.getCatalogs().get(SCHEMA).getTableMeta(table).setStatistics(statistics);
+    }
+
+    private static PlanNode optimize(String sql) {
+        SQLSelectStatement ast = (SQLSelectStatement) new MySqlStatementParser(sql).parseStatement();
+        MySQLPlanNodeVisitor visitor = new MySQLPlanNodeVisitor(SCHEMA, 33, ProxyMeta.getInstance().getTmManager(), false, null);
+        visitor.visit(ast);
+        PlanNode node = visitor.getTableNode();
+        node.setSql(sql);
+        node.setUpFields();
+        return MyOptimizer.optimize(node);
+    }
+
+    private static JoinNode optimizeJoin(String sql) {
+        PlanNode node = optimize(sql);
+        Assert.assertEquals(PlanNode.PlanNodeType.JOIN, node.type());
+        return (JoinNode) node;
+    }
+
+    @Test
+    public void testEstimateRows() {
+        String sql = "select * from autoslot a join offer b on a.name = b.name";
+        Assert.assertEquals(TableStatistics.UNKNOWN, RowCountEstimator.estimateRows(optimizeJoin(sql).getLeftNode()));
+
+        setStatistics("autoslot", 1000000, "dn1", "dn2");
+        JoinNode join = optimizeJoin(sql);
+        Assert.assertEquals(1000000, RowCountEstimator.estimateRows(join.getLeftNode()));
+        Assert.assertEquals(100000000, RowCountEstimator.estimateDataLength(join.getLeftNode()));
+        Assert.assertEquals(TableStatistics.UNKNOWN, RowCountEstimator.estimateRows(join.getRightNode()));
+        Assert.assertEquals(TableStatistics.UNKNOWN, RowCountEstimator.estimateRows(join));
+
+        // the filter of the table is pushed down to it by FilterPusher
+        join = optimizeJoin(sql + " where a.sharding_id > 10 and a.name = 'x'");
+        Assert.assertEquals(33334, RowCountEstimator.estimateRows(join.getLeftNode()));
+        // the or condition is pushed to the table twice
+        join = optimizeJoin(sql + " where a.name in ('x', 'y', 'z') or a.sharding_id is null");
+        Assert.assertEquals(400000, RowCountEstimator.estimateRows(join.getLeftNode()));
+
+        // the cardinality of the index is used for the equal filter
+        TableStatistics statistics = manager.getCatalogs().get(SCHEMA).getTableMeta("autoslot").getStatistics();
+        statistics.updateCardinality("dn1", Collections.singletonMap("name", 500L));
+        statistics.updateCardinality("dn2", Collections.singletonMap("name", 500L));
+        join = optimizeJoin(sql + " where a.sharding_id > 10 and a.name = 'x'");
+        Assert.assertEquals(334, RowCountEstimator.estimateRows(join.getLeftNode()));
+    }
+
+    @Test
+    public void testNestLoop() {
+        SystemConfig.getInstance().setUseJoinStrategy(true);
+        SystemConfig.getInstance().setUseHashJoin(false);
+        // no statistics, the table with filter is the small one
+        JoinNode join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name where b.sharding_id = 1");
+        Assert.assertEquals(JoinNode.Strategy.NESTLOOP, join.getStrategy());
+        Assert.assertNotNull(join.getLeftNode().getNestLoopFilters());
+        Assert.assertNull(join.getRightNode().getNestLoopFilters());
+
+        setStatistics("autoslot", 1000000, "dn1", "dn2");
+        setStatistics("offer", 100, "dn1", "dn2");
+        join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.NESTLOOP, join.getStrategy());
+        Assert.assertNotNull(join.getLeftNode().getNestLoopFilters());
+        Assert.assertNull(join.getRightNode().getNestLoopFilters());
+        // the filter makes the big table small, the rows of the statistics are used instead of the filter
+        join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name where a.sharding_id = 1");
+        Assert.assertEquals(JoinNode.Strategy.NESTLOOP, join.getStrategy());
+        Assert.assertNotNull(join.getLeftNode().getNestLoopFilters());
+
+        // every row of the left table is needed by the left join, only the left one can be the small one
+        join = optimizeJoin("select * from autoslot a left join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.SORTMERGE, join.getStrategy());
+        join = optimizeJoin("select * from offer b left join autoslot a on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.NESTLOOP, join.getStrategy());
+        Assert.assertNotNull(join.getRightNode().getNestLoopFilters());
+
+        // the tables are nearly the same size
+        setStatistics("offer", 500000, "dn1", "dn2");
+        join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.SORTMERGE, join.getStrategy());
+    }
+
+    @Test
+    public void testHashJoin() {
+        SystemConfig.getInstance().setUseJoinStrategy(false);
+        SystemConfig.getInstance().setUseHashJoin(true);
+        SystemConfig.getInstance().setJoinMemSize(4);
+        setStatistics("autoslot", 1000000, "dn1", "dn2");
+        setStatistics("offer", 100, "dn1", "dn2");
+        // the hash table is built on the smaller table
+        JoinNode join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.HASH, join.getStrategy());
+        Assert.assertFalse(join.isHashBuildLeft());
+        join = optimizeJoin("select * from offer b join autoslot a on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.HASH, join.getStrategy());
+        Assert.assertTrue(join.isHashBuildLeft());
+
+        // the left join is always built on the right table
+        join = optimizeJoin("select * from autoslot a left join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.HASH, join.getStrategy());
+        Assert.assertFalse(join.isHashBuildLeft());
+        // which does not fit in joinMemSize
+        join = optimizeJoin("select * from offer b left join autoslot a on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.SORTMERGE, join.getStrategy());
+
+        setStatistics("offer", 1000000, "dn1", "dn2");
+        join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name");
+        Assert.assertEquals(JoinNode.Strategy.SORTMERGE, join.getStrategy());
+        // the filter makes the build side fit in joinMemSize
+        join = optimizeJoin("select * from autoslot a join offer b on a.name = b.name where b.sharding_id = 1 and b.id > 5");
+        Assert.assertEquals(JoinNode.Strategy.HASH, join.getStrategy());
+        Assert.assertFalse(join.isHashBuildLeft());
+    }
+
+    /**
+     * the join strategy is chosen before the order by is pushed down
+     */
+    @Test
+    public void testOrderByPushDown() {
+        SystemConfig.getInstance().setUseJoinStrategy(false);
+        String sql = "select * from autoslot a join offer b on a.name = b.name order by a.name limit 10";
+        SystemConfig.getInstance().setUseHashJoin(false);
+        JoinNode join = optimizeJoin(sql);
+        Assert.assertEquals(JoinNode.Strategy.SORTMERGE, join.getStrategy());
+        Assert.assertEquals("a.name", join.getLeftNode().getOrderBys().get(0).getItem().toString());
+        Assert.assertEquals("b.name", join.getRightNode().getOrderBys().get(0).getItem().toString());
+        Assert.assertTrue(join.isLeftOrderMatch());
+        Assert.assertTrue(join.isRightOrderMatch());
+        Assert.assertEquals(10, join.getLimitTo());
+
+        // the children of the hash join need not be ordered, the order by and limit are left to the join
+        setStatistics("autoslot", 1000000, "dn1", "dn2");
+        setStatistics("offer", 100, "dn1", "dn2");
+        SystemConfig.getInstance().setUseHashJoin(true);
+        join = optimizeJoin(sql);
+        Assert.assertEquals(JoinNode.Strategy.HASH, join.getStrategy());
+        Assert.assertTrue(join.getLeftNode().getOrderBys().isEmpty());
+        Assert.assertTrue(join.getRightNode().getOrderBys().isEmpty());
+        Assert.assertFalse(join.isLeftOrderMatch());
+        Assert.assertFalse(join.isRightOrderMatch());
+        Assert.assertEquals("a.name", join.getOrderBys().get(0).getItem().toString());
+        Assert.assertEquals(10, join.getLimitTo());
+    }
+
+    @Test
+    public void testLimitPushDown() {
+        SystemConfig.getInstance().setUseJoinStrategy(false);
+        SystemConfig.getInstance().setUseHashJoin(true);
+        setStatistics("autoslot", 1000000, "dn1", "dn2");
+        setStatistics("offer", 100, "dn1", "dn2");
+        PlanNode node = optimize("(select a.name from autoslot a join offer b on a.name = b.name) union all " +
+                "(select name from offer) limit 5, 10");
+        Assert.assertEquals(PlanNode.PlanNodeType.MERGE, node.type());
+        PlanNode join = node.getChildren().get(0);
+        Assert.assertEquals(JoinNode.Strategy.HASH, ((JoinNode) join).getStrategy());
+        Assert.assertEquals(0, join.getLimitFrom());
+        Assert.assertEquals(15, join.getLimitTo());
+        Assert.assertEquals(15, node.getChildren().get(1).getLimitTo());
+    }
+}
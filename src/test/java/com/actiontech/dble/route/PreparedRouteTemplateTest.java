@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route;
+
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.config.model.sharding.SchemaConfig;
+import com.actiontech.dble.config.model.sharding.table.BaseTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ChildTableConfig;
+import com.actiontech.dble.config.model.sharding.table.ShardingTableConfig;
+import com.actiontech.dble.meta.ProxyMetaManager;
+import com.actiontech.dble.meta.TableMeta;
+import com.actiontech.dble.route.function.PartitionByLong;
+import com.actiontech.dble.singleton.ProxyMeta;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PreparedRouteTemplateTest {
+    private static final String SCHEMA = "testdb";
+    private SchemaConfig schemaConfig;
+    private ProxyMetaManager oldManager;
+
+    @Before
+    public void setUp() {
+        PartitionByLong rule = new PartitionByLong();
+        rule.setPartitionCount("2");
+        rule.setPartitionLength("1");
+        rule.init();
+        List<String> nodes = Arrays.asList("dn1", "dn2");
+        ShardingTableConfig orders = new ShardingTableConfig("orders", 100, nodes, "SEQ_ID", rule, "ID", false);
+        ShardingTableConfig customer = new ShardingTableConfig("customer", 100, nodes, null, rule, "ID", false);
+        ChildTableConfig address = new ChildTableConfig("address", 100, nodes, customer, "CUSTOMER_CODE", "CODE", null);
+        Map<String, BaseTableConfig> tables = new HashMap<>();
+        tables.put("orders", orders);
+        tables.put("customer", customer);
+        tables.put("address", address);
+        schemaConfig = new SchemaConfig(SCHEMA, null, tables, 100);
+
+        oldManager = ProxyMeta.getInstance().getTmManager();
+        ProxyMetaManager manager = new ProxyMetaManager();
+        manager.createDatabase(SCHEMA);
+        manager.addTable(SCHEMA, tableMeta("orders"));
+        manager.addTable(SCHEMA, tableMeta("customer"));
+        ProxyMeta.getInstance().setTmManager(manager);
+    }
+
+    @After
+    public void tearDown() {
+        ProxyMeta.getInstance().setTmManager(oldManager);
+    }
+
+    private static TableMeta tableMeta(String table) {
+        TableMeta meta = new TableMeta();
+        meta.setTableName(table);
+        return meta;
+    }
+
+    private PreparedRouteTemplate build(String sql, int paramCount) {
+        return PreparedRouteTemplate.build(sql, paramCount, SCHEMA, schemaConfig);
+    }
+
+    @Test
+    public void testRouteByShardingParameter() {
+        PreparedRouteTemplate template = build("select * from orders where name = ? and id = ?", 2);
+        Assert.assertTrue(template.isSupported());
+        Assert.assertEquals("dn2", template.calculateShardingNode(Arrays.asList("a", "1")));
+        Assert.assertEquals("dn1", template.calculateShardingNode(Arrays.asList("a", "2")));
+
+        RouteResultset rrs = template.route("select * from orders where name = 'a' and id = 1", "dn2", true);
+        Assert.assertTrue(rrs.isFinishedRoute());
+        Assert.assertEquals(1, rrs.getNodes().length);
+        Assert.assertEquals("dn2", rrs.getNodes()[0].getName());
+        Assert.assertEquals("orders", rrs.getTable());
+
+        template = build("update customer set name = ? where id = ?", 2);
+        Assert.assertTrue(template.isSupported());
+        Assert.assertEquals("dn1", template.calculateShardingNode(Arrays.asList("a", "2")));
+    }
+
+    @Test
+    public void testRouteInsert() {
+        PreparedRouteTemplate template = build("insert into customer (name, id) values (?, ?)", 2);
+        Assert.assertTrue(template.isSupported());
+        Assert.assertEquals("dn2", template.calculateShardingNode(Arrays.asList("a", "1")));
+
+        Assert.assertFalse(build("insert into customer (id, name) values (?, ?) on duplicate key update name = ?", 3).isSupported());
+        Assert.assertFalse(build("insert into customer (id, name) values (?, ?), (?, ?)", 4).isSupported());
+        // the increment column is filled by the normal route
+        Assert.assertFalse(build("insert into orders (id, name) values (?, ?)", 2).isSupported());
+    }
+
+    @Test
+    public void testUnsupportedStatement() {
+        Assert.assertFalse(build("select * from orders where id = ? or id = ?", 2).isSupported());
+        Assert.assertFalse(build("select * from orders where name = ?", 1).isSupported());
+        Assert.assertFalse(build("update orders set id = ? where id = ?", 2).isSupported());
+        Assert.assertFalse(build("select * from not_exists where id = ?", 1).isSupported());
+        Assert.assertFalse(build("update address set name = ? where customer_code = ?", 2).isSupported());
+    }
+
+    @Test
+    public void testUpdateIncrementColumn() {
+        Assert.assertFalse(build("update orders set seq_id = ? where id = ?", 2).isSupported());
+        Assert.assertFalse(build("update orders set orders.`SEQ_ID` = ? where id = ?", 2).isSupported());
+        Assert.assertTrue(build("update orders set name = ? where id = ?", 2).isSupported());
+    }
+
+    @Test
+    public void testUpdateERParentColumn() {
+        Assert.assertFalse(build("update customer set code = ? where id = ?", 2).isSupported());
+        Assert.assertFalse(build("update customer set `Code` = ?, name = ? where id = ?", 3).isSupported());
+        Assert.assertTrue(build("update customer set name = ? where id = ?", 2).isSupported());
+    }
+
+    @Test
+    public void testInsertOfBatchTable() {
+        String sql = "insert into customer (id, name) values (?, ?)";
+        Assert.assertTrue(build(sql, 2).isSupported());
+        String oldTables = SystemConfig.getInstance().getInsertBatchTables();
+        SystemConfig.getInstance().setInsertBatchTables("testdb.customer");
+        try {
+            // left to the normal route which marks the insert to be coalesced
+            Assert.assertFalse(build(sql, 2).isSupported());
+        } finally {
+            SystemConfig.getInstance().setInsertBatchTables(oldTables);
+        }
+    }
+
+    @Test
+    public void testTableMetaNotExists() {
+        ProxyMeta.getInstance().getTmManager().dropTable(SCHEMA, "orders", null, true, false);
+        PreparedRouteTemplate template = build("select * from orders where id = ?", 1);
+        Assert.assertTrue(template.isSupported());
+        Assert.assertNull(template.calculateShardingNode(Collections.singletonList("1")));
+    }
+
+    @Test
+    public void testTableDoingDDL() throws Exception {
+        ProxyMeta.getInstance().getTmManager().addMetaLock(SCHEMA, "orders", "alter table orders add column c int");
+        try {
+            PreparedRouteTemplate template = build("select * from orders where id = ?", 1);
+            Assert.assertNull(template.calculateShardingNode(Collections.singletonList("1")));
+        } finally {
+            ProxyMeta.getInstance().getTmManager().removeMetaLock(SCHEMA, "orders");
+        }
+    }
+}
@@ -65,8 +65,9 @@ public class AutoPartitionByLongTest {
         res = autoPartition.calculateRange("-1", "10000000");
         Assert.assertEquals(3, res.length);
 
+        // -1 goes to the defaultNode 0, 0-100 is in node 0
         res = autoPartition.calculateRange("-1", "100");
-        Assert.assertEquals(3, res.length);
+        Assert.assertEquals(1, res.length);
 
         res = autoPartition.calculateRange("0", "100");
         Assert.assertEquals(1, res.length);
@@ -87,5 +88,27 @@ public class AutoPartitionByLongTest {
 
     }
 
+    @Test
+    public void testOpenRange() {
+        AutoPartitionByLong autoPartition = new AutoPartitionByLong();
+        autoPartition.setMapFile("autopartition-long.txt");
+        autoPartition.init();
 
-}
\ No newline at end of file
+        Assert.assertArrayEquals(new Integer[]{1, 2}, autoPartition.calculateOpenRange("2000009", null));
+        Assert.assertArrayEquals(new Integer[]{0}, autoPartition.calculateOpenRange(null, "100"));
+        Assert.assertArrayEquals(new Integer[0], autoPartition.calculateOpenRange("6000001", null));
+        Assert.assertArrayEquals(new Integer[0], autoPartition.calculateOpenRange("100", "1"));
+    }
+
+    @Test
+    public void testCalculateIndex() {
+        AutoPartitionByLong autoPartition = new AutoPartitionByLong();
+        autoPartition.setMapFile("autopartition-long.txt");
+        autoPartition.init();
+        Assert.assertEquals(0, autoPartition.calculateIndex("0"));
+        Assert.assertEquals(1, autoPartition.calculateIndex("2000001"));
+        Assert.assertEquals(2, autoPartition.calculateIndex("6000000"));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_NODE, autoPartition.calculateIndex("-1"));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_NODE, autoPartition.calculateIndex("6000001"));
+    }
+}
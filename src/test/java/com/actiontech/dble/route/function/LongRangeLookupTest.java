@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class LongRangeLookupTest {
+
+    @Test
+    public void testUnsortedRanges() {
+        LongRangeLookup lookup = new LongRangeLookup(new LongRange[]{
+                new LongRange(2, 200, 299), new LongRange(0, 0, 99), new LongRange(1, 100, 199), new LongRange(3, 500, 599)});
+        Assert.assertEquals(0, lookup.find(0));
+        Assert.assertEquals(0, lookup.find(99));
+        Assert.assertEquals(1, lookup.find(100));
+        Assert.assertEquals(2, lookup.find(299));
+        Assert.assertEquals(3, lookup.find(550));
+        Assert.assertEquals(-1, lookup.find(-1));
+        Assert.assertEquals(-1, lookup.find(300));
+        Assert.assertEquals(-1, lookup.find(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCollect() {
+        LongRangeLookup lookup = new LongRangeLookup(new LongRange[]{
+                new LongRange(2, 200, 299), new LongRange(0, 0, 99), new LongRange(1, 100, 199), new LongRange(3, 500, 599)});
+        Set<Integer> result = new TreeSet<>();
+        Assert.assertTrue(lookup.collect(50, 250, result));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(0, 1, 2)), result);
+
+        result.clear();
+        Assert.assertFalse(lookup.collect(250, 550, result));
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(2, 3)), result);
+
+        result.clear();
+        Assert.assertFalse(lookup.collect(300, 499, result));
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void testOverlappedRanges() {
+        // the first range in the rule file wins
+        LongRangeLookup lookup = new LongRangeLookup(new LongRange[]{
+                new LongRange(1, 50, 150), new LongRange(0, 0, 99)});
+        Assert.assertEquals(1, lookup.find(60));
+        Assert.assertEquals(0, lookup.find(10));
+        Assert.assertEquals(1, lookup.find(150));
+    }
+}
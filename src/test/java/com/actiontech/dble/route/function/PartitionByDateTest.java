@@ -154,4 +154,35 @@ public class PartitionByDateTest {
         partition.init();
         Assert.assertEquals(true, 0 == partition.calculate("2012-12-31"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculateRange() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd");
+        partition.setsBeginDate("2014-01-01");
+        partition.setsPartionDay("10");
+        partition.setDefaultNode(0);
+        partition.init();
+        Assert.assertArrayEquals(new Integer[]{1, 2}, partition.calculateRange("2014-01-11", "2014-01-30"));
+        Assert.assertArrayEquals(new Integer[]{0, 1}, partition.calculateRange("2013-12-01", "2014-01-11"));
+        Assert.assertArrayEquals(new Integer[]{0}, partition.calculateOpenRange(null, "2013-12-01"));
+        // no sEndDate, the partitions of column > value are not limited
+        Assert.assertArrayEquals(new Integer[0], partition.calculateOpenRange("2014-01-11", null));
+    }
+
+    @Test
+    public void testCalculateRangeCyclic() {
+        PartitionByDate partition = new PartitionByDate();
+
+        partition.setDateFormat("yyyy-MM-dd");
+        partition.setsBeginDate("2014-01-01");
+        partition.setsEndDate("2014-01-30");
+        partition.setsPartionDay("10");
+        partition.init();
+        Assert.assertArrayEquals(new Integer[]{2, 0}, partition.calculateRange("2014-01-21", "2014-02-09"));
+        Assert.assertArrayEquals(new Integer[]{0, 1, 2}, partition.calculateRange("2014-01-01", "2015-01-01"));
+        Assert.assertArrayEquals(new Integer[]{0, 1, 2}, partition.calculateOpenRange("2014-02-10", null));
+        Assert.assertArrayEquals(new Integer[0], partition.calculateRange("2014-02-10", "2014-01-01"));
+    }
+}
@@ -88,4 +88,24 @@ public class PartitionByFileMapTest {
         String idVal = "1000";
         Assert.assertEquals(true, 1 == partition.calculate(idVal));
     }
+
+    @Test
+    public void testCalculateIndex() {
+        PartitionByFileMap partition = new PartitionByFileMap();
+        partition.setMapFile("partition-hash-int.txt");
+        partition.init();
+        Assert.assertEquals(0, partition.calculateIndex("10000"));
+        Assert.assertEquals(1, partition.calculateIndex("10010"));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_NODE, partition.calculateIndex("10005"));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_NODE, partition.calculateIndex("-2147483648"));
+        Assert.assertEquals(AbstractPartitionAlgorithm.NO_NODE, partition.calculateIndex(null));
+
+        partition = new PartitionByFileMap();
+        partition.setMapFile("partition-hash-int.txt");
+        partition.setDefaultNode(1);
+        partition.init();
+        Assert.assertEquals(0, partition.calculateIndex("10000"));
+        Assert.assertEquals(1, partition.calculateIndex("2147483647"));
+        Assert.assertEquals(1, partition.calculateIndex("NULL"));
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.parser.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SqlTemplateUtilTest {
+
+    @Test
+    public void testNormalize() {
+        List<String> literals = new ArrayList<>();
+        Assert.assertEquals("select * from t1 where id = ? and name = ? limit ?",
+                SqlTemplateUtil.normalize("select * from t1 where id = 12 and name = 'abc' limit 10", literals));
+        Assert.assertEquals(Arrays.asList("12", "abc", "10"), literals);
+
+        literals.clear();
+        Assert.assertEquals("insert into `t 2`(id, \"c1\") values (?, ?)",
+                SqlTemplateUtil.normalize("insert into `t 2`(id, \"c1\") values (0, '')", literals));
+        Assert.assertEquals(Arrays.asList("0", ""), literals);
+    }
+
+    @Test
+    public void testKeepNotPlainLiteral() {
+        List<String> literals = new ArrayList<>();
+        Assert.assertEquals("select * from t where a = 1.5 and b = 007 and c = 0x1F and d = ?",
+                SqlTemplateUtil.normalize("select * from t where a = 1.5 and b = 007 and c = 0x1F and d = 9", literals));
+        Assert.assertEquals(Arrays.asList("9"), literals);
+    }
+
+    @Test
+    public void testNotNormalized() {
+        List<String> literals = new ArrayList<>();
+        Assert.assertNull(SqlTemplateUtil.normalize("select * from t where name = 'a\\'b'", literals));
+        Assert.assertNull(SqlTemplateUtil.normalize("select * from t where name = 'a''b'", literals));
+        Assert.assertNull(SqlTemplateUtil.normalize("select * from t where name = _utf8'a'", literals));
+        Assert.assertNull(SqlTemplateUtil.normalize("/*!dble:sql=select 1*/select * from t where id = 1", literals));
+        Assert.assertNull(SqlTemplateUtil.normalize("select * from t where id = ?", literals));
+        Assert.assertNull(SqlTemplateUtil.normalize("select * from t where name = 'a", literals));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.route.sequence.handler;
+
+import com.actiontech.dble.config.model.ClusterConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SequenceValTest {
+
+    @Test
+    public void testPrefetchedSegment() {
+        int old = ClusterConfig.getInstance().getSequencePrefetchPercent();
+        ClusterConfig.getInstance().setSequencePrefetchPercent(50);
+        try {
+            SequenceVal seqVal = new SequenceVal("`testdb`.`t`", "dn1");
+            seqVal.setNewCounter(1, 11);
+            Counter counter = seqVal.counter;
+            Assert.assertEquals(5, counter.prefetchValue);
+            for (long i = 1; i <= 10; i++) {
+                Assert.assertEquals(i, counter.getNext());
+            }
+            Assert.assertEquals(-1, counter.getNext());
+            Assert.assertFalse(seqVal.switchToPrefetched(counter));
+
+            Assert.assertTrue(seqVal.needPrefetch());
+            seqVal.addPrefetchedCounter(101, 102);
+            Assert.assertTrue(seqVal.switchToPrefetched(counter));
+            // switched by another caller already
+            Assert.assertTrue(seqVal.switchToPrefetched(counter));
+            Counter next = seqVal.counter;
+            Assert.assertEquals(101, next.prefetchValue);
+            Assert.assertEquals(101, next.getNext());
+            Assert.assertEquals(-1, next.getNext());
+        } finally {
+            ClusterConfig.getInstance().setSequencePrefetchPercent(old);
+        }
+    }
+
+    @Test
+    public void testNoPrefetch() {
+        SequenceVal seqVal = new SequenceVal("`testdb`.`t`", "dn1");
+        seqVal.setNewCounter(1, 3);
+        Assert.assertEquals(-1, seqVal.counter.prefetchValue);
+        Assert.assertEquals(1, seqVal.counter.getNext());
+        Assert.assertEquals(2, seqVal.counter.getNext());
+        Assert.assertEquals(-1, seqVal.counter.getNext());
+    }
+}
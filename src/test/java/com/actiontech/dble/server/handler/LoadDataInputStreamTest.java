@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.server.handler;
+
+import com.actiontech.dble.net.SocketWR;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class LoadDataInputStreamTest {
+
+    @Test
+    public void testReadAcrossPackets() throws IOException {
+        LoadDataInputStream in = new LoadDataInputStream(new CountingSocketWR(), 1024);
+        in.offer(packet("1\ta\n2"), 4, 5);
+        in.offer(packet("\tb\n"), 4, 3);
+        in.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[3];
+        int n;
+        while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        Assert.assertEquals("1\ta\n2\tb\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testClientIsPausedAndResumed() throws IOException {
+        CountingSocketWR socketWR = new CountingSocketWR();
+        LoadDataInputStream in = new LoadDataInputStream(socketWR, 10);
+        in.offer(packet("12345"), 4, 5);
+        Assert.assertFalse(in.isPaused());
+        in.offer(packet("67890"), 4, 5);
+        in.offer(packet("abcde"), 4, 5);
+        Assert.assertTrue(in.isPaused());
+        Assert.assertEquals(1, socketWR.disabled);
+
+        byte[] buffer = new byte[5];
+        Assert.assertEquals(5, in.read(buffer, 0, 5));
+        Assert.assertEquals(5, in.read(buffer, 0, 5));
+        Assert.assertFalse(in.isPaused());
+        Assert.assertEquals(1, socketWR.enabled);
+        Assert.assertEquals(5, in.getPendingSize());
+    }
+
+    @Test
+    public void testDiscard() {
+        CountingSocketWR socketWR = new CountingSocketWR();
+        LoadDataInputStream in = new LoadDataInputStream(socketWR, 4);
+        in.offer(packet("12345"), 4, 5);
+        in.discard();
+        Assert.assertEquals(1, socketWR.enabled);
+        in.offer(packet("67890"), 4, 5);
+        Assert.assertEquals(0, in.getPendingSize());
+        try {
+            in.read(new byte[5], 0, 5);
+            Assert.fail("the discarded data is read");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("discarded"));
+        }
+    }
+
+    private static byte[] packet(String data) {
+        byte[] body = data.getBytes(StandardCharsets.UTF_8);
+        byte[] packet = new byte[body.length + 4];
+        System.arraycopy(body, 0, packet, 4, body.length);
+        return packet;
+    }
+
+    private static final class CountingSocketWR extends SocketWR {
+        private int disabled = 0;
+        private int enabled = 0;
+
+        @Override
+        public void asyncRead() {
+        }
+
+        @Override
+        public void doNextWriteCheck() {
+        }
+
+        @Override
+        public boolean registerWrite(ByteBuffer buffer) {
+            return true;
+        }
+
+        @Override
+        public void disableRead() {
+            disabled++;
+        }
+
+        @Override
+        public void enableRead() {
+            enabled++;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.singleton;
+
+import com.actiontech.dble.backend.mysql.nio.handler.InsertBatchHandler;
+import com.actiontech.dble.config.model.SystemConfig;
+import com.actiontech.dble.route.RouteResultset;
+import com.actiontech.dble.route.RouteResultsetNode;
+import com.actiontech.dble.server.NonBlockingSession;
+import com.actiontech.dble.server.ServerConnection;
+import com.actiontech.dble.server.parser.ServerParse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InsertBatcherTest {
+    private static final String HEADER = "INSERT INTO orders (id, name)\nVALUES ";
+    private final List<TestBatch> created = new ArrayList<>();
+    private String oldTables;
+    private int oldWindow;
+    private int oldMaxRows;
+    private InsertBatcher batcher;
+
+    @Before
+    public void setUp() {
+        oldTables = SystemConfig.getInstance().getInsertBatchTables();
+        oldWindow = SystemConfig.getInstance().getInsertBatchWindow();
+        oldMaxRows = SystemConfig.getInstance().getInsertBatchMaxRows();
+        SystemConfig.getInstance().setInsertBatchTables("testdb.orders, testdb.Customer");
+        // the batches are flushed by insertBatchMaxRows only in the test
+        SystemConfig.getInstance().setInsertBatchWindow(600000000);
+        batcher = new InsertBatcher() {
+            @Override
+            InsertBatchHandler newBatch(String shardingNode, String insertHeader) {
+                TestBatch batch = new TestBatch(shardingNode, insertHeader);
+                created.add(batch);
+                return batch;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        SystemConfig.getInstance().setInsertBatchTables(oldTables);
+        SystemConfig.getInstance().setInsertBatchWindow(oldWindow);
+        SystemConfig.getInstance().setInsertBatchMaxRows(oldMaxRows);
+    }
+
+    @Test
+    public void testBatchTable() {
+        Assert.assertTrue(batcher.isBatchTable("testdb", "orders"));
+        Assert.assertTrue(batcher.isBatchTable("TESTDB", "customer"));
+        Assert.assertFalse(batcher.isBatchTable("testdb", "goods"));
+        SystemConfig.getInstance().setInsertBatchTables(null);
+        Assert.assertFalse(batcher.isBatchTable("testdb", "orders"));
+    }
+
+    @Test
+    public void testCoalesceByShardingNode() {
+        batcher.add(session(), route("dn1", "(1, 'a')"));
+        batcher.add(session(), route("dn1", "(3, 'b')"));
+        batcher.add(session(), route("dn2", "(2, 'c')"));
+
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals(2, created.get(0).size());
+        Assert.assertEquals(1, created.get(1).size());
+        Assert.assertEquals(0, created.get(0).executed);
+    }
+
+    @Test
+    public void testFlushByMaxRows() {
+        SystemConfig.getInstance().setInsertBatchMaxRows(2);
+        batcher.add(session(), route("dn1", "(1, 'a')"));
+        batcher.add(session(), route("dn1", "(3, 'b')"));
+        batcher.add(session(), route("dn1", "(5, 'c')"));
+
+        Assert.assertEquals(2, created.size());
+        Assert.assertEquals(1, created.get(0).executed);
+        Assert.assertEquals(2, created.get(0).size());
+        Assert.assertEquals(0, created.get(1).executed);
+        Assert.assertEquals(1, created.get(1).size());
+    }
+
+    private static NonBlockingSession session() {
+        return new NonBlockingSession(new ServerConnection());
+    }
+
+    private static RouteResultset route(String shardingNode, String row) {
+        RouteResultset rrs = new RouteResultset(HEADER + row, ServerParse.INSERT);
+        rrs.setNodes(new RouteResultsetNode[]{new RouteResultsetNode(shardingNode, ServerParse.INSERT, HEADER + row)});
+        rrs.setInsertBatch(HEADER, row);
+        return rrs;
+    }
+
+    private static class TestBatch extends InsertBatchHandler {
+        private int executed = 0;
+
+        TestBatch(String shardingNode, String insertHeader) {
+            super(shardingNode, insertHeader);
+        }
+
+        @Override
+        public void execute() {
+            executed++;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class CompressLZFTest {
+
+    @Test
+    public void testRepeatedData() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("row").append(i % 37).append(",shard_").append(i % 4).append(';');
+        }
+        byte[] in = sb.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[in.length];
+        int len = new CompressLZF().compress(in, in.length, out, 0, in.length - 1);
+        Assert.assertTrue(len > 0 && len < in.length / 2);
+        byte[] expanded = new byte[in.length];
+        CompressLZF.expand(out, 0, len, expanded, 0, in.length);
+        Assert.assertArrayEquals(in, expanded);
+    }
+
+    @Test
+    public void testRandomData() {
+        Random random = new Random(1);
+        CompressLZF compressor = new CompressLZF();
+        for (int size : new int[]{0, 1, 2, 3, 31, 32, 33, 1000, 65536}) {
+            byte[] in = new byte[size];
+            // small alphabet, so there are both literals and references
+            for (int i = 0; i < size; i++) {
+                in[i] = (byte) random.nextInt(4);
+            }
+            byte[] out = new byte[size + size / 32 + 8];
+            int len = compressor.compress(in, size, out, 0, out.length);
+            Assert.assertTrue(size == 0 || len > 0);
+            byte[] expanded = new byte[size];
+            CompressLZF.expand(out, 0, len, expanded, 0, size);
+            Assert.assertArrayEquals(in, expanded);
+        }
+    }
+
+    @Test
+    public void testIncompressible() {
+        byte[] in = new byte[1024];
+        new Random(2).nextBytes(in);
+        byte[] out = new byte[in.length];
+        Assert.assertEquals(0, new CompressLZF().compress(in, in.length, out, 0, in.length - 1));
+    }
+}
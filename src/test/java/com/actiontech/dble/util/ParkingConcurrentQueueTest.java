@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2016-2020 ActionTech.
+ * License: http://www.gnu.org/licenses/gpl.html GPL version 2 or higher.
+ */
+
+package com.actiontech.dble.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ParkingConcurrentQueueTest {
+
+    @Test
+    public void testTakeInOrder() {
+        ParkingConcurrentQueue<Integer> queue = new ParkingConcurrentQueue<>();
+        ParkingConcurrentQueue.Waiter waiter = new ParkingConcurrentQueue.Waiter();
+        queue.offer(1);
+        queue.offer(2);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertEquals(Integer.valueOf(1), queue.take(waiter));
+        Assert.assertEquals(Integer.valueOf(2), queue.take(waiter));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test
+    public void testParkedConsumerIsWokenUp() throws InterruptedException {
+        final ParkingConcurrentQueue<Long> queue = new ParkingConcurrentQueue<>();
+        final int count = 10000;
+        final AtomicLong sum = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ParkingConcurrentQueue.Waiter waiter = new ParkingConcurrentQueue.Waiter();
+                for (int i = 0; i < count; i++) {
+                    sum.addAndGet(queue.take(waiter));
+                }
+                done.countDown();
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+        for (long i = 1; i <= count; i++) {
+            queue.offer(i);
+            if (i % 1000 == 0) {
+                // let the consumer park
+                Thread.sleep(20);
+            }
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals((long) count * (count + 1) / 2, sum.get());
+    }
+}